@@ -0,0 +1,51 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * The entry point of the benchmark jar. It runs JMH with the given arguments and, unless a result
+ * format or file is given, writes the results in JSON to jmh-result.json, so that the results of
+ * successive runs can be compared by tools instead of read from the console.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class BenchmarkMain {
+
+	/** The default result format. */
+	private static final String RESULT_FORMAT = "json";
+
+	/** The default result file. */
+	private static final String RESULT_FILE = "jmh-result.json";
+
+	/**
+	 * Runs the benchmarks.
+	 *
+	 * @param args the arguments of JMH
+	 * @throws Exception if JMH fails
+	 */
+	public static void main(String[] args) throws Exception {
+		List<String> arguments = new ArrayList<String>(Arrays.asList(args));
+		if (!arguments.contains("-rf")) {
+			arguments.add("-rf");
+			arguments.add(RESULT_FORMAT);
+		}
+		if (!arguments.contains("-rff")) {
+			arguments.add("-rff");
+			arguments.add(RESULT_FILE);
+		}
+		Main.main(arguments.toArray(new String[arguments.size()]));
+	}
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.examples.power.planetlab.PlanetLabHelper;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationInterQuartileRange;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationLocalRegression;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationLocalRegressionRobust;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicy;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelation;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumUtilization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the optimization pass of the migration policies of the power-aware datacenters,
+ * i.e., the detection of the over- and under-utilized hosts, the selection of the VMs to migrate
+ * and their placement.
+ *
+ * The datacenter is the one of the PlanetLab examples, with synthetic PlanetLab-like workloads
+ * generated from a fixed seed: every VM has a base utilization with noise and occasional bursts,
+ * sampled every 5 minutes. The simulation is run with the migrations disabled for
+ * {@value #WARM_UP_INTERVALS} scheduling intervals to fill the utilization histories of the hosts
+ * and VMs, and the benchmark then computes the migrations of this state, which the policies
+ * restore after each pass.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MigrationBenchmark {
+
+	/** The number of scheduling intervals simulated before the benchmark. */
+	private static final int WARM_UP_INTERVALS = 48;
+
+	/** The number of samples of the workload files, one day of 5-minute samples. */
+	private static final int SAMPLES = 288;
+
+	/**
+	 * A datacenter with utilization histories, and its migration policy.
+	 */
+	@State(Scope.Thread)
+	public static class DatacenterState {
+
+		/** The VM allocation policy and its parameter, e.g., lr-1.2. */
+		@Param({ "thr-0.8", "iqr-1.5", "mad-2.5", "lr-1.2", "lrr-1.2" })
+		public String policy;
+
+		/** The VM selection policy: mmt, mc or mu. */
+		@Param({ "mmt", "mc" })
+		public String selection;
+
+		/** The number of hosts. */
+		@Param({ "100", "800" })
+		public int hosts;
+
+		/** The folder of the workload files. */
+		File workloadFolder;
+
+		/** The VM allocation policy. */
+		PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy;
+
+		/** The VMs. */
+		List<Vm> vmList;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			Log.disable();
+			int vms = hosts * 13 / 10;
+			workloadFolder = createWorkloads(vms, new Random(42));
+
+			CloudSim.init(1, Calendar.getInstance(), false);
+			DatacenterBroker broker = Helper.createBroker();
+			int brokerId = broker.getId();
+			List<Cloudlet> cloudletList = PlanetLabHelper.createCloudletListPlanetLab(
+					brokerId,
+					workloadFolder.getPath());
+			vmList = Helper.createVmList(brokerId, cloudletList.size());
+			List<PowerHost> hostList = Helper.createHostList(hosts);
+
+			vmAllocationPolicy = createVmAllocationPolicy(hostList, policy, selection);
+			PowerDatacenter datacenter = (PowerDatacenter) Helper.createDatacenter(
+					"Datacenter",
+					PowerDatacenter.class,
+					hostList,
+					vmAllocationPolicy);
+			datacenter.setDisableMigrations(true);
+
+			broker.submitVmList(vmList);
+			broker.submitCloudletList(cloudletList);
+			CloudSim.terminateSimulation(WARM_UP_INTERVALS * Constants.SCHEDULING_INTERVAL);
+			CloudSim.startSimulation();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			File[] files = workloadFolder.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			workloadFolder.delete();
+		}
+
+	}
+
+	/**
+	 * Computes the migrations of the VMs.
+	 *
+	 * @param state the datacenter
+	 * @return the migrations
+	 */
+	@Benchmark
+	public List<Map<String, Object>> optimizeAllocation(DatacenterState state) {
+		return state.vmAllocationPolicy.optimizeAllocation(state.vmList);
+	}
+
+	/**
+	 * Creates a VM allocation policy as the PlanetLab examples do.
+	 *
+	 * @param hostList the hosts
+	 * @param policy the name and parameter of the policy, e.g., lr-1.2
+	 * @param selection the name of the VM selection policy
+	 * @return the VM allocation policy
+	 */
+	static PowerVmAllocationPolicyMigrationAbstract createVmAllocationPolicy(
+			List<PowerHost> hostList,
+			String policy,
+			String selection) {
+		PowerVmSelectionPolicy vmSelectionPolicy;
+		if (selection.equals("mc")) {
+			vmSelectionPolicy = new PowerVmSelectionPolicyMaximumCorrelation(
+					new PowerVmSelectionPolicyMinimumMigrationTime());
+		} else if (selection.equals("mmt")) {
+			vmSelectionPolicy = new PowerVmSelectionPolicyMinimumMigrationTime();
+		} else if (selection.equals("mu")) {
+			vmSelectionPolicy = new PowerVmSelectionPolicyMinimumUtilization();
+		} else {
+			throw new IllegalArgumentException("Unknown VM selection policy: " + selection);
+		}
+
+		String name = policy.substring(0, policy.indexOf('-'));
+		double parameter = Double.parseDouble(policy.substring(policy.indexOf('-') + 1));
+		PowerVmAllocationPolicyMigrationAbstract fallback = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList,
+				vmSelectionPolicy,
+				0.7);
+		if (name.equals("thr")) {
+			return new PowerVmAllocationPolicyMigrationStaticThreshold(
+					hostList,
+					vmSelectionPolicy,
+					parameter);
+		} else if (name.equals("iqr")) {
+			return new PowerVmAllocationPolicyMigrationInterQuartileRange(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					fallback);
+		} else if (name.equals("mad")) {
+			return new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					fallback);
+		} else if (name.equals("lr")) {
+			return new PowerVmAllocationPolicyMigrationLocalRegression(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					Constants.SCHEDULING_INTERVAL,
+					fallback);
+		} else if (name.equals("lrr")) {
+			return new PowerVmAllocationPolicyMigrationLocalRegressionRobust(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					Constants.SCHEDULING_INTERVAL,
+					fallback);
+		}
+		throw new IllegalArgumentException("Unknown VM allocation policy: " + policy);
+	}
+
+	/**
+	 * Writes synthetic PlanetLab-like workload files, one per VM, with one CPU utilization
+	 * percentage per line.
+	 *
+	 * @param vms the number of VMs
+	 * @param random the generator
+	 * @return the folder of the files
+	 * @throws IOException if a file cannot be written
+	 */
+	static File createWorkloads(int vms, Random random) throws IOException {
+		File folder = File.createTempFile("planetlab", "");
+		if (!folder.delete() || !folder.mkdir()) {
+			throw new IOException("Cannot create the workload folder " + folder);
+		}
+		for (int i = 0; i < vms; i++) {
+			PrintWriter out = new PrintWriter(new File(folder, String.format("vm%05d", i)));
+			try {
+				double base = 5 + random.nextInt(50);
+				for (int j = 0; j < SAMPLES; j++) {
+					double utilization = base + 8 * random.nextGaussian();
+					if (random.nextInt(20) == 0) {
+						utilization += 30 + random.nextInt(40);
+					}
+					out.println((int) Math.max(0, Math.min(100, Math.round(utilization))));
+				}
+			} finally {
+				out.close();
+			}
+		}
+		return folder;
+	}
+
+}
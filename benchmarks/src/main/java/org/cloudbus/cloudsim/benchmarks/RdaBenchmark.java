@@ -0,0 +1,347 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.csg.cloudsim.rda.MaxMinAlgorithm;
+import ch.uzh.ifi.csg.cloudsim.rda.RdaCloudlet;
+import ch.uzh.ifi.csg.cloudsim.rda.RdaCloudletSchedulerDynamicWorkload;
+import ch.uzh.ifi.csg.cloudsim.rda.RdaVm;
+import ch.uzh.ifi.csg.cloudsim.rda.VmSchedulerDRF;
+import ch.uzh.ifi.csg.cloudsim.rda.VmSchedulerMaxMinFairShare;
+import ch.uzh.ifi.csg.cloudsim.rda.experiments.config.HostConfig;
+import ch.uzh.ifi.csg.cloudsim.rda.experiments.config.VmConfig;
+import ch.uzh.ifi.csg.cloudsim.rda.provisioners.BwProvisionerSimple;
+import ch.uzh.ifi.csg.cloudsim.rda.provisioners.RamProvisionerSimple;
+import ch.uzh.ifi.csg.cloudsim.rda.provisioners.StorageIOProvisionerSimple;
+import ch.uzh.ifi.csg.cloudsim.rda.useraware.VmSchedulerDRFMH;
+
+/**
+ * Benchmarks of the resource-demand-aware (RDA) scheduling: the Max-Min fair share algorithm,
+ * the allocation passes of the VM schedulers sharing a host among VMs whose demands exceed its
+ * capacity, and the update of the RDA cloudlet scheduler of a VM.
+ *
+ * The workloads are generated from a fixed seed, in the shape of the web server workloads of the
+ * experiments, so that the runs are comparable.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RdaBenchmark {
+
+	/** The number of updates of a cloudlet scheduler per invocation. */
+	private static final int UPDATES = 300;
+
+	/** The length of the workloads, in seconds. */
+	private static final int WORKLOAD_LENGTH = UPDATES + 60;
+
+	/** The interval at which scarce resources are rescheduled. */
+	private static final double SCARCITY_SCHEDULING_INTERVAL = 0.01;
+
+	/**
+	 * The demands of a number of customers for a resource exceeding the capacity.
+	 */
+	@State(Scope.Thread)
+	public static class DemandState {
+
+		/** The number of customers. */
+		@Param({ "4", "64" })
+		public int customers;
+
+		/** The demands of the customers. */
+		HashMap<String, Double> demands;
+
+		/** The capacity of the resource. */
+		double capacity;
+
+		/** The algorithm. */
+		MaxMinAlgorithm algorithm;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Random random = new Random(42);
+			demands = new HashMap<String, Double>();
+			double total = 0;
+			for (int i = 0; i < customers; i++) {
+				double demand = 50 + random.nextInt(450);
+				demands.put("user_" + i, demand);
+				total += demand;
+			}
+			capacity = total * 0.6;
+			algorithm = new MaxMinAlgorithm();
+		}
+
+	}
+
+	/**
+	 * Shares a scarce resource among the customers.
+	 *
+	 * @param state the demands
+	 * @return the allocation
+	 */
+	@Benchmark
+	public HashMap<String, Double> maxMinEvaluate(DemandState state) {
+		return state.algorithm.evaluate(state.demands, state.capacity);
+	}
+
+	/**
+	 * A host shared by VMs of several customers, each running a cloudlet.
+	 */
+	@State(Scope.Thread)
+	public static class HostState {
+
+		/** The VM scheduler: MMFS, DRF or DRFMH. */
+		@Param({ "MMFS", "DRF", "DRFMH" })
+		public String scheduler;
+
+		/** The number of VMs on the host. */
+		@Param({ "16", "128" })
+		public int vms;
+
+		/** The number of customers owning the VMs. */
+		@Param({ "4" })
+		public int customers;
+
+		/** The VM scheduler of the host. */
+		VmScheduler vmScheduler;
+
+		/** The VMs. */
+		List<Vm> vmList;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			Log.disable();
+			// half the CPU and 60% of the bandwidth the VMs demand, enough RAM and storage I/O
+			HostConfig hostConfig = new HostConfig(
+					Math.max(1, vms / 8),
+					1000,
+					vms * new VmConfig().getRam(),
+					1000000,
+					vms * 50,
+					vms * 200);
+			List<Pe> peList = hostConfig.getPeList();
+			RamProvisionerSimple ramProvisioner = new RamProvisionerSimple(hostConfig.getRam());
+			BwProvisionerSimple bwProvisioner = new BwProvisionerSimple(hostConfig.getBw());
+			StorageIOProvisionerSimple storageIOProvisioner = new StorageIOProvisionerSimple(
+					hostConfig.getStorageIO());
+			if (scheduler.equals("MMFS")) {
+				vmScheduler = new VmSchedulerMaxMinFairShare(
+						peList,
+						ramProvisioner,
+						bwProvisioner,
+						storageIOProvisioner);
+			} else if (scheduler.equals("DRF")) {
+				vmScheduler = new VmSchedulerDRF(
+						peList,
+						ramProvisioner,
+						bwProvisioner,
+						storageIOProvisioner);
+			} else if (scheduler.equals("DRFMH")) {
+				vmScheduler = new VmSchedulerDRFMH(
+						peList,
+						ramProvisioner,
+						bwProvisioner,
+						storageIOProvisioner);
+			} else {
+				throw new IllegalArgumentException("Unknown VM scheduler: " + scheduler);
+			}
+
+			Random random = new Random(42);
+			vmList = new ArrayList<Vm>();
+			for (int i = 0; i < vms; i++) {
+				RdaVm vm = createVm(i, new VmConfig());
+				vm.setCustomer("user_" + i % customers);
+				vm.setBeingInstantiated(false);
+				RdaCloudlet cloudlet = new RdaCloudlet(
+						i,
+						1,
+						300,
+						300,
+						generateWorkload(random, WORKLOAD_LENGTH),
+						false);
+				cloudlet.setVmId(i);
+				vm.getCloudletScheduler().cloudletSubmit(cloudlet);
+				vmList.add(vm);
+			}
+		}
+
+	}
+
+	/**
+	 * Allocates the resources of the host to its VMs.
+	 *
+	 * @param state the host
+	 * @return the VM scheduler
+	 */
+	@Benchmark
+	public VmScheduler allocateResourcesForAllVms(HostState state) {
+		if (state.vmScheduler instanceof VmSchedulerDRFMH) {
+			VmSchedulerDRFMH drfmh = (VmSchedulerDRFMH) state.vmScheduler;
+			Map<String, Float> priorities = drfmh.getUserPriorities(0, state.vmList);
+			drfmh.allocateResourcesForAllVms(0, state.vmList, priorities);
+		} else if (state.vmScheduler instanceof VmSchedulerDRF) {
+			((VmSchedulerDRF) state.vmScheduler).allocateResourcesForAllVms(0, state.vmList);
+		} else {
+			((VmSchedulerMaxMinFairShare) state.vmScheduler).allocateResourcesForAllVms(
+					0,
+					state.vmList);
+		}
+		return state.vmScheduler;
+	}
+
+	/**
+	 * The cloudlet scheduler of a VM running several cloudlets, rebuilt before every invocation,
+	 * since the updates consume the cloudlets.
+	 */
+	@State(Scope.Thread)
+	public static class CloudletSchedulerState {
+
+		/** The number of cloudlets on the VM. */
+		@Param({ "1", "16" })
+		public int cloudlets;
+
+		/** The workloads of the cloudlets. */
+		List<ArrayList<double[]>> workloads;
+
+		/** The MIPS share of the VM, less than the demand of the cloudlets. */
+		List<Double> mipsShare;
+
+		/** The bandwidth share of the VM. */
+		double bwShare;
+
+		/** The storage I/O share of the VM. */
+		double storageIOShare;
+
+		/** The cloudlet scheduler. */
+		RdaCloudletSchedulerDynamicWorkload cloudletScheduler;
+
+		@Setup(Level.Trial)
+		public void setUpWorkloads() {
+			Log.disable();
+			Random random = new Random(42);
+			workloads = new ArrayList<ArrayList<double[]>>();
+			for (int i = 0; i < cloudlets; i++) {
+				workloads.add(generateWorkload(random, WORKLOAD_LENGTH));
+			}
+			mipsShare = new ArrayList<Double>();
+			mipsShare.add(200.0 * cloudlets);
+			bwShare = 70.0 * cloudlets;
+			storageIOShare = 110.0 * cloudlets;
+		}
+
+		@Setup(Level.Invocation)
+		public void setUpScheduler() throws Exception {
+			cloudletScheduler = new RdaCloudletSchedulerDynamicWorkload(
+					300 * cloudlets,
+					1,
+					SCARCITY_SCHEDULING_INTERVAL);
+			for (int i = 0; i < cloudlets; i++) {
+				RdaCloudlet cloudlet = new RdaCloudlet(i, 1, 300, 300, workloads.get(i), false);
+				cloudletScheduler.cloudletSubmit(cloudlet);
+			}
+		}
+
+	}
+
+	/**
+	 * Updates the processing of the cloudlets every second for {@value #UPDATES} seconds.
+	 *
+	 * @param state the cloudlet scheduler
+	 * @return the time of the next event after the last update
+	 */
+	@Benchmark
+	@OperationsPerInvocation(UPDATES)
+	public double updateVmProcessing(CloudletSchedulerState state) {
+		double nextEvent = 0;
+		for (int time = 1; time <= UPDATES; time++) {
+			nextEvent = state.cloudletScheduler.updateVmProcessing(
+					time,
+					state.mipsShare,
+					state.bwShare,
+					state.storageIOShare);
+		}
+		return nextEvent;
+	}
+
+	/**
+	 * Creates a VM, as the experimental suite of the RDA schedulers does.
+	 *
+	 * @param vmId the VM id
+	 * @param vmConfig the configuration of the VM
+	 * @return the VM
+	 */
+	static RdaVm createVm(int vmId, VmConfig vmConfig) {
+		return new RdaVm(
+				vmId,
+				0,
+				vmConfig.getMips(),
+				vmConfig.getPeCnt(),
+				vmConfig.getRam(),
+				vmConfig.getBw(),
+				vmConfig.getSize(),
+				1,
+				vmConfig.getVmm(),
+				new RdaCloudletSchedulerDynamicWorkload(
+						vmConfig.getMips(),
+						vmConfig.getPeCnt(),
+						SCARCITY_SCHEDULING_INTERVAL),
+				1);
+	}
+
+	/**
+	 * Generates the workload of a web server, a noisy sine of the CPU demand with the RAM,
+	 * bandwidth and storage I/O following it, one sample per second.
+	 *
+	 * @param random the generator
+	 * @param length the length of the workload, in seconds
+	 * @return the samples of CPU, RAM, bandwidth and storage I/O
+	 */
+	static ArrayList<double[]> generateWorkload(Random random, int length) {
+		ArrayList<double[]> workload = new ArrayList<double[]>();
+		int degree = random.nextInt(360);
+		for (int i = 0; i <= length; i++) {
+			double deviation = Math.sin(Math.toRadians(degree));
+			double mips = Math.max(1, Math.round(250 + 125 * deviation + 10 * random.nextGaussian()));
+			double ram = 260 + 50 * deviation;
+			double[] sample = { mips, ram, mips / 3.0, mips / 2.0 };
+			workload.add(sample);
+			degree += random.nextInt(3);
+		}
+		return workload;
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.util.WorkloadFileReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the parsing of workload traces in the Standard Workload Format by
+ * {@link WorkloadFileReader}, from a plain and from a gzipped file of synthetic jobs generated from
+ * a fixed seed.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkloadFileReaderBenchmark {
+
+	/** The rating of the PEs, in MIPS. */
+	private static final int RATING = 1000;
+
+	/**
+	 * A trace file of synthetic jobs.
+	 */
+	@State(Scope.Benchmark)
+	public static class TraceState {
+
+		/** The number of jobs of the trace. */
+		@Param({ "10000", "100000" })
+		public int jobs;
+
+		/** The format of the file: swf or gz. */
+		@Param({ "swf", "gz" })
+		public String format;
+
+		/** The trace file. */
+		File trace;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			Log.disable();
+			trace = File.createTempFile("workload", "." + format);
+			OutputStream stream = new FileOutputStream(trace);
+			if (format.equals("gz")) {
+				stream = new GZIPOutputStream(stream);
+			}
+			PrintWriter out = new PrintWriter(new OutputStreamWriter(stream, "US-ASCII"));
+			try {
+				writeTrace(out, jobs, new Random(42));
+			} finally {
+				out.close();
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			trace.delete();
+		}
+
+	}
+
+	/**
+	 * Reads the jobs of the trace.
+	 *
+	 * @param state the trace
+	 * @return the cloudlets of the jobs
+	 * @throws IOException if the trace cannot be found
+	 */
+	@Benchmark
+	public List<Cloudlet> generateWorkload(TraceState state) throws IOException {
+		return new WorkloadFileReader(state.trace.getPath(), RATING).generateWorkload();
+	}
+
+	/**
+	 * Writes a trace of synthetic jobs with the 18 fields of the Standard Workload Format, preceded
+	 * by a header of comments.
+	 *
+	 * @param out the writer
+	 * @param jobs the number of jobs
+	 * @param random the generator
+	 */
+	static void writeTrace(PrintWriter out, int jobs, Random random) {
+		out.println("; Version: 2.2");
+		out.println("; Computer: synthetic");
+		out.println("; MaxJobs: " + jobs);
+		out.println("; MaxProcs: 1024");
+		long submitTime = 0;
+		for (int job = 1; job <= jobs; job++) {
+			submitTime += random.nextInt(120);
+			int waitTime = random.nextInt(3600);
+			int runTime = 1 + (int) (-Math.log(1.0 - random.nextDouble()) * 1800);
+			int processors = 1 << random.nextInt(7);
+			int requestedTime = runTime + random.nextInt(3600);
+			int status = random.nextInt(10) == 0 ? 0 : 1;
+			int user = 1 + random.nextInt(200);
+			out.println(job + " " + submitTime + " " + waitTime + " " + runTime + " " + processors
+					+ " -1 -1 " + processors + " " + requestedTime + " -1 " + status + " " + user
+					+ " " + (1 + user % 10) + " -1 " + (1 + random.nextInt(4)) + " 1 -1 -1");
+		}
+	}
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Calendar;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the simulation engine: the throughput of the {@link FutureQueue} under the hold
+ * model, i.e., removing the first event and inserting a later one at a constant queue size, and
+ * the throughput of {@link CloudSim#runClockTick()} on a simulation of entities passing events to
+ * each other, which adds the cost of the deferred queue and of the dispatching to the entities.
+ *
+ * The benchmark is in the package of the engine, because the events are created with the package
+ * constructors of {@link SimEvent}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+	/** The tag of the events passed between the entities. */
+	private static final int PING = 1;
+
+	/**
+	 * A future queue holding a constant number of events.
+	 */
+	@State(Scope.Thread)
+	public static class QueueState {
+
+		/** The number of events in the queue. */
+		@Param({ "1000", "100000" })
+		public int size;
+
+		/** The queue. */
+		FutureQueue queue;
+
+		/** The generator of the delays of the new events. */
+		Random random;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			random = new Random(42);
+			queue = new FutureQueue();
+			for (int i = 0; i < size; i++) {
+				queue.addEvent(new SimEvent(SimEvent.SEND, nextDelay(), 0, 0, PING, null));
+			}
+		}
+
+		/**
+		 * Gets the delay of a new event, exponentially distributed with a mean of 1.
+		 *
+		 * @return the delay
+		 */
+		double nextDelay() {
+			return -Math.log(1.0 - random.nextDouble());
+		}
+
+	}
+
+	/**
+	 * Removes the first event of the queue and inserts a new event after it.
+	 *
+	 * @param state the queue
+	 * @return the removed event
+	 */
+	@Benchmark
+	public SimEvent futureQueueHold(QueueState state) {
+		SimEvent first = state.queue.pollFirst();
+		state.queue.addEvent(new SimEvent(
+				SimEvent.SEND,
+				first.eventTime() + state.nextDelay(),
+				0,
+				0,
+				PING,
+				null));
+		return first;
+	}
+
+	/**
+	 * A simulation of entities, each passing every event it receives to a random entity after a
+	 * random delay, so that the number of pending events stays equal to the number of entities.
+	 */
+	@State(Scope.Thread)
+	public static class SimulationState {
+
+		/** The number of entities. */
+		@Param({ "16", "1024" })
+		public int entities;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Log.disable();
+			CloudSim.init(1, Calendar.getInstance(), false);
+			Random random = new Random(42);
+			int firstId = -1;
+			for (int i = 0; i < entities; i++) {
+				PingEntity entity = new PingEntity("Ping_" + i, random.nextLong());
+				if (i == 0) {
+					firstId = entity.getId();
+				}
+			}
+			for (SimEntity entity : CloudSim.getEntityList()) {
+				if (entity instanceof PingEntity) {
+					((PingEntity) entity).setPeers(firstId, entities);
+				}
+			}
+			CloudSim.runStart();
+		}
+
+	}
+
+	/**
+	 * Runs one tick of the engine, i.e., processes the events of the earliest time.
+	 *
+	 * @param state the simulation
+	 * @return whether the future queue was empty
+	 */
+	@Benchmark
+	public boolean runClockTick(SimulationState state) {
+		return CloudSim.runClockTick();
+	}
+
+	/**
+	 * An entity passing every event it receives to a random entity of the simulation.
+	 */
+	static class PingEntity extends SimEntity {
+
+		/** The generator of the destinations and delays. */
+		private final Random random;
+
+		/** The id of the first entity passing events. */
+		private int firstPeerId;
+
+		/** The number of entities passing events. */
+		private int peers;
+
+		/**
+		 * Instantiates a new entity.
+		 *
+		 * @param name the name
+		 * @param seed the seed of the generator of the destinations and delays
+		 */
+		PingEntity(String name, long seed) {
+			super(name);
+			random = new Random(seed);
+		}
+
+		/**
+		 * Sets the entities events are passed to, whose ids are consecutive.
+		 *
+		 * @param firstPeerId the id of the first entity
+		 * @param peers the number of entities
+		 */
+		void setPeers(int firstPeerId, int peers) {
+			this.firstPeerId = firstPeerId;
+			this.peers = peers;
+		}
+
+		@Override
+		public void startEntity() {
+			pass();
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			pass();
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+		/**
+		 * Sends an event to a random entity after a random delay.
+		 */
+		private void pass() {
+			schedule(firstPeerId + random.nextInt(peers), -Math.log(1.0 - random.nextDouble()), PING);
+		}
+
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Calendar;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * A benchmark of the garbage collection pressure of the event path, with and without the event
+ * pooling of {@link CloudSim#setEventPooling(boolean)}. Pairs of entities exchange acknowledgements
+ * carrying three integers, as the datacenters and brokers do, so that every processed event
+ * triggers a new one. The wall time, the number of collections and the collection time are
+ * printed for each mode.
+ *
+ * Usage: EventPoolingBenchmark [events per pair] [pairs] [rounds]
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class EventPoolingBenchmark {
+
+	/** The tag of the exchanged events. */
+	private static final int PING = 1000000;
+
+	/**
+	 * An entity answering every event it receives until it has received a given number of events.
+	 */
+	private static class PingEntity extends SimEntity {
+
+		private final int events;
+
+		private int peerId = -1;
+
+		private int received;
+
+		private long checksum;
+
+		public PingEntity(String name, int events) {
+			super(name);
+			this.events = events;
+		}
+
+		@Override
+		public void startEntity() {
+			if (peerId >= 0) {
+				send(peerId, 1.0, PING, getId(), 0, 0);
+			}
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (ev.getTag() != PING) {
+				return;
+			}
+			int sender = ev.getIntData(0);
+			int count = ev.getIntData(1);
+			checksum += count;
+			if (++received < events) {
+				send(sender, 1.0, PING, getId(), count + 1, received);
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+	}
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the events per pair, the pairs and the rounds
+	 */
+	public static void main(String[] args) {
+		int events = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+		Log.disable();
+		for (int round = 0; round < rounds; round++) {
+			run(false, events, pairs);
+			run(true, events, pairs);
+		}
+	}
+
+	/**
+	 * Runs a simulation and prints its wall time and garbage collections.
+	 *
+	 * @param pooling whether the events are recycled
+	 * @param events the events received by each entity
+	 * @param pairs the pairs of entities
+	 */
+	private static void run(boolean pooling, int events, int pairs) {
+		System.gc();
+		long collections = getCollectionCount();
+		long collectionTime = getCollectionTime();
+		long start = System.nanoTime();
+
+		CloudSim.init(1, Calendar.getInstance(), false);
+		CloudSim.setEventPooling(pooling);
+		PingEntity[] entities = new PingEntity[2 * pairs];
+		for (int i = 0; i < pairs; i++) {
+			entities[2 * i] = new PingEntity("Ping_" + i, events);
+			entities[2 * i + 1] = new PingEntity("Pong_" + i, events);
+			entities[2 * i].peerId = entities[2 * i + 1].getId();
+		}
+		CloudSim.startSimulation();
+		CloudSim.setEventPooling(false);
+
+		long wallTime = (System.nanoTime() - start) / 1000000;
+		long checksum = 0;
+		for (PingEntity entity : entities) {
+			checksum += entity.checksum;
+		}
+		System.out.printf(
+				"pooling=%-5s events=%d wall=%dms gc=%d gcTime=%dms checksum=%d%n",
+				pooling,
+				2L * events * pairs,
+				wallTime,
+				getCollectionCount() - collections,
+				getCollectionTime() - collectionTime,
+				checksum);
+	}
+
+	/**
+	 * Gets the total number of garbage collections.
+	 *
+	 * @return the number of collections
+	 */
+	private static long getCollectionCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(bean.getCollectionCount(), 0);
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the total time spent in garbage collections.
+	 *
+	 * @return the collection time in milliseconds
+	 */
+	private static long getCollectionTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(bean.getCollectionTime(), 0);
+		}
+		return time;
+	}
+
+}
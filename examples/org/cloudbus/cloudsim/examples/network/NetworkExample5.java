@@ -0,0 +1,187 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples.network;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.NetworkTopology;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * An example checking that a simulation with a BRITE network topology gives the same results
+ * when it runs in parallel as when it runs sequentially. Three datacenters and two users are
+ * mapped to the nodes of the topology, in which every user is linked to every datacenter with the
+ * same delay, so that the datacenters receive and answer requests at the same simulation times.
+ * The delays are computed lazily with a single cached row, so the logical processes of the
+ * parallel run keep requesting and evicting rows of delays concurrently.
+ */
+public class NetworkExample5 {
+
+	/** The number of threads of the parallel run. */
+	private static final int THREADS = 4;
+
+	/**
+	 * Creates main() to run this example
+	 */
+	public static void main(String[] args) {
+
+		Log.printLine("Starting NetworkExample5...");
+
+		try {
+			// the simulation is run twice, so its own output is not printed
+			Log.disable();
+			List<String> sequential = runSimulation(0);
+			List<String> parallel = runSimulation(THREADS);
+			Log.enable();
+
+			Log.printLine("Sequential run: " + sequential.size() + " cloudlets");
+			Log.printLine("Parallel run with " + THREADS + " threads: " + parallel.size() + " cloudlets");
+			int differences = 0;
+			for (int i = 0; i < Math.max(sequential.size(), parallel.size()); i++) {
+				String expected = i < sequential.size() ? sequential.get(i) : "-";
+				String actual = i < parallel.size() ? parallel.get(i) : "-";
+				if (!expected.equals(actual)) {
+					Log.printLine("Sequential: " + expected + ", parallel: " + actual);
+					differences++;
+				}
+			}
+			if (differences == 0) {
+				Log.printLine("The parallel run gives the same results as the sequential one");
+			} else {
+				Log.printLine(differences + " cloudlets differ between the runs");
+			}
+
+			Log.printLine("NetworkExample5 finished!");
+		}
+		catch (Exception e) {
+			Log.enable();
+			e.printStackTrace();
+			Log.printLine("The simulation has been terminated due to an unexpected error");
+		}
+	}
+
+	/**
+	 * Runs the simulation.
+	 *
+	 * @param threads the number of threads, 0 to run sequentially
+	 * @return the results of the cloudlets, one line per cloudlet
+	 */
+	private static List<String> runSimulation(int threads) throws Exception {
+		int num_user = 2;   // number of cloud users
+		Calendar calendar = Calendar.getInstance();
+		boolean trace_flag = false;  // mean trace events
+
+		CloudSim.init(num_user, calendar, trace_flag);
+		CloudSim.setParallelExecution(threads);
+
+		Datacenter[] datacenters = new Datacenter[3];
+		for (int i = 0; i < datacenters.length; i++) {
+			datacenters[i] = createDatacenter("Datacenter_" + i);
+		}
+
+		DatacenterBroker[] brokers = new DatacenterBroker[2];
+		int vmid = 0;
+		int id = 0;
+		for (int i = 0; i < brokers.length; i++) {
+			brokers[i] = new DatacenterBroker("Broker" + i);
+			int brokerId = brokers[i].getId();
+
+			// three VMs per user: a datacenter only fits two of them
+			List<Vm> vmlist = new ArrayList<Vm>();
+			for (int v = 0; v < 3; v++) {
+				vmlist.add(new Vm(vmid++, brokerId, 250, 1, 512, 1000, 10000, "Xen",
+						new CloudletSchedulerTimeShared()));
+			}
+			brokers[i].submitVmList(vmlist);
+
+			List<Cloudlet> cloudletList = new ArrayList<Cloudlet>();
+			UtilizationModel utilizationModel = new UtilizationModelFull();
+			for (int c = 0; c < 12; c++) {
+				Cloudlet cloudlet = new Cloudlet(id++, 10000 + 2500 * c, 1, 300, 300,
+						utilizationModel, utilizationModel, utilizationModel);
+				cloudlet.setUserId(brokerId);
+				cloudletList.add(cloudlet);
+			}
+			brokers[i].submitCloudletList(cloudletList);
+		}
+
+		// load the network topology file, with the delays computed lazily
+		NetworkTopology.setLazyDelayMatrix(1);
+		NetworkTopology.buildNetworkTopology("topology_star.brite");
+
+		// the datacenters correspond to BRITE nodes 0 to 2, the brokers to nodes 3 and 4
+		for (int i = 0; i < datacenters.length; i++) {
+			NetworkTopology.mapNode(datacenters[i].getId(), i);
+		}
+		for (int i = 0; i < brokers.length; i++) {
+			NetworkTopology.mapNode(brokers[i].getId(), datacenters.length + i);
+		}
+
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+		CloudSim.setParallelExecution(0);
+
+		List<String> results = new ArrayList<String>();
+		for (DatacenterBroker broker : brokers) {
+			for (Cloudlet cloudlet : broker.getCloudletReceivedList()) {
+				results.add("cloudlet " + cloudlet.getCloudletId() + " of " + broker.getName()
+						+ ": status " + cloudlet.getCloudletStatusString() + ", datacenter "
+						+ cloudlet.getResourceId() + ", VM " + cloudlet.getVmId() + ", start "
+						+ cloudlet.getExecStartTime() + ", finish " + cloudlet.getFinishTime());
+			}
+		}
+		return results;
+	}
+
+	private static Datacenter createDatacenter(String name) throws Exception {
+		// one host with two cores of 1000 MIPS
+		List<Pe> peList = new ArrayList<Pe>();
+		peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+		peList.add(new Pe(1, new PeProvisionerSimple(1000)));
+
+		List<Host> hostList = new ArrayList<Host>();
+		hostList.add(
+				new Host(
+					0,
+					new RamProvisionerSimple(2048),
+					new BwProvisionerSimple(10000),
+					1000000,
+					peList,
+					new VmSchedulerTimeShared(peList)
+				)
+			);
+
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+				"x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+
+		return new Datacenter(name, characteristics, new VmAllocationPolicySimple(hostList),
+				new LinkedList<Storage>(), 0);
+	}
+}
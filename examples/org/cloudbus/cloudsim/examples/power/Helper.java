@@ -20,6 +20,7 @@ import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.HostStateHistoryEntry;
+import org.cloudbus.cloudsim.HostStateMetrics;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Storage;
@@ -27,6 +28,7 @@ import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
 import org.cloudbus.cloudsim.VmStateHistoryEntry;
+import org.cloudbus.cloudsim.VmStateMetrics;
 import org.cloudbus.cloudsim.power.PowerDatacenter;
 import org.cloudbus.cloudsim.power.PowerDatacenterBroker;
 import org.cloudbus.cloudsim.power.PowerHost;
@@ -485,7 +487,7 @@ public class Helper {
 	}
 
 	/**
-	 * Gets the sla time per active host.
+	 * Gets the sla time per active host from the state metrics of the hosts.
 	 * 
 	 * @param hosts the hosts
 	 * @return the sla time per active host
@@ -495,33 +497,16 @@ public class Helper {
 		double totalTime = 0;
 
 		for (Host _host : hosts) {
-			HostDynamicWorkload host = (HostDynamicWorkload) _host;
-			double previousTime = -1;
-			double previousAllocated = 0;
-			double previousRequested = 0;
-			boolean previousIsActive = true;
-
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
-				if (previousTime != -1 && previousIsActive) {
-					double timeDiff = entry.getTime() - previousTime;
-					totalTime += timeDiff;
-					if (previousAllocated < previousRequested) {
-						slaViolationTimePerHost += timeDiff;
-					}
-				}
-
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsActive = entry.isActive();
-			}
+			HostStateMetrics metrics = ((HostDynamicWorkload) _host).getStateMetrics();
+			slaViolationTimePerHost += metrics.getActiveSlaViolationTime();
+			totalTime += metrics.getActiveTime();
 		}
 
 		return slaViolationTimePerHost / totalTime;
 	}
 
 	/**
-	 * Gets the sla time per host.
+	 * Gets the sla time per host from the state metrics of the hosts.
 	 * 
 	 * @param hosts the hosts
 	 * @return the sla time per host
@@ -531,89 +516,25 @@ public class Helper {
 		double totalTime = 0;
 
 		for (Host _host : hosts) {
-			HostDynamicWorkload host = (HostDynamicWorkload) _host;
-			double previousTime = -1;
-			double previousAllocated = 0;
-			double previousRequested = 0;
-
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
-				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
-					totalTime += timeDiff;
-					if (previousAllocated < previousRequested) {
-						slaViolationTimePerHost += timeDiff;
-					}
-				}
-
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-			}
+			HostStateMetrics metrics = ((HostDynamicWorkload) _host).getStateMetrics();
+			slaViolationTimePerHost += metrics.getSlaViolationTime();
+			totalTime += metrics.getTotalTime();
 		}
 
 		return slaViolationTimePerHost / totalTime;
 	}
 
 	/**
-	 * Gets the sla metrics.
+	 * Gets the sla metrics from the state metrics of the vms.
 	 * 
 	 * @param vms the vms
 	 * @return the sla metrics
 	 */
 	protected static Map<String, Double> getSlaMetrics(List<Vm> vms) {
 		Map<String, Double> metrics = new HashMap<String, Double>();
-		List<Double> slaViolation = new LinkedList<Double>();
-		double totalAllocated = 0;
-		double totalRequested = 0;
-		double totalUnderAllocatedDueToMigration = 0;
-
-		for (Vm vm : vms) {
-			double vmTotalAllocated = 0;
-			double vmTotalRequested = 0;
-			double vmUnderAllocatedDueToMigration = 0;
-			double previousTime = -1;
-			double previousAllocated = 0;
-			double previousRequested = 0;
-			boolean previousIsInMigration = false;
-
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
-				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
-					vmTotalAllocated += previousAllocated * timeDiff;
-					vmTotalRequested += previousRequested * timeDiff;
-
-					if (previousAllocated < previousRequested) {
-						slaViolation.add((previousRequested - previousAllocated) / previousRequested);
-						if (previousIsInMigration) {
-							vmUnderAllocatedDueToMigration += (previousRequested - previousAllocated)
-									* timeDiff;
-						}
-					}
-				}
-
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsInMigration = entry.isInMigration();
-			}
-
-			totalAllocated += vmTotalAllocated;
-			totalRequested += vmTotalRequested;
-			totalUnderAllocatedDueToMigration += vmUnderAllocatedDueToMigration;
-		}
-
-		metrics.put("overall", (totalRequested - totalAllocated) / totalRequested);
-		if (slaViolation.isEmpty()) {
-			metrics.put("average", 0.);
-		} else {
-			metrics.put("average", MathUtil.mean(slaViolation));
-		}
-		metrics.put("underallocated_migration", totalUnderAllocatedDueToMigration / totalRequested);
-		// metrics.put("sla_time_per_vm_with_migration", slaViolationTimePerVmWithMigration /
-		// totalTime);
-		// metrics.put("sla_time_per_vm_without_migration", slaViolationTimePerVmWithoutMigration /
-		// totalTime);
-
+		metrics.put("overall", VmStateMetrics.getOverallSlaViolation(vms));
+		metrics.put("average", VmStateMetrics.getAverageSlaViolation(vms));
+		metrics.put("underallocated_migration", VmStateMetrics.getPerformanceDegradationDueToMigration(vms));
 		return metrics;
 	}
 
@@ -9,6 +9,7 @@ import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.Consts;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.MipsShare;
 import org.cloudbus.cloudsim.ResCloudlet;
 import org.cloudbus.cloudsim.core.CloudSim;
 
@@ -83,7 +84,8 @@ public class RdaCloudletSchedulerDynamicWorkload extends
 	 */
 	public double updateVmProcessing(double currentTime,
 			List<Double> mipsShare, double bwShare, double storageIOShare) {
-		setCurrentMipsShare(mipsShare);
+		MipsShare share = MipsShare.valueOf(mipsShare);
+		setCurrentMipsShare(share);
 		double nextEvent = Double.MAX_VALUE;
 
 		double timeSpan = getTimeSpan(currentTime);
@@ -112,10 +114,7 @@ public class RdaCloudletSchedulerDynamicWorkload extends
 		Log.printLine("totalRequestedStorageIO: " + totalRequestedStorageIO
 				+ ", storageShare: " + storageIOShare);
 
-		double availableMipsShare = 0;
-		for (Double d : mipsShare) {
-			availableMipsShare += d.doubleValue();
-		}
+		double availableMipsShare = share.getTotalMips();
 
 		double mipsDampingFactor = 1;
 		if (availableMipsShare < totalRequestedMips) {
@@ -336,6 +335,7 @@ public class RdaCloudletSchedulerDynamicWorkload extends
 		rcl.setCloudletStatus(Cloudlet.SUCCESS);
 		rcl.finalizeCloudlet();
 		getCloudletFinishedList().add(rcl);
+		notifyCloudletFinished();
 	}
 
 	@Override
@@ -504,14 +504,8 @@ public class RdaCloudletSchedulerDynamicWorkload extends
 			totalMips += cloudlet.getRequestedUtilizationOfCpu(0.0);
 		}
 
-		List<Double> currentMips = new ArrayList<Double>();
-		double mipsForPe = totalMips / getNumberOfPes();
-
-		for (int i = 0; i < getNumberOfPes(); i++) {
-			currentMips.add(mipsForPe);
-		}
-
-		return currentMips;
+		return MipsShare.uniform(getNumberOfPes(), totalMips
+				/ getNumberOfPes());
 	}
 
 	/**
@@ -529,14 +523,8 @@ public class RdaCloudletSchedulerDynamicWorkload extends
 			totalMips += cloudlet.getRequestedUtilizationOfCpu(timeSpan);
 		}
 
-		List<Double> currentMips = new ArrayList<Double>();
-		double mipsForPe = totalMips / getNumberOfPes();
-
-		for (int i = 0; i < getNumberOfPes(); i++) {
-			currentMips.add(mipsForPe);
-		}
-
-		return currentMips;
+		return MipsShare.uniform(getNumberOfPes(), totalMips
+				/ getNumberOfPes());
 	}
 
 	@Override
@@ -550,9 +538,10 @@ public class RdaCloudletSchedulerDynamicWorkload extends
 			List<Double> mipsShare) {
 		double totalCurrentMips = 0.0;
 		if (mipsShare != null) {
+			MipsShare share = MipsShare.valueOf(mipsShare);
 			int neededPEs = rcl.getNumberOfPes();
-			for (double mips : mipsShare) {
-				totalCurrentMips += mips;
+			for (int i = 0; i < share.size(); i++) {
+				totalCurrentMips += share.getMips(i);
 				neededPEs--;
 				if (neededPEs <= 0) {
 					break;
@@ -590,8 +579,9 @@ public class RdaCloudletSchedulerDynamicWorkload extends
 	 */
 	public int getTotalCurrentMips() {
 		int totalCurrentMips = 0;
-		for (double mips : getCurrentMipsShare()) {
-			totalCurrentMips += mips;
+		MipsShare share = MipsShare.valueOf(getCurrentMipsShare());
+		for (int i = 0; i < share.size(); i++) {
+			totalCurrentMips += share.getMips(i);
 		}
 		return totalCurrentMips;
 	}
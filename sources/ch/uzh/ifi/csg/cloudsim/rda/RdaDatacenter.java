@@ -10,14 +10,16 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.MigrationPlan;
+import org.cloudbus.cloudsim.MipsShare;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
-import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
 import org.cloudbus.cloudsim.power.PowerDatacenter;
 import org.cloudbus.cloudsim.power.PowerHost;
@@ -156,23 +158,11 @@ public class RdaDatacenter extends PowerDatacenter {
 	}
 
 	@Override
-	protected void processVmCreate(SimEvent ev, boolean ack) {
-		RdaVm vm = (RdaVm) ev.getData();
-
-		boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
-
+	protected void processVmCreateResult(Vm vm, boolean result, boolean ack) {
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-
-			if (result) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
+			int data = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
 			send(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(),
-					CloudSimTags.VM_CREATE_ACK, data);
+					CloudSimTags.VM_CREATE_ACK, getId(), vm.getId(), data);
 		}
 
 		if (result) {
@@ -210,6 +200,7 @@ public class RdaDatacenter extends PowerDatacenter {
 
 			double timeframePower = logPowerConsumption(currentTime);
 
+			getCompletionQueue().clearCompletedVms();
 			minTime = processHosts(currentTime, minTime);
 
 			logResourceShareByUser(currentTime);
@@ -427,13 +418,8 @@ public class RdaDatacenter extends PowerDatacenter {
 		for (PowerHost host : this.<PowerHost> getHostList()) {
 
 			for (Vm vm : host.getVmList()) {
-				double req = 0;
-
-				List<Double> pes = ((RdaCloudletScheduler) vm
-						.getCloudletScheduler()).getCurrentRequestedMips();
-				for (Double pe : pes) {
-					req += pe;
-				}
+				double req = MipsShare.sum(((RdaCloudletScheduler) vm
+						.getCloudletScheduler()).getCurrentRequestedMips());
 
 				String customer = ((RdaVm) vm).getCustomer();
 
@@ -447,11 +433,8 @@ public class RdaDatacenter extends PowerDatacenter {
 					requested.put(customer, req);
 				}
 
-				double totalAllocatedForUserOnVm = 0.0d;
-				List<Double> alloc = ((RdaVm) vm).getCurrentAllocatedMips();
-				for (Double pe : alloc) {
-					totalAllocatedForUserOnVm += pe;
-				}
+				double totalAllocatedForUserOnVm = MipsShare
+						.sum(((RdaVm) vm).getCurrentAllocatedMips());
 
 				double utilization = ((RdaCloudletScheduler) vm
 						.getCloudletScheduler()).getCurrentUtilizationOfCpu();
@@ -699,18 +682,6 @@ public class RdaDatacenter extends PowerDatacenter {
 		}
 	}
 
-	private void removeCompletedVms() {
-		/** Remove completed VMs **/
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			for (Vm vm : host.getCompletedVms()) {
-				getVmAllocationPolicy().deallocateHostForVm(vm);
-				getVmList().remove(vm);
-				Log.printLine("VM #" + vm.getId()
-						+ " has been deallocated from host #" + host.getId());
-			}
-		}
-	}
-
 	protected double processHosts(double currentTime, double minTime) {
 		for (PowerHost host : this.<PowerHost> getHostList()) {
 			Log.formatLine("\n%.2f: Host #%d", CloudSim.clock(), host.getId());
@@ -727,38 +698,28 @@ public class RdaDatacenter extends PowerDatacenter {
 
 	private void processMigrations() {
 		if (!isDisableMigrations()) {
-			List<Map<String, Object>> migrationMap = getVmAllocationPolicy()
-					.optimizeAllocation(getVmList());
-
-			if (migrationMap != null) {
-				for (Map<String, Object> migrate : migrationMap) {
-					Vm vm = (Vm) migrate.get("vm");
-					PowerHost targetHost = (PowerHost) migrate.get("host");
-					PowerHost oldHost = (PowerHost) vm.getHost();
-
-					if (oldHost == null) {
-						Log.formatLine(
-								"%.2f: Migration of VM #%d to Host #%d is started",
-								CloudSim.clock(), vm.getId(),
-								targetHost.getId());
-					} else {
-						Log.formatLine(
-								"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
-								CloudSim.clock(), vm.getId(), oldHost.getId(),
-								targetHost.getId());
-					}
-
-					targetHost.addMigratingInVm(vm);
-					incrementMigrationCount();
-
-					/** VM migration delay = RAM / bandwidth + C (C = 10 sec) **/
-					send(getId(), vm.getRam() / ((double) vm.getBw() / 8000)
-							+ 10, CloudSimTags.VM_MIGRATE, migrate);
-				}
+			MigrationPlan migrationPlan = getVmAllocationPolicy()
+					.optimizeAllocationPlan(getVmList());
+
+			if (migrationPlan != null) {
+				startMigrations(migrationPlan);
 			}
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.cloudbus.cloudsim.power.PowerDatacenter#getMigrationDelay(org.cloudbus
+	 * .cloudsim.Vm, org.cloudbus.cloudsim.Host)
+	 */
+	@Override
+	protected double getMigrationDelay(Vm vm, Host targetHost) {
+		/** VM migration delay = RAM / bandwidth + C (C = 10 sec) **/
+		return vm.getRam() / ((double) vm.getBw() / 8000) + 10;
+	}
+
 	private double logPowerConsumption(double currentTime) {
 		double timeframePower = 0.0;
 		double timeDiff = currentTime - getLastProcessTime();
@@ -773,6 +734,7 @@ public class RdaDatacenter extends PowerDatacenter {
 			try {
 				hostPower = host.getMaxPower() * timeDiff;
 				timeframePower += hostPower;
+				host.getStateMetrics().addEnergy(hostPower);
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
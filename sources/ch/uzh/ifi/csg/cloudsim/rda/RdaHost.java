@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.MipsShare;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmScheduler;
@@ -117,6 +118,7 @@ public class RdaHost extends PowerHost {
 		setStorage(getStorage() - vm.getSize());
 		getVmList().add(vm);
 		vm.setHost(this);
+		registerVm(vm);
 		return true;
 	}
 
@@ -128,7 +130,23 @@ public class RdaHost extends PowerHost {
 						.getCurrentRequestedTotalMips()
 				&& this.ramProvisioner.isSuitableForVm(vm,
 						vm.getCurrentRequestedRam()) && this.bwProvisioner
-					.isSuitableForVm(vm, vm.getCurrentRequestedBw()));
+					.isSuitableForVm(vm, vm.getCurrentRequestedBw())
+				&& isSuitableForStorageIO((RdaVm) vm));
+	}
+
+	/**
+	 * Checks whether the storage I/O available on the host covers the
+	 * storage I/O the VM requests. A VM requesting none always fits, even if
+	 * the running VMs are allocated all the storage I/O of the host.
+	 * 
+	 * @param vm
+	 *            the vm
+	 * @return true if the vm fits the storage I/O of the host
+	 */
+	protected boolean isSuitableForStorageIO(RdaVm vm) {
+		double storageIO = vm.getCurrentRequestedStorageIO();
+		return storageIO <= 0
+				|| this.storageIOProvisioner.getAvailableStorageIO() >= storageIO;
 	}
 
 	@Override
@@ -140,7 +158,7 @@ public class RdaHost extends PowerHost {
 		double smallerTime = Double.MAX_VALUE;
 		for (Vm vm : getVmList()) {
 			double time = ((RdaVm) vm).updateVmProcessing(currentTime,
-					getVmScheduler().getAllocatedMipsForVm(vm),
+					getVmScheduler().getAllocatedMipsShareForVm(vm),
 					((RdaVm) vm).getCurrentAllocatedBwFine(),
 					((RdaVm) vm).getCurrentAllocatedStorageIO());
 
@@ -153,6 +171,8 @@ public class RdaHost extends PowerHost {
 
 		updateHostState(currentTime);
 
+		publishCompletedVms();
+
 		return smallerTime;
 	}
 
@@ -320,29 +340,48 @@ public class RdaHost extends PowerHost {
 	public List<Vm> getCompletedVms() {
 		List<Vm> vmsToRemove = new ArrayList<Vm>();
 		for (Vm vm : getVmList()) {
-			if (vm.isInMigration()) {
-				continue;
+			if (isVmCompleted(vm)) {
+				vmsToRemove.add(vm);
 			}
+		}
+		return vmsToRemove;
+	}
 
-			// get total mips for the current VM
-			List<Double> mips = ((RdaVm) vm).getCurrentAllocatedMips();
+	/**
+	 * Publishes the completed VMs into the completion queue of the datacenter.
+	 */
+	protected void publishCompletedVms() {
+		for (Vm vm : getVmList()) {
+			if (isVmCompleted(vm)) {
+				publishCompletedVm(vm);
+			}
+		}
+	}
 
-			if (mips == null) {
-				vmsToRemove.add(vm);
-			} else {
+	/**
+	 * Checks whether a VM is completed, i.e., has no mips allocated and is
+	 * not in migration.
+	 * 
+	 * @param vm
+	 *            the vm
+	 * @return true if the vm is completed
+	 */
+	private boolean isVmCompleted(Vm vm) {
+		if (vm.isInMigration()) {
+			return false;
+		}
 
-				double total = 0.0d;
-				for (Double m : mips) {
-					total += m;
-				}
+		// get total mips for the current VM
+		List<Double> mips = ((RdaVm) vm).getCurrentAllocatedMips();
 
-				// if there is no mips allocated, remove it.
-				if (total == 0) {
-					vmsToRemove.add(vm);
-				}
-			}
+		if (mips == null) {
+			return true;
 		}
-		return vmsToRemove;
+
+		double total = MipsShare.sum(mips);
+
+		// if there is no mips allocated, remove it.
+		return total == 0;
 	}
 
 	/**
@@ -397,4 +436,22 @@ public class RdaHost extends PowerHost {
 	public long getBw() {
 		return (long) this.bwProvisioner.getBw();
 	}
+
+	/**
+	 * Gets the machine memory that is not allocated to VMs.
+	 * 
+	 * @return the available machine memory
+	 */
+	public double getAvailableRam() {
+		return this.ramProvisioner.getAvailableRam();
+	}
+
+	/**
+	 * Gets the machine bw that is not allocated to VMs.
+	 * 
+	 * @return the available machine bw
+	 */
+	public double getAvailableBw() {
+		return this.bwProvisioner.getAvailableBw();
+	}
 }
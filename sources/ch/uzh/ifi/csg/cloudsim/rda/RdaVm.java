@@ -1,9 +1,9 @@
 package ch.uzh.ifi.csg.cloudsim.rda;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.MipsShare;
 import org.cloudbus.cloudsim.power.PowerVm;
 
 /**
@@ -19,6 +19,9 @@ public class RdaVm extends PowerVm {
 
 	private double currentAllocatedStorageIO;
 
+	/** The storage I/O the VM requests when it is instantiated. */
+	private double storageIO;
+
 	/** The current allocated ram. */
 	private double currentAllocatedRam;
 
@@ -75,10 +78,8 @@ public class RdaVm extends PowerVm {
 		List<Double> currentRequestedMips = ((RdaCloudletScheduler) getCloudletScheduler())
 				.getCurrentRequestedMips(currentTime);
 		if (isBeingInstantiated()) {
-			currentRequestedMips = new ArrayList<Double>();
-			for (int i = 0; i < getNumberOfPes(); i++) {
-				currentRequestedMips.add(getMips());
-			}
+			currentRequestedMips = MipsShare.uniform(getNumberOfPes(),
+					getMips());
 		}
 		return currentRequestedMips;
 	}
@@ -89,11 +90,7 @@ public class RdaVm extends PowerVm {
 	 * @return the current requested total mips
 	 */
 	public double getCurrentRequestedTotalMips(double currentTime) {
-		double totalRequestedMips = 0;
-		for (double mips : getCurrentRequestedMips(currentTime)) {
-			totalRequestedMips += mips;
-		}
-		return totalRequestedMips;
+		return MipsShare.sum(getCurrentRequestedMips(currentTime));
 	}
 
 	public double getCurrentRequestedGradCpu() {
@@ -121,6 +118,21 @@ public class RdaVm extends PowerVm {
 				.getCurrentRequestedUtilizationOfStorageIO(currentTime);
 	}
 
+	/**
+	 * Gets the current requested storage IO: the storage IO of the VM while
+	 * it is being instantiated, the storage IO requested by its cloudlets
+	 * afterwards.
+	 * 
+	 * @return the current requested storage IO
+	 */
+	public double getCurrentRequestedStorageIO() {
+		if (isBeingInstantiated()) {
+			return getStorageIO();
+		}
+		return ((RdaCloudletScheduler) getCloudletScheduler())
+				.getCurrentRequestedUtilizationOfStorageIO();
+	}
+
 	/**
 	 * Gets the current requested storage IO.
 	 * 
@@ -197,6 +209,26 @@ public class RdaVm extends PowerVm {
 		this.currentAllocatedStorageIO = currentAllocatedStorageIO;
 	}
 
+	/**
+	 * Gets the storage I/O the VM requests when it is instantiated.
+	 * 
+	 * @return the storage I/O, 0 by default
+	 */
+	public double getStorageIO() {
+		return storageIO;
+	}
+
+	/**
+	 * Sets the storage I/O the VM requests when it is instantiated, so that
+	 * it is only placed on a host with as much storage I/O available.
+	 * 
+	 * @param storageIO
+	 *            the storage I/O
+	 */
+	public void setStorageIO(double storageIO) {
+		this.storageIO = storageIO;
+	}
+
 	public String getCustomer() {
 		return customer;
 	}
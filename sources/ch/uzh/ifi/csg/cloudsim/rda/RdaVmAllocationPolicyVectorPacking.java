@@ -0,0 +1,475 @@
+package ch.uzh.ifi.csg.cloudsim.rda;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyAbstract;
+
+/**
+ * This VM allocation policy places the VMs on RDA hosts by solving a vector
+ * bin-packing problem over four resources: CPU, RAM, network bandwidth and
+ * storage I/O. It is meant to place the VMs submitted together, as with a
+ * broker batching the creation of its VMs, but also places single VMs.
+ * <br/><br/>
+ * The VMs of a batch are sorted by decreasing size, the size of a VM being
+ * the sum of its demands normalized by the largest host capacity of each
+ * resource, and placed in this order with one of the following heuristics:
+ * <ul>
+ * <li>first fit decreasing: the first host of the host list that fits the VM;
+ * <li>dot product: the host maximizing the dot product of the demand of the
+ * VM and the remaining capacity of the host, both normalized by the capacity
+ * of the host, i.e., whose remaining resources are the most aligned with the
+ * demand;
+ * <li>norm: the host minimizing the squared L2 norm of its normalized
+ * remaining capacity once the VM is placed, i.e., left the least fragmented.
+ * </ul>
+ * The candidate hosts are found with a tree indexing the remaining capacity
+ * of the hosts, which holds the maximum of each resource over each range of
+ * hosts, so that the ranges where no host fits the VM are skipped.
+ * <br/><br/>
+ * After each placement, the policy knows the packing density, i.e., the
+ * average share of the resources of the active hosts that is allocated, and
+ * the wall time spent placing the VMs.
+ */
+public class RdaVmAllocationPolicyVectorPacking extends
+		PowerVmAllocationPolicyAbstract {
+
+	/** The heuristics choosing the host of a VM. */
+	public enum Heuristic {
+		/** the first host that fits the VM */
+		FIRST_FIT_DECREASING,
+		/** the host whose remaining capacity is the most aligned with the VM */
+		DOT_PRODUCT,
+		/** the host whose remaining capacity has the smallest norm */
+		NORM
+	}
+
+	/** the number of resources packed: CPU, RAM, BW and storage I/O */
+	public static final int DIMENSIONS = 4;
+
+	/** the heuristic choosing the host of a VM */
+	private final Heuristic heuristic;
+
+	/** the wall time of the last placement, in milliseconds */
+	private double placementTime;
+
+	/** the packing density after the last placement */
+	private double packingDensity;
+
+	/** the number of hosts running VMs after the last placement */
+	private int activeHostCnt;
+
+	/**
+	 * Instantiates a new vector packing VM allocation policy.
+	 *
+	 * @param list
+	 *            the RDA hosts
+	 * @param heuristic
+	 *            the heuristic choosing the host of a VM
+	 */
+	public RdaVmAllocationPolicyVectorPacking(List<? extends Host> list,
+			Heuristic heuristic) {
+		super(list);
+		this.heuristic = heuristic;
+	}
+
+	@Override
+	public boolean allocateHostForVm(Vm vm) {
+		return place(Collections.singletonList(vm))[0];
+	}
+
+	@Override
+	public boolean[] allocateHostsForVms(List<? extends Vm> vmList) {
+		boolean[] results = place(vmList);
+		Log.formatLine("%.2f: " + count(results) + " of " + results.length
+				+ " VMs placed by " + heuristic + " on " + activeHostCnt
+				+ " active hosts, packing density %.4f, in %.3f ms",
+				CloudSim.clock(), packingDensity, placementTime);
+		return results;
+	}
+
+	/**
+	 * Places the VMs of a list that are not created yet, the largest first,
+	 * and updates the statistics of the placement.
+	 *
+	 * @param vmList
+	 *            the VMs
+	 * @return whether each VM of the list was placed
+	 */
+	private boolean[] place(List<? extends Vm> vmList) {
+		long start = System.nanoTime();
+		List<RdaHost> hosts = getHostList();
+		int hostCnt = hosts.size();
+
+		double[][] capacities = new double[hostCnt][];
+		double[][] residuals = new double[hostCnt][];
+		double[] maxCapacity = new double[DIMENSIONS];
+		for (int i = 0; i < hostCnt; i++) {
+			RdaHost host = hosts.get(i);
+			capacities[i] = getCapacity(host);
+			residuals[i] = getResidual(host);
+			for (int d = 0; d < DIMENSIONS; d++) {
+				maxCapacity[d] = Math.max(maxCapacity[d], capacities[i][d]);
+			}
+		}
+		HostIndex index = new HostIndex(residuals);
+
+		final double[][] demands = new double[vmList.size()][];
+		final double[] sizes = new double[vmList.size()];
+		Integer[] order = new Integer[vmList.size()];
+		for (int j = 0; j < order.length; j++) {
+			demands[j] = getDemand((RdaVm) vmList.get(j));
+			for (int d = 0; d < DIMENSIONS; d++) {
+				if (maxCapacity[d] > 0) {
+					sizes[j] += demands[j][d] / maxCapacity[d];
+				}
+			}
+			order[j] = j;
+		}
+		// stable, so that VMs of the same size keep the order of the list
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(sizes[b], sizes[a]);
+			}
+		});
+
+		boolean[] results = new boolean[vmList.size()];
+		boolean[] refused = new boolean[hostCnt];
+		List<Integer> refusedHosts = new ArrayList<Integer>();
+		List<Integer> candidates = new ArrayList<Integer>();
+		for (int j : order) {
+			Vm vm = vmList.get(j);
+			double[] demand = demands[j];
+			if (getHost(vm) != null) {
+				// already created
+				continue;
+			}
+			while (true) {
+				int chosen = findHost(vm, demand, hosts, capacities,
+						residuals, index, refused, candidates);
+				if (chosen < 0) {
+					Log.formatLine("%.2f: No suitable host found for VM #"
+							+ vm.getId() + "\n", CloudSim.clock());
+					break;
+				}
+				if (allocateHostForVm(vm, hosts.get(chosen))) {
+					for (int d = 0; d < DIMENSIONS; d++) {
+						residuals[chosen][d] -= demand[d];
+					}
+					index.update(chosen);
+					results[j] = true;
+					break;
+				}
+				refused[chosen] = true;
+				refusedHosts.add(chosen);
+			}
+			for (int i : refusedHosts) {
+				refused[i] = false;
+			}
+			refusedHosts.clear();
+		}
+
+		placementTime = (System.nanoTime() - start) / 1e6;
+		updatePackingDensity(hosts, capacities, residuals);
+		return results;
+	}
+
+	/**
+	 * Finds the host of a VM with the heuristic of the policy among the hosts
+	 * that fit it and have not refused it.
+	 *
+	 * @return the index of the host, -1 if no host fits the VM
+	 */
+	private int findHost(Vm vm, double[] demand, List<RdaHost> hosts,
+			double[][] capacities, double[][] residuals, HostIndex index,
+			boolean[] refused, List<Integer> candidates) {
+		if (heuristic == Heuristic.FIRST_FIT_DECREASING) {
+			int i = index.first(demand, 0);
+			while (i >= 0 && (refused[i] || !fits(hosts.get(i), vm))) {
+				i = index.first(demand, i + 1);
+			}
+			return i;
+		}
+
+		candidates.clear();
+		index.collect(demand, candidates);
+		int chosen = -1;
+		double best = 0;
+		for (int i : candidates) {
+			if (refused[i] || !fits(hosts.get(i), vm)) {
+				continue;
+			}
+			double score = 0;
+			for (int d = 0; d < DIMENSIONS; d++) {
+				double capacity = capacities[i][d];
+				if (capacity <= 0) {
+					continue;
+				}
+				if (heuristic == Heuristic.DOT_PRODUCT) {
+					score += demand[d] / capacity * residuals[i][d] / capacity;
+				} else {
+					double left = (residuals[i][d] - demand[d]) / capacity;
+					score -= left * left;
+				}
+			}
+			if (chosen < 0 || score > best) {
+				chosen = i;
+				best = score;
+			}
+		}
+		return chosen;
+	}
+
+	/**
+	 * Checks the constraints of a host not covered by the packed resources:
+	 * the capacity of its PEs and its storage.
+	 */
+	private boolean fits(RdaHost host, Vm vm) {
+		return host.getVmScheduler().getPeCapacity() >= vm
+				.getCurrentRequestedMaxMips()
+				&& host.getStorage() >= vm.getSize();
+	}
+
+	/**
+	 * Gets the demand of a VM: CPU, RAM, BW and storage I/O.
+	 *
+	 * @param vm
+	 *            the vm
+	 * @return the demand
+	 */
+	protected double[] getDemand(RdaVm vm) {
+		return new double[] { vm.getCurrentRequestedTotalMips(),
+				vm.getCurrentRequestedRam(), vm.getCurrentRequestedBw(),
+				vm.getCurrentRequestedStorageIO() };
+	}
+
+	/**
+	 * Gets the capacity of a host: CPU, RAM, BW and storage I/O.
+	 *
+	 * @param host
+	 *            the host
+	 * @return the capacity
+	 */
+	protected double[] getCapacity(RdaHost host) {
+		return new double[] { host.getTotalMips(), host.getRam(),
+				host.getBw(), host.getStorageIOProvisioner().getStorageIO() };
+	}
+
+	/**
+	 * Gets the remaining capacity of a host: CPU, RAM, BW and storage I/O.
+	 *
+	 * @param host
+	 *            the host
+	 * @return the remaining capacity
+	 */
+	protected double[] getResidual(RdaHost host) {
+		return new double[] { host.getVmScheduler().getAvailableMips(),
+				host.getAvailableRam(), host.getAvailableBw(),
+				host.getStorageIOProvisioner().getAvailableStorageIO() };
+	}
+
+	/**
+	 * Computes the packing density: the share of the capacity of the active
+	 * hosts that is allocated, averaged over the resources the hosts have.
+	 */
+	private void updatePackingDensity(List<RdaHost> hosts,
+			double[][] capacities, double[][] residuals) {
+		double[] used = new double[DIMENSIONS];
+		double[] total = new double[DIMENSIONS];
+		activeHostCnt = 0;
+		for (int i = 0; i < hosts.size(); i++) {
+			if (hosts.get(i).getVmList().isEmpty()) {
+				continue;
+			}
+			activeHostCnt++;
+			for (int d = 0; d < DIMENSIONS; d++) {
+				used[d] += capacities[i][d] - residuals[i][d];
+				total[d] += capacities[i][d];
+			}
+		}
+		double density = 0;
+		int dimensions = 0;
+		for (int d = 0; d < DIMENSIONS; d++) {
+			if (total[d] > 0) {
+				density += used[d] / total[d];
+				dimensions++;
+			}
+		}
+		packingDensity = dimensions == 0 ? 0 : density / dimensions;
+	}
+
+	/**
+	 * Counts the true values of an array.
+	 */
+	private static int count(boolean[] values) {
+		int cnt = 0;
+		for (boolean value : values) {
+			if (value) {
+				cnt++;
+			}
+		}
+		return cnt;
+	}
+
+	@Override
+	public List<Map<String, Object>> optimizeAllocation(
+			List<? extends Vm> vmList) {
+		// This policy does not optimize the VM allocation
+		return null;
+	}
+
+	/**
+	 * Gets the heuristic choosing the host of a VM.
+	 *
+	 * @return the heuristic
+	 */
+	public Heuristic getHeuristic() {
+		return heuristic;
+	}
+
+	/**
+	 * Gets the wall time of the last placement.
+	 *
+	 * @return the wall time in milliseconds
+	 */
+	public double getPlacementTime() {
+		return placementTime;
+	}
+
+	/**
+	 * Gets the packing density after the last placement: the share of the
+	 * capacity of the hosts running VMs that is allocated, averaged over the
+	 * resources.
+	 *
+	 * @return the packing density, between 0 and 1
+	 */
+	public double getPackingDensity() {
+		return packingDensity;
+	}
+
+	/**
+	 * Gets the number of hosts running VMs after the last placement.
+	 *
+	 * @return the number of active hosts
+	 */
+	public int getActiveHostCnt() {
+		return activeHostCnt;
+	}
+
+	/**
+	 * A tree over the hosts holding, for each range of hosts, the maximum
+	 * remaining capacity of each resource. A range whose maximum of a
+	 * resource is below the demand of a VM has no host fitting the VM.
+	 */
+	private static class HostIndex {
+
+		/** the remaining capacities of the hosts, shared with the policy */
+		private final double[][] residuals;
+
+		/** the number of leaves, a power of two */
+		private final int leaves;
+
+		/** the maxima by resource, the node n having the children 2n, 2n+1 */
+		private final double[][] max;
+
+		HostIndex(double[][] residuals) {
+			this.residuals = residuals;
+			int leaves = 1;
+			while (leaves < residuals.length) {
+				leaves *= 2;
+			}
+			this.leaves = leaves;
+			max = new double[DIMENSIONS][2 * leaves];
+			for (int d = 0; d < DIMENSIONS; d++) {
+				Arrays.fill(max[d], Double.NEGATIVE_INFINITY);
+				for (int i = 0; i < residuals.length; i++) {
+					max[d][leaves + i] = residuals[i][d];
+				}
+				for (int n = leaves - 1; n > 0; n--) {
+					max[d][n] = Math.max(max[d][2 * n], max[d][2 * n + 1]);
+				}
+			}
+		}
+
+		/**
+		 * Updates the maxima after the remaining capacity of a host changed.
+		 */
+		void update(int host) {
+			for (int d = 0; d < DIMENSIONS; d++) {
+				int n = leaves + host;
+				max[d][n] = residuals[host][d];
+				for (n /= 2; n > 0; n /= 2) {
+					max[d][n] = Math.max(max[d][2 * n], max[d][2 * n + 1]);
+				}
+			}
+		}
+
+		/**
+		 * Gets the first host from an index whose remaining capacity covers a
+		 * demand.
+		 *
+		 * @return the index of the host, -1 if there is none
+		 */
+		int first(double[] demand, int from) {
+			if (from >= residuals.length) {
+				return -1;
+			}
+			return first(1, 0, leaves, demand, from);
+		}
+
+		private int first(int n, int lo, int hi, double[] demand, int from) {
+			if (hi <= from || !covers(n, demand)) {
+				return -1;
+			}
+			if (n >= leaves) {
+				return lo;
+			}
+			int mid = (lo + hi) / 2;
+			int found = first(2 * n, lo, mid, demand, from);
+			if (found < 0) {
+				found = first(2 * n + 1, mid, hi, demand, from);
+			}
+			return found;
+		}
+
+		/**
+		 * Adds the hosts whose remaining capacity covers a demand, in the
+		 * order of the host list.
+		 */
+		void collect(double[] demand, List<Integer> hosts) {
+			collect(1, demand, hosts);
+		}
+
+		private void collect(int n, double[] demand, List<Integer> hosts) {
+			if (!covers(n, demand)) {
+				return;
+			}
+			if (n >= leaves) {
+				hosts.add(n - leaves);
+				return;
+			}
+			collect(2 * n, demand, hosts);
+			collect(2 * n + 1, demand, hosts);
+		}
+
+		private boolean covers(int n, double[] demand) {
+			for (int d = 0; d < DIMENSIONS; d++) {
+				if (max[d][n] < demand[d]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -1,11 +1,11 @@
 package ch.uzh.ifi.csg.cloudsim.rda;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.MipsShare;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmSchedulerTimeShared;
@@ -195,12 +195,9 @@ public class VmSchedulerMaxMinFairShare extends VmSchedulerTimeShared implements
 						"Trying to allocate more MIPS than available.");
 			}
 
-			List<Double> mipsMapCapped = new ArrayList<Double>();
 			// split the mips equally between all processor units
 			int peCnt = vm.getNumberOfPes();
-			for (int n = 0; n < peCnt; n++) {
-				mipsMapCapped.add((double) (mips / peCnt));
-			}
+			MipsShare mipsMapCapped = MipsShare.uniform(peCnt, mips / peCnt);
 
 			getMipsMap().put(vm.getUid(), mipsMapCapped);
 			setAvailableMips(super.getAvailableMips() - mips);
@@ -0,0 +1,850 @@
+package ch.uzh.ifi.csg.cloudsim.rda.experiments;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModelNull;
+import org.cloudbus.cloudsim.UtilizationModelStochastic;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.EngineInstrumentation;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerDatacenterBroker;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerHostUtilizationHistory;
+import org.cloudbus.cloudsim.power.PowerVm;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G5Xeon3075;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+import ch.uzh.ifi.csg.cloudsim.rda.RdaDatacenter;
+import ch.uzh.ifi.csg.cloudsim.rda.RdaVm;
+import ch.uzh.ifi.csg.cloudsim.rda.experiments.config.HostConfig;
+import ch.uzh.ifi.csg.cloudsim.rda.experiments.config.VmConfig;
+
+/**
+ * This harness measures how the simulation scales with the size of the
+ * datacenter. It generates RDA or power-aware datacenters of geometrically
+ * growing numbers of hosts from a host and a VM template, runs each of them
+ * for a fixed simulated duration and reports, for every size, the wall time
+ * of the phases (workload generation, building of the entities, simulation
+ * and collection of the results), the time spent in the handlers of the
+ * datacenter and of the broker, the number of events processed, the peak heap
+ * and the time spent in garbage collection.
+ *
+ * The workloads are generated from a fixed seed, so that the results of two
+ * runs can be compared: given the results of a previous run as a baseline,
+ * the harness fails if the events processed per second of any size dropped by
+ * more than a tolerance, which makes it usable as a performance regression
+ * gate.
+ *
+ * Once a size fails with an OutOfMemoryError or its simulation takes longer
+ * than the wall time budget, the larger sizes are skipped.
+ *
+ * Usage: ScalabilityHarness [rda|power] [minHosts] [maxHosts] [factor]
+ * [duration] [vmsPerHost] [output.csv] [baseline.csv] [tolerance]
+ */
+public class ScalabilityHarness {
+
+	/** the type of the RDA datacenters */
+	public static final String RDA = "rda";
+
+	/** the type of the power-aware datacenters */
+	public static final String POWER = "power";
+
+	/** the scheduling interval of the power-aware datacenters */
+	public static final double POWER_SCHEDULING_INTERVAL = 300;
+
+	/** the name of the datacenters */
+	private static final String DATACENTER_NAME = "Datacenter_01";
+
+	/** the name of the brokers */
+	private static final String BROKER_NAME = "Broker";
+
+	/** the columns of the CSV reports */
+	public static final String CSV_HEADER = "type,hosts,vms,duration,status,"
+			+ "wall_s,generate_s,build_s,simulate_s,collect_s,datacenter_s,"
+			+ "broker_s,engine_s,events,events_per_s,sim_to_wall_ratio,"
+			+ "peak_heap_mb,gc_s,gc_count,scaling_exponent";
+
+	/** the type of the datacenters: rda or power */
+	private final String type;
+
+	/** the template of the hosts */
+	private HostConfig hostConfig;
+
+	/** the template of the VMs */
+	private VmConfig vmConfig;
+
+	/** the simulated duration, in seconds */
+	private double duration;
+
+	/** the number of VMs, each running one cloudlet, per host */
+	private int vmsPerHost = 2;
+
+	/** the number of users owning the VMs */
+	private int userCnt = 3;
+
+	/** the number of distinct workloads shared by the cloudlets */
+	private int workloadCnt = 64;
+
+	/** the seed of the workloads */
+	private long seed = 42;
+
+	/** the wall time after which the larger sizes are skipped, in seconds */
+	private double wallTimeBudget = 600;
+
+	/** the datacenter of the size being measured */
+	private Datacenter datacenter;
+
+	/**
+	 * Main method to run the harness as an application.
+	 *
+	 * @param args
+	 *            the type of the datacenters, the smallest and the largest
+	 *            number of hosts, the growth factor, the simulated duration,
+	 *            the number of VMs per host, the output file, the baseline
+	 *            file and the tolerated drop of the events per second
+	 */
+	public static void main(String[] args) throws IOException {
+		String type = RDA;
+		int minHosts = 10;
+		int maxHosts = 100000;
+		int factor = 10;
+		String output = "output/scalability.csv";
+		String baseline = null;
+		double tolerance = 0.2;
+
+		if (args.length > 0) {
+			type = args[0];
+		}
+		ScalabilityHarness harness = new ScalabilityHarness(type);
+
+		if (args.length > 2) {
+			minHosts = Integer.valueOf(args[1]);
+			maxHosts = Integer.valueOf(args[2]);
+		}
+		if (args.length > 3) {
+			factor = Integer.valueOf(args[3]);
+		}
+		if (args.length > 4) {
+			harness.setDuration(Double.valueOf(args[4]));
+		}
+		if (args.length > 5) {
+			harness.setVmsPerHost(Integer.valueOf(args[5]));
+		}
+		if (args.length > 6) {
+			output = args[6];
+		}
+		if (args.length > 7) {
+			baseline = args[7];
+		}
+		if (args.length > 8) {
+			tolerance = Double.valueOf(args[8]);
+		}
+
+		System.out.println("Running the scalability harness with parameters:");
+		System.out.println("type: " + type + ", hosts: " + minHosts + " to "
+				+ maxHosts + " (x" + factor + "), duration: "
+				+ harness.getDuration() + ", vmsPerHost: "
+				+ harness.getVmsPerHost() + ", " + harness.getHostConfig()
+				+ ", " + harness.getVmConfig());
+		System.out.println(CSV_HEADER);
+
+		List<Result> results = harness.run(minHosts, maxHosts, factor);
+		writeCsv(new File(output), results);
+		System.out.println("Results written to "
+				+ new File(output).getAbsolutePath());
+
+		if (baseline != null) {
+			List<String> regressions = compare(
+					readCsv(new File(baseline)), results, tolerance);
+			for (String regression : regressions) {
+				System.out.println("REGRESSION: " + regression);
+			}
+			if (!regressions.isEmpty()) {
+				System.exit(1);
+			}
+			System.out.println("No regression against " + baseline);
+		}
+	}
+
+	/**
+	 * Instantiates a harness with the default templates of the type: the
+	 * templates of the RDA experiments, or the hosts and VMs of the PlanetLab
+	 * examples.
+	 *
+	 * @param type
+	 *            the type of the datacenters: rda or power
+	 */
+	public ScalabilityHarness(String type) {
+		if (RDA.equals(type)) {
+			this.hostConfig = new HostConfig();
+			this.vmConfig = new VmConfig();
+			this.duration = 10;
+		} else if (POWER.equals(type)) {
+			this.hostConfig = new HostConfig(2, 2660, 4096, 1000000, 1000000,
+					0);
+			this.vmConfig = new VmConfig("Xen", 1, 1000, 870, 2500, 100000);
+			this.duration = 6 * 60 * 60;
+		} else {
+			throw new IllegalArgumentException("Unknown datacenter type: "
+					+ type);
+		}
+		this.type = type;
+	}
+
+	/**
+	 * Measures the datacenters from minHosts hosts, multiplying the number of
+	 * hosts by factor up to maxHosts. The results are printed as CSV lines as
+	 * soon as they are known.
+	 *
+	 * @param minHosts
+	 *            the number of hosts of the smallest datacenter
+	 * @param maxHosts
+	 *            the largest number of hosts
+	 * @param factor
+	 *            the growth factor of the number of hosts
+	 * @return the results, one per size
+	 */
+	public List<Result> run(int minHosts, int maxHosts, int factor) {
+		if (minHosts <= 0 || factor <= 1) {
+			throw new IllegalArgumentException(
+					"The number of hosts must be positive and the factor greater than 1");
+		}
+		List<Result> results = new ArrayList<Result>();
+		Result previous = null;
+		boolean broken = false;
+		for (long hostCnt = minHosts; hostCnt <= maxHosts; hostCnt *= factor) {
+			Result result;
+			if (broken) {
+				result = new Result(type, (int) hostCnt, (int) hostCnt
+						* vmsPerHost, duration);
+				result.status = "skipped";
+			} else {
+				result = measure((int) hostCnt);
+				if (previous != null && previous.isOk() && result.isOk()) {
+					result.scalingExponent = Math.log(result.simulate
+							/ previous.simulate)
+							/ Math.log((double) result.hosts / previous.hosts);
+				}
+				broken = !result.isOk() || result.simulate > wallTimeBudget;
+				previous = result;
+			}
+			System.out.println(result.toCsv());
+			results.add(result);
+		}
+		return results;
+	}
+
+	/**
+	 * Builds and simulates a datacenter of the given number of hosts.
+	 *
+	 * @param hostCnt
+	 *            the number of hosts
+	 * @return the result
+	 */
+	public Result measure(int hostCnt) {
+		int vmCnt = hostCnt * vmsPerHost;
+		Result result = new Result(type, hostCnt, vmCnt, duration);
+
+		System.gc();
+		resetPeakHeap();
+		long gcTime = getGcTime();
+		long gcCount = getGcCount();
+		EngineInstrumentation instrumentation = new EngineInstrumentation();
+
+		try {
+			boolean disabled = Log.isDisabled();
+			Log.setDisabled(true);
+			try {
+				long start = System.nanoTime();
+				ArrayList<ArrayList<double[]>> workloads = null;
+				if (RDA.equals(type)) {
+					workloads = generateWorkloads();
+				}
+				long generated = System.nanoTime();
+
+				CloudSim.setInstrumentation(instrumentation);
+				DatacenterBroker broker;
+				if (RDA.equals(type)) {
+					broker = buildRdaDatacenter(hostCnt, vmCnt, workloads);
+				} else {
+					broker = buildPowerDatacenter(hostCnt, vmCnt);
+				}
+				workloads = null;
+				long built = System.nanoTime();
+
+				CloudSim.terminateSimulation(duration);
+				CloudSim.startSimulation();
+				long simulated = System.nanoTime();
+
+				CloudSim.setInstrumentation(null);
+				result.summary = collect(broker);
+				long collected = System.nanoTime();
+
+				result.generate = (generated - start) / 1e9;
+				result.build = (built - generated) / 1e9;
+				result.simulate = (simulated - built) / 1e9;
+				result.collect = (collected - simulated) / 1e9;
+			} finally {
+				CloudSim.setInstrumentation(null);
+				Log.setDisabled(disabled);
+				datacenter = null;
+			}
+			result.status = "ok";
+		} catch (OutOfMemoryError e) {
+			result.status = "oom";
+		} catch (Exception e) {
+			e.printStackTrace();
+			result.status = "error";
+		}
+
+		result.peakHeap = getPeakHeap();
+		result.gcTime = (getGcTime() - gcTime) / 1000.0;
+		result.gcCount = getGcCount() - gcCount;
+		result.events = instrumentation.getEventsProcessed();
+		for (EngineInstrumentation.HandlerStats stats : instrumentation
+				.getHandlerStats()) {
+			double seconds = stats.getLatencies().getSum() / 1e9;
+			if (DATACENTER_NAME.equals(stats.getEntityName())) {
+				result.datacenter += seconds;
+			} else if (BROKER_NAME.equals(stats.getEntityName())) {
+				result.broker += seconds;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Generates the workloads shared by the cloudlets of the RDA datacenters,
+	 * as the default experiment configuration does, one sample per second of
+	 * the simulated duration.
+	 *
+	 * @return the workloads
+	 */
+	protected ArrayList<ArrayList<double[]>> generateWorkloads() {
+		StochasticDataGenerator generator = new StochasticDataGenerator(
+				(int) Math.ceil(duration), seed);
+		ArrayList<ArrayList<double[]>> workloads = new ArrayList<ArrayList<double[]>>();
+		for (int i = 0; i < workloadCnt; i++) {
+			workloads.add(generator.generateData(250, 100, 40, 250, 10, 0.5,
+					10, 0.5, 75));
+		}
+		return workloads;
+	}
+
+	/**
+	 * Builds an RDA datacenter with the experimental suite of the max-min fair
+	 * share scheduling.
+	 *
+	 * @param hostCnt
+	 *            the number of hosts
+	 * @param vmCnt
+	 *            the number of VMs
+	 * @param workloads
+	 *            the workloads shared by the cloudlets
+	 * @return the broker
+	 */
+	protected DatacenterBroker buildRdaDatacenter(int hostCnt, int vmCnt,
+			ArrayList<ArrayList<double[]>> workloads) throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false,
+				ExperimentalSuite.schedulingInterval);
+
+		ExperimentalSuite suite = new ExperimentalSuite();
+		suite.setRecord(false);
+		suite.setHostConfig(hostConfig);
+		suite.setVmConfig(vmConfig);
+		ArrayList<ArrayList<double[]>> inputData = new ArrayList<ArrayList<double[]>>(
+				vmCnt);
+		for (int i = 0; i < vmCnt; i++) {
+			inputData.add(workloads.get(i % workloads.size()));
+		}
+		suite.setInputData(inputData);
+
+		datacenter = suite.createDatacenter(DATACENTER_NAME, hostCnt);
+		DatacenterBroker broker = new DatacenterBroker(BROKER_NAME);
+		broker.submitVmList(suite.createVms(vmCnt, broker.getId(), userCnt));
+		broker.submitCloudletList(suite.createCloudlets(broker.getId(), vmCnt));
+		return broker;
+	}
+
+	/**
+	 * Builds a power-aware datacenter migrating the VMs of the hosts above 80%
+	 * of utilization, with cloudlets of stochastic utilization.
+	 *
+	 * @param hostCnt
+	 *            the number of hosts
+	 * @param vmCnt
+	 *            the number of VMs
+	 * @return the broker
+	 */
+	protected DatacenterBroker buildPowerDatacenter(int hostCnt, int vmCnt)
+			throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		List<PowerHost> hostList = new ArrayList<PowerHost>(hostCnt);
+		for (int i = 0; i < hostCnt; i++) {
+			List<Pe> peList = hostConfig.getPeList();
+			hostList.add(new PowerHostUtilizationHistory(i,
+					new RamProvisionerSimple(hostConfig.getRam()),
+					new BwProvisionerSimple(hostConfig.getBw()), hostConfig
+							.getStorage(), peList,
+					new VmSchedulerTimeSharedOverSubscription(peList),
+					new PowerModelSpecPowerHpProLiantMl110G5Xeon3075()));
+		}
+
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+				"x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		datacenter = new PowerDatacenter(DATACENTER_NAME, characteristics,
+				new PowerVmAllocationPolicyMigrationStaticThreshold(hostList,
+						new PowerVmSelectionPolicyMinimumMigrationTime(), 0.8),
+				new LinkedList<Storage>(), POWER_SCHEDULING_INTERVAL);
+
+		DatacenterBroker broker = new PowerDatacenterBroker(BROKER_NAME);
+		int brokerId = broker.getId();
+		List<Vm> vmList = new ArrayList<Vm>(vmCnt);
+		List<Cloudlet> cloudletList = new ArrayList<Cloudlet>(vmCnt);
+		for (int i = 0; i < vmCnt; i++) {
+			vmList.add(new PowerVm(i, brokerId, vmConfig.getMips(), vmConfig
+					.getPeCnt(), vmConfig.getRam(), vmConfig.getBw(), vmConfig
+					.getSize(), 1, vmConfig.getVmm(),
+					new CloudletSchedulerDynamicWorkload(vmConfig.getMips(),
+							vmConfig.getPeCnt()), POWER_SCHEDULING_INTERVAL));
+
+			// long enough not to finish within the duration
+			Cloudlet cloudlet = new Cloudlet(i, (long) (vmConfig.getMips()
+					* vmConfig.getPeCnt() * duration), vmConfig.getPeCnt(),
+					300, 300, new UtilizationModelStochastic(seed + i,
+							POWER_SCHEDULING_INTERVAL),
+					new UtilizationModelNull(), new UtilizationModelNull());
+			cloudlet.setUserId(brokerId);
+			cloudlet.setVmId(i);
+			cloudletList.add(cloudlet);
+		}
+		broker.submitVmList(vmList);
+		broker.submitCloudletList(cloudletList);
+		return broker;
+	}
+
+	/**
+	 * Collects the results of a simulation, as the experiments do once it is
+	 * over: walks the cloudlets received by the broker, sums their CPU time by
+	 * customer and adds the evaluation of the datacenter, the fairness of the
+	 * RDA datacenters or the energy and migrations of the power-aware ones.
+	 *
+	 * @param broker
+	 *            the broker
+	 * @return the summary of the results
+	 */
+	protected String collect(DatacenterBroker broker) {
+		Map<Integer, Vm> vms = new HashMap<Integer, Vm>();
+		for (Vm vm : broker.getVmList()) {
+			vms.put(vm.getId(), vm);
+		}
+
+		int finished = 0;
+		TreeMap<String, Double> timeByCustomer = new TreeMap<String, Double>();
+		for (Cloudlet cloudlet : broker.getCloudletReceivedList()) {
+			if (cloudlet.getCloudletStatus() != Cloudlet.SUCCESS) {
+				continue;
+			}
+			finished++;
+			Vm vm = vms.get(cloudlet.getVmId());
+			String customer = vm instanceof RdaVm ? ((RdaVm) vm).getCustomer()
+					: String.valueOf(cloudlet.getUserId());
+			Double time = timeByCustomer.get(customer);
+			timeByCustomer.put(customer, (time == null ? 0 : time)
+					+ cloudlet.getActualCPUTime());
+		}
+
+		StringBuilder summary = new StringBuilder();
+		summary.append(finished + " of "
+				+ broker.getCloudletReceivedList().size()
+				+ " received cloudlets finished");
+		for (Map.Entry<String, Double> entry : timeByCustomer.entrySet()) {
+			summary.append(", " + entry.getKey() + " time: " + entry.getValue());
+		}
+		if (datacenter instanceof RdaDatacenter) {
+			summary.append(", "
+					+ ((RdaDatacenter) datacenter).getEvaluationtString());
+		} else if (datacenter instanceof PowerDatacenter) {
+			PowerDatacenter powerDatacenter = (PowerDatacenter) datacenter;
+			summary.append(", energy: " + powerDatacenter.getPower()
+					/ (3600 * 1000) + " kWh, migrations: "
+					+ powerDatacenter.getMigrationCount());
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Resets the peak usage of the heap memory pools.
+	 */
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/**
+	 * Gets the peak heap since the last reset, as the sum of the peaks of the
+	 * heap memory pools, which may be reached at different times.
+	 *
+	 * @return the peak heap in MB
+	 */
+	private static double getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak / (1024.0 * 1024.0);
+	}
+
+	/**
+	 * Gets the accumulated time of the garbage collections.
+	 *
+	 * @return the time in milliseconds
+	 */
+	private static long getGcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return time;
+	}
+
+	/**
+	 * Gets the number of garbage collections.
+	 *
+	 * @return the number of collections
+	 */
+	private static long getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	/**
+	 * Writes results as CSV.
+	 *
+	 * @param file
+	 *            the file
+	 * @param results
+	 *            the results
+	 */
+	public static void writeCsv(File file, List<Result> results)
+			throws IOException {
+		if (file.getAbsoluteFile().getParentFile() != null) {
+			file.getAbsoluteFile().getParentFile().mkdirs();
+		}
+		PrintWriter out = new PrintWriter(file);
+		try {
+			out.println(CSV_HEADER);
+			for (Result result : results) {
+				out.println(result.toCsv());
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads the events per second of the measured sizes of results written
+	 * with {@link #writeCsv(File, List)}.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the events per second by type and number of hosts, e.g.
+	 *         "rda,1000"
+	 */
+	public static Map<String, Double> readCsv(File file) throws IOException {
+		Map<String, Double> eventsPerSecond = new HashMap<String, Double>();
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			List<String> columns = split(in.readLine());
+			int typeIndex = columns.indexOf("type");
+			int hostsIndex = columns.indexOf("hosts");
+			int statusIndex = columns.indexOf("status");
+			int eventsIndex = columns.indexOf("events_per_s");
+			String line;
+			while ((line = in.readLine()) != null) {
+				List<String> fields = split(line);
+				if (fields.size() == columns.size()
+						&& "ok".equals(fields.get(statusIndex))) {
+					eventsPerSecond.put(fields.get(typeIndex) + ","
+							+ fields.get(hostsIndex),
+							Double.valueOf(fields.get(eventsIndex)));
+				}
+			}
+		} finally {
+			in.close();
+		}
+		return eventsPerSecond;
+	}
+
+	/**
+	 * Compares results with a baseline.
+	 *
+	 * @param baseline
+	 *            the events per second of the baseline by type and number of
+	 *            hosts
+	 * @param results
+	 *            the results
+	 * @param tolerance
+	 *            the tolerated drop of the events per second, e.g. 0.2 for 20%
+	 * @return the descriptions of the regressions, empty if there is none
+	 */
+	public static List<String> compare(Map<String, Double> baseline,
+			List<Result> results, double tolerance) {
+		List<String> regressions = new ArrayList<String>();
+		for (Result result : results) {
+			Double expected = baseline.get(result.type + "," + result.hosts);
+			if (expected == null) {
+				continue;
+			}
+			if (!result.isOk()) {
+				regressions.add(result.type + " with " + result.hosts
+						+ " hosts: " + result.status);
+			} else if (result.getEventsPerSecond() < expected
+					* (1 - tolerance)) {
+				regressions.add(result.type + " with " + result.hosts
+						+ " hosts: " + Math.round(result.getEventsPerSecond())
+						+ " events/s, baseline " + Math.round(expected));
+			}
+		}
+		return regressions;
+	}
+
+	private static List<String> split(String line) {
+		List<String> fields = new ArrayList<String>();
+		for (String field : line.split(",")) {
+			fields.add(field.trim());
+		}
+		return fields;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public HostConfig getHostConfig() {
+		return hostConfig;
+	}
+
+	public void setHostConfig(HostConfig hostConfig) {
+		this.hostConfig = hostConfig;
+	}
+
+	public VmConfig getVmConfig() {
+		return vmConfig;
+	}
+
+	public void setVmConfig(VmConfig vmConfig) {
+		this.vmConfig = vmConfig;
+	}
+
+	public double getDuration() {
+		return duration;
+	}
+
+	public void setDuration(double duration) {
+		this.duration = duration;
+	}
+
+	public int getVmsPerHost() {
+		return vmsPerHost;
+	}
+
+	public void setVmsPerHost(int vmsPerHost) {
+		this.vmsPerHost = vmsPerHost;
+	}
+
+	public int getUserCnt() {
+		return userCnt;
+	}
+
+	public void setUserCnt(int userCnt) {
+		this.userCnt = userCnt;
+	}
+
+	public int getWorkloadCnt() {
+		return workloadCnt;
+	}
+
+	public void setWorkloadCnt(int workloadCnt) {
+		this.workloadCnt = workloadCnt;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public double getWallTimeBudget() {
+		return wallTimeBudget;
+	}
+
+	public void setWallTimeBudget(double wallTimeBudget) {
+		this.wallTimeBudget = wallTimeBudget;
+	}
+
+	/**
+	 * The measures of one datacenter size. The times are in seconds.
+	 */
+	public static class Result {
+
+		private final String type;
+		private final int hosts;
+		private final int vms;
+		private final double duration;
+
+		/** ok, oom, error or skipped */
+		private String status = "error";
+
+		private double generate;
+		private double build;
+		private double simulate;
+		private double collect;
+
+		/** the time spent in the handlers of the datacenter */
+		private double datacenter;
+
+		/** the time spent in the handlers of the broker */
+		private double broker;
+
+		private long events;
+		private double peakHeap;
+		private double gcTime;
+		private long gcCount;
+
+		/** the summary of the results of the simulation */
+		private String summary;
+
+		/**
+		 * the exponent of the growth of the simulation time with the number
+		 * of hosts since the previous size, 1 for a linear growth
+		 */
+		private double scalingExponent = Double.NaN;
+
+		public Result(String type, int hosts, int vms, double duration) {
+			this.type = type;
+			this.hosts = hosts;
+			this.vms = vms;
+			this.duration = duration;
+		}
+
+		public boolean isOk() {
+			return "ok".equals(status);
+		}
+
+		public double getWallTime() {
+			return generate + build + simulate + collect;
+		}
+
+		/**
+		 * Gets the time of the simulation not spent in the handlers of the
+		 * datacenter and of the broker, i.e. in the engine and the other
+		 * entities.
+		 */
+		public double getEngineTime() {
+			return Math.max(0, simulate - datacenter - broker);
+		}
+
+		public double getEventsPerSecond() {
+			return simulate > 0 ? events / simulate : 0;
+		}
+
+		public double getSimulatedToWallClockRatio() {
+			return simulate > 0 ? duration / simulate : 0;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public int getHosts() {
+			return hosts;
+		}
+
+		public int getVms() {
+			return vms;
+		}
+
+		public String getStatus() {
+			return status;
+		}
+
+		public double getSimulate() {
+			return simulate;
+		}
+
+		public long getEvents() {
+			return events;
+		}
+
+		public double getPeakHeap() {
+			return peakHeap;
+		}
+
+		public double getGcTime() {
+			return gcTime;
+		}
+
+		public double getScalingExponent() {
+			return scalingExponent;
+		}
+
+		public String getSummary() {
+			return summary;
+		}
+
+		public String toCsv() {
+			return type + "," + hosts + "," + vms + "," + duration + ","
+					+ status + "," + getWallTime() + "," + generate + ","
+					+ build + "," + simulate + "," + collect + ","
+					+ datacenter + "," + broker + "," + getEngineTime() + ","
+					+ events + "," + getEventsPerSecond() + ","
+					+ getSimulatedToWallClockRatio() + "," + peakHeap + ","
+					+ gcTime + "," + gcCount + ","
+					+ (Double.isNaN(scalingExponent) ? "" : scalingExponent);
+		}
+
+	}
+
+}
@@ -16,6 +16,9 @@ public class StochasticDataGenerator {
 
 	RandomDataGenerator rd = new RandomDataGenerator();
 
+	/** the generator of the uniform choices, e.g. the starting points */
+	private Random random = new Random();
+
 	private int sampleLength = 120;
 
 	public StochasticDataGenerator() {
@@ -27,6 +30,21 @@ public class StochasticDataGenerator {
 		this.sampleLength = sampleLength;
 	}
 
+	/**
+	 * Instantiates a generator that generates the same workloads for the same
+	 * seed, e.g. to compare runs.
+	 * 
+	 * @param sampleLength
+	 *            the number of samples of the workloads
+	 * @param seed
+	 *            the seed
+	 */
+	public StochasticDataGenerator(int sampleLength, long seed) {
+		this(sampleLength);
+		this.rd.reSeed(seed);
+		this.random = new Random(seed);
+	}
+
 	/**
 	 * Generates stochastic data in a sinus curved way.
 	 * 
@@ -43,7 +61,6 @@ public class StochasticDataGenerator {
 
 		ArrayList<double[]> result = new ArrayList<double[]>();
 
-		Random random = new Random();
 		int degree = random.nextInt(360); // start at a random point
 
 		for (int i = 0; i <= sampleLength; i++) {
@@ -102,7 +119,7 @@ public class StochasticDataGenerator {
 		double deviationBw = 0d;
 		double deviationStorage = 0d;
 
-		Random r = new Random();
+		Random r = random;
 		double ram = medianRam;
 		int ramDirection = 0;// change values: 0 down, 1 straight, 2 up
 
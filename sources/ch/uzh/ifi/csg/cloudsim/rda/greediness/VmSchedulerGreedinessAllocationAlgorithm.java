@@ -5,12 +5,12 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.MipsShare;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmSchedulerTimeShared;
@@ -289,11 +289,11 @@ public class VmSchedulerGreedinessAllocationAlgorithm extends
 							line.indexOf("'")));
 
 					Vm vm = vms.get(i);
-					List<Double> mipsMapCapped = new ArrayList<Double>();
 					// split the mips equally between all processor units
 					int peCnt = vm.getNumberOfPes();
+					MipsShare mipsMapCapped = MipsShare.uniform(peCnt, mips
+							/ peCnt);
 					for (int n = 0; n < peCnt; n++) {
-						mipsMapCapped.add(mips / peCnt);
 						totalAllocatedMips += (mips / peCnt);
 					}
 
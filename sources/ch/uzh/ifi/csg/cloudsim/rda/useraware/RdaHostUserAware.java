@@ -77,7 +77,7 @@ public class RdaHostUserAware extends RdaHost implements UserAwareHost {
 						.getCustomer()));
 			}
 			double time = ((RdaVm) vm).updateVmProcessing(currentTime,
-					getVmScheduler().getAllocatedMipsForVm(vm),
+					getVmScheduler().getAllocatedMipsShareForVm(vm),
 					((RdaVm) vm).getCurrentAllocatedBwFine(),
 					((RdaVm) vm).getCurrentAllocatedStorageIO());
 			if (time > 0.0 && time < smallerTime) {
@@ -89,6 +89,8 @@ public class RdaHostUserAware extends RdaHost implements UserAwareHost {
 
 		updateHostState(currentTime);
 
+		publishCompletedVms();
+
 		return smallerTime;
 	}
 
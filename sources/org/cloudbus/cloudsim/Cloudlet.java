@@ -8,9 +8,7 @@
 
 package org.cloudbus.cloudsim;
 
-import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -54,9 +52,6 @@ public class Cloudlet {
 	/** The status of this Cloudlet. */
 	private int status;
 
-	/** The format of decimal numbers. */
-	private DecimalFormat num;
-
 	/** The time where this Cloudlet completes. */
 	private double finishTime;
 
@@ -73,14 +68,20 @@ public class Cloudlet {
 	/** The records the transaction history for this Cloudlet. */
 	private final boolean record;
 
-	/** The newline. */
-	private String newline;
+	/** The journal the history of this Cloudlet is recorded in, null until the first record. */
+	private CloudletJournal journal;
+
+	/** The serial number of this Cloudlet in its journal. */
+	private int journalSerial = -1;
 
-	/** The history. */
-	private StringBuffer history;
+	/** The journal the Cloudlets record their history in. */
+	private static CloudletJournal defaultJournal = null;
 
-	/** The res list. */
-	private final List<Resource> resList;
+	/**
+	 * The CloudResources this Cloudlet was submitted to, created when it is first submitted, so
+	 * that a Cloudlet waiting to be submitted keeps no execution state.
+	 */
+	private List<Resource> resList;
 
 	/** The index. */
 	private int index;
@@ -146,7 +147,7 @@ public class Cloudlet {
 	private UtilizationModel utilizationModelBw;
 
 	// Data cloudlet
-	/** The required files. */
+	/** The required files, created when the first one is added. */
 	private List<String> requiredFiles = null;   // list of required filenames
 
 	/**
@@ -192,8 +193,6 @@ public class Cloudlet {
 		vmId = -1;
 		accumulatedBwCost = 0.0;
 		costPerBw = 0.0;
-
-		requiredFiles = new LinkedList<String>();
 	}
 
 	/**
@@ -342,10 +341,9 @@ public class Cloudlet {
 		this.cloudletFileSize = Math.max(1, cloudletFileSize);
 		this.cloudletOutputSize = Math.max(1, cloudletOutputSize);
 
-		// Normally, a Cloudlet is only executed on a resource without being
-		// migrated to others. Hence, to reduce memory consumption, set the
-		// size of this ArrayList to be less than the default one.
-		resList = new ArrayList<Resource>(2);
+		// The resource list and the required files are created when needed,
+		// so that workloads of many Cloudlets waiting to be submitted take
+		// little memory.
 		index = -1;
 		this.record = record;
 
@@ -353,8 +351,6 @@ public class Cloudlet {
 		accumulatedBwCost = 0.0;
 		costPerBw = 0.0;
 
-		requiredFiles = new LinkedList<String>();
-
 		setUtilizationModelCpu(utilizationModelCpu);
 		setUtilizationModelRam(utilizationModelRam);
 		setUtilizationModelBw(utilizationModelBw);
@@ -567,10 +563,10 @@ public class Cloudlet {
 	 */
 	public String getCloudletHistory() {
 		String msg = null;
-		if (history == null) {
+		if (journal == null) {
 			msg = "No history is recorded for Cloudlet #" + cloudletId;
 		} else {
-			msg = history.toString();
+			msg = journal.renderHistory(journalSerial);
 		}
 
 		return msg;
@@ -643,7 +639,7 @@ public class Cloudlet {
 		res.finishedSoFar = length;
 
 		if (record) {
-			write("Sets the length's finished so far to " + length);
+			write(CloudletJournal.FINISHED_SO_FAR_SET, -1, -1, length, 0.0);
 		}
 	}
 
@@ -658,7 +654,7 @@ public class Cloudlet {
 	public void setUserId(final int id) {
 		userId = id;
 		if (record) {
-			write("Assigns the Cloudlet to " + CloudSim.getEntityName(id) + " (ID #" + id + ")");
+			write(CloudletJournal.USER_ASSIGNED, id, -1, 0.0, 0.0);
 		}
 	}
 
@@ -728,16 +724,19 @@ public class Cloudlet {
 		res.resourceName = CloudSim.getEntityName(resourceID);
 
 		// add into a list if moving to a new grid resource
+		if (resList == null) {
+			// Normally, a Cloudlet is only executed on a resource without being
+			// migrated to others. Hence, to reduce memory consumption, set the
+			// size of this ArrayList to be less than the default one.
+			resList = new ArrayList<Resource>(2);
+		}
 		resList.add(res);
 
 		if (index == -1 && record) {
-			write("Allocates this Cloudlet to " + res.resourceName + " (ID #" + resourceID
-					+ ") with cost = $" + cost + "/sec");
+			write(CloudletJournal.RESOURCE_ALLOCATED, resourceID, -1, cost, 0.0);
 		} else if (record) {
 			final int id = resList.get(index).resourceId;
-			final String name = resList.get(index).resourceName;
-			write("Moves Cloudlet from " + name + " (ID #" + id + ") to " + res.resourceName + " (ID #"
-					+ resourceID + ") with cost = $" + cost + "/sec");
+			write(CloudletJournal.RESOURCE_MOVED, resourceID, id, cost, 0.0);
 		}
 
 		index++;  // initially, index = -1
@@ -759,7 +758,7 @@ public class Cloudlet {
 		res.submissionTime = clockTime;
 
 		if (record) {
-			write("Sets the submission time to " + num.format(clockTime));
+			write(CloudletJournal.SUBMISSION_TIME_SET, -1, -1, clockTime, 0.0);
 		}
 	}
 
@@ -790,7 +789,7 @@ public class Cloudlet {
 	public void setExecStartTime(final double clockTime) {
 		execStartTime = clockTime;
 		if (record) {
-			write("Sets the execution start time to " + num.format(clockTime));
+			write(CloudletJournal.EXEC_START_TIME_SET, -1, -1, clockTime, 0.0);
 		}
 	}
 
@@ -826,8 +825,7 @@ public class Cloudlet {
 		res.actualCPUTime = actualTime;
 
 		if (record) {
-			write("Sets the wall clock time to " + num.format(wallTime) + " and the actual CPU time to "
-					+ num.format(actualTime));
+			write(CloudletJournal.EXEC_PARAM_SET, -1, -1, wallTime, actualTime);
 		}
 	}
 
@@ -856,8 +854,7 @@ public class Cloudlet {
 		}
 
 		if (record) {
-			write("Sets Cloudlet status from " + getCloudletStatusString() + " to "
-					+ Cloudlet.getStatusString(newStatus));
+			write(CloudletJournal.STATUS_CHANGED, newStatus, status, 0.0, 0.0);
 		}
 
 		status = newStatus;
@@ -1002,7 +999,7 @@ public class Cloudlet {
 	 * @post $none
 	 */
 	public String[] getAllResourceName() {
-		final int size = resList.size();
+		final int size = resList == null ? 0 : resList.size();
 		String[] data = null;
 
 		if (size > 0) {
@@ -1023,7 +1020,7 @@ public class Cloudlet {
 	 * @post $none
 	 */
 	public int[] getAllResourceId() {
-		final int size = resList.size();
+		final int size = resList == null ? 0 : resList.size();
 		int[] data = null;
 
 		if (size > 0) {
@@ -1144,6 +1141,9 @@ public class Cloudlet {
 	 * @return the resource by id
 	 */
 	public Resource getResourceById(final int resourceId) {
+		if (resList == null) {
+			return null;
+		}
 		for (Resource resource : resList) {
 			if (resource.resourceId == resourceId) {
 				return resource;
@@ -1177,24 +1177,61 @@ public class Cloudlet {
 			return;
 		}
 
-		if (num == null || history == null) { // Creates the history or
-												// transactions of this Cloudlet
-			newline = System.getProperty("line.separator");
-			num = new DecimalFormat("#0.00#"); // with 3 decimal spaces
-			history = new StringBuffer(1000);
-			history.append("Time below denotes the simulation time.");
-			history.append(System.getProperty("line.separator"));
-			history.append("Time (sec)       Description Cloudlet #" + cloudletId);
-			history.append(System.getProperty("line.separator"));
-			history.append("------------------------------------------");
-			history.append(System.getProperty("line.separator"));
-			history.append(num.format(CloudSim.clock()));
-			history.append("   Creates Cloudlet ID #" + cloudletId);
-			history.append(System.getProperty("line.separator"));
+		openJournal();
+		journal.appendMessage(cloudletId, journalSerial, str);
+	}
+
+	/**
+	 * Writes a lifecycle event of this Cloudlet into its journal.
+	 * 
+	 * @param kind the kind of the event, one of the event kinds of {@link CloudletJournal}
+	 * @param id the first ID of the record
+	 * @param previousId the second ID of the record
+	 * @param value the first value of the record
+	 * @param value2 the second value of the record
+	 */
+	private void write(
+			final int kind,
+			final int id,
+			final int previousId,
+			final double value,
+			final double value2) {
+		openJournal();
+		journal.append(cloudletId, journalSerial, kind, id, previousId, value, value2);
+	}
+
+	/**
+	 * Attaches this Cloudlet to the journal of the Cloudlets, the first time it records an event.
+	 */
+	private void openJournal() {
+		if (journal == null) {
+			journal = getJournal();
+			journalSerial = journal.nextSerial();
 		}
+	}
 
-		history.append(num.format(CloudSim.clock()));
-		history.append("   " + str + newline);
+	/**
+	 * Sets the journal the Cloudlets that record their history write into. It belongs to the
+	 * simulation: it should be set after {@link CloudSim#init}, which discards the journal of the
+	 * previous run, and before the simulation is started.
+	 * 
+	 * @param cloudletJournal the journal, or null to record into a new journal in memory
+	 */
+	public static synchronized void setJournal(final CloudletJournal cloudletJournal) {
+		defaultJournal = cloudletJournal;
+	}
+
+	/**
+	 * Gets the journal the Cloudlets that record their history write into. A journal in memory is
+	 * created if none has been set.
+	 * 
+	 * @return the journal
+	 */
+	public static synchronized CloudletJournal getJournal() {
+		if (defaultJournal == null) {
+			defaultJournal = new CloudletJournal();
+		}
+		return defaultJournal;
 	}
 
 	/**
@@ -1293,11 +1330,15 @@ public class Cloudlet {
 	// Data cloudlet
 
 	/**
-	 * Gets the required files.
+	 * Gets the required files. The list is created if no file has been added yet, so use
+	 * {@link #requiresFiles()} to check whether there are files to fetch.
 	 * 
 	 * @return the required files
 	 */
 	public List<String> getRequiredFiles() {
+		if (requiredFiles == null) {
+			requiredFiles = new ArrayList<String>();
+		}
 		return requiredFiles;
 	}
 
@@ -1317,11 +1358,6 @@ public class Cloudlet {
 	 * @return <tt>true</tt> if succesful, <tt>false</tt> otherwise
 	 */
 	public boolean addRequiredFile(final String fileName) {
-		// if the list is empty
-		if (getRequiredFiles() == null) {
-			setRequiredFiles(new LinkedList<String>());
-		}
-
 		// then check whether filename already exists or not
 		boolean result = false;
 		for (int i = 0; i < getRequiredFiles().size(); i++) {
@@ -1347,7 +1383,7 @@ public class Cloudlet {
 	 */
 	public boolean deleteRequiredFile(final String filename) {
 		boolean result = false;
-		if (getRequiredFiles() == null) {
+		if (requiredFiles == null) {
 			return result;
 		}
 
@@ -1372,7 +1408,7 @@ public class Cloudlet {
 	 */
 	public boolean requiresFiles() {
 		boolean result = false;
-		if (getRequiredFiles() != null && getRequiredFiles().size() > 0) {
+		if (requiredFiles != null && requiredFiles.size() > 0) {
 			result = true;
 		}
 
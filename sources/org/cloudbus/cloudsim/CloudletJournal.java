@@ -0,0 +1,518 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * CloudletJournal records the lifecycle events of the Cloudlets that record their history, for
+ * the whole simulation, as fixed-size binary records appended one after another. A record holds
+ * the simulation time, the cloudlet ID, the serial number the journal gave to the cloudlet (the
+ * IDs of the cloudlets of different users may be the same), the kind of the event, two IDs and two
+ * values, whose meaning depends on the kind, and the index of the next record of the same cloudlet,
+ * so that the records of a cloudlet are read without scanning the others. The records are kept in
+ * memory, or in a memory-mapped file that is extended as records are appended, so that the
+ * records of all the cloudlets can be analysed after the simulation, e.g., with another program.
+ * <p>
+ * The history of a cloudlet, as returned by {@link Cloudlet#getCloudletHistory()}, is rendered
+ * from its records on demand. The names of the users and resources, which are no longer known once
+ * the simulation has finished, and the free-text messages written by subclasses of Cloudlet are
+ * kept in memory, the records holding the IDs of the entities and the indexes of the messages. A
+ * journal belongs to one simulation, {@link CloudSim#init} starting a new one.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class CloudletJournal {
+
+	/** The size of a record in bytes. */
+	public static final int RECORD_SIZE = 52;
+
+	/** The cloudlet was assigned to a user: id is the user ID. */
+	public static final int USER_ASSIGNED = 1;
+
+	/** The cloudlet was allocated to a first resource: id is the resource ID, value the cost. */
+	public static final int RESOURCE_ALLOCATED = 2;
+
+	/**
+	 * The cloudlet moved to another resource: id is the new resource ID, previousId the old one,
+	 * value the cost.
+	 */
+	public static final int RESOURCE_MOVED = 3;
+
+	/** The submission time was set: value is the submission time. */
+	public static final int SUBMISSION_TIME_SET = 4;
+
+	/** The execution start time was set: value is the execution start time. */
+	public static final int EXEC_START_TIME_SET = 5;
+
+	/** The length finished so far was set: value is the length. */
+	public static final int FINISHED_SO_FAR_SET = 6;
+
+	/** The execution parameters were set: value is the wall clock time, value2 the CPU time. */
+	public static final int EXEC_PARAM_SET = 7;
+
+	/** The status changed: id is the new status, previousId the old one. */
+	public static final int STATUS_CHANGED = 8;
+
+	/** A free-text message: id is the index of the message. */
+	public static final int MESSAGE = 9;
+
+	/** The number of records of a chunk. */
+	private static final int CHUNK_RECORDS = 1 << 16;
+
+	/** The file of the records, or null if they are kept in memory. */
+	private final RandomAccessFile file;
+
+	/** The chunks of records, mapped from the file or allocated in memory. */
+	private final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+
+	/** The free-text messages. */
+	private final List<String> messages = new ArrayList<String>();
+
+	/** The names of the users and resources, by entity ID. */
+	private final Map<Integer, String> entityNames = new HashMap<Integer, String>();
+
+	/** The number of records. */
+	private long size;
+
+	/** The number of serial numbers given to cloudlets. */
+	private int serialCnt;
+
+	/** The index of the first record of each serial number, -1 if it has none. */
+	private long[] firstRecords = new long[0];
+
+	/** The index of the last record of each serial number, -1 if it has none. */
+	private long[] lastRecords = new long[0];
+
+	/** The format of decimal numbers of the rendered histories. */
+	private final DecimalFormat num = new DecimalFormat("#0.00#"); // with 3 decimal spaces
+
+	/**
+	 * Creates a journal keeping its records in memory.
+	 */
+	public CloudletJournal() {
+		file = null;
+	}
+
+	/**
+	 * Creates a journal appending its records to a file, memory-mapped. An existing file is
+	 * overwritten.
+	 *
+	 * @param fileName the name of the file
+	 * @throws IOException if the file cannot be created
+	 */
+	public CloudletJournal(String fileName) throws IOException {
+		file = new RandomAccessFile(fileName, "rw");
+		file.setLength(0);
+	}
+
+	/**
+	 * Gives a serial number to a cloudlet, identifying its records.
+	 *
+	 * @return the serial number
+	 */
+	public synchronized int nextSerial() {
+		return serialCnt++;
+	}
+
+	/**
+	 * Appends a record at the current simulation time.
+	 *
+	 * @param cloudletId the cloudlet ID
+	 * @param serial the serial number of the cloudlet
+	 * @param kind the kind of the event
+	 * @param id the first ID, depending on the kind
+	 * @param previousId the second ID, depending on the kind
+	 * @param value the first value, depending on the kind
+	 * @param value2 the second value, depending on the kind
+	 */
+	public synchronized void append(
+			int cloudletId,
+			int serial,
+			int kind,
+			int id,
+			int previousId,
+			double value,
+			double value2) {
+		ByteBuffer chunk = getChunk(size);
+		int offset = (int) (size % CHUNK_RECORDS) * RECORD_SIZE;
+		chunk.putDouble(offset, CloudSim.clock());
+		chunk.putDouble(offset + 8, value);
+		chunk.putDouble(offset + 16, value2);
+		chunk.putInt(offset + 24, cloudletId);
+		chunk.putInt(offset + 28, serial);
+		chunk.putInt(offset + 32, kind);
+		chunk.putInt(offset + 36, id);
+		chunk.putInt(offset + 40, previousId);
+		chunk.putLong(offset + 44, -1L);
+
+		// chain the record to the previous one of the cloudlet
+		if (serial >= firstRecords.length) {
+			int length = firstRecords.length;
+			int capacity = Math.max(serial + 1, length + (length >> 1) + 16);
+			firstRecords = Arrays.copyOf(firstRecords, capacity);
+			lastRecords = Arrays.copyOf(lastRecords, capacity);
+			Arrays.fill(firstRecords, length, capacity, -1L);
+			Arrays.fill(lastRecords, length, capacity, -1L);
+		}
+		long last = lastRecords[serial];
+		if (last < 0) {
+			firstRecords[serial] = size;
+		} else {
+			int lastOffset = (int) (last % CHUNK_RECORDS) * RECORD_SIZE;
+			chunks.get((int) (last / CHUNK_RECORDS)).putLong(lastOffset + 44, size);
+		}
+		lastRecords[serial] = size;
+		size++;
+
+		if (kind == USER_ASSIGNED || kind == RESOURCE_ALLOCATED || kind == RESOURCE_MOVED) {
+			entityNames.put(id, CloudSim.getEntityName(id));
+		}
+	}
+
+	/**
+	 * Appends a free-text message at the current simulation time.
+	 *
+	 * @param cloudletId the cloudlet ID
+	 * @param serial the serial number of the cloudlet
+	 * @param message the message
+	 */
+	public synchronized void appendMessage(int cloudletId, int serial, String message) {
+		messages.add(message);
+		append(cloudletId, serial, MESSAGE, messages.size() - 1, -1, 0.0, 0.0);
+	}
+
+	/**
+	 * Gets the number of records.
+	 *
+	 * @return the number of records
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * Gets the index of the first record of a cloudlet, the others being chained from it.
+	 *
+	 * @param serial the serial number of the cloudlet
+	 * @return the index of the record, -1 if the cloudlet has none
+	 */
+	public synchronized long getFirstRecord(int serial) {
+		if (serial < 0 || serial >= firstRecords.length) {
+			return -1;
+		}
+		return firstRecords[serial];
+	}
+
+	/**
+	 * Reads a record.
+	 *
+	 * @param index the index of the record
+	 * @return the record
+	 */
+	public synchronized Entry getEntry(long index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Record " + index + " of " + size);
+		}
+		ByteBuffer chunk = chunks.get((int) (index / CHUNK_RECORDS));
+		int offset = (int) (index % CHUNK_RECORDS) * RECORD_SIZE;
+		return new Entry(
+				chunk.getDouble(offset),
+				chunk.getInt(offset + 24),
+				chunk.getInt(offset + 28),
+				chunk.getInt(offset + 32),
+				chunk.getInt(offset + 36),
+				chunk.getInt(offset + 40),
+				chunk.getDouble(offset + 8),
+				chunk.getDouble(offset + 16),
+				chunk.getLong(offset + 44));
+	}
+
+	/**
+	 * Gets a free-text message.
+	 *
+	 * @param index the index of the message
+	 * @return the message
+	 */
+	public synchronized String getMessage(int index) {
+		return messages.get(index);
+	}
+
+	/**
+	 * Gets the name of a user or resource of the records.
+	 *
+	 * @param id the entity ID
+	 * @return the name, or null if unknown
+	 */
+	public synchronized String getEntityName(int id) {
+		return entityNames.get(id);
+	}
+
+	/**
+	 * Renders the history of a cloudlet, in the layout of {@link Cloudlet#getCloudletHistory()}.
+	 *
+	 * @param serial the serial number of the cloudlet
+	 * @return the history, or null if no record has the serial number
+	 */
+	public synchronized String renderHistory(int serial) {
+		String newline = System.getProperty("line.separator");
+		StringBuilder history = null;
+		for (long i = getFirstRecord(serial); i >= 0;) {
+			Entry entry = getEntry(i);
+			i = entry.getNext();
+			if (history == null) {
+				history = new StringBuilder(1000);
+				history.append("Time below denotes the simulation time.");
+				history.append(newline);
+				history.append("Time (sec)       Description Cloudlet #" + entry.getCloudletId());
+				history.append(newline);
+				history.append("------------------------------------------");
+				history.append(newline);
+				history.append(num.format(entry.getTime()));
+				history.append("   Creates Cloudlet ID #" + entry.getCloudletId());
+				history.append(newline);
+			}
+			history.append(num.format(entry.getTime()));
+			history.append("   " + describe(entry) + newline);
+		}
+		return history == null ? null : history.toString();
+	}
+
+	/**
+	 * Describes a record in words.
+	 *
+	 * @param entry the record
+	 * @return the description
+	 */
+	public synchronized String describe(Entry entry) {
+		switch (entry.getKind()) {
+			case USER_ASSIGNED:
+				return "Assigns the Cloudlet to " + getEntityName(entry.getId()) + " (ID #"
+						+ entry.getId() + ")";
+			case RESOURCE_ALLOCATED:
+				return "Allocates this Cloudlet to " + getEntityName(entry.getId())
+						+ " (ID #" + entry.getId() + ") with cost = $" + entry.getValue() + "/sec";
+			case RESOURCE_MOVED:
+				return "Moves Cloudlet from " + getEntityName(entry.getPreviousId())
+						+ " (ID #" + entry.getPreviousId() + ") to "
+						+ getEntityName(entry.getId()) + " (ID #" + entry.getId()
+						+ ") with cost = $" + entry.getValue() + "/sec";
+			case SUBMISSION_TIME_SET:
+				return "Sets the submission time to " + num.format(entry.getValue());
+			case EXEC_START_TIME_SET:
+				return "Sets the execution start time to " + num.format(entry.getValue());
+			case FINISHED_SO_FAR_SET:
+				return "Sets the length's finished so far to " + (long) entry.getValue();
+			case EXEC_PARAM_SET:
+				return "Sets the wall clock time to " + num.format(entry.getValue())
+						+ " and the actual CPU time to " + num.format(entry.getValue2());
+			case STATUS_CHANGED:
+				return "Sets Cloudlet status from "
+						+ Cloudlet.getStatusString(entry.getPreviousId()) + " to "
+						+ Cloudlet.getStatusString(entry.getId());
+			case MESSAGE:
+				return messages.get(entry.getId());
+			default:
+				return "Unknown event " + entry.getKind();
+		}
+	}
+
+	/**
+	 * Writes the records mapped from the file to it, and closes it. The file is cut to the size of
+	 * the records. Nothing has to be done for a journal in memory.
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized void close() throws IOException {
+		if (file == null) {
+			return;
+		}
+		for (ByteBuffer chunk : chunks) {
+			((MappedByteBuffer) chunk).force();
+		}
+		file.setLength(size * RECORD_SIZE);
+		file.close();
+	}
+
+	/**
+	 * Gets the chunk of a record, adding chunks until it exists.
+	 */
+	private ByteBuffer getChunk(long index) {
+		int chunkIndex = (int) (index / CHUNK_RECORDS);
+		while (chunks.size() <= chunkIndex) {
+			int chunkSize = CHUNK_RECORDS * RECORD_SIZE;
+			if (file == null) {
+				chunks.add(ByteBuffer.allocate(chunkSize));
+			} else {
+				try {
+					long position = (long) chunks.size() * chunkSize;
+					chunks.add(file.getChannel().map(
+							FileChannel.MapMode.READ_WRITE,
+							position,
+							chunkSize));
+				} catch (IOException e) {
+					throw new IllegalStateException("Cannot extend the cloudlet journal", e);
+				}
+			}
+		}
+		return chunks.get(chunkIndex);
+	}
+
+	/**
+	 * A record of the journal.
+	 */
+	public static class Entry {
+
+		/** The simulation time. */
+		private final double time;
+
+		/** The cloudlet ID. */
+		private final int cloudletId;
+
+		/** The serial number of the cloudlet. */
+		private final int serial;
+
+		/** The kind of the event. */
+		private final int kind;
+
+		/** The first ID. */
+		private final int id;
+
+		/** The second ID. */
+		private final int previousId;
+
+		/** The first value. */
+		private final double value;
+
+		/** The second value. */
+		private final double value2;
+
+		/** The index of the next record of the cloudlet. */
+		private final long next;
+
+		/**
+		 * Creates a record.
+		 */
+		private Entry(
+				double time,
+				int cloudletId,
+				int serial,
+				int kind,
+				int id,
+				int previousId,
+				double value,
+				double value2,
+				long next) {
+			this.time = time;
+			this.cloudletId = cloudletId;
+			this.serial = serial;
+			this.kind = kind;
+			this.id = id;
+			this.previousId = previousId;
+			this.value = value;
+			this.value2 = value2;
+			this.next = next;
+		}
+
+		/**
+		 * Gets the simulation time.
+		 *
+		 * @return the time
+		 */
+		public double getTime() {
+			return time;
+		}
+
+		/**
+		 * Gets the cloudlet ID.
+		 *
+		 * @return the cloudlet ID
+		 */
+		public int getCloudletId() {
+			return cloudletId;
+		}
+
+		/**
+		 * Gets the serial number of the cloudlet.
+		 *
+		 * @return the serial number
+		 */
+		public int getSerial() {
+			return serial;
+		}
+
+		/**
+		 * Gets the kind of the event.
+		 *
+		 * @return the kind
+		 */
+		public int getKind() {
+			return kind;
+		}
+
+		/**
+		 * Gets the first ID: a user, resource, status or message, depending on the kind.
+		 *
+		 * @return the ID
+		 */
+		public int getId() {
+			return id;
+		}
+
+		/**
+		 * Gets the second ID: the previous resource or status, depending on the kind.
+		 *
+		 * @return the ID
+		 */
+		public int getPreviousId() {
+			return previousId;
+		}
+
+		/**
+		 * Gets the first value, depending on the kind.
+		 *
+		 * @return the value
+		 */
+		public double getValue() {
+			return value;
+		}
+
+		/**
+		 * Gets the second value, depending on the kind.
+		 *
+		 * @return the value
+		 */
+		public double getValue2() {
+			return value2;
+		}
+
+		/**
+		 * Gets the index of the next record of the cloudlet.
+		 *
+		 * @return the index, -1 if this is the last record of the cloudlet
+		 */
+		public long getNext() {
+			return next;
+		}
+
+	}
+
+}
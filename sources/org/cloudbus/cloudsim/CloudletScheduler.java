@@ -25,7 +25,10 @@ public abstract class CloudletScheduler {
 	private double previousTime;
 
 	/** The current mips share. */
-	private List<Double> currentMipsShare;
+	private MipsShare currentMipsShare;
+
+	/** The completion queue of the datacenter the VM is placed in. */
+	private CompletionQueue completionQueue;
 
 	/**
 	 * Creates a new CloudletScheduler object. This method must be invoked before starting the
@@ -231,12 +234,12 @@ public abstract class CloudletScheduler {
 	}
 
 	/**
-	 * Sets the current mips share.
+	 * Sets the current mips share. A list that is not a {@link MipsShare} is copied into one.
 	 * 
 	 * @param currentMipsShare the new current mips share
 	 */
 	protected void setCurrentMipsShare(List<Double> currentMipsShare) {
-		this.currentMipsShare = currentMipsShare;
+		this.currentMipsShare = MipsShare.valueOf(currentMipsShare);
 	}
 
 	/**
@@ -248,4 +251,44 @@ public abstract class CloudletScheduler {
 		return currentMipsShare;
 	}
 
+	/**
+	 * Checks whether this scheduler publishes its finished cloudlets into the completion queue of
+	 * the datacenter, by calling {@link #notifyCloudletFinished()} whenever it adds a cloudlet to
+	 * its finished list. Otherwise the datacenter has to poll the scheduler for finished cloudlets
+	 * after every update. A subclass of a publishing scheduler is polled unless it overrides this
+	 * method again, since it may fill the finished list by itself.
+	 * 
+	 * @return true if the finished cloudlets are published, false by default
+	 */
+	public boolean isPublishingCompletions() {
+		return false;
+	}
+
+	/**
+	 * Publishes that a cloudlet has been added to the finished list of this scheduler.
+	 */
+	protected void notifyCloudletFinished() {
+		if (completionQueue != null) {
+			completionQueue.cloudletFinished(this);
+		}
+	}
+
+	/**
+	 * Gets the completion queue the finished cloudlets are published into.
+	 * 
+	 * @return the completion queue, or null if the VM has not been placed in a datacenter yet
+	 */
+	public CompletionQueue getCompletionQueue() {
+		return completionQueue;
+	}
+
+	/**
+	 * Sets the completion queue the finished cloudlets are published into.
+	 * 
+	 * @param completionQueue the completion queue
+	 */
+	public void setCompletionQueue(CompletionQueue completionQueue) {
+		this.completionQueue = completionQueue;
+	}
+
 }
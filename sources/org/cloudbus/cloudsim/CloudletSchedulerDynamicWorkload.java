@@ -153,6 +153,7 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 		rcl.setCloudletStatus(Cloudlet.SUCCESS);
 		rcl.finalizeCloudlet();
 		getCloudletFinishedList().add(rcl);
+		notifyCloudletFinished();
 	}
 
 	/**
@@ -180,13 +181,8 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 		if (getCachePreviousTime() == getPreviousTime()) {
 			return getCacheCurrentRequestedMips();
 		}
-		List<Double> currentMips = new ArrayList<Double>();
 		double totalMips = getTotalUtilizationOfCpu(getPreviousTime()) * getTotalMips();
-		double mipsForPe = totalMips / getNumberOfPes();
-
-		for (int i = 0; i < getNumberOfPes(); i++) {
-			currentMips.add(mipsForPe);
-		}
+		MipsShare currentMips = MipsShare.uniform(getNumberOfPes(), totalMips / getNumberOfPes());
 
 		setCachePreviousTime(getPreviousTime());
 		setCacheCurrentRequestedMips(currentMips);
@@ -217,9 +213,10 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
 		double totalCurrentMips = 0.0;
 		if (mipsShare != null) {
+			MipsShare share = MipsShare.valueOf(mipsShare);
 			int neededPEs = rcl.getNumberOfPes();
-			for (double mips : mipsShare) {
-				totalCurrentMips += mips;
+			for (int i = 0; i < share.size(); i++) {
+				totalCurrentMips += share.getMips(i);
 				neededPEs--;
 				if (neededPEs <= 0) {
 					break;
@@ -278,8 +275,9 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 */
 	public int getTotalCurrentMips() {
 		int totalCurrentMips = 0;
-		for (double mips : getCurrentMipsShare()) {
-			totalCurrentMips += mips;
+		MipsShare share = MipsShare.valueOf(getCurrentMipsShare());
+		for (int i = 0; i < share.size(); i++) {
+			totalCurrentMips += share.getMips(i);
 		}
 		return totalCurrentMips;
 	}
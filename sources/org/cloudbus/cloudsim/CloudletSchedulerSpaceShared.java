@@ -78,7 +78,9 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		double capacity = 0.0;
 		int cpus = 0;
 
-		for (Double mips : mipsShare) { // count the CPUs available to the VMM
+		MipsShare share = MipsShare.valueOf(mipsShare);
+		for (int pe = 0; pe < share.size(); pe++) { // count the CPUs available to the VMM
+			double mips = share.getMips(pe);
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -273,6 +275,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		rcl.setCloudletStatus(Cloudlet.SUCCESS);
 		rcl.finalizeCloudlet();
 		getCloudletFinishedList().add(rcl);
+		notifyCloudletFinished();
 		usedPes -= rcl.getNumberOfPes();
 	}
 
@@ -318,7 +321,9 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 				// calculate the expected time for cloudlet completion
 				double capacity = 0.0;
 				int cpus = 0;
-				for (Double mips : getCurrentMipsShare()) {
+				MipsShare share = MipsShare.valueOf(getCurrentMipsShare());
+				for (int pe = 0; pe < share.size(); pe++) {
+					double mips = share.getMips(pe);
 					capacity += mips;
 					if (mips > 0) {
 						cpus++;
@@ -380,7 +385,9 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		// calculate the expected time for cloudlet completion
 		double capacity = 0.0;
 		int cpus = 0;
-		for (Double mips : getCurrentMipsShare()) {
+		MipsShare share = MipsShare.valueOf(getCurrentMipsShare());
+		for (int pe = 0; pe < share.size(); pe++) {
+			double mips = share.getMips(pe);
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -599,13 +606,11 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	 */
 	@Override
 	public List<Double> getCurrentRequestedMips() {
-		List<Double> mipsShare = new ArrayList<Double>();
-		if (getCurrentMipsShare() != null) {
-			for (Double mips : getCurrentMipsShare()) {
-				mipsShare.add(mips);
-			}
+		MipsShare mipsShare = MipsShare.valueOf(getCurrentMipsShare());
+		if (mipsShare == null) {
+			return new MipsShare(0);
 		}
-		return mipsShare;
+		return mipsShare.copy();
 	}
 
 	/*
@@ -618,7 +623,9 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
 		double capacity = 0.0;
 		int cpus = 0;
-		for (Double mips : mipsShare) { // count the cpus available to the vmm
+		MipsShare share = MipsShare.valueOf(mipsShare);
+		for (int pe = 0; pe < share.size(); pe++) { // count the cpus available to the vmm
+			double mips = share.getMips(pe);
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -665,4 +672,15 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		return 0;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#isPublishingCompletions()
+	 */
+	@Override
+	public boolean isPublishingCompletions() {
+		// a subclass may add cloudlets to the finished list on its own, so it is polled unless
+		// it overrides this method too
+		return getClass() == CloudletSchedulerSpaceShared.class;
+	}
+
 }
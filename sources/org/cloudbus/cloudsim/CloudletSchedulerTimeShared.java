@@ -61,11 +61,12 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
-		setCurrentMipsShare(mipsShare);
+		MipsShare share = MipsShare.valueOf(mipsShare);
+		setCurrentMipsShare(share);
 		double timeSpam = currentTime - getPreviousTime();
 
 		for (ResCloudlet rcl : getCloudletExecList()) {
-			rcl.updateCloudletFinishedSoFar((long) (getCapacity(mipsShare) * timeSpam * rcl.getNumberOfPes() * Consts.MILLION));
+			rcl.updateCloudletFinishedSoFar((long) (getCapacity(share) * timeSpam * rcl.getNumberOfPes() * Consts.MILLION));
 		}
 
 		if (getCloudletExecList().size() == 0) {
@@ -89,7 +90,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		// estimate finish time of cloudlets
 		for (ResCloudlet rcl : getCloudletExecList()) {
 			double estimatedFinishTime = currentTime
-					+ (rcl.getRemainingCloudletLength() / (getCapacity(mipsShare) * rcl.getNumberOfPes()));
+					+ (rcl.getRemainingCloudletLength() / (getCapacity(share) * rcl.getNumberOfPes()));
 			if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
 				estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
 			}
@@ -110,9 +111,11 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 * @return the capacity
 	 */
 	protected double getCapacity(List<Double> mipsShare) {
+		MipsShare share = MipsShare.valueOf(mipsShare);
 		double capacity = 0.0;
 		int cpus = 0;
-		for (Double mips : mipsShare) {
+		for (int i = 0; i < share.size(); i++) {
+			double mips = share.getMips(i);
 			capacity += mips;
 			if (mips > 0.0) {
 				cpus++;
@@ -246,6 +249,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		rcl.setCloudletStatus(Cloudlet.SUCCESS);
 		rcl.finalizeCloudlet();
 		getCloudletFinishedList().add(rcl);
+		notifyCloudletFinished();
 	}
 
 	/**
@@ -485,8 +489,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public List<Double> getCurrentRequestedMips() {
-		List<Double> mipsShare = new ArrayList<Double>();
-		return mipsShare;
+		return new MipsShare(0);
 	}
 
 	/*
@@ -538,4 +541,15 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		return bw;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#isPublishingCompletions()
+	 */
+	@Override
+	public boolean isPublishingCompletions() {
+		// a subclass may add cloudlets to the finished list on its own, so it is polled unless
+		// it overrides this method too
+		return getClass() == CloudletSchedulerTimeShared.class;
+	}
+
 }
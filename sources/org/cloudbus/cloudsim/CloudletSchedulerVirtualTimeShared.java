@@ -0,0 +1,686 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * CloudletSchedulerVirtualTimeShared implements the same time-shared policy as
+ * {@link CloudletSchedulerTimeShared}, where every PE of a cloudlet receives an equal share of the
+ * capacity of the VM, without updating every cloudlet on every update of the VM processing.
+ *
+ * Since all the PEs progress at the same rate, the scheduler keeps a virtual time, which is the
+ * amount of MI executed by a PE of the VM since the scheduler was created. A cloudlet submitted at
+ * virtual time v with a length of l MI per PE finishes when the virtual time reaches v + l,
+ * whatever the changes of the capacity in between. A cloudlet is finished, as in the time-shared
+ * scheduler, when less than one MI of its total length remains, i.e., when the virtual time passes
+ * v + l - 1/p for a cloudlet with p PEs. The running cloudlets are kept in a binary min-heap ordered
+ * by this completion virtual time, so an update advances the virtual time and removes the finished
+ * cloudlets from the top of the heap in O(log n) each, and the next completion is read from the
+ * top of the heap. The amount of a cloudlet executed so far is only computed when the
+ * cloudlet leaves the scheduler.
+ *
+ * The completion times are the same as the ones of {@link CloudletSchedulerTimeShared}, except for
+ * the rounding of the executed instructions, which that scheduler truncates on every update.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class CloudletSchedulerVirtualTimeShared extends CloudletScheduler {
+
+	/**
+	 * A cloudlet managed by the scheduler.
+	 */
+	private static class Task {
+
+		/** The cloudlet. */
+		final ResCloudlet rcl;
+
+		/** The virtual time the cloudlet finishes at, while running. */
+		double finishVirtualTime;
+
+		/** The virtual time after which less than one MI of the cloudlet remains, the heap key. */
+		double completionVirtualTime;
+
+		/** The virtual time the executed length of the cloudlet has been updated at. */
+		double updateVirtualTime;
+
+		/** The length per PE that remains to execute, while paused. */
+		double remainingLength;
+
+		/** The position of the cloudlet in the heap, -1 if not running. */
+		int position = -1;
+
+		/** The order in which the cloudlet has been submitted. */
+		final long sequence;
+
+		Task(ResCloudlet rcl, long sequence) {
+			this.rcl = rcl;
+			this.sequence = sequence;
+		}
+
+	}
+
+	/** Sorts the cloudlets by submission order. */
+	private static final Comparator<Task> SUBMISSION_ORDER = new Comparator<Task>() {
+
+		@Override
+		public int compare(Task task1, Task task2) {
+			return task1.sequence < task2.sequence ? -1 : (task1.sequence == task2.sequence ? 0 : 1);
+		}
+
+	};
+
+	/** The heap of the running cloudlets, ordered by completion virtual time. */
+	private Task[] heap;
+
+	/** The number of running cloudlets. */
+	private int heapSize;
+
+	/** The running and paused cloudlets, by id. */
+	private final Map<Integer, Task> tasks;
+
+	/** The cloudlet finished list. */
+	private final LinkedList<ResCloudlet> cloudletFinishedList;
+
+	/** The virtual time. */
+	private double virtualTime;
+
+	/** The number of PEs requested by the running cloudlets. */
+	private int pesInUse;
+
+	/** The number of cloudlets submitted so far. */
+	private long submitted;
+
+	/**
+	 * Creates a new CloudletSchedulerVirtualTimeShared object. This method must be invoked before
+	 * starting the actual simulation.
+	 *
+	 * @pre $none
+	 * @post $none
+	 */
+	public CloudletSchedulerVirtualTimeShared() {
+		super();
+		heap = new Task[16];
+		tasks = new HashMap<Integer, Task>();
+		cloudletFinishedList = new LinkedList<ResCloudlet>();
+	}
+
+	/**
+	 * Updates the processing of cloudlets running under management of this scheduler.
+	 *
+	 * @param currentTime current simulation time
+	 * @param mipsShare array with MIPS share of each processor available to the scheduler
+	 * @return time predicted completion time of the earliest finishing cloudlet, or 0 if there is
+	 *         no next events
+	 * @pre currentTime >= 0
+	 * @post $none
+	 */
+	@Override
+	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+		setCurrentMipsShare(mipsShare);
+		double timeSpam = currentTime - getPreviousTime();
+		setPreviousTime(currentTime);
+
+		virtualTime += getCapacity() * timeSpam;
+
+		if (heapSize == 0) {
+			return 0.0;
+		}
+
+		// finished cloudlets are those with less than one MI remaining, which the heap keeps on top;
+		// the cloudlets finishing at the same update are returned in submission order, as in the
+		// time-shared scheduler
+		List<Task> finished = null;
+		while (heapSize > 0 && isFinished(heap[0])) {
+			Task task = heap[0];
+			removeFromHeap(task);
+			tasks.remove(task.rcl.getCloudletId());
+			if (finished == null) {
+				finished = new ArrayList<Task>();
+			}
+			finished.add(task);
+		}
+		if (finished != null) {
+			if (finished.size() > 1) {
+				Collections.sort(finished, SUBMISSION_ORDER);
+			}
+			for (Task task : finished) {
+				cloudletFinish(task.rcl);
+			}
+		}
+
+		if (heapSize == 0) {
+			return Double.MAX_VALUE;
+		}
+
+		// estimate finish time of the earliest finishing cloudlet
+		double capacity = getCapacity();
+		if (capacity <= 0) {
+			return Double.MAX_VALUE;
+		}
+		int pes = heap[0].rcl.getNumberOfPes();
+		double remainingLength = Math.floor(getRemainingLength(heap[0]) * pes);
+		double estimatedFinishTime = currentTime + remainingLength / (capacity * pes);
+		if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+			estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
+		}
+		return estimatedFinishTime;
+	}
+
+	/**
+	 * Gets the capacity of a PE of the VM for a cloudlet PE, which is the total MIPS of the current
+	 * mips share divided by the number of PEs of the VM or of the running cloudlets, whichever is
+	 * greater.
+	 *
+	 * @return the capacity
+	 */
+	protected double getCapacity() {
+		return getCapacity(pesInUse);
+	}
+
+	/**
+	 * Gets the capacity of a PE of the VM for a cloudlet PE with a given number of PEs requested by
+	 * the running cloudlets.
+	 *
+	 * @param pesRunning the number of PEs requested by the running cloudlets
+	 * @return the capacity
+	 */
+	private double getCapacity(int pesRunning) {
+		MipsShare mipsShare = MipsShare.valueOf(getCurrentMipsShare());
+		if (mipsShare == null) {
+			return 0.0;
+		}
+		double capacity = 0.0;
+		int cpus = 0;
+		for (int i = 0; i < mipsShare.size(); i++) {
+			double mips = mipsShare.getMips(i);
+			capacity += mips;
+			if (mips > 0.0) {
+				cpus++;
+			}
+		}
+		if (pesRunning > cpus) {
+			capacity /= pesRunning;
+		} else if (cpus > 0) {
+			capacity /= cpus;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Cancels execution of a cloudlet.
+	 *
+	 * @param cloudletId ID of the cloudlet being cancealed
+	 * @return the canceled cloudlet, $null if not found
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet cloudletCancel(int cloudletId) {
+		// First, looks in the finished queue
+		Iterator<ResCloudlet> it = cloudletFinishedList.iterator();
+		while (it.hasNext()) {
+			ResCloudlet rcl = it.next();
+			if (rcl.getCloudletId() == cloudletId) {
+				it.remove();
+				return rcl.getCloudlet();
+			}
+		}
+
+		// Then searches in the running and paused cloudlets
+		Task task = tasks.remove(cloudletId);
+		if (task == null) {
+			return null;
+		}
+		if (task.position >= 0) {
+			updateCloudletFinishedSoFar(task);
+			removeFromHeap(task);
+			if (task.rcl.getRemainingCloudletLength() == 0) {
+				cloudletFinish(task.rcl);
+				return task.rcl.getCloudlet();
+			}
+		}
+		task.rcl.setCloudletStatus(Cloudlet.CANCELED);
+		return task.rcl.getCloudlet();
+	}
+
+	/**
+	 * Pauses execution of a cloudlet.
+	 *
+	 * @param cloudletId ID of the cloudlet being paused
+	 * @return $true if cloudlet paused, $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public boolean cloudletPause(int cloudletId) {
+		Task task = tasks.get(cloudletId);
+		if (task == null || task.position < 0) {
+			return false;
+		}
+
+		// remove cloudlet from the heap and keep its remaining length
+		updateCloudletFinishedSoFar(task);
+		removeFromHeap(task);
+		if (task.rcl.getRemainingCloudletLength() == 0) {
+			tasks.remove(cloudletId);
+			cloudletFinish(task.rcl);
+		} else {
+			task.remainingLength = getRemainingLength(task);
+			task.rcl.setCloudletStatus(Cloudlet.PAUSED);
+		}
+		return true;
+	}
+
+	/**
+	 * Processes a finished cloudlet.
+	 *
+	 * @param rcl finished cloudlet
+	 * @pre rgl != $null
+	 * @post $none
+	 */
+	@Override
+	public void cloudletFinish(ResCloudlet rcl) {
+		rcl.setCloudletStatus(Cloudlet.SUCCESS);
+		rcl.finalizeCloudlet();
+		cloudletFinishedList.add(rcl);
+		notifyCloudletFinished();
+	}
+
+	/**
+	 * Resumes execution of a paused cloudlet.
+	 *
+	 * @param cloudletId ID of the cloudlet being resumed
+	 * @return expected finish time of the cloudlet, 0.0 if queued
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public double cloudletResume(int cloudletId) {
+		Task task = tasks.get(cloudletId);
+		if (task == null || task.position >= 0) {
+			return 0.0;
+		}
+
+		task.rcl.setCloudletStatus(Cloudlet.INEXEC);
+		setFinishVirtualTime(task, virtualTime + task.remainingLength);
+		task.updateVirtualTime = virtualTime;
+		addToHeap(task);
+
+		// calculate the expected time for cloudlet completion
+		return CloudSim.clock() + task.remainingLength / getCapacity();
+	}
+
+	/**
+	 * Receives an cloudlet to be executed in the VM managed by this scheduler.
+	 *
+	 * @param cloudlet the submited cloudlet
+	 * @param fileTransferTime time required to move the required files from the SAN to the VM
+	 * @return expected finish time of this cloudlet
+	 * @pre gl != null
+	 * @post $none
+	 */
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+		ResCloudlet rcl = new ResCloudlet(cloudlet);
+		rcl.setCloudletStatus(Cloudlet.INEXEC);
+		for (int i = 0; i < cloudlet.getNumberOfPes(); i++) {
+			rcl.setMachineAndPeId(0, i);
+		}
+
+		Task task = new Task(rcl, submitted++);
+		tasks.put(rcl.getCloudletId(), task);
+
+		// use the capacity with the cloudlet running to estimate the extra amount of
+		// time to file transferring. It must be added to the cloudlet length
+		double extraSize = getCapacity(pesInUse + rcl.getNumberOfPes()) * fileTransferTime;
+		long length = (long) (cloudlet.getCloudletLength() + extraSize);
+		cloudlet.setCloudletLength(length);
+
+		// the cloudlet enters the heap once its finish virtual time is known
+		task.updateVirtualTime = virtualTime;
+		setFinishVirtualTime(task, virtualTime + (double) rcl.getRemainingCloudletLength()
+				/ rcl.getNumberOfPes());
+		addToHeap(task);
+
+		return cloudlet.getCloudletLength() / getCapacity();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#cloudletSubmit(cloudsim.Cloudlet)
+	 */
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet) {
+		return cloudletSubmit(cloudlet, 0.0);
+	}
+
+	/**
+	 * Gets the status of a cloudlet.
+	 *
+	 * @param cloudletId ID of the cloudlet
+	 * @return status of the cloudlet, -1 if cloudlet not found
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public int getCloudletStatus(int cloudletId) {
+		Task task = tasks.get(cloudletId);
+		if (task == null) {
+			return -1;
+		}
+		return task.rcl.getCloudletStatus();
+	}
+
+	/**
+	 * Get utilization created by all cloudlets.
+	 *
+	 * @param time the time
+	 * @return total utilization
+	 */
+	@Override
+	public double getTotalUtilizationOfCpu(double time) {
+		double totalUtilization = 0;
+		for (int i = 0; i < heapSize; i++) {
+			totalUtilization += heap[i].rcl.getCloudlet().getUtilizationOfCpu(time);
+		}
+		return totalUtilization;
+	}
+
+	/**
+	 * Informs about completion of some cloudlet in the VM managed by this scheduler.
+	 *
+	 * @return $true if there is at least one finished cloudlet; $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public boolean isFinishedCloudlets() {
+		return !cloudletFinishedList.isEmpty();
+	}
+
+	/**
+	 * Returns the next cloudlet in the finished list, $null if this list is empty.
+	 *
+	 * @return a finished cloudlet
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet getNextFinishedCloudlet() {
+		if (!cloudletFinishedList.isEmpty()) {
+			return cloudletFinishedList.removeFirst().getCloudlet();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of cloudlets runnning in the virtual machine.
+	 *
+	 * @return number of cloudlets runnning
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public int runningCloudlets() {
+		return heapSize;
+	}
+
+	/**
+	 * Returns one cloudlet to migrate to another vm: the running cloudlet submitted first, as the
+	 * first cloudlet of the execution list of the time-shared scheduler.
+	 *
+	 * @return one running cloudlet, $null if no cloudlet is running
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet migrateCloudlet() {
+		if (heapSize == 0) {
+			return null;
+		}
+		int first = 0;
+		for (int i = 1; i < heapSize; i++) {
+			if (heap[i].sequence < heap[first].sequence) {
+				first = i;
+			}
+		}
+		Task task = heap[first];
+		updateCloudletFinishedSoFar(task);
+		removeFromHeap(task);
+		tasks.remove(task.rcl.getCloudletId());
+		task.rcl.finalizeCloudlet();
+		return task.rcl.getCloudlet();
+	}
+
+	/**
+	 * Gets the running cloudlets, in no particular order.
+	 *
+	 * @return the running cloudlets
+	 */
+	protected List<ResCloudlet> getCloudletExecList() {
+		List<ResCloudlet> cloudletExecList = new ArrayList<ResCloudlet>(heapSize);
+		for (int i = 0; i < heapSize; i++) {
+			cloudletExecList.add(heap[i].rcl);
+		}
+		return cloudletExecList;
+	}
+
+	/**
+	 * Gets the virtual time, which is the length executed so far by a PE of a cloudlet running
+	 * since the creation of the scheduler.
+	 *
+	 * @return the virtual time
+	 */
+	public double getVirtualTime() {
+		return virtualTime;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getCurrentRequestedMips()
+	 */
+	@Override
+	public List<Double> getCurrentRequestedMips() {
+		return new MipsShare(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getTotalCurrentAvailableMipsForCloudlet(cloudsim.ResCloudlet,
+	 * java.util.List)
+	 */
+	@Override
+	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+		return getCapacity();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getTotalCurrentAllocatedMipsForCloudlet(cloudsim.ResCloudlet,
+	 * double)
+	 */
+	@Override
+	public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getTotalCurrentRequestedMipsForCloudlet(cloudsim.ResCloudlet,
+	 * double)
+	 */
+	@Override
+	public double getTotalCurrentRequestedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	@Override
+	public double getCurrentRequestedUtilizationOfRam() {
+		double ram = 0;
+		for (int i = 0; i < heapSize; i++) {
+			ram += heap[i].rcl.getCloudlet().getUtilizationOfRam(CloudSim.clock());
+		}
+		return ram;
+	}
+
+	@Override
+	public double getCurrentRequestedUtilizationOfBw() {
+		double bw = 0;
+		for (int i = 0; i < heapSize; i++) {
+			bw += heap[i].rcl.getCloudlet().getUtilizationOfBw(CloudSim.clock());
+		}
+		return bw;
+	}
+
+	/**
+	 * Gets the length per PE a running cloudlet has still to execute.
+	 *
+	 * @param task the cloudlet
+	 * @return the remaining length
+	 */
+	private double getRemainingLength(Task task) {
+		return task.finishVirtualTime - virtualTime;
+	}
+
+	/**
+	 * Checks whether less than one MI of a running cloudlet remains.
+	 *
+	 * @param task the cloudlet
+	 * @return true if the cloudlet is finished
+	 */
+	private boolean isFinished(Task task) {
+		return virtualTime > task.completionVirtualTime;
+	}
+
+	/**
+	 * Sets the finish virtual time of a cloudlet out of the heap, and its completion virtual time.
+	 *
+	 * @param task the cloudlet
+	 * @param finishVirtualTime the finish virtual time
+	 */
+	private void setFinishVirtualTime(Task task, double finishVirtualTime) {
+		task.finishVirtualTime = finishVirtualTime;
+		task.completionVirtualTime = finishVirtualTime - 1.0 / task.rcl.getNumberOfPes();
+	}
+
+	/**
+	 * Adds the instructions a running cloudlet has executed since the last update of its executed
+	 * length.
+	 *
+	 * @param task the cloudlet
+	 */
+	private void updateCloudletFinishedSoFar(Task task) {
+		task.rcl.updateCloudletFinishedSoFar((long) ((virtualTime - task.updateVirtualTime)
+				* task.rcl.getNumberOfPes() * Consts.MILLION));
+		task.updateVirtualTime = virtualTime;
+	}
+
+	/**
+	 * Adds a cloudlet to the heap of the running cloudlets.
+	 *
+	 * @param task the cloudlet
+	 */
+	private void addToHeap(Task task) {
+		if (heapSize == heap.length) {
+			Task[] newHeap = new Task[heapSize * 2];
+			System.arraycopy(heap, 0, newHeap, 0, heapSize);
+			heap = newHeap;
+		}
+		pesInUse += task.rcl.getNumberOfPes();
+		siftUp(heapSize++, task);
+	}
+
+	/**
+	 * Removes a cloudlet from the heap of the running cloudlets.
+	 *
+	 * @param task the cloudlet
+	 */
+	private void removeFromHeap(Task task) {
+		int position = task.position;
+		pesInUse -= task.rcl.getNumberOfPes();
+		task.position = -1;
+		Task last = heap[--heapSize];
+		heap[heapSize] = null;
+		if (position == heapSize) {
+			return;
+		}
+		siftDown(position, last);
+		if (heap[position] == last) {
+			siftUp(position, last);
+		}
+	}
+
+	/**
+	 * Puts a cloudlet at a free position of the heap and moves it up.
+	 *
+	 * @param position the position
+	 * @param task the cloudlet
+	 */
+	private void siftUp(int position, Task task) {
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (heap[parent].completionVirtualTime <= task.completionVirtualTime) {
+				break;
+			}
+			heap[position] = heap[parent];
+			heap[position].position = position;
+			position = parent;
+		}
+		heap[position] = task;
+		task.position = position;
+	}
+
+	/**
+	 * Puts a cloudlet at a free position of the heap and moves it down.
+	 *
+	 * @param position the position
+	 * @param task the cloudlet
+	 */
+	private void siftDown(int position, Task task) {
+		int half = heapSize >>> 1;
+		while (position < half) {
+			int child = 2 * position + 1;
+			int right = child + 1;
+			if (right < heapSize
+					&& heap[right].completionVirtualTime < heap[child].completionVirtualTime) {
+				child = right;
+			}
+			if (task.completionVirtualTime <= heap[child].completionVirtualTime) {
+				break;
+			}
+			heap[position] = heap[child];
+			heap[position].position = position;
+			position = child;
+		}
+		heap[position] = task;
+		task.position = position;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#isPublishingCompletions()
+	 */
+	@Override
+	public boolean isPublishingCompletions() {
+		// a subclass may add cloudlets to the finished list on its own, so it is polled unless
+		// it overrides this method too
+		return getClass() == CloudletSchedulerVirtualTimeShared.class;
+	}
+
+}
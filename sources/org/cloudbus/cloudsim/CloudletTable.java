@@ -0,0 +1,216 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CloudletTable keeps the descriptions of the jobs of a workload, i.e., the ID, length, number of
+ * PEs and file sizes of each Cloudlet, in one primitive array per attribute, and creates the
+ * Cloudlets when they are needed. A job takes 32 bytes in the table, while a Cloudlet also carries
+ * its execution state, so that a workload of millions of jobs can be kept in memory and submitted
+ * in parts. The jobs of a table share the same utilization models.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class CloudletTable {
+
+	/** The cloudlet IDs. */
+	private int[] ids;
+
+	/** The cloudlet lengths in MI. */
+	private long[] lengths;
+
+	/** The numbers of PEs. */
+	private int[] pes;
+
+	/** The input file sizes in bytes. */
+	private long[] fileSizes;
+
+	/** The output file sizes in bytes. */
+	private long[] outputSizes;
+
+	/** The number of jobs. */
+	private int size;
+
+	/** The utilization model of cpu of the cloudlets. */
+	private final UtilizationModel utilizationModelCpu;
+
+	/** The utilization model of ram of the cloudlets. */
+	private final UtilizationModel utilizationModelRam;
+
+	/** The utilization model of bw of the cloudlets. */
+	private final UtilizationModel utilizationModelBw;
+
+	/**
+	 * Creates an empty table.
+	 *
+	 * @param utilizationModelCpu the utilization model of cpu of the cloudlets
+	 * @param utilizationModelRam the utilization model of ram of the cloudlets
+	 * @param utilizationModelBw the utilization model of bw of the cloudlets
+	 */
+	public CloudletTable(
+			UtilizationModel utilizationModelCpu,
+			UtilizationModel utilizationModelRam,
+			UtilizationModel utilizationModelBw) {
+		this.utilizationModelCpu = utilizationModelCpu;
+		this.utilizationModelRam = utilizationModelRam;
+		this.utilizationModelBw = utilizationModelBw;
+		ids = new int[16];
+		lengths = new long[16];
+		pes = new int[16];
+		fileSizes = new long[16];
+		outputSizes = new long[16];
+	}
+
+	/**
+	 * Adds a job.
+	 *
+	 * @param cloudletId the cloudlet ID
+	 * @param cloudletLength the length in MI
+	 * @param pesNumber the number of PEs
+	 * @param cloudletFileSize the input file size in bytes
+	 * @param cloudletOutputSize the output file size in bytes
+	 * @return the row of the job
+	 */
+	public int add(
+			int cloudletId,
+			long cloudletLength,
+			int pesNumber,
+			long cloudletFileSize,
+			long cloudletOutputSize) {
+		if (size == ids.length) {
+			int capacity = size + (size >> 1);
+			ids = Arrays.copyOf(ids, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			pes = Arrays.copyOf(pes, capacity);
+			fileSizes = Arrays.copyOf(fileSizes, capacity);
+			outputSizes = Arrays.copyOf(outputSizes, capacity);
+		}
+		ids[size] = cloudletId;
+		lengths[size] = cloudletLength;
+		pes[size] = pesNumber;
+		fileSizes[size] = cloudletFileSize;
+		outputSizes[size] = cloudletOutputSize;
+		return size++;
+	}
+
+	/**
+	 * Gets the number of jobs.
+	 *
+	 * @return the number of jobs
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the cloudlet ID of a job.
+	 *
+	 * @param row the row of the job
+	 * @return the cloudlet ID
+	 */
+	public int getCloudletId(int row) {
+		checkRow(row);
+		return ids[row];
+	}
+
+	/**
+	 * Gets the length of a job.
+	 *
+	 * @param row the row of the job
+	 * @return the length in MI
+	 */
+	public long getCloudletLength(int row) {
+		checkRow(row);
+		return lengths[row];
+	}
+
+	/**
+	 * Gets the number of PEs of a job.
+	 *
+	 * @param row the row of the job
+	 * @return the number of PEs
+	 */
+	public int getNumberOfPes(int row) {
+		checkRow(row);
+		return pes[row];
+	}
+
+	/**
+	 * Gets the input file size of a job.
+	 *
+	 * @param row the row of the job
+	 * @return the input file size in bytes
+	 */
+	public long getCloudletFileSize(int row) {
+		checkRow(row);
+		return fileSizes[row];
+	}
+
+	/**
+	 * Gets the output file size of a job.
+	 *
+	 * @param row the row of the job
+	 * @return the output file size in bytes
+	 */
+	public long getCloudletOutputSize(int row) {
+		checkRow(row);
+		return outputSizes[row];
+	}
+
+	/**
+	 * Creates the Cloudlet of a job. Each call creates a new Cloudlet.
+	 *
+	 * @param row the row of the job
+	 * @return the cloudlet
+	 */
+	public Cloudlet createCloudlet(int row) {
+		checkRow(row);
+		return new Cloudlet(
+				ids[row],
+				lengths[row],
+				pes[row],
+				fileSizes[row],
+				outputSizes[row],
+				utilizationModelCpu,
+				utilizationModelRam,
+				utilizationModelBw);
+	}
+
+	/**
+	 * Creates the Cloudlets of a range of jobs, e.g., the next part of the workload to submit.
+	 *
+	 * @param fromRow the first row, inclusive
+	 * @param toRow the last row, exclusive
+	 * @return the cloudlets
+	 */
+	public List<Cloudlet> createCloudlets(int fromRow, int toRow) {
+		if (fromRow < 0 || toRow > size || fromRow > toRow) {
+			throw new IndexOutOfBoundsException("Rows " + fromRow + " to " + toRow + " of " + size);
+		}
+		List<Cloudlet> cloudlets = new ArrayList<Cloudlet>(toRow - fromRow);
+		for (int row = fromRow; row < toRow; row++) {
+			cloudlets.add(createCloudlet(row));
+		}
+		return cloudlets;
+	}
+
+	/**
+	 * Checks that a row holds a job.
+	 */
+	private void checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CompletionQueue collects the completions happening in a {@link Datacenter}, so that the
+ * datacenter does not have to poll every VM of every host after each update. The cloudlet
+ * schedulers of the VMs placed in the datacenter publish themselves when a cloudlet finishes, and
+ * the hosts publish the VMs that have no more work. Handling the completions then costs
+ * O(completions) instead of O(hosts * VMs).
+ *
+ * Cloudlet schedulers only publish their completions if they declare it with
+ * {@link CloudletScheduler#isPublishingCompletions()}. As soon as a scheduler that does not is
+ * registered, the queue requires the datacenter to scan its VMs again.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class CompletionQueue {
+
+	/** The schedulers having finished cloudlets, in the order they published them. */
+	private final Set<CloudletScheduler> finishedSchedulers = new LinkedHashSet<CloudletScheduler>();
+
+	/** The completed VMs, in the order they were published. */
+	private final Set<Vm> completedVms = new LinkedHashSet<Vm>();
+
+	/** Whether a scheduler not publishing its completions has been registered. */
+	private boolean scanRequired;
+
+	/**
+	 * Registers the cloudlet scheduler of a VM placed in the datacenter.
+	 *
+	 * @param scheduler the cloudlet scheduler
+	 */
+	public void register(CloudletScheduler scheduler) {
+		if (scheduler == null) {
+			return;
+		}
+		if (scheduler.isPublishingCompletions()) {
+			scheduler.setCompletionQueue(this);
+		} else {
+			scanRequired = true;
+		}
+	}
+
+	/**
+	 * Checks whether the VMs of the datacenter have to be scanned for finished cloudlets, because
+	 * a registered scheduler does not publish its completions.
+	 *
+	 * @return true if the VMs have to be scanned
+	 */
+	public boolean isScanRequired() {
+		return scanRequired;
+	}
+
+	/**
+	 * Publishes that a cloudlet scheduler has finished cloudlets.
+	 *
+	 * @param scheduler the cloudlet scheduler
+	 */
+	public void cloudletFinished(CloudletScheduler scheduler) {
+		finishedSchedulers.add(scheduler);
+	}
+
+	/**
+	 * Removes the first scheduler having finished cloudlets from the queue.
+	 *
+	 * @return the scheduler, or null if there is none
+	 */
+	public CloudletScheduler pollFinishedScheduler() {
+		if (finishedSchedulers.isEmpty()) {
+			return null;
+		}
+		Iterator<CloudletScheduler> it = finishedSchedulers.iterator();
+		CloudletScheduler scheduler = it.next();
+		it.remove();
+		return scheduler;
+	}
+
+	/**
+	 * Removes all the schedulers having finished cloudlets from the queue.
+	 */
+	public void clearFinishedSchedulers() {
+		finishedSchedulers.clear();
+	}
+
+	/**
+	 * Publishes that a VM has completed.
+	 *
+	 * @param vm the VM
+	 */
+	public void vmCompleted(Vm vm) {
+		completedVms.add(vm);
+	}
+
+	/**
+	 * Removes all the completed VMs from the queue.
+	 *
+	 * @return the completed VMs, in the order they were published
+	 */
+	public List<Vm> pollCompletedVms() {
+		List<Vm> vms = new ArrayList<Vm>(completedVms);
+		completedVms.clear();
+		return vms;
+	}
+
+	/**
+	 * Removes all the completed VMs from the queue without returning them, e.g., before the hosts
+	 * publish them again.
+	 */
+	public void clearCompletedVms() {
+		completedVms.clear();
+	}
+
+}
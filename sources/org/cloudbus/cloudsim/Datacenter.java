@@ -9,7 +9,6 @@ package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -46,12 +45,18 @@ public class Datacenter extends SimEntity {
 	/** The storage list. */
 	private List<Storage> storageList;
 
+	/** The catalog of the files of the storage list. */
+	private FileCatalog fileCatalog;
+
 	/** The vm list. */
 	private List<? extends Vm> vmList;
 
 	/** The scheduling interval. */
 	private double schedulingInterval;
 
+	/** The queue the completions of cloudlets and VMs are published into. */
+	private final CompletionQueue completionQueue = new CompletionQueue();
+
 	/**
 	 * Allocates a new PowerDatacenter object.
 	 * 
@@ -158,6 +163,11 @@ public class Datacenter extends SimEntity {
 				processCloudletSubmit(ev, true);
 				break;
 
+			// Several new Cloudlets arrive
+			case CloudSimTags.CLOUDLET_SUBMIT_BATCH:
+				processCloudletSubmitBatch(ev);
+				break;
+
 			// Cancels a previously submitted Cloudlet
 			case CloudSimTags.CLOUDLET_CANCEL:
 				processCloudlet(ev, CloudSimTags.CLOUDLET_CANCEL);
@@ -213,6 +223,10 @@ public class Datacenter extends SimEntity {
 				processVmCreate(ev, true);
 				break;
 
+			case CloudSimTags.VM_CREATE_BATCH:
+				processVmCreateBatch(ev);
+				break;
+
 			case CloudSimTags.VM_DESTROY:
 				processVmDestroy(ev, false);
 				break;
@@ -229,6 +243,10 @@ public class Datacenter extends SimEntity {
 				processVmMigrate(ev, true);
 				break;
 
+			case CloudSimTags.VM_MIGRATE_BATCH:
+				processVmMigrateBatch(ev);
+				break;
+
 			case CloudSimTags.VM_DATA_ADD:
 				processDataAdd(ev, false);
 				break;
@@ -393,13 +411,8 @@ public class Datacenter extends SimEntity {
 			return;
 		}
 
-		int[] array = new int[3];
-		array[0] = getId();
-		array[1] = cloudletId;
-		array[2] = status;
-
 		int tag = CloudSimTags.CLOUDLET_STATUS;
-		sendNow(userId, tag, array);
+		sendNow(userId, tag, getId(), cloudletId, status);
 	}
 
 	/**
@@ -430,17 +443,43 @@ public class Datacenter extends SimEntity {
 
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
 
+		processVmCreateResult(vm, result, ack);
+	}
+
+	/**
+	 * Process the event for an User/Broker who wants to create several VMs in this Datacenter at
+	 * once. The hosts of all the VMs are allocated by a single call to the VM allocation policy,
+	 * then the status of each VM is sent back to the User/Broker, in the order of the list.
+	 * 
+	 * @param ev a SimEvent object whose data is the list of VMs
+	 * @pre ev != null
+	 * @post $none
+	 */
+	@SuppressWarnings("unchecked")
+	protected void processVmCreateBatch(SimEvent ev) {
+		List<Vm> vms = (List<Vm>) ev.getData();
+
+		boolean[] results = getVmAllocationPolicy().allocateHostsForVms(vms);
+
+		for (int i = 0; i < vms.size(); i++) {
+			processVmCreateResult(vms.get(i), results[i], true);
+		}
+	}
+
+	/**
+	 * Completes the creation of a VM once the VM allocation policy has tried to allocate a host
+	 * for it: sends the status back to the User/Broker and registers the created VM.
+	 * 
+	 * @param vm the vm
+	 * @param result whether a host was allocated for the vm
+	 * @param ack whether the status is sent back
+	 * @pre vm != null
+	 * @post $none
+	 */
+	protected void processVmCreateResult(Vm vm, boolean result, boolean ack) {
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-
-			if (result) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			send(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, data);
+			int data = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
+			send(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, getId(), vm.getId(), data);
 		}
 
 		if (result) {
@@ -471,12 +510,7 @@ public class Datacenter extends SimEntity {
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-			data[2] = CloudSimTags.TRUE;
-
-			sendNow(vm.getUserId(), CloudSimTags.VM_DESTROY_ACK, data);
+			sendNow(vm.getUserId(), CloudSimTags.VM_DESTROY_ACK, getId(), vm.getId(), CloudSimTags.TRUE);
 		}
 
 		getVmList().remove(vm);
@@ -502,6 +536,39 @@ public class Datacenter extends SimEntity {
 		Vm vm = (Vm) migrate.get("vm");
 		Host host = (Host) migrate.get("host");
 
+		processVmMigrate(vm, host, ev.getSource(), ack);
+	}
+
+	/**
+	 * Process the event for a batch of VM migrations completing at the same time, the data of
+	 * the event being a {@link MigrationPlan}. The migrations are completed in the order of the
+	 * plan, without acknowledgement.
+	 * 
+	 * @param ev a Sim_event object
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processVmMigrateBatch(SimEvent ev) {
+		Object tmp = ev.getData();
+		if (!(tmp instanceof MigrationPlan)) {
+			throw new ClassCastException("The data object must be MigrationPlan");
+		}
+
+		MigrationPlan migrationPlan = (MigrationPlan) tmp;
+		for (int i = 0; i < migrationPlan.size(); i++) {
+			processVmMigrate(migrationPlan.getVm(i), migrationPlan.getHost(i), ev.getSource(), false);
+		}
+	}
+
+	/**
+	 * Completes the migration of a VM to its target host.
+	 * 
+	 * @param vm the vm
+	 * @param host the target host
+	 * @param source the id of the entity that requested the migration
+	 * @param ack whether an acknowledgement has to be sent to the requesting entity
+	 */
+	protected void processVmMigrate(Vm vm, Host host, int source, boolean ack) {
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 		host.removeMigratingInVm(vm);
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm, host);
@@ -511,16 +578,8 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-
-			if (result) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			sendNow(ev.getSource(), CloudSimTags.VM_CREATE_ACK, data);
+			int data = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
+			sendNow(source, CloudSimTags.VM_CREATE_ACK, getId(), vm.getId(), data);
 		}
 
 		Log.formatLine(
@@ -626,11 +685,7 @@ public class Datacenter extends SimEntity {
 		} else {
 			// has the cloudlet already finished?
 			if (cl.getCloudletStatus() == Cloudlet.SUCCESS) {// if yes, send it back to user
-				int[] data = new int[3];
-				data[0] = getId();
-				data[1] = cloudletId;
-				data[2] = 0;
-				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, data);
+				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, getId(), cloudletId, 0);
 				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
 			}
 
@@ -644,7 +699,10 @@ public class Datacenter extends SimEntity {
 					failed = true;
 				} else {
 					// time to transfer the files
-					double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+					double fileTransferTime = 0.0;
+					if (cl.requiresFiles()) {
+						fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+					}
 					vm.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
 				}
 			} else {// the cloudlet will migrate from one resource to another
@@ -655,15 +713,7 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (type == CloudSimTags.CLOUDLET_MOVE_ACK) {// send ACK if requested
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = cloudletId;
-			if (failed) {
-				data[2] = 0;
-			} else {
-				data[2] = 1;
-			}
-			sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, data);
+			sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, getId(), cloudletId, failed ? 0 : 1);
 		}
 	}
 
@@ -682,66 +732,12 @@ public class Datacenter extends SimEntity {
 			// gets the Cloudlet object
 			Cloudlet cl = (Cloudlet) ev.getData();
 
-			// checks whether this Cloudlet has finished or not
-			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
-				Log.printLine(getName() + ": Warning - Cloudlet #" + cl.getCloudletId() + " owned by " + name
-						+ " is already completed/finished.");
-				Log.printLine("Therefore, it is not being executed again");
-				Log.printLine();
-
-				// NOTE: If a Cloudlet has finished, then it won't be processed.
-				// So, if ack is required, this method sends back a result.
-				// If ack is not required, this method don't send back a result.
-				// Hence, this might cause CloudSim to be hanged since waiting
-				// for this Cloudlet back.
-				if (ack) {
-					int[] data = new int[3];
-					data[0] = getId();
-					data[1] = cl.getCloudletId();
-					data[2] = CloudSimTags.FALSE;
-
-					// unique tag = operation tag
-					int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-					sendNow(cl.getUserId(), tag, data);
-				}
-
-				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
-
-				return;
-			}
-
-			// process this Cloudlet to this CloudResource
-			cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
-					.getCostPerBw());
-
-			int userId = cl.getUserId();
-			int vmId = cl.getVmId();
-
-			// time to transfer the files
-			double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
-
-			Host host = getVmAllocationPolicy().getHost(vmId, userId);
-			Vm vm = host.getVm(vmId, userId);
-			CloudletScheduler scheduler = vm.getCloudletScheduler();
-			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+			double estimatedFinishTime = submitCloudlet(cl, ack);
 
 			// if this cloudlet is in the exec queue
 			if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
-				estimatedFinishTime += fileTransferTime;
 				send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
 			}
-
-			if (ack) {
-				int[] data = new int[3];
-				data[0] = getId();
-				data[1] = cl.getCloudletId();
-				data[2] = CloudSimTags.TRUE;
-
-				// unique tag = operation tag
-				int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-				sendNow(cl.getUserId(), tag, data);
-			}
 		} catch (ClassCastException c) {
 			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
 			c.printStackTrace();
@@ -753,6 +749,108 @@ public class Datacenter extends SimEntity {
 		checkCloudletCompletion();
 	}
 
+	/**
+	 * Processes the submission of a list of Cloudlets. The processing of the VMs is updated once
+	 * before the Cloudlets are submitted, and a single event is scheduled at the earliest estimated
+	 * finish time of the Cloudlets, instead of one update and one event per Cloudlet.
+	 * 
+	 * @param ev a SimEvent object whose data is the list of Cloudlets
+	 * @pre ev != null
+	 * @post $none
+	 */
+	@SuppressWarnings("unchecked")
+	protected void processCloudletSubmitBatch(SimEvent ev) {
+		updateCloudletProcessing();
+
+		double earliestFinishTime = Double.MAX_VALUE;
+		for (Cloudlet cl : (List<Cloudlet>) ev.getData()) {
+			try {
+				double estimatedFinishTime = submitCloudlet(cl, false);
+
+				// if this cloudlet is in the exec queue
+				if (estimatedFinishTime > 0.0 && estimatedFinishTime < earliestFinishTime) {
+					earliestFinishTime = estimatedFinishTime;
+				}
+			} catch (Exception e) {
+				Log.printLine(getName() + ".processCloudletSubmitBatch(): " + "Exception error.");
+				e.printStackTrace();
+			}
+		}
+
+		if (earliestFinishTime != Double.MAX_VALUE && !Double.isInfinite(earliestFinishTime)) {
+			send(getId(), earliestFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
+		}
+
+		checkCloudletCompletion();
+	}
+
+	/**
+	 * Submits a Cloudlet to the scheduler of its VM, or returns it to its owner if it has already
+	 * finished.
+	 * 
+	 * @param cl the Cloudlet
+	 * @param ack an acknowledgement
+	 * @return the estimated time to finish the Cloudlet, including the time to transfer its files,
+	 *         or 0 if it is not in the exec queue
+	 * @pre cl != null
+	 * @post $none
+	 */
+	protected double submitCloudlet(Cloudlet cl, boolean ack) {
+		// checks whether this Cloudlet has finished or not
+		if (cl.isFinished()) {
+			String name = CloudSim.getEntityName(cl.getUserId());
+			Log.printLine(getName() + ": Warning - Cloudlet #" + cl.getCloudletId() + " owned by " + name
+					+ " is already completed/finished.");
+			Log.printLine("Therefore, it is not being executed again");
+			Log.printLine();
+
+			// NOTE: If a Cloudlet has finished, then it won't be processed.
+			// So, if ack is required, this method sends back a result.
+			// If ack is not required, this method don't send back a result.
+			// Hence, this might cause CloudSim to be hanged since waiting
+			// for this Cloudlet back.
+			if (ack) {
+				// unique tag = operation tag
+				int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
+				sendNow(cl.getUserId(), tag, getId(), cl.getCloudletId(), CloudSimTags.FALSE);
+			}
+
+			sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
+
+			return 0.0;
+		}
+
+		// process this Cloudlet to this CloudResource
+		cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
+				.getCostPerBw());
+
+		int userId = cl.getUserId();
+		int vmId = cl.getVmId();
+
+		// time to transfer the files
+		double fileTransferTime = 0.0;
+		if (cl.requiresFiles()) {
+			fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+		}
+
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		Vm vm = host.getVm(vmId, userId);
+		CloudletScheduler scheduler = vm.getCloudletScheduler();
+		double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+
+		// if this cloudlet is in the exec queue
+		if (estimatedFinishTime > 0.0) {
+			estimatedFinishTime += fileTransferTime;
+		}
+
+		if (ack) {
+			// unique tag = operation tag
+			int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
+			sendNow(cl.getUserId(), tag, getId(), cl.getCloudletId(), CloudSimTags.TRUE);
+		}
+		return estimatedFinishTime;
+	}
+
 	/**
 	 * Predict file transfer time.
 	 * 
@@ -760,21 +858,7 @@ public class Datacenter extends SimEntity {
 	 * @return the double
 	 */
 	protected double predictFileTransferTime(List<String> requiredFiles) {
-		double time = 0.0;
-
-		Iterator<String> iter = requiredFiles.iterator();
-		while (iter.hasNext()) {
-			String fileName = iter.next();
-			for (int i = 0; i < getStorageList().size(); i++) {
-				Storage tempStorage = getStorageList().get(i);
-				File tempFile = tempStorage.getFile(fileName);
-				if (tempFile != null) {
-					time += tempFile.getSize() / tempStorage.getMaxTransferRate();
-					break;
-				}
-			}
-		}
-		return time;
+		return getFileCatalog().predictTransferTime(requiredFiles, CloudSim.clock());
 	}
 
 	/**
@@ -800,15 +884,8 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = cloudletId;
-			if (status) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			sendNow(userId, CloudSimTags.CLOUDLET_RESUME_ACK, data);
+			int data = status ? CloudSimTags.TRUE : CloudSimTags.FALSE;
+			sendNow(userId, CloudSimTags.CLOUDLET_RESUME_ACK, getId(), cloudletId, data);
 		}
 	}
 
@@ -827,15 +904,8 @@ public class Datacenter extends SimEntity {
 				.getCloudletScheduler().cloudletPause(cloudletId);
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = cloudletId;
-			if (status) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			sendNow(userId, CloudSimTags.CLOUDLET_PAUSE_ACK, data);
+			int data = status ? CloudSimTags.TRUE : CloudSimTags.FALSE;
+			sendNow(userId, CloudSimTags.CLOUDLET_PAUSE_ACK, getId(), cloudletId, data);
 		}
 	}
 
@@ -892,23 +962,43 @@ public class Datacenter extends SimEntity {
 
 	/**
 	 * Verifies if some cloudlet inside this PowerDatacenter already finished. If yes, send it to
-	 * the User/Broker
+	 * the User/Broker. Only the schedulers that published finished cloudlets into the completion
+	 * queue are polled, unless some scheduler of the datacenter does not publish them.
 	 * 
 	 * @pre $none
 	 * @post $none
 	 */
 	protected void checkCloudletCompletion() {
-		List<? extends Host> list = getVmAllocationPolicy().getHostList();
-		for (int i = 0; i < list.size(); i++) {
-			Host host = list.get(i);
-			for (Vm vm : host.getVmList()) {
-				while (vm.getCloudletScheduler().isFinishedCloudlets()) {
-					Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
-					if (cl != null) {
-						sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
-					}
+		if (getCompletionQueue().isScanRequired()) {
+			// some schedulers do not publish their completions, poll all of them
+			getCompletionQueue().clearFinishedSchedulers();
+			List<? extends Host> list = getVmAllocationPolicy().getHostList();
+			for (int i = 0; i < list.size(); i++) {
+				Host host = list.get(i);
+				for (Vm vm : host.getVmList()) {
+					returnFinishedCloudlets(vm.getCloudletScheduler());
 				}
 			}
+			return;
+		}
+
+		CloudletScheduler scheduler;
+		while ((scheduler = getCompletionQueue().pollFinishedScheduler()) != null) {
+			returnFinishedCloudlets(scheduler);
+		}
+	}
+
+	/**
+	 * Sends the finished cloudlets of a cloudlet scheduler back to their User/Broker.
+	 * 
+	 * @param scheduler the cloudlet scheduler
+	 */
+	private void returnFinishedCloudlets(CloudletScheduler scheduler) {
+		while (scheduler.isFinishedCloudlets()) {
+			Cloudlet cl = scheduler.getNextFinishedCloudlet();
+			if (cl != null) {
+				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
+			}
 		}
 	}
 
@@ -940,6 +1030,7 @@ public class Datacenter extends SimEntity {
 			tempStorage = getStorageList().get(i);
 			if (tempStorage.getAvailableSpace() >= file.getSize()) {
 				tempStorage.addFile(file);
+				getFileCatalog().addFile(file, tempStorage);
 				msg = DataCloudTags.FILE_ADD_SUCCESSFUL;
 				break;
 			}
@@ -972,18 +1063,26 @@ public class Datacenter extends SimEntity {
 			return false;
 		}
 
-		Iterator<Storage> it = getStorageList().iterator();
-		Storage storage = null;
-		boolean result = false;
+		return getFileCatalog().contains(fileName);
+	}
 
-		while (it.hasNext()) {
-			storage = it.next();
-			if (storage.contains(fileName)) {
-				result = true;
-				break;
-			}
+	/**
+	 * Renames a file of the resource's storage.
+	 * 
+	 * @param fileName the name of the file
+	 * @param newName the new name of the file
+	 * @return <tt>true</tt> if the renaming succeeded, <tt>false</tt> otherwise
+	 */
+	public boolean renameFile(String fileName, String newName) {
+		Storage storage = getFileCatalog().getStorage(fileName);
+		if (storage == null || contains(newName)) {
+			return false;
 		}
 
+		boolean result = storage.renameFile(storage.getFile(fileName), newName);
+		if (result) {
+			getFileCatalog().renameFile(fileName, newName);
+		}
 		return result;
 	}
 
@@ -1005,6 +1104,7 @@ public class Datacenter extends SimEntity {
 			tempStorage.deleteFile(fileName, tempFile);
 			msg = DataCloudTags.FILE_DELETE_SUCCESSFUL;
 		} // end for
+		getFileCatalog().deleteFile(fileName);
 
 		return msg;
 	}
@@ -1085,6 +1185,15 @@ public class Datacenter extends SimEntity {
 		this.regionalCisName = regionalCisName;
 	}
 
+	/**
+	 * Gets the queue the completions of cloudlets and VMs in this datacenter are published into.
+	 * 
+	 * @return the completion queue
+	 */
+	public CompletionQueue getCompletionQueue() {
+		return completionQueue;
+	}
+
 	/**
 	 * Gets the vm allocation policy.
 	 * 
@@ -1137,6 +1246,16 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void setStorageList(List<Storage> storageList) {
 		this.storageList = storageList;
+		fileCatalog = new FileCatalog(storageList);
+	}
+
+	/**
+	 * Gets the catalog of the files of the storage list.
+	 * 
+	 * @return the file catalog
+	 */
+	public FileCatalog getFileCatalog() {
+		return fileCatalog;
 	}
 
 	/**
@@ -10,6 +10,7 @@ package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -18,8 +19,6 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
-import org.cloudbus.cloudsim.lists.CloudletList;
-import org.cloudbus.cloudsim.lists.VmList;
 
 /**
  * DatacentreBroker represents a broker acting on behalf of a user. It hides VM management, as vm
@@ -70,6 +69,42 @@ public class DatacenterBroker extends SimEntity {
 	/** The datacenter characteristics list. */
 	protected Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/** Whether the cloudlets are submitted to a datacenter in a single event. */
+	protected boolean cloudletSubmissionBatched;
+
+	/** Whether the vms are sent to a datacenter for creation in a single event. */
+	protected boolean vmCreationBatched;
+
+	/** The index of the vm list by id. */
+	private final IdIndex<Vm> vmsById = new IdIndex<Vm>() {
+
+		@Override
+		int getId(Vm vm) {
+			return vm.getId();
+		}
+
+	};
+
+	/** The index of the vms created list by id. */
+	private final IdIndex<Vm> vmsCreatedById = new IdIndex<Vm>() {
+
+		@Override
+		int getId(Vm vm) {
+			return vm.getId();
+		}
+
+	};
+
+	/** The index of the cloudlet list by id. */
+	private final IdIndex<Cloudlet> cloudletsById = new IdIndex<Cloudlet>() {
+
+		@Override
+		int getId(Cloudlet cloudlet) {
+			return cloudlet.getCloudletId();
+		}
+
+	};
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -97,6 +132,7 @@ public class DatacenterBroker extends SimEntity {
 		setDatacenterRequestedIdsList(new ArrayList<Integer>());
 		setVmsToDatacentersMap(new HashMap<Integer, Integer>());
 		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
+		setCloudletSubmissionBatched(false);
 	}
 
 	/**
@@ -109,6 +145,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	public void submitVmList(List<? extends Vm> list) {
 		getVmList().addAll(list);
+		vmsById.invalidate();
 	}
 
 	/**
@@ -120,6 +157,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	public void submitCloudletList(List<? extends Cloudlet> list) {
 		getCloudletList().addAll(list);
+		cloudletsById.invalidate();
 	}
 
 	/**
@@ -132,7 +170,7 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	public void bindCloudletToVm(int cloudletId, int vmId) {
-		CloudletList.getById(getCloudletList(), cloudletId).setVmId(vmId);
+		getCloudletById(cloudletId).setVmId(vmId);
 	}
 
 	/**
@@ -216,17 +254,18 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void processVmCreate(SimEvent ev) {
-		int[] data = (int[]) ev.getData();
-		int datacenterId = data[0];
-		int vmId = data[1];
-		int result = data[2];
+		int datacenterId = ev.getIntData(0);
+		int vmId = ev.getIntData(1);
+		int result = ev.getIntData(2);
 
 		if (result == CloudSimTags.TRUE) {
 			getVmsToDatacentersMap().put(vmId, datacenterId);
-			getVmsCreatedList().add(VmList.getById(getVmList(), vmId));
+			Vm vm = getVmById(vmId);
+			getVmsCreatedList().add(vm);
+			vmsCreatedById.invalidate();
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vmId
 					+ " has been created in Datacenter #" + datacenterId + ", Host #"
-					+ VmList.getById(getVmsCreatedList(), vmId).getHost().getId());
+					+ vm.getHost().getId());
 		} else {
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
 					+ " failed in Datacenter #" + datacenterId);
@@ -317,15 +356,24 @@ public class DatacenterBroker extends SimEntity {
 		// send as much vms as possible for this datacenter before trying the next one
 		int requestedVms = 0;
 		String datacenterName = CloudSim.getEntityName(datacenterId);
+		List<Vm> batch = new ArrayList<Vm>();
 		for (Vm vm : getVmList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
 				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
 						+ " in " + datacenterName);
-				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
+				if (isVmCreationBatched()) {
+					batch.add(vm);
+				} else {
+					sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
+				}
 				requestedVms++;
 			}
 		}
 
+		if (!batch.isEmpty()) {
+			sendNow(datacenterId, CloudSimTags.VM_CREATE_BATCH, batch);
+		}
+
 		getDatacenterRequestedIdsList().add(datacenterId);
 
 		setVmsRequested(requestedVms);
@@ -340,16 +388,19 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void submitCloudlets() {
 		int vmIndex = 0;
+		List<Cloudlet> postponedList = new ArrayList<Cloudlet>();
+		Map<Integer, List<Cloudlet>> batches = new LinkedHashMap<Integer, List<Cloudlet>>();
 		for (Cloudlet cloudlet : getCloudletList()) {
 			Vm vm;
 			// if user didn't bind this cloudlet and it has not been executed yet
 			if (cloudlet.getVmId() == -1) {
 				vm = getVmsCreatedList().get(vmIndex);
 			} else { // submit to the specific vm
-				vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
+				vm = getCreatedVmById(cloudlet.getVmId());
 				if (vm == null) { // vm was not created
 					Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
 							+ cloudlet.getCloudletId() + ": bount VM not available");
+					postponedList.add(cloudlet);
 					continue;
 				}
 			}
@@ -357,16 +408,30 @@ public class DatacenterBroker extends SimEntity {
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
 					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
 			cloudlet.setVmId(vm.getId());
-			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			int datacenterId = getVmsToDatacentersMap().get(vm.getId());
+			if (isCloudletSubmissionBatched()) {
+				List<Cloudlet> batch = batches.get(datacenterId);
+				if (batch == null) {
+					batch = new ArrayList<Cloudlet>();
+					batches.put(datacenterId, batch);
+				}
+				batch.add(cloudlet);
+			} else {
+				sendNow(datacenterId, CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			}
 			cloudletsSubmitted++;
 			vmIndex = (vmIndex + 1) % getVmsCreatedList().size();
 			getCloudletSubmittedList().add(cloudlet);
 		}
 
-		// remove submitted cloudlets from waiting list
-		for (Cloudlet cloudlet : getCloudletSubmittedList()) {
-			getCloudletList().remove(cloudlet);
+		for (Map.Entry<Integer, List<Cloudlet>> batch : batches.entrySet()) {
+			sendNow(batch.getKey(), CloudSimTags.CLOUDLET_SUBMIT_BATCH, batch.getValue());
 		}
+
+		// only the postponed cloudlets remain in the waiting list
+		getCloudletList().clear();
+		getCloudletList().addAll(postponedList);
+		cloudletsById.invalidate();
 	}
 
 	/**
@@ -382,6 +447,7 @@ public class DatacenterBroker extends SimEntity {
 		}
 
 		getVmsCreatedList().clear();
+		vmsCreatedById.invalidate();
 	}
 
 	/**
@@ -597,6 +663,79 @@ public class DatacenterBroker extends SimEntity {
 		this.datacenterIdsList = datacenterIdsList;
 	}
 
+	/**
+	 * Checks if the cloudlets are submitted to a datacenter in a single
+	 * {@link CloudSimTags#CLOUDLET_SUBMIT_BATCH} event rather than one
+	 * {@link CloudSimTags#CLOUDLET_SUBMIT} event per cloudlet.
+	 * 
+	 * @return true, if the submission is batched
+	 */
+	public boolean isCloudletSubmissionBatched() {
+		return cloudletSubmissionBatched;
+	}
+
+	/**
+	 * Sets whether the cloudlets are submitted to a datacenter in a single event. The submission is
+	 * not batched by default, since a batch is processed by
+	 * {@link Datacenter#processCloudletSubmitBatch(SimEvent)} rather than by the
+	 * {@link Datacenter#processCloudletSubmit(SimEvent, boolean)} method datacenters may override.
+	 * 
+	 * @param cloudletSubmissionBatched true to batch the submission
+	 */
+	public void setCloudletSubmissionBatched(boolean cloudletSubmissionBatched) {
+		this.cloudletSubmissionBatched = cloudletSubmissionBatched;
+	}
+
+	/**
+	 * Checks if the vms are sent to a datacenter for creation in a single
+	 * {@link CloudSimTags#VM_CREATE_BATCH} event rather than one {@link CloudSimTags#VM_CREATE_ACK}
+	 * event per vm, so that the VM allocation policy of the datacenter can place them jointly.
+	 * 
+	 * @return true, if the creation is batched
+	 */
+	public boolean isVmCreationBatched() {
+		return vmCreationBatched;
+	}
+
+	/**
+	 * Sets whether the vms are sent to a datacenter for creation in a single event.
+	 * 
+	 * @param vmCreationBatched true to batch the creation
+	 */
+	public void setVmCreationBatched(boolean vmCreationBatched) {
+		this.vmCreationBatched = vmCreationBatched;
+	}
+
+	/**
+	 * Gets a vm of the vm list by id, as the first vm of the list with this id.
+	 * 
+	 * @param vmId the vm id
+	 * @return the vm, or null if not found
+	 */
+	protected Vm getVmById(int vmId) {
+		return vmsById.get(getVmList(), vmId);
+	}
+
+	/**
+	 * Gets a vm of the vms created list by id, as the first vm of the list with this id.
+	 * 
+	 * @param vmId the vm id
+	 * @return the vm, or null if it has not been created
+	 */
+	protected Vm getCreatedVmById(int vmId) {
+		return vmsCreatedById.get(getVmsCreatedList(), vmId);
+	}
+
+	/**
+	 * Gets a cloudlet of the cloudlet list by id, as the first cloudlet of the list with this id.
+	 * 
+	 * @param cloudletId the cloudlet id
+	 * @return the cloudlet, or null if not found
+	 */
+	protected Cloudlet getCloudletById(int cloudletId) {
+		return cloudletsById.get(getCloudletList(), cloudletId);
+	}
+
 	/**
 	 * Gets the vms to datacenters map.
 	 * 
@@ -652,4 +791,92 @@ public class DatacenterBroker extends SimEntity {
 		this.datacenterRequestedIdsList = datacenterRequestedIdsList;
 	}
 
+	/**
+	 * An index by id of a list of the broker. The index is invalidated by the methods of the
+	 * broker that modify the list, and it is also rebuilt when the list has been replaced or its
+	 * size has changed since the last lookup, so that the elements added to the list through its
+	 * getter are found. When several elements of the list share an id, the lookups fall back to a
+	 * linear scan of the list rather than rebuilding the index each time.
+	 * 
+	 * @param <T> the type of the elements
+	 */
+	private abstract static class IdIndex<T> {
+
+		/** The elements by id. */
+		private final Map<Integer, T> elementsById = new HashMap<Integer, T>();
+
+		/** The indexed list. */
+		private List<? extends T> list;
+
+		/** The size of the list when it was indexed. */
+		private int size;
+
+		/** Whether the index is up to date. */
+		private boolean valid;
+
+		/** Whether several elements of the list share an id. */
+		private boolean duplicated;
+
+		/**
+		 * Gets the first element of a list with the given id.
+		 * 
+		 * @param list the list
+		 * @param id the id
+		 * @return the element, or null if not found
+		 */
+		T get(List<? extends T> list, int id) {
+			if (!valid || list != this.list || list.size() != size) {
+				rebuild(list);
+			}
+			if (duplicated) {
+				for (T element : list) {
+					if (getId(element) == id) {
+						return element;
+					}
+				}
+				return null;
+			}
+			return elementsById.get(id);
+		}
+
+		/**
+		 * Invalidates the index after a modification of the list.
+		 */
+		void invalidate() {
+			valid = false;
+			list = null;
+			elementsById.clear();
+		}
+
+		/**
+		 * Rebuilds the index from a list.
+		 * 
+		 * @param list the list
+		 */
+		private void rebuild(List<? extends T> list) {
+			elementsById.clear();
+			duplicated = false;
+			for (T element : list) {
+				if (elementsById.containsKey(getId(element))) {
+					duplicated = true;
+					elementsById.clear();
+					break;
+				}
+				elementsById.put(getId(element), element);
+			}
+			this.list = list;
+			size = list.size();
+			valid = true;
+		}
+
+		/**
+		 * Gets the id of an element.
+		 * 
+		 * @param element the element
+		 * @return the id
+		 */
+		abstract int getId(T element);
+
+	}
+
 }
@@ -0,0 +1,190 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FileCatalog indexes the files of the storages of a datacenter by name, so that the storage of a
+ * file is found in constant time instead of asking each storage in turn. The files of the storages
+ * are indexed when the catalog is created; the datacenter then records the files it adds, deletes
+ * and renames. As a file can also be changed directly on a storage, the storage found for a file is
+ * checked to still contain it, and the storages are searched, in the order of the list, when it
+ * does not.
+ * <p>
+ * The catalog also predicts the time to transfer the files required by a cloudlet. By default the
+ * files are read one after another at the maximum transfer rate of their storage. When the
+ * transfer contention is modeled, the transfers from a storage are served one at a time, in the
+ * order they are predicted, so that the cloudlets reading files from the same storage at the same
+ * time share its maximum transfer rate.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class FileCatalog {
+
+	/** The storages. */
+	private final List<Storage> storageList;
+
+	/** The storage of each file, by file name. */
+	private final Map<String, Storage> storages = new HashMap<String, Storage>();
+
+	/** The time until which each storage is busy transferring files. */
+	private final Map<Storage, Double> busyUntil = new HashMap<Storage, Double>();
+
+	/** Whether the transfers from a storage contend for its maximum transfer rate. */
+	private boolean transferContentionModeled;
+
+	/**
+	 * Creates a catalog of the files of a list of storages.
+	 *
+	 * @param storageList the storages
+	 */
+	public FileCatalog(List<Storage> storageList) {
+		this.storageList = storageList;
+		if (storageList != null) {
+			for (Storage storage : storageList) {
+				for (String fileName : storage.getFileNameList()) {
+					if (!storages.containsKey(fileName)) {
+						storages.put(fileName, storage);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the storage of a file.
+	 *
+	 * @param fileName the name of the file
+	 * @return the storage, or null if no storage contains the file
+	 */
+	public Storage getStorage(String fileName) {
+		if (fileName == null || fileName.length() == 0) {
+			return null;
+		}
+
+		Storage storage = storages.get(fileName);
+		if (storage != null && storage.contains(fileName)) {
+			return storage;
+		}
+
+		// the file was changed directly on a storage
+		storages.remove(fileName);
+		if (storageList != null) {
+			for (Storage tempStorage : storageList) {
+				if (tempStorage.contains(fileName)) {
+					storages.put(fileName, tempStorage);
+					return tempStorage;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether a storage contains a file.
+	 *
+	 * @param fileName the name of the file
+	 * @return <tt>true</tt> if a storage contains the file, <tt>false</tt> otherwise
+	 */
+	public boolean contains(String fileName) {
+		return getStorage(fileName) != null;
+	}
+
+	/**
+	 * Records a file added to a storage.
+	 *
+	 * @param file the file
+	 * @param storage the storage
+	 */
+	public void addFile(File file, Storage storage) {
+		storages.put(file.getName(), storage);
+	}
+
+	/**
+	 * Records a file deleted from the storages.
+	 *
+	 * @param fileName the name of the file
+	 */
+	public void deleteFile(String fileName) {
+		storages.remove(fileName);
+	}
+
+	/**
+	 * Records a file renamed on its storage.
+	 *
+	 * @param fileName the old name of the file
+	 * @param newName the new name of the file
+	 */
+	public void renameFile(String fileName, String newName) {
+		Storage storage = storages.remove(fileName);
+		if (storage != null) {
+			storages.put(newName, storage);
+		}
+	}
+
+	/**
+	 * Predicts the time to transfer a list of files, read one after another, the files not found
+	 * being skipped. When the transfer contention is modeled, the transfers are recorded, so that
+	 * the transfers predicted afterwards wait for them.
+	 *
+	 * @param fileNames the names of the files
+	 * @param time the time the transfer starts
+	 * @return the transfer time in seconds
+	 */
+	public double predictTransferTime(List<String> fileNames, double time) {
+		double transferTime = 0.0;
+		for (String fileName : fileNames) {
+			Storage storage = getStorage(fileName);
+			if (storage == null) {
+				continue;
+			}
+			File file = storage.getFile(fileName);
+			if (file == null) {
+				continue;
+			}
+
+			double duration = file.getSize() / storage.getMaxTransferRate();
+			if (!isTransferContentionModeled()) {
+				transferTime += duration;
+				continue;
+			}
+
+			double start = time + transferTime;
+			Double busy = busyUntil.get(storage);
+			if (busy != null && busy > start) {
+				start = busy;
+			}
+			busyUntil.put(storage, start + duration);
+			transferTime = start + duration - time;
+		}
+		return transferTime;
+	}
+
+	/**
+	 * Checks whether the transfers from a storage contend for its maximum transfer rate.
+	 *
+	 * @return true, if the transfer contention is modeled
+	 */
+	public boolean isTransferContentionModeled() {
+		return transferContentionModeled;
+	}
+
+	/**
+	 * Sets whether the transfers from a storage contend for its maximum transfer rate.
+	 *
+	 * @param transferContentionModeled true to model the transfer contention
+	 */
+	public void setTransferContentionModeled(boolean transferContentionModeled) {
+		this.transferContentionModeled = transferContentionModeled;
+	}
+
+}
@@ -9,8 +9,12 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
 
@@ -23,6 +27,10 @@ import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
  * <li>avg seek time = 9 ms
  * <li>max transfer rate = 133 MB/sec
  * </ul>
+ * The files are indexed by name, so that they are found, added and removed in constant time, and
+ * the sizes of the files are kept in a Fenwick tree in the order the files were added, so that
+ * the size of the files preceding a file, which determines its seek time, is known in logarithmic
+ * time.
  * 
  * @author Uros Cibej
  * @author Anthony Sulistio
@@ -30,11 +38,20 @@ import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
  */
 public class HarddriveStorage implements Storage {
 
-	/** a list storing the names of all the files on the harddrive. */
-	private List<String> nameList;
+	/** the names of all the files on the harddrive, in the order they were added or renamed. */
+	private Set<String> nameSet;
 
-	/** a list storing all the files stored on the harddrive. */
-	private List<File> fileList;
+	/** the slot of each file stored on the harddrive, by file name. */
+	private Map<String, Integer> slots;
+
+	/** the files stored on the harddrive by slot, in the order they were added; null if deleted. */
+	private File[] files;
+
+	/** a Fenwick tree of the sizes of the files by slot. */
+	private int[] sizeTree;
+
+	/** the number of slots used, including those of the deleted files. */
+	private int slotCnt;
 
 	/** the name of the harddrive. */
 	private final String name;
@@ -101,8 +118,11 @@ public class HarddriveStorage implements Storage {
 	 * created.
 	 */
 	private void init() {
-		fileList = new ArrayList<File>();
-		nameList = new ArrayList<String>();
+		nameSet = new LinkedHashSet<String>();
+		slots = new HashMap<String, Integer>();
+		files = new File[16];
+		sizeTree = new int[files.length + 1];
+		slotCnt = 0;
 		gen = null;
 		currentSize = 0;
 
@@ -141,7 +161,7 @@ public class HarddriveStorage implements Storage {
 	 */
 	@Override
 	public int getNumStoredFile() {
-		return fileList.size();
+		return slots.size();
 	}
 
 	/**
@@ -205,15 +225,17 @@ public class HarddriveStorage implements Storage {
 			return true;
 		}
 
-		Iterator<File> it = fileList.iterator();
 		File file = null;
 		int deletedFileSize = 0;
 
 		// if not enough space, then if want to clear/delete some files
 		// then check whether it still have space or not
 		boolean result = false;
-		while (it.hasNext()) {
-			file = it.next();
+		for (int slot = 0; slot < slotCnt; slot++) {
+			file = files[slot];
+			if (file == null) {
+				continue;
+			}
 			if (!file.isReadOnly()) {
 				deletedFileSize += file.getSize();
 			}
@@ -360,29 +382,14 @@ public class HarddriveStorage implements Storage {
 			return obj;
 		}
 
-		Iterator<File> it = fileList.iterator();
-		int size = 0;
-		int index = 0;
-		boolean found = false;
-		File tempFile = null;
-
 		// find the file in the disk
-		while (it.hasNext()) {
-			tempFile = it.next();
-			size += tempFile.getSize();
-			if (tempFile.getName().equals(fileName)) {
-				found = true;
-				obj = tempFile;
-				break;
-			}
+		Integer slot = slots.get(fileName);
 
-			index++;
-		}
-
-		// if the file is found, then determine the time taken to get it
-		if (found) {
-			obj = fileList.get(index);
-			double seekTime = getSeekTime(size);
+		// if the file is found, then determine the time taken to get it, the disk being read up to
+		// the file
+		if (slot != null) {
+			obj = files[slot];
+			double seekTime = getSeekTime(getSizeUpTo(slot));
 			double transferTime = getTransferTime(obj.getSize());
 
 			// total time for this operation
@@ -395,11 +402,83 @@ public class HarddriveStorage implements Storage {
 	/**
 	 * Gets the list of file names located on this storage.
 	 * 
-	 * @return a List of file names
+	 * @return a List of file names, a copy in the order the files were added or renamed
 	 */
 	@Override
 	public List<String> getFileNameList() {
-		return nameList;
+		return new ArrayList<String>(nameSet);
+	}
+
+	/**
+	 * Gets the total size of the files added up to the one of a slot, included.
+	 * 
+	 * @param slot the slot
+	 * @return the size in MB
+	 */
+	private int getSizeUpTo(int slot) {
+		int size = 0;
+		for (int i = slot + 1; i > 0; i -= i & -i) {
+			size += sizeTree[i];
+		}
+		return size;
+	}
+
+	/**
+	 * Adds a size to the size of the file of a slot in the Fenwick tree.
+	 * 
+	 * @param slot the slot
+	 * @param size the size to add in MB
+	 */
+	private void addSize(int slot, int size) {
+		for (int i = slot + 1; i < sizeTree.length; i += i & -i) {
+			sizeTree[i] += size;
+		}
+	}
+
+	/**
+	 * Stores a file in the next slot. When all the slots are used, the files are moved to the first
+	 * slots of larger arrays, in the same order, dropping the slots of the deleted files.
+	 * 
+	 * @param file the file
+	 */
+	private void addSlot(File file) {
+		if (slotCnt == files.length) {
+			File[] oldFiles = files;
+			int oldSlotCnt = slotCnt;
+			files = new File[Math.max(16, 2 * slots.size())];
+			sizeTree = new int[files.length + 1];
+			slotCnt = 0;
+			for (int i = 0; i < oldSlotCnt; i++) {
+				if (oldFiles[i] != null) {
+					slots.put(oldFiles[i].getName(), slotCnt);
+					files[slotCnt] = oldFiles[i];
+					sizeTree[slotCnt + 1] = oldFiles[i].getSize();
+					slotCnt++;
+				}
+			}
+			// builds the tree in linear time
+			for (int i = 1; i < sizeTree.length; i++) {
+				int parent = i + (i & -i);
+				if (parent < sizeTree.length) {
+					sizeTree[parent] += sizeTree[i];
+				}
+			}
+		}
+		slots.put(file.getName(), slotCnt);
+		files[slotCnt] = file;
+		addSize(slotCnt, file.getSize());
+		slotCnt++;
+	}
+
+	/**
+	 * Frees the slot of a file.
+	 * 
+	 * @param fileName the name of the file
+	 */
+	private void removeSlot(String fileName) {
+		int slot = slots.remove(fileName);
+		addSize(slot, -files[slot].getSize());
+		files[slot] = null;
 	}
 
 	/**
@@ -491,8 +570,8 @@ public class HarddriveStorage implements Storage {
 			double seekTime = getSeekTime(file.getSize());
 			double transferTime = getTransferTime(file.getSize());
 
-			fileList.add(file);               // add the file into the HD
-			nameList.add(file.getName());     // add the name to the name list
+			addSlot(file);                    // add the file into the HD
+			nameSet.add(file.getName());      // add the name to the name list
 			currentSize += file.getSize();    // increment the current HD size
 			result = seekTime + transferTime;  // add total time
 		}
@@ -538,20 +617,13 @@ public class HarddriveStorage implements Storage {
 			return null;
 		}
 
-		Iterator<File> it = fileList.iterator();
+		// if a file is found then delete
+		Integer slot = slots.get(fileName);
 		File file = null;
-		while (it.hasNext()) {
-			file = it.next();
-			String name = file.getName();
-
-			// if a file is found then delete
-			if (fileName.equals(name)) {
-				double result = deleteFile(file);
-				file.setTransactionTime(result);
-				break;
-			} else {
-				file = null;
-			}
+		if (slot != null) {
+			file = files[slot];
+			double result = deleteFile(file);
+			file.setTransactionTime(result);
 		}
 		return file;
 	}
@@ -588,8 +660,8 @@ public class HarddriveStorage implements Storage {
 
 		// check if the file is in the storage
 		if (contains(file)) {
-			fileList.remove(file);            // remove the file HD
-			nameList.remove(file.getName());  // remove the name from name list
+			removeSlot(file.getName());       // remove the file HD
+			nameSet.remove(file.getName());   // remove the name from name list
 			currentSize -= file.getSize();    // decrement the current HD space
 			result = seekTime + transferTime;  // total time
 			file.setTransactionTime(result);
@@ -610,15 +682,7 @@ public class HarddriveStorage implements Storage {
 			Log.printLine(name + ".contains(): Warning - invalid file name");
 			return result;
 		}
-		// check each file in the list
-		Iterator<String> it = nameList.iterator();
-		while (it.hasNext()) {
-			String name = it.next();
-			if (name.equals(fileName)) {
-				result = true;
-				break;
-			}
-		}
+		result = slots.containsKey(fileName);
 		return result;
 	}
 
@@ -657,25 +721,20 @@ public class HarddriveStorage implements Storage {
 		}
 
 		// replace the file name in the file (physical) list
-		File obj = getFile(file.getName());
+		String oldName = file.getName();
+		File obj = getFile(oldName);
 		if (obj == null) {
 			return result;
 		} else {
 			obj.setName(newName);
+			slots.put(newName, slots.remove(oldName));
 		}
 
 		// replace the file name in the name list
-		Iterator<String> it = nameList.iterator();
-		while (it.hasNext()) {
-			String name = it.next();
-			if (name.equals(file.getName())) {
-				file.setTransactionTime(0);
-				nameList.remove(name);
-				nameList.add(newName);
-				result = true;
-				break;
-			}
-		}
+		file.setTransactionTime(0);
+		nameSet.remove(oldName);
+		nameSet.add(newName);
+		result = true;
 
 		return result;
 	}
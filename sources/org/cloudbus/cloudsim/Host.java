@@ -96,7 +96,7 @@ public class Host {
 		double smallerTime = Double.MAX_VALUE;
 
 		for (Vm vm : getVmList()) {
-			double time = vm.updateVmProcessing(currentTime, getVmScheduler().getAllocatedMipsForVm(vm));
+			double time = vm.updateVmProcessing(currentTime, getVmScheduler().getAllocatedMipsShareForVm(vm));
 			if (time > 0.0 && time < smallerTime) {
 				smallerTime = time;
 			}
@@ -143,6 +143,7 @@ public class Host {
 
 			getVmsMigratingIn().add(vm);
 			getVmList().add(vm);
+			registerVm(vm);
 			updateVmsProcessing(CloudSim.clock());
 			vm.getHost().updateVmsProcessing(CloudSim.clock());
 		}
@@ -231,9 +232,22 @@ public class Host {
 		setStorage(getStorage() - vm.getSize());
 		getVmList().add(vm);
 		vm.setHost(this);
+		registerVm(vm);
 		return true;
 	}
 
+	/**
+	 * Registers the cloudlet scheduler of a VM placed in this host with the completion queue of
+	 * the datacenter, so that its finished cloudlets are published there.
+	 * 
+	 * @param vm the VM
+	 */
+	protected void registerVm(Vm vm) {
+		if (getDatacenter() != null) {
+			getDatacenter().getCompletionQueue().register(vm.getCloudletScheduler());
+		}
+	}
+
 	/**
 	 * Destroys a VM running in the host.
 	 * 
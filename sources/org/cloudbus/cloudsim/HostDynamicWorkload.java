@@ -34,6 +34,12 @@ public class HostDynamicWorkload extends Host {
 	/** The state history. */
 	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<HostStateHistoryEntry>();
 
+	/** Whether the states are kept in the state history. */
+	private boolean stateHistoryRetained = true;
+
+	/** The metrics accumulated from the states. */
+	private final HostStateMetrics stateMetrics = new HostStateMetrics();
+
 	/**
 	 * Instantiates a new host.
 	 * 
@@ -128,6 +134,10 @@ public class HostDynamicWorkload extends Host {
 
 			setUtilizationMips(getUtilizationMips() + totalAllocatedMips);
 			hostTotalRequestedMips += totalRequestedMips;
+
+			if (!vm.isInMigration() && totalRequestedMips == 0) {
+				publishCompletedVm(vm);
+			}
 		}
 
 		addStateHistoryEntry(
@@ -139,6 +149,18 @@ public class HostDynamicWorkload extends Host {
 		return smallerTime;
 	}
 
+	/**
+	 * Publishes a VM without more work into the completion queue of the datacenter, so that the
+	 * datacenter does not have to look for it with {@link #getCompletedVms()}.
+	 * 
+	 * @param vm the completed vm
+	 */
+	protected void publishCompletedVm(Vm vm) {
+		if (getDatacenter() != null) {
+			getDatacenter().getCompletionQueue().vmCompleted(vm);
+		}
+	}
+
 	/**
 	 * Gets the completed vms.
 	 * 
@@ -275,7 +297,35 @@ public class HostDynamicWorkload extends Host {
 	}
 
 	/**
-	 * Adds the state history entry.
+	 * Checks whether the states are kept in the state history.
+	 * 
+	 * @return true if the state history is retained
+	 */
+	public boolean isStateHistoryRetained() {
+		return stateHistoryRetained;
+	}
+
+	/**
+	 * Sets whether the states are kept in the state history. When they are not, e.g., for large
+	 * simulations, the SLA and energy metrics are still available from {@link #getStateMetrics()}.
+	 * 
+	 * @param stateHistoryRetained true to retain the state history
+	 */
+	public void setStateHistoryRetained(boolean stateHistoryRetained) {
+		this.stateHistoryRetained = stateHistoryRetained;
+	}
+
+	/**
+	 * Gets the metrics accumulated from the states of the host.
+	 * 
+	 * @return the state metrics
+	 */
+	public HostStateMetrics getStateMetrics() {
+		return stateMetrics;
+	}
+
+	/**
+	 * Adds the state history entry, and accounts it in the state metrics.
 	 * 
 	 * @param time the time
 	 * @param allocatedMips the allocated mips
@@ -285,6 +335,10 @@ public class HostDynamicWorkload extends Host {
 	public
 			void
 			addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
+		getStateMetrics().addState(time, allocatedMips, requestedMips, isActive);
+		if (!isStateHistoryRetained()) {
+			return;
+		}
 
 		HostStateHistoryEntry newState = new HostStateHistoryEntry(
 				time,
@@ -0,0 +1,185 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.List;
+
+/**
+ * HostStateMetrics accumulates the SLA and energy metrics of a host as its states are recorded,
+ * so that they are known without walking the state history. A state covers the time until the
+ * next recorded state; like in the history, a state recorded at the time of the previous one
+ * replaces it. The metrics are the time the host was active, the part of it during which the
+ * host was at 100% of its capacity, i.e., allocated less MIPS than requested (SLATAH), the same
+ * two times whatever the host state, and the energy consumed by the host, added by its
+ * datacenter.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class HostStateMetrics {
+
+	/** The time of the last recorded state, -1 if none has been recorded. */
+	private double lastTime = -1;
+
+	/** The allocated mips of the last recorded state. */
+	private double lastAllocatedMips;
+
+	/** The requested mips of the last recorded state. */
+	private double lastRequestedMips;
+
+	/** Whether the host was active in the last recorded state. */
+	private boolean lastActive;
+
+	/** The time covered by the recorded states. */
+	private double totalTime;
+
+	/** The time covered by the states in which the host was allocated less mips than requested. */
+	private double slaViolationTime;
+
+	/** The time covered by the states in which the host was active. */
+	private double activeTime;
+
+	/** The part of the active time in which the host was allocated less mips than requested. */
+	private double activeSlaViolationTime;
+
+	/** The energy consumed by the host in W*sec. */
+	private double energy;
+
+	/**
+	 * Records a state of the host, accounting the previous state for the time elapsed since.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param isActive whether the host is active
+	 */
+	public void addState(double time, double allocatedMips, double requestedMips, boolean isActive) {
+		if (lastTime != -1 && time != lastTime) {
+			double timeDiff = time - lastTime;
+			boolean violation = lastAllocatedMips < lastRequestedMips;
+			totalTime += timeDiff;
+			if (violation) {
+				slaViolationTime += timeDiff;
+			}
+			if (lastActive) {
+				activeTime += timeDiff;
+				if (violation) {
+					activeSlaViolationTime += timeDiff;
+				}
+			}
+		}
+		lastTime = time;
+		lastAllocatedMips = allocatedMips;
+		lastRequestedMips = requestedMips;
+		lastActive = isActive;
+	}
+
+	/**
+	 * Adds energy consumed by the host.
+	 *
+	 * @param energy the energy in W*sec
+	 */
+	public void addEnergy(double energy) {
+		this.energy += energy;
+	}
+
+	/**
+	 * Gets the time covered by the recorded states, up to the last one.
+	 *
+	 * @return the total time
+	 */
+	public double getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * Gets the time in which the host was allocated less mips than requested.
+	 *
+	 * @return the SLA violation time
+	 */
+	public double getSlaViolationTime() {
+		return slaViolationTime;
+	}
+
+	/**
+	 * Gets the time in which the host was active.
+	 *
+	 * @return the active time
+	 */
+	public double getActiveTime() {
+		return activeTime;
+	}
+
+	/**
+	 * Gets the time in which the host was active and at 100% of its capacity, i.e., allocated less
+	 * mips than requested.
+	 *
+	 * @return the SLA violation time while active
+	 */
+	public double getActiveSlaViolationTime() {
+		return activeSlaViolationTime;
+	}
+
+	/**
+	 * Gets the energy consumed by the host.
+	 *
+	 * @return the energy in W*sec
+	 */
+	public double getEnergy() {
+		return energy;
+	}
+
+	/**
+	 * Gets the SLA violation Time per Active Host (SLATAH) of a list of hosts: the fraction of the
+	 * time the hosts were active in which they were at 100% of their capacity.
+	 *
+	 * @param hosts the hosts
+	 * @return the SLATAH
+	 */
+	public static double getSlaTimePerActiveHost(List<? extends HostDynamicWorkload> hosts) {
+		double slaViolationTime = 0;
+		double totalTime = 0;
+		for (HostDynamicWorkload host : hosts) {
+			slaViolationTime += host.getStateMetrics().getActiveSlaViolationTime();
+			totalTime += host.getStateMetrics().getActiveTime();
+		}
+		return slaViolationTime / totalTime;
+	}
+
+	/**
+	 * Gets the fraction of the time a list of hosts were allocated less mips than requested,
+	 * whatever their state.
+	 *
+	 * @param hosts the hosts
+	 * @return the SLA violation time per host
+	 */
+	public static double getSlaTimePerHost(List<? extends HostDynamicWorkload> hosts) {
+		double slaViolationTime = 0;
+		double totalTime = 0;
+		for (HostDynamicWorkload host : hosts) {
+			slaViolationTime += host.getStateMetrics().getSlaViolationTime();
+			totalTime += host.getStateMetrics().getTotalTime();
+		}
+		return slaViolationTime / totalTime;
+	}
+
+	/**
+	 * Gets the energy consumed by a list of hosts.
+	 *
+	 * @param hosts the hosts
+	 * @return the energy in W*sec
+	 */
+	public static double getEnergy(List<? extends HostDynamicWorkload> hosts) {
+		double energy = 0;
+		for (HostDynamicWorkload host : hosts) {
+			energy += host.getStateMetrics().getEnergy();
+		}
+		return energy;
+	}
+
+}
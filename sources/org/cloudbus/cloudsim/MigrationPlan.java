@@ -0,0 +1,250 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A plan of VM migrations produced by a {@link VmAllocationPolicy}. Each migration of the plan is
+ * a VM and its target host, accessed by its index in the plan, together with the estimated delay
+ * of the migration, which is computed once by the datacenter when the migration is started.
+ *
+ * The plan replaces the list of maps keyed by "vm" and "host" returned by
+ * {@link VmAllocationPolicy#optimizeAllocation(List)}; {@link #valueOf(List)} and
+ * {@link #toMigrationMap()} convert between both representations.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class MigrationPlan {
+
+	/** The migrated VMs. */
+	private Vm[] vms;
+
+	/** The target hosts. */
+	private Host[] hosts;
+
+	/** The estimated delays of the migrations, NaN if not estimated. */
+	private double[] delays;
+
+	/** The number of migrations. */
+	private int size;
+
+	/**
+	 * Instantiates a new empty migration plan.
+	 */
+	public MigrationPlan() {
+		this(16);
+	}
+
+	/**
+	 * Instantiates a new empty migration plan.
+	 *
+	 * @param capacity the initial capacity
+	 */
+	public MigrationPlan(int capacity) {
+		capacity = Math.max(capacity, 1);
+		vms = new Vm[capacity];
+		hosts = new Host[capacity];
+		delays = new double[capacity];
+	}
+
+	/**
+	 * Adds a migration whose delay has not been estimated yet.
+	 *
+	 * @param vm the vm
+	 * @param host the target host
+	 * @return the index of the migration
+	 */
+	public int add(Vm vm, Host host) {
+		return add(vm, host, Double.NaN);
+	}
+
+	/**
+	 * Adds a migration.
+	 *
+	 * @param vm the vm
+	 * @param host the target host
+	 * @param delay the estimated delay of the migration
+	 * @return the index of the migration
+	 */
+	public int add(Vm vm, Host host, double delay) {
+		if (size == vms.length) {
+			grow();
+		}
+		vms[size] = vm;
+		hosts[size] = host;
+		delays[size] = delay;
+		return size++;
+	}
+
+	/**
+	 * Adds all the migrations of another plan.
+	 *
+	 * @param migrationPlan the migration plan
+	 */
+	public void addAll(MigrationPlan migrationPlan) {
+		for (int i = 0; i < migrationPlan.size(); i++) {
+			add(migrationPlan.getVm(i), migrationPlan.getHost(i), migrationPlan.getDelay(i));
+		}
+	}
+
+	/**
+	 * Removes all the migrations.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			vms[i] = null;
+			hosts[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of migrations.
+	 *
+	 * @return the number of migrations
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the plan is empty.
+	 *
+	 * @return true, if there are no migrations
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the VM of a migration.
+	 *
+	 * @param index the index of the migration
+	 * @return the vm
+	 */
+	public Vm getVm(int index) {
+		checkIndex(index);
+		return vms[index];
+	}
+
+	/**
+	 * Gets the target host of a migration.
+	 *
+	 * @param <T> the type of the host
+	 * @param index the index of the migration
+	 * @return the target host
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Host> T getHost(int index) {
+		checkIndex(index);
+		return (T) hosts[index];
+	}
+
+	/**
+	 * Gets the estimated delay of a migration.
+	 *
+	 * @param index the index of the migration
+	 * @return the delay, NaN if not estimated
+	 */
+	public double getDelay(int index) {
+		checkIndex(index);
+		return delays[index];
+	}
+
+	/**
+	 * Sets the estimated delay of a migration.
+	 *
+	 * @param index the index of the migration
+	 * @param delay the delay
+	 */
+	public void setDelay(int index, double delay) {
+		checkIndex(index);
+		delays[index] = delay;
+	}
+
+	/**
+	 * Gets the target hosts of the migrations, in the order of the migrations.
+	 *
+	 * @param <T> the type of the hosts
+	 * @return the target hosts
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Host> List<T> getHosts() {
+		List<T> hostList = new ArrayList<T>(size);
+		for (int i = 0; i < size; i++) {
+			hostList.add((T) hosts[i]);
+		}
+		return hostList;
+	}
+
+	/**
+	 * Converts the plan into a list of maps keyed by "vm" and "host".
+	 *
+	 * @return the migration map
+	 */
+	public List<Map<String, Object>> toMigrationMap() {
+		List<Map<String, Object>> migrationMap = new ArrayList<Map<String, Object>>(size);
+		for (int i = 0; i < size; i++) {
+			Map<String, Object> migrate = new HashMap<String, Object>();
+			migrate.put("vm", vms[i]);
+			migrate.put("host", hosts[i]);
+			migrationMap.add(migrate);
+		}
+		return migrationMap;
+	}
+
+	/**
+	 * Converts a list of maps keyed by "vm" and "host" into a plan.
+	 *
+	 * @param migrationMap the migration map
+	 * @return the migration plan, or null if the migration map is null
+	 */
+	public static MigrationPlan valueOf(List<Map<String, Object>> migrationMap) {
+		if (migrationMap == null) {
+			return null;
+		}
+		MigrationPlan migrationPlan = new MigrationPlan(migrationMap.size());
+		for (Map<String, Object> migrate : migrationMap) {
+			migrationPlan.add((Vm) migrate.get("vm"), (Host) migrate.get("host"));
+		}
+		return migrationPlan;
+	}
+
+	/**
+	 * Doubles the capacity of the arrays.
+	 */
+	private void grow() {
+		int capacity = vms.length * 2;
+		Vm[] newVms = new Vm[capacity];
+		System.arraycopy(vms, 0, newVms, 0, size);
+		vms = newVms;
+		Host[] newHosts = new Host[capacity];
+		System.arraycopy(hosts, 0, newHosts, 0, size);
+		hosts = newHosts;
+		double[] newDelays = new double[capacity];
+		System.arraycopy(delays, 0, newDelays, 0, size);
+		delays = newDelays;
+	}
+
+	/**
+	 * Checks the index of a migration.
+	 *
+	 * @param index the index
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+}
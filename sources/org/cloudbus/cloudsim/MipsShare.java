@@ -0,0 +1,219 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * MipsShare is the MIPS share of each PE of a VM, i.e., the MIPS a VM requests from or is
+ * allocated by a {@link VmScheduler} and hands over to its {@link CloudletScheduler}, kept in a
+ * primitive array. The VM and cloudlet schedulers of the toolkit create and read the shares
+ * through {@link #getMips(int)} and {@link #getTotalMips()}, so that updating the processing of
+ * the VMs at every scheduling interval boxes no value.
+ *
+ * A share is a fixed-size list of Doubles as well, so that it can be passed to and returned from
+ * the methods taking or returning a List&lt;Double&gt;, and the schedulers overriding them keep
+ * working. The share of a list built by such a scheduler is obtained with
+ * {@link #valueOf(List)}, and the static {@link #sum(List)} and {@link #max(List)} read any list
+ * without boxing when it is a share.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public final class MipsShare extends AbstractList<Double> implements RandomAccess {
+
+	/** The MIPS of each PE. */
+	private final double[] mips;
+
+	/**
+	 * Creates a share of the given number of PEs with no MIPS.
+	 *
+	 * @param pes the number of PEs
+	 */
+	public MipsShare(int pes) {
+		mips = new double[pes];
+	}
+
+	/**
+	 * Creates a share of the given MIPS. The array is not copied and must not be modified by the
+	 * caller afterwards.
+	 *
+	 * @param mips the MIPS of each PE
+	 */
+	public MipsShare(double[] mips) {
+		this.mips = mips;
+	}
+
+	/**
+	 * Creates a share giving the same MIPS to every PE.
+	 *
+	 * @param pes the number of PEs
+	 * @param mipsPerPe the MIPS of each PE
+	 * @return the share
+	 */
+	public static MipsShare uniform(int pes, double mipsPerPe) {
+		MipsShare share = new MipsShare(pes);
+		for (int i = 0; i < pes; i++) {
+			share.mips[i] = mipsPerPe;
+		}
+		return share;
+	}
+
+	/**
+	 * Gets the share of a list of MIPS: the list itself if it is a share, a copy otherwise.
+	 *
+	 * @param mipsShare the MIPS of each PE, may be null
+	 * @return the share, or null if the list is null
+	 */
+	public static MipsShare valueOf(List<Double> mipsShare) {
+		if (mipsShare == null || mipsShare instanceof MipsShare) {
+			return (MipsShare) mipsShare;
+		}
+		MipsShare share = new MipsShare(mipsShare.size());
+		int i = 0;
+		for (Double value : mipsShare) {
+			share.mips[i++] = value;
+		}
+		return share;
+	}
+
+	/**
+	 * Gets the total MIPS of a list of MIPS, summed in the order of the PEs.
+	 *
+	 * @param mipsShare the MIPS of each PE, may be null
+	 * @return the total MIPS, 0 if the list is null
+	 */
+	public static double sum(List<Double> mipsShare) {
+		if (mipsShare instanceof MipsShare) {
+			return ((MipsShare) mipsShare).getTotalMips();
+		}
+		double total = 0;
+		if (mipsShare != null) {
+			for (double value : mipsShare) {
+				total += value;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the largest MIPS of a PE in a list of MIPS.
+	 *
+	 * @param mipsShare the MIPS of each PE, may be null
+	 * @return the largest MIPS, 0 if the list is null or empty
+	 */
+	public static double max(List<Double> mipsShare) {
+		if (mipsShare instanceof MipsShare) {
+			return ((MipsShare) mipsShare).getMaxMips();
+		}
+		double max = 0;
+		if (mipsShare != null) {
+			for (double value : mipsShare) {
+				if (value > max) {
+					max = value;
+				}
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Gets the MIPS of a PE.
+	 *
+	 * @param pe the index of the PE
+	 * @return the MIPS
+	 */
+	public double getMips(int pe) {
+		return mips[pe];
+	}
+
+	/**
+	 * Sets the MIPS of a PE.
+	 *
+	 * @param pe the index of the PE
+	 * @param value the MIPS
+	 */
+	public void setMips(int pe, double value) {
+		mips[pe] = value;
+	}
+
+	/**
+	 * Gets the total MIPS of the share, summed in the order of the PEs.
+	 *
+	 * @return the total MIPS
+	 */
+	public double getTotalMips() {
+		double total = 0;
+		for (int i = 0; i < mips.length; i++) {
+			total += mips[i];
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the largest MIPS of a PE of the share.
+	 *
+	 * @return the largest MIPS, 0 if the share has no PE
+	 */
+	public double getMaxMips() {
+		double max = 0;
+		for (int i = 0; i < mips.length; i++) {
+			if (mips[i] > max) {
+				max = mips[i];
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Creates a copy of the share.
+	 *
+	 * @return the copy
+	 */
+	public MipsShare copy() {
+		return new MipsShare(mips.clone());
+	}
+
+	/**
+	 * Gets the number of PEs of the share.
+	 *
+	 * @return the number of PEs
+	 */
+	@Override
+	public int size() {
+		return mips.length;
+	}
+
+	/**
+	 * Gets the MIPS of a PE as a boxed value, for the code reading the share as a list.
+	 *
+	 * @param index the index of the PE
+	 * @return the MIPS
+	 */
+	@Override
+	public Double get(int index) {
+		return mips[index];
+	}
+
+	/**
+	 * Sets the MIPS of a PE from a boxed value, for the code writing the share as a list.
+	 *
+	 * @param index the index of the PE
+	 * @param value the MIPS
+	 * @return the previous MIPS
+	 */
+	@Override
+	public Double set(int index, Double value) {
+		double previous = mips[index];
+		mips[index] = value;
+		return previous;
+	}
+
+}
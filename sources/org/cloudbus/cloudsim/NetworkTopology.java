@@ -15,6 +15,7 @@ import java.util.Map;
 
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
+import org.cloudbus.cloudsim.network.LazyDelayMatrix_Float;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
 import org.cloudbus.cloudsim.network.TopologicalLink;
 import org.cloudbus.cloudsim.network.TopologicalNode;
@@ -42,12 +43,22 @@ public class NetworkTopology {
 
 	protected static DelayMatrix_Float delayMatrix = null;
 
-	protected static double[][] bwMatrix = null;
-
 	protected static TopologicalGraph graph = null;
 
 	protected static Map<Integer, Integer> map = null;
 
+	/**
+	 * Whether links have been added since the matrices have been generated. Volatile, since the
+	 * delays may be requested by the logical processes of a parallel simulation at once.
+	 */
+	protected static volatile boolean matricesOutdated = false;
+
+	/**
+	 * The number of rows of delays cached by the lazy delay matrix, or 0 to compute the delays
+	 * between all the nodes at once.
+	 */
+	protected static int lazyDelayMatrixRows = 0;
+
 	/**
 	 * Creates the network topology if file exists and if file can be succesfully parsed. File is
 	 * written in the BRITE format and contains topologycal information on simulation entities.
@@ -75,18 +86,54 @@ public class NetworkTopology {
 	}
 
 	/**
-	 * Generates the matrices used internally to set latency and bandwidth between elements
+	 * Generates the matrices used internally to set latency between elements
 	 */
 	private static void generateMatrices() {
 		// creates the delay matrix
-		delayMatrix = new DelayMatrix_Float(graph, false);
-
-		// creates the bw matrix
-		bwMatrix = createBwMatrix(graph, false);
+		if (lazyDelayMatrixRows > 0) {
+			delayMatrix = new LazyDelayMatrix_Float(graph, false, lazyDelayMatrixRows);
+		} else {
+			delayMatrix = new DelayMatrix_Float(graph, false);
+		}
 
+		matricesOutdated = false;
 		networkEnabled = true;
 	}
 
+	/**
+	 * Generates the matrices if links have been added since they have been generated, so that a
+	 * sequence of {@link #addLink(int, int, double, double)} calls computes the delays only once.
+	 * The matrices are generated by a single thread even if several threads request delays at
+	 * once.
+	 */
+	private static void updateMatrices() {
+		if (matricesOutdated) {
+			synchronized (NetworkTopology.class) {
+				if (matricesOutdated) {
+					generateMatrices();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Selects how the delays between the nodes are computed. With 0 rows, the delays between all
+	 * the nodes are computed at once with the Floyd-Warshall algorithm and stored in a matrix;
+	 * otherwise, the delays from a node are computed with Dijkstra's algorithm when first needed,
+	 * and the delays from the given number of most recently used nodes are cached, which suits
+	 * large sparse topologies. Takes effect the next time the topology is built or changed.
+	 * 
+	 * @param cachedRows the number of cached rows of delays, or 0 for the full matrix
+	 * @pre cachedRows >= 0
+	 * @post $none
+	 */
+	public static void setLazyDelayMatrix(int cachedRows) {
+		if (cachedRows < 0) {
+			throw new IllegalArgumentException("The number of cached rows must not be negative");
+		}
+		lazyDelayMatrixRows = cachedRows;
+	}
+
 	/**
 	 * Adds a new link in the network topology
 	 * 
@@ -124,41 +171,10 @@ public class NetworkTopology {
 		// generate a new link
 		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
 
-		generateMatrices();
-
-	}
-
-	/**
-	 * Creates the matrix containiing the available bandiwdth beteen two nodes
-	 * 
-	 * @param graph topological graph describing the topology
-	 * @param directed true if the graph is directed; false otherwise
-	 * @return the bandwidth graph
-	 */
-	private static double[][] createBwMatrix(TopologicalGraph graph, boolean directed) {
-		int nodes = graph.getNumberOfNodes();
-
-		double[][] mtx = new double[nodes][nodes];
-
-		// cleanup matrix
-		for (int i = 0; i < nodes; i++) {
-			for (int j = 0; j < nodes; j++) {
-				mtx[i][j] = 0.0;
-			}
-		}
-
-		Iterator<TopologicalLink> iter = graph.getLinkIterator();
-		while (iter.hasNext()) {
-			TopologicalLink edge = iter.next();
-
-			mtx[edge.getSrcNodeID()][edge.getDestNodeID()] = edge.getLinkBw();
-
-			if (!directed) {
-				mtx[edge.getDestNodeID()][edge.getSrcNodeID()] = edge.getLinkBw();
-			}
-		}
+		// the matrices are generated when the delays are first needed after the links are added
+		matricesOutdated = true;
+		networkEnabled = true;
 
-		return mtx;
 	}
 
 	/**
@@ -213,25 +229,65 @@ public class NetworkTopology {
 	 * 
 	 * @param srcID ID of the source node
 	 * @param destID ID of the destination node
-	 * @return communication delay between the two nodes
+	 * @return communication delay between the two nodes, or 0 if either of them is not mapped to
+	 *         a BRITE node
 	 * @pre srcID >= 0
 	 * @pre destID >= 0
 	 * @post $none
 	 */
 	public static double getDelay(int srcID, int destID) {
 		if (networkEnabled) {
-			try {
-				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+			Integer srcNode = map.get(srcID);
+			Integer destNode = map.get(destID);
 
-				return delay;
-			} catch (Exception e) {
-				// in case of error, just keep running and return 0.0
+			// entities that are not mapped to a BRITE node do not add any latency
+			if (srcNode != null && destNode != null) {
+				updateMatrices();
+
+				// add the network latency
+				return delayMatrix.getDelay(srcNode, destNode);
 			}
 		}
 		return 0.0;
 	}
 
+	/**
+	 * Gets the smallest delay of a link of the topology, which is a lower bound of the delay
+	 * between any two mapped CloudSim entities. It takes a single pass over the links, rather than
+	 * the delays between all the pairs of entities.
+	 * 
+	 * @return the smallest link delay, or Float.MAX_VALUE if the topology has no link
+	 * @pre $none
+	 * @post $result > 0
+	 */
+	public static double getMinLinkDelay() {
+		double min = Float.MAX_VALUE;
+		if (graph != null) {
+			Iterator<TopologicalLink> iter = graph.getLinkIterator();
+			while (iter.hasNext()) {
+				TopologicalLink edge = iter.next();
+				// as in the delay matrices, a link without delay or to itself is no link
+				if (edge.getLinkDelay() > 0 && edge.getSrcNodeID() != edge.getDestNodeID()) {
+					min = Math.min(min, edge.getLinkDelay());
+				}
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Checks whether a CloudSim entity is mapped to a node of the network topology, i.e., whether
+	 * the network delay applies to the events it sends and receives.
+	 * 
+	 * @param cloudSimEntityID ID of the entity
+	 * @return $true if the network is enabled and the entity is mapped. $false otherwise
+	 * @pre cloudSimEntityID >= 0
+	 * @post $none
+	 */
+	public static boolean isNodeMapped(int cloudSimEntityID) {
+		return networkEnabled && map != null && map.containsKey(cloudSimEntityID);
+	}
+
 	/**
 	 * This method returns true if network simulation is working. If there were some problem during
 	 * creation of network (e.g., during parsing of BRITE file) that does not allow a proper
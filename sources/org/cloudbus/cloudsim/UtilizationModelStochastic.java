@@ -8,10 +8,15 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
@@ -20,17 +25,38 @@ import java.util.Random;
  * The UtilizationModelStochastic class implements a model, according to which a Cloudlet generates
  * random CPU utilization every time frame.
  * 
+ * By default, the utilization is drawn from a random generator the first time a time is queried
+ * and kept in a history, so that the same time always gets the same utilization. The history grows
+ * with every queried time. A model created with a time frame instead is counter-based: the
+ * utilization is a hash of the seed and of the index of the time frame, which gives the same value
+ * for the same time without storing anything.
+ * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
 public class UtilizationModelStochastic implements UtilizationModel {
 
-	/** The random generator. */
+	/** The magic number of the binary history files. */
+	private static final int HISTORY_MAGIC = 0x554d5348;
+
+	/** The version of the binary history files. */
+	private static final int HISTORY_VERSION = 1;
+
+	/** The random generator, not created for a counter-based model until it loads a history. */
 	private Random randomGenerator;
 
 	/** The history. */
 	private Map<Double, Double> history;
 
+	/** Whether the utilization is computed from the seed and the time instead of the history. */
+	private boolean counterBased;
+
+	/** The seed of the counter-based generator. */
+	private long seed;
+
+	/** The length of the time frames of the counter-based generator, 0 for the exact times. */
+	private double timeFrame;
+
 	/**
 	 * Instantiates a new utilization model stochastic.
 	 */
@@ -49,12 +75,33 @@ public class UtilizationModelStochastic implements UtilizationModel {
 		setRandomGenerator(new Random(seed));
 	}
 
+	/**
+	 * Instantiates a new counter-based utilization model stochastic, which keeps no history. The
+	 * utilization is constant within a time frame, and the times of a frame get the same
+	 * utilization however often and in whatever order they are queried.
+	 * 
+	 * @param seed the seed
+	 * @param timeFrame the length of the time frames, or 0 to draw a utilization for every distinct
+	 *            time
+	 */
+	public UtilizationModelStochastic(long seed, double timeFrame) {
+		if (timeFrame < 0) {
+			throw new IllegalArgumentException("The time frame cannot be negative");
+		}
+		setHistory(Collections.<Double, Double> emptyMap());
+		setCounterBased(seed, timeFrame);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
 	 */
 	@Override
 	public double getUtilization(double time) {
+		if (isCounterBased()) {
+			return getCounterBasedUtilization(time);
+		}
+
 		if (getHistory().containsKey(time)) {
 			return getHistory().get(time);
 		}
@@ -64,6 +111,36 @@ public class UtilizationModelStochastic implements UtilizationModel {
 		return utilization;
 	}
 
+	/**
+	 * Gets the utilization of the counter-based generator, the SplitMix64 hash of the seed and of
+	 * the index of the time frame, mapped to [0, 1).
+	 * 
+	 * @param time the time
+	 * @return the utilization
+	 */
+	protected double getCounterBasedUtilization(double time) {
+		long counter;
+		if (getTimeFrame() > 0) {
+			counter = (long) Math.floor(time / getTimeFrame());
+		} else {
+			counter = Double.doubleToLongBits(time + 0.0); // +0.0 merges -0.0 into 0.0
+		}
+		long z = mix(mix(getSeed()) + counter * 0x9E3779B97F4A7C15L);
+		return (z >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * The finalizer of the SplitMix64 generator.
+	 * 
+	 * @param z the value to mix
+	 * @return the mixed value
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
 	/**
 	 * Gets the history.
 	 * 
@@ -83,30 +160,128 @@ public class UtilizationModelStochastic implements UtilizationModel {
 	}
 
 	/**
-	 * Save history.
+	 * Save history. The history is written in a compact binary format: the pairs of time and
+	 * utilization as raw doubles, or only the seed and the time frame for a counter-based model,
+	 * which are enough to replay it.
 	 * 
 	 * @param filename the filename
 	 * @throws Exception the exception
 	 */
 	public void saveHistory(String filename) throws Exception {
-		FileOutputStream fos = new FileOutputStream(filename);
-		ObjectOutputStream oos = new ObjectOutputStream(fos);
-		oos.writeObject(getHistory());
-		oos.close();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+				filename)));
+		try {
+			out.writeInt(HISTORY_MAGIC);
+			out.writeInt(HISTORY_VERSION);
+			out.writeBoolean(isCounterBased());
+			if (isCounterBased()) {
+				out.writeLong(getSeed());
+				out.writeDouble(getTimeFrame());
+			} else {
+				out.writeInt(getHistory().size());
+				for (Map.Entry<Double, Double> entry : getHistory().entrySet()) {
+					out.writeDouble(entry.getKey());
+					out.writeDouble(entry.getValue());
+				}
+			}
+		} finally {
+			out.close();
+		}
 	}
 
 	/**
-	 * Load history.
+	 * Load history, saved by {@link #saveHistory(String)} or as a serialized map by the previous
+	 * versions. Loading the history of a counter-based model makes this model counter-based with
+	 * the same seed and time frame.
 	 * 
 	 * @param filename the filename
 	 * @throws Exception the exception
 	 */
 	@SuppressWarnings("unchecked")
 	public void loadHistory(String filename) throws Exception {
-		FileInputStream fis = new FileInputStream(filename);
-		ObjectInputStream ois = new ObjectInputStream(fis);
-		setHistory((Map<Double, Double>) ois.readObject());
-		ois.close();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)));
+		try {
+			in.mark(4);
+			if (in.readInt() != HISTORY_MAGIC) {
+				in.reset();
+				ObjectInputStream ois = new ObjectInputStream(in);
+				setHistoryBased((Map<Double, Double>) ois.readObject());
+				return;
+			}
+			int version = in.readInt();
+			if (version != HISTORY_VERSION) {
+				throw new IOException("Unsupported history version " + version + " in " + filename);
+			}
+			if (in.readBoolean()) {
+				long seed = in.readLong();
+				double timeFrame = in.readDouble();
+				setHistory(Collections.<Double, Double> emptyMap());
+				setCounterBased(seed, timeFrame);
+			} else {
+				int size = in.readInt();
+				Map<Double, Double> history = new HashMap<Double, Double>(size * 4 / 3 + 1);
+				for (int i = 0; i < size; i++) {
+					double time = in.readDouble();
+					history.put(time, in.readDouble());
+				}
+				setHistoryBased(history);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Makes the model counter-based.
+	 * 
+	 * @param seed the seed
+	 * @param timeFrame the length of the time frames, 0 for the exact times
+	 */
+	private void setCounterBased(long seed, double timeFrame) {
+		this.counterBased = true;
+		this.seed = seed;
+		this.timeFrame = timeFrame;
+	}
+
+	/**
+	 * Makes the model use a history, creating the random generator of the times missing from it if
+	 * the model was counter-based.
+	 * 
+	 * @param history the history
+	 */
+	private void setHistoryBased(Map<Double, Double> history) {
+		setHistory(history);
+		if (getRandomGenerator() == null) {
+			setRandomGenerator(new Random(getSeed()));
+		}
+		this.counterBased = false;
+	}
+
+	/**
+	 * Checks whether the utilization is computed from the seed and the time, without history.
+	 * 
+	 * @return true if the model is counter-based
+	 */
+	public boolean isCounterBased() {
+		return counterBased;
+	}
+
+	/**
+	 * Gets the seed of the counter-based generator.
+	 * 
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the length of the time frames of the counter-based generator.
+	 * 
+	 * @return the time frame, 0 for the exact times
+	 */
+	public double getTimeFrame() {
+		return timeFrame;
 	}
 
 	/**
@@ -7,7 +7,6 @@
 
 package org.cloudbus.cloudsim;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -76,6 +75,12 @@ public class Vm {
 	/** The mips allocation history. */
 	private final List<VmStateHistoryEntry> stateHistory = new LinkedList<VmStateHistoryEntry>();
 
+	/** Whether the states are kept in the state history. */
+	private boolean stateHistoryRetained = true;
+
+	/** The metrics accumulated from the states. */
+	private final VmStateMetrics stateMetrics = new VmStateMetrics();
+
 	/**
 	 * Creates a new VMCharacteristics object.
 	 * 
@@ -153,10 +158,7 @@ public class Vm {
 	public List<Double> getCurrentRequestedMips() {
 		List<Double> currentRequestedMips = getCloudletScheduler().getCurrentRequestedMips();
 		if (isBeingInstantiated()) {
-			currentRequestedMips = new ArrayList<Double>();
-			for (int i = 0; i < getNumberOfPes(); i++) {
-				currentRequestedMips.add(getMips());
-			}
+			currentRequestedMips = MipsShare.uniform(getNumberOfPes(), getMips());
 		}
 		return currentRequestedMips;
 	}
@@ -167,11 +169,7 @@ public class Vm {
 	 * @return the current requested total mips
 	 */
 	public double getCurrentRequestedTotalMips() {
-		double totalRequestedMips = 0;
-		for (double mips : getCurrentRequestedMips()) {
-			totalRequestedMips += mips;
-		}
-		return totalRequestedMips;
+		return MipsShare.sum(getCurrentRequestedMips());
 	}
 
 	/**
@@ -180,13 +178,7 @@ public class Vm {
 	 * @return the current requested max mips
 	 */
 	public double getCurrentRequestedMaxMips() {
-		double maxMips = 0;
-		for (double mips : getCurrentRequestedMips()) {
-			if (mips > maxMips) {
-				maxMips = mips;
-			}
-		}
-		return maxMips;
+		return MipsShare.max(getCurrentRequestedMips());
 	}
 
 	/**
@@ -579,7 +571,35 @@ public class Vm {
 	}
 
 	/**
-	 * Adds the state history entry.
+	 * Checks whether the states are kept in the state history.
+	 * 
+	 * @return true if the state history is retained
+	 */
+	public boolean isStateHistoryRetained() {
+		return stateHistoryRetained;
+	}
+
+	/**
+	 * Sets whether the states are kept in the state history. When they are not, e.g., for large
+	 * simulations, the SLA metrics are still available from {@link #getStateMetrics()}.
+	 * 
+	 * @param stateHistoryRetained true to retain the state history
+	 */
+	public void setStateHistoryRetained(boolean stateHistoryRetained) {
+		this.stateHistoryRetained = stateHistoryRetained;
+	}
+
+	/**
+	 * Gets the metrics accumulated from the states of the VM.
+	 * 
+	 * @return the state metrics
+	 */
+	public VmStateMetrics getStateMetrics() {
+		return stateMetrics;
+	}
+
+	/**
+	 * Adds the state history entry, and accounts it in the state metrics.
 	 * 
 	 * @param time the time
 	 * @param allocatedMips the allocated mips
@@ -591,6 +611,10 @@ public class Vm {
 			double allocatedMips,
 			double requestedMips,
 			boolean isInMigration) {
+		getStateMetrics().addState(time, allocatedMips, requestedMips, isInMigration);
+		if (!isStateHistoryRetained()) {
+			return;
+		}
 		VmStateHistoryEntry newState = new VmStateHistoryEntry(
 				time,
 				allocatedMips,
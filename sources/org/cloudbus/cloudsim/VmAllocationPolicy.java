@@ -57,6 +57,24 @@ public abstract class VmAllocationPolicy {
 	 */
 	public abstract boolean allocateHostForVm(Vm vm, Host host);
 
+	/**
+	 * Allocates hosts for a list of VMs submitted together. The default implementation allocates
+	 * a host for each VM in turn; policies that place the VMs of a batch jointly should override
+	 * this method.
+	 * 
+	 * @param vmList the vms
+	 * @return for each vm of the list, $true if a host could be allocated; $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	public boolean[] allocateHostsForVms(List<? extends Vm> vmList) {
+		boolean[] results = new boolean[vmList.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = allocateHostForVm(vmList.get(i));
+		}
+		return results;
+	}
+
 	/**
 	 * Optimize allocation of the VMs according to current utilization.
 	 * 
@@ -67,6 +85,19 @@ public abstract class VmAllocationPolicy {
 	 */
 	public abstract List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList);
 
+	/**
+	 * Optimize allocation of the VMs according to current utilization, returning the migrations as
+	 * a typed plan. The default implementation adapts the result of
+	 * {@link #optimizeAllocation(List)}, so that policies only implementing the latter still work;
+	 * policies building their plans natively should override this method.
+	 * 
+	 * @param vmList the vm list
+	 * @return the migration plan, or null if no optimization is performed
+	 */
+	public MigrationPlan optimizeAllocationPlan(List<? extends Vm> vmList) {
+		return MigrationPlan.valueOf(optimizeAllocation(vmList));
+	}
+
 	/**
 	 * Releases the host used by a VM.
 	 * 
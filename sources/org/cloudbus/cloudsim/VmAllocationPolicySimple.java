@@ -8,16 +8,22 @@
 
 package org.cloudbus.cloudsim;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.IndexedMaxHeap;
 
 /**
  * VmAllocationPolicySimple is an VmAllocationPolicy that chooses, as the host for a VM, the host
  * with less PEs in use.
+ * <p>
+ * The free PEs of the hosts are kept in an indexed max-heap, so that the host with the most free
+ * PEs, the first one in the host list among those with as many, is found and updated in O(log H)
+ * for H hosts, instead of scanning all the hosts for each VM.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -31,9 +37,15 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	/** The used pes. */
 	private Map<String, Integer> usedPes;
 
-	/** The free pes. */
+	/** The free pes, a view of the free pes heap. */
 	private List<Integer> freePes;
 
+	/** The hosts indexed by their free pes. */
+	private IndexedMaxHeap freePesHeap;
+
+	/** The indexes of the hosts in the host list. */
+	private Map<Host, Integer> hostIndexes;
+
 	/**
 	 * Creates the new VmAllocationPolicySimple object.
 	 * 
@@ -44,11 +56,13 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	public VmAllocationPolicySimple(List<? extends Host> list) {
 		super(list);
 
-		setFreePes(new ArrayList<Integer>());
+		List<Integer> freePes = new ArrayList<Integer>();
+		hostIndexes = new HashMap<Host, Integer>();
 		for (Host host : getHostList()) {
-			getFreePes().add(host.getNumberOfPes());
-
+			hostIndexes.put(host, freePes.size());
+			freePes.add(host.getNumberOfPes());
 		}
+		setFreePes(freePes);
 
 		setVmTable(new HashMap<String, Host>());
 		setUsedPes(new HashMap<String, Integer>());
@@ -66,40 +80,28 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	public boolean allocateHostForVm(Vm vm) {
 		int requiredPes = vm.getNumberOfPes();
 		boolean result = false;
-		int tries = 0;
-		List<Integer> freePesTmp = new ArrayList<Integer>();
-		for (Integer freePes : getFreePes()) {
-			freePesTmp.add(freePes);
-		}
 
 		if (!getVmTable().containsKey(vm.getUid())) { // if this vm was not created
-			do {// we still trying until we find a host or until we try all of them
-				int moreFree = Integer.MIN_VALUE;
-				int idx = -1;
-
+			// the hosts that refused the vm are taken out of the heap until a host is found
+			List<Integer> triedHosts = new ArrayList<Integer>();
+			while (!freePesHeap.isEmpty()) {
 				// we want the host with less pes in use
-				for (int i = 0; i < freePesTmp.size(); i++) {
-					if (freePesTmp.get(i) > moreFree) {
-						moreFree = freePesTmp.get(i);
-						idx = i;
-					}
-				}
-
+				int idx = freePesHeap.peek();
 				Host host = getHostList().get(idx);
 				result = host.vmCreate(vm);
 
 				if (result) { // if vm were succesfully created in the host
 					getVmTable().put(vm.getUid(), host);
 					getUsedPes().put(vm.getUid(), requiredPes);
-					getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
-					result = true;
+					freePesHeap.setKey(idx, freePesHeap.getKey(idx) - requiredPes);
 					break;
-				} else {
-					freePesTmp.set(idx, Integer.MIN_VALUE);
 				}
-				tries++;
-			} while (!result && tries < getFreePes().size());
-
+				freePesHeap.remove(idx);
+				triedHosts.add(idx);
+			}
+			for (int idx : triedHosts) {
+				freePesHeap.add(idx);
+			}
 		}
 
 		return result;
@@ -115,11 +117,11 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	@Override
 	public void deallocateHostForVm(Vm vm) {
 		Host host = getVmTable().remove(vm.getUid());
-		int idx = getHostList().indexOf(host);
 		int pes = getUsedPes().remove(vm.getUid());
 		if (host != null) {
+			int idx = getHostIndex(host);
 			host.vmDestroy(vm);
-			getFreePes().set(idx, getFreePes().get(idx) + pes);
+			freePesHeap.setKey(idx, freePesHeap.getKey(idx) + pes);
 		}
 	}
 
@@ -196,12 +198,50 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	}
 
 	/**
-	 * Sets the free pes.
+	 * Sets the free pes. The values are copied into the free pes heap and the free pes become a
+	 * view of it, whose elements can be set but not added or removed.
 	 * 
-	 * @param freePes the new free pes
+	 * @param freePes the new free pes, one value per host of the host list
 	 */
 	protected void setFreePes(List<Integer> freePes) {
-		this.freePes = freePes;
+		if (freePes == this.freePes) {
+			return;
+		}
+		int[] keys = new int[freePes.size()];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = freePes.get(i);
+		}
+		freePesHeap = new IndexedMaxHeap(keys);
+		this.freePes = new AbstractList<Integer>() {
+
+			@Override
+			public Integer get(int index) {
+				return freePesHeap.getKey(index);
+			}
+
+			@Override
+			public Integer set(int index, Integer element) {
+				int previous = freePesHeap.getKey(index);
+				freePesHeap.setKey(index, element);
+				return previous;
+			}
+
+			@Override
+			public int size() {
+				return freePesHeap.capacity();
+			}
+		};
+	}
+
+	/**
+	 * Gets the index of a host in the host list.
+	 * 
+	 * @param host the host
+	 * @return the index of the host, -1 if it is not in the host list
+	 */
+	protected int getHostIndex(Host host) {
+		Integer idx = hostIndexes.get(host);
+		return idx == null ? -1 : idx;
 	}
 
 	/*
@@ -225,9 +265,9 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 			getVmTable().put(vm.getUid(), host);
 
 			int requiredPes = vm.getNumberOfPes();
-			int idx = getHostList().indexOf(host);
+			int idx = getHostIndex(host);
 			getUsedPes().put(vm.getUid(), requiredPes);
-			getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
+			freePesHeap.setKey(idx, freePesHeap.getKey(idx) - requiredPes);
 
 			Log.formatLine(
 					"%.2f: VM #" + vm.getId() + " has been allocated to the host #" + host.getId(),
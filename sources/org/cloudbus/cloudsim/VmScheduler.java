@@ -30,7 +30,10 @@ public abstract class VmScheduler {
 	/** The map of VMs to PEs. */
 	private Map<String, List<Pe>> peMap;
 
-	/** The MIPS that are currently allocated to the VMs. */
+	/**
+	 * The MIPS that are currently allocated to the VMs. The schedulers of the toolkit put a
+	 * {@link MipsShare} per VM.
+	 */
 	private Map<String, List<Double>> mipsMap;
 
 	/** The total available mips. */
@@ -114,6 +117,25 @@ public abstract class VmScheduler {
 		return getMipsMap().get(vm.getUid());
 	}
 
+	/**
+	 * Returns the MIPS share of each Pe that is allocated to a given VM as a {@link MipsShare}. A
+	 * list put in the mips map by a subclass is converted once and replaced by its share.
+	 * 
+	 * @param vm the vm
+	 * @return the MIPS share of the VM, or null if the VM has no allocation
+	 */
+	public MipsShare getAllocatedMipsShareForVm(Vm vm) {
+		List<Double> allocated = getAllocatedMipsForVm(vm);
+		if (allocated == null || allocated instanceof MipsShare) {
+			return (MipsShare) allocated;
+		}
+		MipsShare share = MipsShare.valueOf(allocated);
+		if (getMipsMap().get(vm.getUid()) == allocated) {
+			getMipsMap().put(vm.getUid(), share);
+		}
+		return share;
+	}
+
 	/**
 	 * Gets the total allocated MIPS for a VM over all the PEs.
 	 * 
@@ -121,14 +143,7 @@ public abstract class VmScheduler {
 	 * @return the allocated mips for vm
 	 */
 	public double getTotalAllocatedMipsForVm(Vm vm) {
-		double allocated = 0;
-		List<Double> mipsMap = getAllocatedMipsForVm(vm);
-		if (mipsMap != null) {
-			for (double mips : mipsMap) {
-				allocated += mips;
-			}
-		}
-		return allocated;
+		return MipsShare.sum(getAllocatedMipsForVm(vm));
 	}
 
 	/**
@@ -49,7 +49,8 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 	 * java.util.List)
 	 */
 	@Override
-	public boolean allocatePesForVm(Vm vm, List<Double> mipsShare) {
+	public boolean allocatePesForVm(Vm vm, List<Double> mipsShareRequested) {
+		MipsShare mipsShare = MipsShare.valueOf(mipsShareRequested);
 		// if there is no enough free PEs, fails
 		if (getFreePes().size() < mipsShare.size()) {
 			return false;
@@ -59,7 +60,8 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 		Iterator<Pe> peIterator = getFreePes().iterator();
 		Pe pe = peIterator.next();
 		double totalMips = 0;
-		for (Double mips : mipsShare) {
+		for (int i = 0; i < mipsShare.size(); i++) {
+			double mips = mipsShare.getMips(i);
 			if (mips <= pe.getMips()) {
 				selectedPes.add(pe);
 				if (!peIterator.hasNext()) {
@@ -90,11 +92,7 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 		getFreePes().addAll(getPeAllocationMap().get(vm.getUid()));
 		getPeAllocationMap().remove(vm.getUid());
 
-		double totalMips = 0;
-		for (double mips : getMipsMap().get(vm.getUid())) {
-			totalMips += mips;
-		}
-		setAvailableMips(getAvailableMips() + totalMips);
+		setAvailableMips(getAvailableMips() + MipsShare.sum(getMipsMap().get(vm.getUid())));
 
 		getMipsMap().remove(vm.getUid());
 	}
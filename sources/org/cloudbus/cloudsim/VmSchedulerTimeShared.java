@@ -7,7 +7,6 @@
 
 package org.cloudbus.cloudsim;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -75,9 +74,11 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 * @return true, if successful
 	 */
 	protected boolean allocatePesForVm(String vmUid, List<Double> mipsShareRequested) {
+		MipsShare requested = MipsShare.valueOf(mipsShareRequested);
 		double totalRequestedMips = 0;
 		double peMips = getPeCapacity();
-		for (Double mips : mipsShareRequested) {
+		for (int i = 0; i < requested.size(); i++) {
+			double mips = requested.getMips(i);
 			// each virtual PE of a VM must require not more than the capacity of a physical PE
 			if (mips > peMips) {
 				return false;
@@ -90,24 +91,27 @@ public class VmSchedulerTimeShared extends VmScheduler {
 			return false;
 		}
 
-		getMipsMapRequested().put(vmUid, mipsShareRequested);
-		setPesInUse(getPesInUse() + mipsShareRequested.size());
+		getMipsMapRequested().put(vmUid, requested);
+		setPesInUse(getPesInUse() + requested.size());
 
-		if (getVmsMigratingIn().contains(vmUid)) {
+		boolean migratingIn = getVmsMigratingIn().contains(vmUid);
+		boolean migratingOut = getVmsMigratingOut().contains(vmUid);
+		if (migratingIn) {
 			// the destination host only experience 10% of the migrating VM's MIPS
 			totalRequestedMips *= 0.1;
 		}
 
-		List<Double> mipsShareAllocated = new ArrayList<Double>();
-		for (Double mipsRequested : mipsShareRequested) {
-			if (getVmsMigratingOut().contains(vmUid)) {
+		MipsShare mipsShareAllocated = new MipsShare(requested.size());
+		for (int i = 0; i < requested.size(); i++) {
+			double mipsRequested = requested.getMips(i);
+			if (migratingOut) {
 				// performance degradation due to migration = 10% MIPS
 				mipsRequested *= 0.9;
-			} else if (getVmsMigratingIn().contains(vmUid)) {
+			} else if (migratingIn) {
 				// the destination host only experience 10% of the migrating VM's MIPS
 				mipsRequested *= 0.1;
 			}
-			mipsShareAllocated.add(mipsRequested);
+			mipsShareAllocated.setMips(i, mipsRequested);
 		}
 
 		getMipsMap().put(vmUid, mipsShareAllocated);
@@ -134,7 +138,9 @@ public class VmSchedulerTimeShared extends VmScheduler {
 			String vmUid = entry.getKey();
 			getPeMap().put(vmUid, new LinkedList<Pe>());
 
-			for (double mips : entry.getValue()) {
+			MipsShare share = MipsShare.valueOf(entry.getValue());
+			for (int i = 0; i < share.size(); i++) {
+				double mips = share.getMips(i);
 				while (mips >= 0.1) {
 					if (availableMips >= mips) {
 						peProvisioner.allocateMipsForVm(vmUid, mips);
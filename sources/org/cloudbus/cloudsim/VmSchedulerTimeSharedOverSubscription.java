@@ -7,7 +7,6 @@
 
 package org.cloudbus.cloudsim;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,41 +46,46 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 	 */
 	@Override
 	protected boolean allocatePesForVm(String vmUid, List<Double> mipsShareRequested) {
+		MipsShare requested = MipsShare.valueOf(mipsShareRequested);
 		double totalRequestedMips = 0;
 
 		// if the requested mips is bigger than the capacity of a single PE, we cap
 		// the request to the PE's capacity
-		List<Double> mipsShareRequestedCapped = new ArrayList<Double>();
+		MipsShare mipsShareRequestedCapped = new MipsShare(requested.size());
 		double peMips = getPeCapacity();
-		for (Double mips : mipsShareRequested) {
+		for (int i = 0; i < requested.size(); i++) {
+			double mips = requested.getMips(i);
 			if (mips > peMips) {
-				mipsShareRequestedCapped.add(peMips);
+				mipsShareRequestedCapped.setMips(i, peMips);
 				totalRequestedMips += peMips;
 			} else {
-				mipsShareRequestedCapped.add(mips);
+				mipsShareRequestedCapped.setMips(i, mips);
 				totalRequestedMips += mips;
 			}
 		}
 
-		getMipsMapRequested().put(vmUid, mipsShareRequested);
-		setPesInUse(getPesInUse() + mipsShareRequested.size());
+		getMipsMapRequested().put(vmUid, requested);
+		setPesInUse(getPesInUse() + requested.size());
 
-		if (getVmsMigratingIn().contains(vmUid)) {
+		boolean migratingIn = getVmsMigratingIn().contains(vmUid);
+		boolean migratingOut = getVmsMigratingOut().contains(vmUid);
+		if (migratingIn) {
 			// the destination host only experience 10% of the migrating VM's MIPS
 			totalRequestedMips *= 0.1;
 		}
 
 		if (getAvailableMips() >= totalRequestedMips) {
-			List<Double> mipsShareAllocated = new ArrayList<Double>();
-			for (Double mipsRequested : mipsShareRequestedCapped) {
-				if (getVmsMigratingOut().contains(vmUid)) {
+			MipsShare mipsShareAllocated = new MipsShare(requested.size());
+			for (int i = 0; i < requested.size(); i++) {
+				double mipsRequested = mipsShareRequestedCapped.getMips(i);
+				if (migratingOut) {
 					// performance degradation due to migration = 10% MIPS
 					mipsRequested *= 0.9;
-				} else if (getVmsMigratingIn().contains(vmUid)) {
+				} else if (migratingIn) {
 					// the destination host only experience 10% of the migrating VM's MIPS
 					mipsRequested *= 0.1;
 				}
-				mipsShareAllocated.add(mipsRequested);
+				mipsShareAllocated.setMips(i, mipsRequested);
 			}
 
 			getMipsMap().put(vmUid, mipsShareAllocated);
@@ -102,20 +106,21 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		// proportionally
 		double totalRequiredMipsByAllVms = 0;
 
-		Map<String, List<Double>> mipsMapCapped = new HashMap<String, List<Double>>();
+		Map<String, MipsShare> mipsMapCapped = new HashMap<String, MipsShare>();
 		for (Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
 
 			double requiredMipsByThisVm = 0.0;
 			String vmId = entry.getKey();
-			List<Double> mipsShareRequested = entry.getValue();
-			List<Double> mipsShareRequestedCapped = new ArrayList<Double>();
+			MipsShare mipsShareRequested = MipsShare.valueOf(entry.getValue());
+			MipsShare mipsShareRequestedCapped = new MipsShare(mipsShareRequested.size());
 			double peMips = getPeCapacity();
-			for (Double mips : mipsShareRequested) {
+			for (int i = 0; i < mipsShareRequested.size(); i++) {
+				double mips = mipsShareRequested.getMips(i);
 				if (mips > peMips) {
-					mipsShareRequestedCapped.add(peMips);
+					mipsShareRequestedCapped.setMips(i, peMips);
 					requiredMipsByThisVm += peMips;
 				} else {
-					mipsShareRequestedCapped.add(mips);
+					mipsShareRequestedCapped.setMips(i, mips);
 					requiredMipsByThisVm += mips;
 				}
 			}
@@ -136,12 +141,13 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		getMipsMap().clear();
 
 		// Update the actual MIPS allocated to the VMs
-		for (Entry<String, List<Double>> entry : mipsMapCapped.entrySet()) {
+		for (Entry<String, MipsShare> entry : mipsMapCapped.entrySet()) {
 			String vmUid = entry.getKey();
-			List<Double> requestedMips = entry.getValue();
+			MipsShare requestedMips = entry.getValue();
 
-			List<Double> updatedMipsAllocation = new ArrayList<Double>();
-			for (Double mips : requestedMips) {
+			MipsShare updatedMipsAllocation = new MipsShare(requestedMips.size());
+			for (int i = 0; i < requestedMips.size(); i++) {
+				double mips = requestedMips.getMips(i);
 				if (getVmsMigratingOut().contains(vmUid)) {
 					// the original amount is scaled
 					mips *= scalingFactor;
@@ -156,7 +162,7 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 					mips *= scalingFactor;
 				}
 
-				updatedMipsAllocation.add(Math.floor(mips));
+				updatedMipsAllocation.setMips(i, Math.floor(mips));
 			}
 
 			// add in the new map
@@ -0,0 +1,204 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * VmStateMetrics accumulates the SLA metrics of a VM as its states are recorded, so that they are
+ * known without walking the state history. A state covers the time until the next recorded state;
+ * like in the history, a state recorded at the time of the previous one replaces it. The metrics
+ * are the MIPS requested by and allocated to the VM integrated over time, the part of the
+ * requested MIPS not allocated while the VM was migrating, which gives the Performance Degradation
+ * due to Migration (PDM), and the relative under-allocation of the states in which the VM was
+ * allocated less MIPS than requested.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class VmStateMetrics {
+
+	/** The time of the last recorded state, -1 if none has been recorded. */
+	private double lastTime = -1;
+
+	/** The allocated mips of the last recorded state. */
+	private double lastAllocatedMips;
+
+	/** The requested mips of the last recorded state. */
+	private double lastRequestedMips;
+
+	/** Whether the VM was in migration in the last recorded state. */
+	private boolean lastInMigration;
+
+	/** The allocated mips integrated over time. */
+	private double totalAllocatedMips;
+
+	/** The requested mips integrated over time. */
+	private double totalRequestedMips;
+
+	/** The requested mips not allocated while in migration, integrated over time. */
+	private double underAllocatedMipsDueToMigration;
+
+	/** The sum of the relative under-allocations of the states violating the SLA. */
+	private double slaViolationSum;
+
+	/** The number of states violating the SLA. */
+	private int slaViolationCount;
+
+	/**
+	 * Records a state of the VM, accounting the previous state for the time elapsed since.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param isInMigration whether the VM is in migration
+	 */
+	public void addState(double time, double allocatedMips, double requestedMips, boolean isInMigration) {
+		if (lastTime != -1 && time != lastTime) {
+			double timeDiff = time - lastTime;
+			totalAllocatedMips += lastAllocatedMips * timeDiff;
+			totalRequestedMips += lastRequestedMips * timeDiff;
+			if (lastAllocatedMips < lastRequestedMips) {
+				slaViolationSum += (lastRequestedMips - lastAllocatedMips) / lastRequestedMips;
+				slaViolationCount++;
+				if (lastInMigration) {
+					underAllocatedMipsDueToMigration += (lastRequestedMips - lastAllocatedMips) * timeDiff;
+				}
+			}
+		}
+		lastTime = time;
+		lastAllocatedMips = allocatedMips;
+		lastRequestedMips = requestedMips;
+		lastInMigration = isInMigration;
+	}
+
+	/**
+	 * Gets the allocated mips integrated over time, up to the last recorded state.
+	 *
+	 * @return the total allocated mips in MIPS*sec
+	 */
+	public double getTotalAllocatedMips() {
+		return totalAllocatedMips;
+	}
+
+	/**
+	 * Gets the requested mips integrated over time, up to the last recorded state.
+	 *
+	 * @return the total requested mips in MIPS*sec
+	 */
+	public double getTotalRequestedMips() {
+		return totalRequestedMips;
+	}
+
+	/**
+	 * Gets the requested mips not allocated while the VM was in migration, integrated over time.
+	 *
+	 * @return the under-allocated mips due to migration in MIPS*sec
+	 */
+	public double getUnderAllocatedMipsDueToMigration() {
+		return underAllocatedMipsDueToMigration;
+	}
+
+	/**
+	 * Gets the sum of the relative under-allocations of the states in which the VM was allocated
+	 * less MIPS than requested.
+	 *
+	 * @return the sum of the SLA violations
+	 */
+	public double getSlaViolationSum() {
+		return slaViolationSum;
+	}
+
+	/**
+	 * Gets the number of states in which the VM was allocated less MIPS than requested.
+	 *
+	 * @return the number of SLA violations
+	 */
+	public int getSlaViolationCount() {
+		return slaViolationCount;
+	}
+
+	/**
+	 * Gets the overall SLA violation of a list of VMs: the fraction of the requested MIPS that
+	 * were not allocated.
+	 *
+	 * @param vms the vms
+	 * @return the overall SLA violation
+	 */
+	public static double getOverallSlaViolation(List<? extends Vm> vms) {
+		double totalAllocated = 0;
+		double totalRequested = 0;
+		for (Vm vm : vms) {
+			totalAllocated += vm.getStateMetrics().getTotalAllocatedMips();
+			totalRequested += vm.getStateMetrics().getTotalRequestedMips();
+		}
+		return (totalRequested - totalAllocated) / totalRequested;
+	}
+
+	/**
+	 * Gets the average SLA violation of a list of VMs: the mean relative under-allocation of the
+	 * states in which a VM was allocated less MIPS than requested.
+	 *
+	 * @param vms the vms
+	 * @return the average SLA violation, 0 if there was no violation
+	 */
+	public static double getAverageSlaViolation(List<? extends Vm> vms) {
+		double sum = 0;
+		long count = 0;
+		for (Vm vm : vms) {
+			sum += vm.getStateMetrics().getSlaViolationSum();
+			count += vm.getStateMetrics().getSlaViolationCount();
+		}
+		return count == 0 ? 0 : sum / count;
+	}
+
+	/**
+	 * Gets the Performance Degradation due to Migration (PDM) of a list of VMs: the fraction of the
+	 * requested MIPS that were not allocated because the VMs were migrating.
+	 *
+	 * @param vms the vms
+	 * @return the PDM
+	 */
+	public static double getPerformanceDegradationDueToMigration(List<? extends Vm> vms) {
+		double totalUnderAllocated = 0;
+		double totalRequested = 0;
+		for (Vm vm : vms) {
+			totalUnderAllocated += vm.getStateMetrics().getUnderAllocatedMipsDueToMigration();
+			totalRequested += vm.getStateMetrics().getTotalRequestedMips();
+		}
+		return totalUnderAllocated / totalRequested;
+	}
+
+	/**
+	 * Gets the overall SLA violation of the VMs of each user in a list of VMs.
+	 *
+	 * @param vms the vms
+	 * @return the overall SLA violation keyed by user id
+	 */
+	public static Map<Integer, Double> getOverallSlaViolationByUser(List<? extends Vm> vms) {
+		Map<Integer, double[]> totals = new HashMap<Integer, double[]>();
+		for (Vm vm : vms) {
+			double[] userTotals = totals.get(vm.getUserId());
+			if (userTotals == null) {
+				userTotals = new double[2];
+				totals.put(vm.getUserId(), userTotals);
+			}
+			userTotals[0] += vm.getStateMetrics().getTotalAllocatedMips();
+			userTotals[1] += vm.getStateMetrics().getTotalRequestedMips();
+		}
+		Map<Integer, Double> violations = new HashMap<Integer, Double>();
+		for (Map.Entry<Integer, double[]> entry : totals.entrySet()) {
+			double[] userTotals = entry.getValue();
+			violations.put(entry.getKey(), (userTotals[1] - userTotals[0]) / userTotals[1]);
+		}
+		return violations;
+	}
+
+}
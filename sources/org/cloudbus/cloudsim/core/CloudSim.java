@@ -8,16 +8,28 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.NetworkTopology;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
 import org.cloudbus.cloudsim.core.predicates.PredicateAny;
 import org.cloudbus.cloudsim.core.predicates.PredicateNone;
@@ -64,6 +76,30 @@ public class CloudSim {
 
 	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
 	private static double minTimeBetweenEvents = 0.1;
+
+	/** Whether the processed events are recycled. */
+	private static boolean eventPooling = false;
+
+	/** The recycled events, used by the next events sent when the event pooling is enabled. */
+	private static final ArrayDeque<SimEvent> eventPool = new ArrayDeque<SimEvent>();
+
+	/** The instrumentation of the engine, or null if it is disabled. */
+	private static EngineInstrumentation instrumentation = null;
+
+	/** The number of threads running the simulation in parallel, 0 to run it sequentially. */
+	private static int parallelThreads = 0;
+
+	/** The lookahead of the parallel execution, negative to derive it from the network topology. */
+	private static double lookahead = 0;
+
+	/** The logical processes while the simulation runs in parallel, null otherwise. */
+	private static LogicalProcess[] processes = null;
+
+	/** The entities added while the simulation runs in parallel, by increasing id. */
+	private static final List<SimEntity> pendingEntities = new ArrayList<SimEntity>();
+
+	/** The times the pending entities were added at. */
+	private static final List<Double> pendingEntityTimes = new ArrayList<Double>();
 	
 	/**
 	 * Initialises all the common attributes.
@@ -258,6 +294,124 @@ public class CloudSim {
 	    return minTimeBetweenEvents;
 	}
 
+	/**
+	 * Enables or disables the event pooling. When enabled, an event is recycled once it has been
+	 * processed by its destination entity, and reused by a later send instead of allocating a new
+	 * event. Entities must then not keep a reference to an event, or to the int[] returned by
+	 * {@link SimEvent#getData()} for primitive data, after their processEvent method returns.
+	 * 
+	 * @param enabled true to recycle the events
+	 */
+	public static void setEventPooling(boolean enabled) {
+		eventPooling = enabled;
+		if (!enabled) {
+			eventPool.clear();
+		}
+	}
+
+	/**
+	 * Checks if the event pooling is enabled.
+	 * 
+	 * @return true, if the events are recycled
+	 */
+	public static boolean isEventPooling() {
+		return eventPooling;
+	}
+
+	/**
+	 * Sets the instrumentation recording the events processed by the engine and handled by the
+	 * entities. It has to be set before the simulation is started, and a new instrumentation
+	 * should be used for every run.
+	 * 
+	 * @param engineInstrumentation the instrumentation, or null to disable it
+	 */
+	public static void setInstrumentation(EngineInstrumentation engineInstrumentation) {
+		instrumentation = engineInstrumentation;
+	}
+
+	/**
+	 * Gets the instrumentation of the engine.
+	 * 
+	 * @return the instrumentation, or null if it is disabled
+	 */
+	public static EngineInstrumentation getInstrumentation() {
+		return instrumentation;
+	}
+
+	/**
+	 * Makes the simulation run in parallel, as a conservative parallel discrete-event simulation.
+	 * The entities are partitioned into logical processes: every {@link Datacenter}, with its hosts
+	 * and VMs, runs in a logical process of its own, the other entities in a common one, unless
+	 * they are assigned with {@link #setLogicalProcessOwner(SimEntity, SimEntity)}. The logical
+	 * processes run concurrently within windows as long as the lookahead, the minimum delay of the
+	 * events sent from one logical process to another; with a lookahead of 0, e.g., when the
+	 * brokers send their requests to the datacenters without delay, a window is a single round of
+	 * the engine, in which the entities of all the logical processes handle the events of the same
+	 * time. The entities receive the same events in the same order as in a sequential run, and
+	 * their output to the {@link Log} is written in the same order; System.out is left alone, so
+	 * what the entities print to it directly may interleave.
+	 * <p>
+	 * A simulation whose entities all fall in the same logical process, or with the instrumentation
+	 * enabled, runs sequentially. An entity added while the simulation runs in parallel, e.g., a
+	 * broker created by another entity, gets its id at once, but the logical processes stop at the
+	 * end of the round it is added in and the rest of the run is sequential, the entity being
+	 * started then; until that, it cannot be looked up by id or name.
+	 * With a lookahead, an abrupt termination, e.g., by the {@link CloudSimShutdown} entity, takes
+	 * effect at the end of the window it happens in. The model objects shared by
+	 * entities of different logical processes, such as the VMs and cloudlets a broker submits, must
+	 * only be modified by the entity that has received them. An event sent to another logical
+	 * process within the lookahead stops the simulation with an IllegalArgumentException.
+	 * 
+	 * @param threads the number of threads, 0 to run the simulation sequentially
+	 * @param lookahead the lookahead, 0 for windows of a single round
+	 */
+	public static void setParallelExecution(int threads, double lookahead) {
+		if (threads < 0) {
+			throw new IllegalArgumentException("The number of threads cannot be negative");
+		}
+		if (lookahead < 0) {
+			throw new IllegalArgumentException("The lookahead cannot be negative");
+		}
+		parallelThreads = threads;
+		CloudSim.lookahead = lookahead;
+	}
+
+	/**
+	 * Makes the simulation run in parallel, with the lookahead derived from the network topology:
+	 * the smallest delay between two entities of different logical processes if the network is
+	 * enabled, 0 otherwise. The events of the entities have then to be sent with the methods of
+	 * {@link SimEntity} that add the network delay.
+	 * 
+	 * @param threads the number of threads, 0 to run the simulation sequentially
+	 * @see #setParallelExecution(int, double)
+	 */
+	public static void setParallelExecution(int threads) {
+		setParallelExecution(threads, 0);
+		lookahead = -1;
+	}
+
+	/**
+	 * Gets the number of threads running the simulation in parallel.
+	 * 
+	 * @return the number of threads, 0 if the simulation runs sequentially
+	 */
+	public static int getParallelThreads() {
+		return parallelThreads;
+	}
+
+	/**
+	 * Makes an entity run in the logical process of another entity when the simulation runs in
+	 * parallel, e.g., a switch in the logical process of its datacenter. An entity owning itself
+	 * runs in a logical process of its own. The assignment is reset by
+	 * {@link #init(int, Calendar, boolean)}.
+	 * 
+	 * @param entity the entity
+	 * @param owner the entity whose logical process runs the entity
+	 */
+	public static void setLogicalProcessOwner(SimEntity entity, SimEntity owner) {
+		logicalProcessOwners.put(entity.getId(), owner.getId());
+	}
+
 	/**
 	 * Gets a new copy of initial simulation Calendar.
 	 * 
@@ -338,6 +492,9 @@ public class CloudSim {
 	/** The abrupt terminate. */
 	private static boolean abruptTerminate = false;
 
+	/** The entities run in the logical process of another entity, by id. */
+	private static Map<Integer, Integer> logicalProcessOwners = new HashMap<Integer, Integer>();
+
 	/**
 	 * Initialise the simulation for stand alone simulations. This function should be called at the
 	 * start of the simulation.
@@ -349,8 +506,11 @@ public class CloudSim {
 		future = new FutureQueue();
 		deferred = new DeferredQueue();
 		waitPredicates = new HashMap<Integer, Predicate>();
+		logicalProcessOwners = new HashMap<Integer, Integer>();
 		clock = 0;
 		running = false;
+		// the cloudlets of a new simulation record their history in a new journal
+		Cloudlet.setJournal(null);
 	}
 
 	// The two standard predicates
@@ -369,6 +529,12 @@ public class CloudSim {
 	 * @return the simulation time
 	 */
 	public static double clock() {
+		if (processes != null) {
+			LogicalProcess process = LogicalProcess.current();
+			if (process != null) {
+				return process.getClock();
+			}
+		}
 		return clock;
 	}
 
@@ -472,9 +638,20 @@ public class CloudSim {
 	 */
 	public static void addEntity(SimEntity e) {
 		SimEvent evt;
+		if (running && processes != null) {
+			// registered when the simulation falls back to the sequential engine
+			synchronized (pendingEntities) {
+				if (e.getId() == -1) {
+					e.setId(entities.size() + pendingEntities.size());
+				}
+				pendingEntities.add(e);
+				pendingEntityTimes.add(clock());
+			}
+			return;
+		}
 		if (running) {
 			// Post an event to make this entity
-			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
+			evt = newEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
 			future.addEvent(evt);
 		}
 		if (e.getId() == -1) { // Only add once!
@@ -485,6 +662,18 @@ public class CloudSim {
 		}
 	}
 
+	/**
+	 * Checks whether entities have been added while the simulation runs in parallel, which makes it
+	 * fall back to the sequential engine.
+	 * 
+	 * @return true if entities wait to be registered
+	 */
+	static boolean hasPendingEntities() {
+		synchronized (pendingEntities) {
+			return !pendingEntities.isEmpty();
+		}
+	}
+
 	/**
 	 * Internal method used to add a new entity to the simulation when the simulation is running. It
 	 * should <b>not</b> be called from user simulations.
@@ -521,30 +710,16 @@ public class CloudSim {
 				
 		// If there are more future events then deal with them
 		if (future.size() > 0) {
-			List<SimEvent> toRemove = new ArrayList<SimEvent>();
-			Iterator<SimEvent> fit = future.iterator();
 			queue_empty = false;
-			SimEvent first = fit.next();
+			SimEvent first = future.pollFirst();
+			double time = first.eventTime();
 			processEvent(first);
-			future.remove(first);
-
-			fit = future.iterator();
 
 			// Check if next events are at same time...
-			boolean trymore = fit.hasNext();
-			while (trymore) {
-				SimEvent next = fit.next();
-				if (next.eventTime() == first.eventTime()) {
-					processEvent(next);
-					toRemove.add(next);
-					trymore = fit.hasNext();
-				} else {
-					trymore = false;
-				}
+			while (future.size() > 0 && future.first().eventTime() == time) {
+				processEvent(future.pollFirst());
 			}
 
-			future.removeAll(toRemove);
-
 		} else {
 			queue_empty = true;
 			running = false;
@@ -568,9 +743,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void hold(int src, long delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
-		future.addEvent(e);
-		entities.get(src).setState(SimEntity.HOLDING);
+		pause(src, delay);
 	}
 
 	/**
@@ -580,8 +753,12 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void pause(int src, double delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
-		future.addEvent(e);
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			process.addEvent(process.newEvent(SimEvent.HOLD_DONE, delay, src, -1, -1, null, false));
+		} else {
+			future.addEvent(newEvent(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null));
+		}
 		entities.get(src).setState(SimEntity.HOLDING);
 	}
 
@@ -599,7 +776,70 @@ public class CloudSim {
 			throw new IllegalArgumentException("Send delay can't be negative.");
 		}
 
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			process.addEvent(process.newEvent(SimEvent.SEND, delay, src, dest, tag, data, false));
+			return;
+		}
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		future.addEvent(e);
+	}
+
+	/**
+	 * Used to send an event carrying three integers from one entity to another, such as the
+	 * acknowledgements sent by the datacenters. The destination entity can read them with
+	 * {@link SimEvent#getIntData(int)} or as an int[] with {@link SimEvent#getData()}.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data0 the first integer
+	 * @param data1 the second integer
+	 * @param data2 the third integer
+	 */
+	public static void send(int src, int dest, double delay, int tag, int data0, int data1, int data2) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			SimEvent e = process.newEvent(SimEvent.SEND, delay, src, dest, tag, null, false);
+			e.setIntData(data0, data1, data2);
+			process.addEvent(e);
+			return;
+		}
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, null);
+		e.setIntData(data0, data1, data2);
+		future.addEvent(e);
+	}
+
+	/**
+	 * Used to send an event carrying a double from one entity to another. The destination entity
+	 * can read it with {@link SimEvent#getDoubleData()} or as a Double with
+	 * {@link SimEvent#getData()}.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the double
+	 */
+	public static void send(int src, int dest, double delay, int tag, double data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			SimEvent e = process.newEvent(SimEvent.SEND, delay, src, dest, tag, null, false);
+			e.setDoubleData(data);
+			process.addEvent(e);
+			return;
+		}
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, null);
+		e.setDoubleData(data);
 		future.addEvent(e);
 	}
 
@@ -617,7 +857,12 @@ public class CloudSim {
 			throw new IllegalArgumentException("Send delay can't be negative.");
 		}
 
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			process.addEvent(process.newEvent(SimEvent.SEND, delay, src, dest, tag, data, true));
+			return;
+		}
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
 		future.addEventFirst(e);
 	}
 
@@ -633,7 +878,12 @@ public class CloudSim {
 		entities.get(src).setState(SimEntity.WAITING);
 		if (p != SIM_ANY) {
 			// If a predicate has been used store it in order to check it
-			waitPredicates.put(src, p);
+			LogicalProcess process = currentProcess();
+			if (process != null) {
+				process.getWaitPredicates().put(src, p);
+			} else {
+				waitPredicates.put(src, p);
+			}
 		}
 	}
 
@@ -645,6 +895,10 @@ public class CloudSim {
 	 * @return the int
 	 */
 	public static int waiting(int d, Predicate p) {
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			return process.waiting(d, p);
+		}
 		int count = 0;
 		SimEvent event;
 		Iterator<SimEvent> iterator = deferred.iterator();
@@ -665,6 +919,10 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent select(int src, Predicate p) {
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			return process.select(src, p, true);
+		}
 		SimEvent ev = null;
 		Iterator<SimEvent> iterator = deferred.iterator();
 		while (iterator.hasNext()) {
@@ -685,6 +943,10 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent findFirstDeferred(int src, Predicate p) {
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			return process.select(src, p, false);
+		}
 		SimEvent ev = null;
 		Iterator<SimEvent> iterator = deferred.iterator();
 		while (iterator.hasNext()) {
@@ -697,13 +959,18 @@ public class CloudSim {
 	}
 
 	/**
-	 * Removes an event from the event queue.
+	 * Removes an event from the event queue. When the simulation runs in parallel, only the events
+	 * still held by the logical process of the entity can be removed.
 	 * 
 	 * @param src the src
 	 * @param p the p
 	 * @return the sim event
 	 */
 	public static SimEvent cancel(int src, Predicate p) {
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			return process.cancel(src, p, false);
+		}
 		SimEvent ev = null;
 		Iterator<SimEvent> iter = future.iterator();
 		while (iter.hasNext()) {
@@ -726,6 +993,10 @@ public class CloudSim {
 	 * @return true, if successful
 	 */
 	public static boolean cancelAll(int src, Predicate p) {
+		LogicalProcess process = currentProcess();
+		if (process != null) {
+			return process.cancel(src, p, true) != null;
+		}
 		SimEvent ev = null;
 		int previousSize = future.size();
 		Iterator<SimEvent> iter = future.iterator();
@@ -755,6 +1026,9 @@ public class CloudSim {
 			throw new IllegalArgumentException("Past event detected.");
 		}
 		clock = e.eventTime();
+		if (instrumentation != null) {
+			instrumentation.eventProcessed(clock, future.size(), deferred.size());
+		}
 
 		// Ok now process it
 		switch (e.getType()) {
@@ -764,6 +1038,7 @@ public class CloudSim {
 			case SimEvent.CREATE:
 				SimEntity newe = (SimEntity) e.getData();
 				addEntityDynamically(newe);
+				releaseEvent(e);
 				break;
 
 			case SimEvent.SEND:
@@ -781,6 +1056,7 @@ public class CloudSim {
 							dest_ent.setEventBuffer((SimEvent) e.clone());
 							dest_ent.setState(SimEntity.RUNNABLE);
 							waitPredicates.remove(destObj);
+							releaseEvent(e);
 						} else {
 							deferred.addEvent(e);
 						}
@@ -797,6 +1073,7 @@ public class CloudSim {
 				} else {
 					entities.get(src).setState(SimEntity.RUNNABLE);
 				}
+				releaseEvent(e);
 				break;
 
 			default:
@@ -804,6 +1081,39 @@ public class CloudSim {
 		}
 	}
 
+	/**
+	 * Creates an event, reusing a recycled one if the event pooling is enabled.
+	 * 
+	 * @param evtype the internal event type
+	 * @param time the event time
+	 * @param src the src
+	 * @param dest the dest
+	 * @param tag the tag
+	 * @param data the data
+	 * @return the event
+	 */
+	private static SimEvent newEvent(int evtype, double time, int src, int dest, int tag, Object data) {
+		SimEvent e = eventPool.pollLast();
+		if (e == null) {
+			return new SimEvent(evtype, time, src, dest, tag, data);
+		}
+		e.reset(evtype, time, src, dest, tag, data);
+		return e;
+	}
+
+	/**
+	 * Recycles an event that has been processed, if the event pooling is enabled. The event must
+	 * not be in any queue and must not be used afterwards.
+	 * 
+	 * @param e the event
+	 */
+	static void releaseEvent(SimEvent e) {
+		if (eventPooling && processes == null) {
+			e.reset(SimEvent.ENULL, -1, -1, -1, -1, null);
+			eventPool.addLast(e);
+		}
+	}
+
 	/**
 	 * Internal method used to start the simulation. This method should <b>not</b> be used by user
 	 * simulations.
@@ -878,6 +1188,12 @@ public class CloudSim {
 		if (!running) {
 			runStart();
 		}
+		if (instrumentation != null) {
+			instrumentation.simulationStarted();
+		}
+		if (parallelThreads > 0 && instrumentation == null) {
+			runParallel();
+		}
 		while (true) {
 			if (runClockTick() || abruptTerminate) {
 				break;
@@ -907,6 +1223,9 @@ public class CloudSim {
 		}
 
 		double clock = clock();
+		if (instrumentation != null) {
+			instrumentation.simulationFinished(clock, future.size(), deferred.size());
+		}
 
 		finishSimulation();
 		runStop();
@@ -914,6 +1233,259 @@ public class CloudSim {
 		return clock;
 	}
 
+	/**
+	 * Runs the simulation in parallel until it has no more events, reaches its termination time, is
+	 * terminated or paused, and then hands the remaining events over to the sequential engine, which
+	 * ends the simulation as it would have.
+	 */
+	private static void runParallel() {
+		Iterator<SimEvent> iterator = future.iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().getType() == SimEvent.CREATE) {
+				return;
+			}
+		}
+		LogicalProcess[] processOf = new LogicalProcess[entities.size()];
+		List<LogicalProcess> list = partitionEntities(processOf);
+		if (list.size() < 2) {
+			return;
+		}
+		double step = lookahead >= 0 ? lookahead : getNetworkLookahead(processOf);
+
+		// the queues of the sequential engine are split between the logical processes
+		processes = list.toArray(new LogicalProcess[list.size()]);
+		for (LogicalProcess process : processes) {
+			process.setClock(clock);
+		}
+		iterator = future.iterator();
+		while (iterator.hasNext()) {
+			SimEvent e = iterator.next();
+			int entity = e.getType() == SimEvent.SEND ? e.getDestination() : e.getSource();
+			LogicalProcess process = entity >= 0 && entity < processOf.length ? processOf[entity] : processes[0];
+			process.getFuture().add(e);
+		}
+		future.clear();
+		iterator = deferred.iterator();
+		while (iterator.hasNext()) {
+			SimEvent e = iterator.next();
+			processOf[e.getDestination()].getDeferred().addEvent(e);
+		}
+		deferred.clear();
+		for (Map.Entry<Integer, Predicate> entry : waitPredicates.entrySet()) {
+			processOf[entry.getKey()].getWaitPredicates().put(entry.getKey(), entry.getValue());
+		}
+		waitPredicates.clear();
+
+		OutputStream logOutput = Log.getOutput();
+		Log.setOutput(new LogicalProcess.RoutedOutput(logOutput));
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelThreads, processes.length),
+				new ThreadFactory() {
+
+					private int count = 0;
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "CloudSim-LP-" + count++);
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		try {
+			runWindows(executor, step);
+		} finally {
+			executor.shutdownNow();
+			writeProcessOutputs();
+			Log.setOutput(logOutput);
+			mergeProcesses();
+		}
+	}
+
+	/**
+	 * Runs the windows of the parallel execution.
+	 * 
+	 * @param executor the executor running the logical processes
+	 * @param step the lookahead
+	 */
+	private static void runWindows(ExecutorService executor, double step) {
+		List<LogicalProcess> ready = new ArrayList<LogicalProcess>(processes.length);
+		double lastStart = -1;
+		int lastRound = 0;
+		while (!abruptTerminate && !paused && pauseAt == -1 && !hasPendingEntities()) {
+			double start = Double.POSITIVE_INFINITY;
+			for (LogicalProcess process : processes) {
+				process.deliverOutbox();
+			}
+			for (LogicalProcess process : processes) {
+				start = Math.min(start, process.nextEventTime());
+			}
+			if (start == Double.POSITIVE_INFINITY || (terminateAt > 0.0 && start >= terminateAt)) {
+				break;
+			}
+
+			int round = start == lastStart ? lastRound + 1 : 1;
+			boolean single = step <= 0;
+			double horizon = single ? start : start + step;
+			double end = terminateAt > 0.0 ? Math.min(horizon, terminateAt) : horizon;
+			ready.clear();
+			for (LogicalProcess process : processes) {
+				if (process.setWindow(start, round, end, horizon, single)) {
+					ready.add(process);
+				}
+			}
+
+			if (ready.size() == 1) {
+				ready.get(0).call();
+			} else {
+				try {
+					for (Future<Object> result : executor.invokeAll(ready)) {
+						result.get();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("The parallel execution has been interrupted", e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					if (e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+
+			writeProcessOutputs();
+			for (LogicalProcess process : ready) {
+				clock = Math.max(clock, process.getClock());
+			}
+			lastStart = start;
+			lastRound = round;
+		}
+	}
+
+	/**
+	 * Partitions the entities into logical processes.
+	 * 
+	 * @param processOf the array filled with the logical processes of the entities, by id
+	 * @return the logical processes, the first one running the entities which neither are a
+	 *         datacenter or own themselves nor are owned by such an entity
+	 */
+	private static List<LogicalProcess> partitionEntities(LogicalProcess[] processOf) {
+		int size = entities.size();
+		List<LogicalProcess> list = new ArrayList<LogicalProcess>();
+		list.add(new LogicalProcess(processOf));
+		LogicalProcess[] processOfOwner = new LogicalProcess[size];
+		for (int id = 0; id < size; id++) {
+			int owner = id;
+			Integer next = logicalProcessOwners.get(owner);
+			for (int i = 0; i < size && next != null && next != owner; i++) {
+				owner = next;
+				next = logicalProcessOwners.get(owner);
+			}
+			LogicalProcess process = processOfOwner[owner];
+			if (process == null) {
+				if (entities.get(owner) instanceof Datacenter || next != null) {
+					process = new LogicalProcess(processOf);
+					list.add(process);
+				} else {
+					process = list.get(0);
+				}
+				processOfOwner[owner] = process;
+			}
+			processOf[id] = process;
+			process.addEntity(entities.get(id));
+		}
+		return list;
+	}
+
+	/**
+	 * Gets a lower bound of the network delay between two entities of different logical processes:
+	 * the smallest link delay of the network topology, or 0 if an entity is not mapped to the
+	 * topology, since its events are then sent without network delay. With at least two logical
+	 * processes, every entity has a peer in another logical process. Unlike the delays between all
+	 * the pairs of entities, this takes no shortest path computation.
+	 * 
+	 * @param processOf the logical processes of the entities, by id
+	 * @return the lookahead, 0 if the network is not enabled
+	 */
+	private static double getNetworkLookahead(LogicalProcess[] processOf) {
+		if (!NetworkTopology.isNetworkEnabled()) {
+			return 0;
+		}
+		for (int id = 0; id < processOf.length; id++) {
+			if (!NetworkTopology.isNodeMapped(id)) {
+				return 0;
+			}
+		}
+		return NetworkTopology.getMinLinkDelay();
+	}
+
+	/**
+	 * Writes the output buffered by the logical processes, in the order of the sequential engine.
+	 */
+	private static void writeProcessOutputs() {
+		List<LogicalProcess.Output> outputs = new ArrayList<LogicalProcess.Output>();
+		for (LogicalProcess process : processes) {
+			outputs.addAll(process.getOutputs());
+			process.getOutputs().clear();
+		}
+		Collections.sort(outputs);
+		try {
+			for (LogicalProcess.Output output : outputs) {
+				output.writeTo();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Merges the queues of the logical processes back into the queues of the sequential engine.
+	 */
+	private static void mergeProcesses() {
+		LogicalProcess[] merged = processes;
+		processes = null;
+
+		// the entities added in parallel are created before the other events of their time
+		synchronized (pendingEntities) {
+			for (int i = 0; i < pendingEntities.size(); i++) {
+				SimEntity e = pendingEntities.get(i);
+				if (e.getId() >= entities.size()) {
+					entities.add(e);
+					entitiesByName.put(e.getName(), e);
+				}
+				future.addEvent(newEvent(SimEvent.CREATE, pendingEntityTimes.get(i), 1, 0, 0, e));
+			}
+			pendingEntities.clear();
+			pendingEntityTimes.clear();
+		}
+
+		List<SimEvent> events = new ArrayList<SimEvent>();
+		for (LogicalProcess process : merged) {
+			events.addAll(process.getFuture());
+			events.addAll(process.getOutbox());
+			Iterator<SimEvent> iterator = process.getDeferred().iterator();
+			while (iterator.hasNext()) {
+				deferred.addEvent(iterator.next());
+			}
+			waitPredicates.putAll(process.getWaitPredicates());
+			clock = Math.max(clock, process.getClock());
+		}
+		Collections.sort(events, LogicalProcess.ORDER);
+		for (SimEvent e : events) {
+			future.addEvent(e);
+		}
+	}
+
+	/**
+	 * Gets the logical process run by the current thread.
+	 * 
+	 * @return the logical process, or null if the simulation does not run in parallel
+	 */
+	private static LogicalProcess currentProcess() {
+		return processes == null ? null : LogicalProcess.current();
+	}
+
 	/**
 	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
 	 * in user simulations.
@@ -265,6 +265,29 @@ public class CloudSimTags {
 
 	public static final int NextCycle = BASE + 48;
 
+	/**
+	 * Denotes a request to complete a batch of VM migrations in a Datacentre, the data being a
+	 * {@link org.cloudbus.cloudsim.MigrationPlan}
+	 */
+	public static final int VM_MIGRATE_BATCH = BASE + 49;
+
+	/**
+	 * Denotes the completion of flows in the flow-level network model of a NetworkDatacenter
+	 */
+	public static final int Network_Event_Flow = BASE + 50;
+
+	/**
+	 * Denotes the submission of several cloudlets to a Datacentre at once, the data being the list
+	 * of cloudlets. No acknowledgement is sent back.
+	 */
+	public static final int CLOUDLET_SUBMIT_BATCH = BASE + 51;
+
+	/**
+	 * Denotes a request to create several VMs in a Datacentre at once, the data being the list of
+	 * VMs. A {@link #VM_CREATE_ACK} is sent back for each VM.
+	 */
+	public static final int VM_CREATE_BATCH = BASE + 52;
+
 	/** Private Constructor */
 	private CloudSimTags() {
 		throw new UnsupportedOperationException("CloudSim Tags cannot be instantiated");
@@ -0,0 +1,362 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.util.stats.LogLinearHistogram;
+
+/**
+ * EngineInstrumentation records what the simulation engine spends its time on: the number of
+ * events processed, and for every pair of entity and tag the number of events handled and a
+ * histogram of the time the processEvent method of the entity took, in nanoseconds. Every
+ * {@link #getSampleInterval()} events, the depths of the future and deferred queues are sampled
+ * together with the simulated and the wall-clock time, from which the events per second and the
+ * ratio of simulated to wall-clock time over the run are derived.
+ *
+ * The instrumentation is enabled with {@link CloudSim#setInstrumentation(EngineInstrumentation)}
+ * before the simulation is started. When it is not set, the engine only pays a null check per
+ * event. The results are exported as CSV files with {@link #exportCsv(String)}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class EngineInstrumentation {
+
+	/**
+	 * The statistics of the events of one tag handled by one entity.
+	 */
+	public static class HandlerStats {
+
+		/** The id of the entity. */
+		private final int entityId;
+
+		/** The name of the entity. */
+		private final String entityName;
+
+		/** The tag of the events. */
+		private final int tag;
+
+		/** The times taken by the handler, in nanoseconds. */
+		private final LogLinearHistogram latencies = new LogLinearHistogram();
+
+		/**
+		 * Instantiates the statistics of a handler.
+		 *
+		 * @param entityId the id of the entity
+		 * @param entityName the name of the entity
+		 * @param tag the tag of the events
+		 */
+		HandlerStats(int entityId, String entityName, int tag) {
+			this.entityId = entityId;
+			this.entityName = entityName;
+			this.tag = tag;
+		}
+
+		/**
+		 * Gets the id of the entity.
+		 *
+		 * @return the entity id
+		 */
+		public int getEntityId() {
+			return entityId;
+		}
+
+		/**
+		 * Gets the name of the entity.
+		 *
+		 * @return the entity name
+		 */
+		public String getEntityName() {
+			return entityName;
+		}
+
+		/**
+		 * Gets the tag of the events.
+		 *
+		 * @return the tag
+		 */
+		public int getTag() {
+			return tag;
+		}
+
+		/**
+		 * Gets the number of events handled.
+		 *
+		 * @return the number of events
+		 */
+		public long getCount() {
+			return latencies.getTotalCount();
+		}
+
+		/**
+		 * Gets the histogram of the times taken by the handler, in nanoseconds.
+		 *
+		 * @return the latency histogram
+		 */
+		public LogLinearHistogram getLatencies() {
+			return latencies;
+		}
+
+	}
+
+	/** The number of processed events between two samples of the queues. */
+	private final int sampleInterval;
+
+	/** The statistics of the handlers, keyed by entity id and tag. */
+	private final Map<Long, HandlerStats> handlers = new HashMap<Long, HandlerStats>();
+
+	/** The statistics of the handlers, in the order the pairs were first seen. */
+	private final List<HandlerStats> handlerList = new ArrayList<HandlerStats>();
+
+	/** The number of events processed by the engine. */
+	private long eventsProcessed;
+
+	/** The wall-clock time the simulation started at, in nanoseconds. */
+	private long startWallTime;
+
+	/** The wall-clock time the simulation finished at, in nanoseconds, or 0 while running. */
+	private long endWallTime;
+
+	/** The simulated time the simulation finished at. */
+	private double endClock;
+
+	/** The number of samples of the queues. */
+	private int samples;
+
+	/** The wall-clock times of the samples, in nanoseconds since the start. */
+	private long[] sampleWallTimes = new long[64];
+
+	/** The simulated times of the samples. */
+	private double[] sampleClocks = new double[64];
+
+	/** The numbers of processed events at the samples. */
+	private long[] sampleEvents = new long[64];
+
+	/** The depths of the future queue at the samples. */
+	private int[] sampleFutureDepths = new int[64];
+
+	/** The depths of the deferred queue at the samples. */
+	private int[] sampleDeferredDepths = new int[64];
+
+	/**
+	 * Instantiates an instrumentation sampling the queues every 1024 events.
+	 */
+	public EngineInstrumentation() {
+		this(1024);
+	}
+
+	/**
+	 * Instantiates an instrumentation.
+	 *
+	 * @param sampleInterval the number of processed events between two samples of the queues
+	 */
+	public EngineInstrumentation(int sampleInterval) {
+		if (sampleInterval <= 0) {
+			throw new IllegalArgumentException("The sample interval must be greater than zero");
+		}
+		this.sampleInterval = sampleInterval;
+	}
+
+	/**
+	 * Records the start of the simulation.
+	 */
+	void simulationStarted() {
+		startWallTime = System.nanoTime();
+		endWallTime = 0;
+	}
+
+	/**
+	 * Records the end of the simulation.
+	 *
+	 * @param clock the final simulated time
+	 * @param futureDepth the depth of the future queue
+	 * @param deferredDepth the depth of the deferred queue
+	 */
+	void simulationFinished(double clock, int futureDepth, int deferredDepth) {
+		sample(clock, futureDepth, deferredDepth);
+		endClock = clock;
+		endWallTime = System.nanoTime();
+	}
+
+	/**
+	 * Records an event taken from the future queue by the engine.
+	 *
+	 * @param clock the simulated time of the event
+	 * @param futureDepth the depth of the future queue
+	 * @param deferredDepth the depth of the deferred queue
+	 */
+	void eventProcessed(double clock, int futureDepth, int deferredDepth) {
+		if (eventsProcessed++ % sampleInterval == 0) {
+			sample(clock, futureDepth, deferredDepth);
+		}
+	}
+
+	/**
+	 * Records an event handled by an entity.
+	 *
+	 * @param entity the entity
+	 * @param tag the tag of the event
+	 * @param nanos the time taken by the processEvent method of the entity
+	 */
+	void eventHandled(SimEntity entity, int tag, long nanos) {
+		Long key = ((long) entity.getId() << 32) | (tag & 0xffffffffL);
+		HandlerStats stats = handlers.get(key);
+		if (stats == null) {
+			stats = new HandlerStats(entity.getId(), entity.getName(), tag);
+			handlers.put(key, stats);
+			handlerList.add(stats);
+		}
+		stats.latencies.record(nanos);
+	}
+
+	/**
+	 * Records a sample of the queues.
+	 */
+	private void sample(double clock, int futureDepth, int deferredDepth) {
+		if (samples == sampleClocks.length) {
+			int length = samples * 2;
+			sampleWallTimes = Arrays.copyOf(sampleWallTimes, length);
+			sampleClocks = Arrays.copyOf(sampleClocks, length);
+			sampleEvents = Arrays.copyOf(sampleEvents, length);
+			sampleFutureDepths = Arrays.copyOf(sampleFutureDepths, length);
+			sampleDeferredDepths = Arrays.copyOf(sampleDeferredDepths, length);
+		}
+		sampleWallTimes[samples] = System.nanoTime() - startWallTime;
+		sampleClocks[samples] = clock;
+		sampleEvents[samples] = eventsProcessed;
+		sampleFutureDepths[samples] = futureDepth;
+		sampleDeferredDepths[samples] = deferredDepth;
+		samples++;
+	}
+
+	/**
+	 * Gets the number of processed events between two samples of the queues.
+	 *
+	 * @return the sample interval
+	 */
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+
+	/**
+	 * Gets the number of events processed by the engine.
+	 *
+	 * @return the number of events
+	 */
+	public long getEventsProcessed() {
+		return eventsProcessed;
+	}
+
+	/**
+	 * Gets the wall-clock time of the simulation, up to now if it is still running.
+	 *
+	 * @return the wall-clock time in seconds
+	 */
+	public double getWallTime() {
+		if (startWallTime == 0) {
+			return 0;
+		}
+		long end = endWallTime != 0 ? endWallTime : System.nanoTime();
+		return (end - startWallTime) / 1e9;
+	}
+
+	/**
+	 * Gets the average number of events processed per second of wall-clock time.
+	 *
+	 * @return the events per second
+	 */
+	public double getEventsPerSecond() {
+		double wallTime = getWallTime();
+		return wallTime > 0 ? eventsProcessed / wallTime : 0;
+	}
+
+	/**
+	 * Gets the ratio of the simulated time to the wall-clock time of the simulation.
+	 *
+	 * @return the simulated seconds per wall-clock second
+	 */
+	public double getSimulatedToWallClockRatio() {
+		double wallTime = getWallTime();
+		double clock = endWallTime != 0 ? endClock : CloudSim.clock();
+		return wallTime > 0 ? clock / wallTime : 0;
+	}
+
+	/**
+	 * Gets the statistics of the events of a tag handled by an entity.
+	 *
+	 * @param entityId the id of the entity
+	 * @param tag the tag
+	 * @return the statistics, or null if the entity has handled no such event
+	 */
+	public HandlerStats getHandlerStats(int entityId, int tag) {
+		return handlers.get(((long) entityId << 32) | (tag & 0xffffffffL));
+	}
+
+	/**
+	 * Gets the statistics of all the pairs of entity and tag, in the order they were first seen.
+	 *
+	 * @return the statistics of the handlers
+	 */
+	public List<HandlerStats> getHandlerStats() {
+		return handlerList;
+	}
+
+	/**
+	 * Exports the results as CSV files: the summary of the run to prefix-summary.csv, the
+	 * statistics of the handlers to prefix-handlers.csv and the samples of the queues to
+	 * prefix-queues.csv.
+	 *
+	 * @param prefix the prefix of the file names
+	 * @throws IOException if a file cannot be written
+	 */
+	public void exportCsv(String prefix) throws IOException {
+		PrintWriter summary = new PrintWriter(new FileWriter(prefix + "-summary.csv"));
+		try {
+			summary.println("events,wall_s,events_per_s,sim_to_wall_ratio,samples");
+			summary.println(eventsProcessed + "," + getWallTime() + "," + getEventsPerSecond() + ","
+					+ getSimulatedToWallClockRatio() + "," + samples);
+		} finally {
+			summary.close();
+		}
+
+		PrintWriter handlersOut = new PrintWriter(new FileWriter(prefix + "-handlers.csv"));
+		try {
+			handlersOut.println("entity_id,entity,tag,count,total_ns,mean_ns,min_ns,p50_ns,p90_ns,p99_ns,p999_ns,max_ns");
+			for (HandlerStats stats : handlerList) {
+				LogLinearHistogram h = stats.latencies;
+				handlersOut.println(stats.entityId + "," + stats.entityName + "," + stats.tag + ","
+						+ h.getTotalCount() + "," + (long) h.getSum() + "," + h.getMean() + ","
+						+ h.getMin() + "," + h.getValueAtPercentile(50) + ","
+						+ h.getValueAtPercentile(90) + "," + h.getValueAtPercentile(99) + ","
+						+ h.getValueAtPercentile(99.9) + "," + h.getMax());
+			}
+		} finally {
+			handlersOut.close();
+		}
+
+		PrintWriter queues = new PrintWriter(new FileWriter(prefix + "-queues.csv"));
+		try {
+			queues.println("wall_ns,clock,events,future_depth,deferred_depth");
+			for (int i = 0; i < samples; i++) {
+				queues.println(sampleWallTimes[i] + "," + sampleClocks[i] + "," + sampleEvents[i] + ","
+						+ sampleFutureDepths[i] + "," + sampleDeferredDepths[i]);
+			}
+		} finally {
+			queues.close();
+		}
+	}
+
+}
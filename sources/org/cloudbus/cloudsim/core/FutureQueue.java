@@ -10,7 +10,6 @@ package org.cloudbus.cloudsim.core;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.SortedSet;
 import java.util.TreeSet;
 
 /**
@@ -25,7 +24,7 @@ import java.util.TreeSet;
 public class FutureQueue {
 
 	/** The sorted set. */
-	private final SortedSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
+	private final TreeSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
 
 	/** The serial. */
 	private long serial = 0;
@@ -51,6 +50,25 @@ public class FutureQueue {
 		sortedSet.add(newEvent);
 	}
 
+	/**
+	 * Returns the first event of the queue, without removing it.
+	 * 
+	 * @return the first event
+	 * @throws java.util.NoSuchElementException if the queue is empty
+	 */
+	public SimEvent first() {
+		return sortedSet.first();
+	}
+
+	/**
+	 * Removes and returns the first event of the queue.
+	 * 
+	 * @return the first event, or null if the queue is empty
+	 */
+	public SimEvent pollFirst() {
+		return sortedSet.pollFirst();
+	}
+
 	/**
 	 * Returns an iterator to the queue.
 	 * 
@@ -0,0 +1,576 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * A logical process of the parallel execution of a simulation: a group of entities with their own
+ * clock, future and deferred queues, which is run by one thread at a time. The simulation advances
+ * in windows synchronised by {@link CloudSim}. A window starts at the earliest event of all the
+ * logical processes and spans the lookahead, the delay below which no event is sent from one
+ * logical process to another; within the window, every logical process runs its events
+ * independently, exactly like the sequential engine would. With no lookahead, a window is a single
+ * round of the sequential engine, i.e., the events of one time moved to the deferred queue and the
+ * entities run once.
+ *
+ * The events are ordered by time, then by the time, round, entity and sequence they were sent
+ * with, which is the order the sequential engine sends them in. The entities therefore receive the
+ * same events in the same order as in a sequential run. The output written to the
+ * {@link org.cloudbus.cloudsim.Log} by the entities is buffered as well, and written in the same
+ * order at the end of every window.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+final class LogicalProcess implements Callable<Object> {
+
+	/**
+	 * An event sent while the simulation runs in parallel, which knows when and by whom it was
+	 * sent.
+	 */
+	static final class Event extends SimEvent {
+
+		/** The time the event was sent at, negative infinity for an event sent first. */
+		private final double sendTime;
+
+		/** The round of the send time the event was sent in. */
+		private final int round;
+
+		/** The id of the entity that was running when the event was sent. */
+		private final int sender;
+
+		/** The sequence number of the event in its logical process. */
+		private final long sequence;
+
+		Event(int evtype, double time, int src, int dest, int tag, Object data, double sendTime,
+				int round, int sender, long sequence) {
+			super(evtype, time, src, dest, tag, data);
+			this.sendTime = sendTime;
+			this.round = round;
+			this.sender = sender;
+			this.sequence = sequence;
+		}
+
+	}
+
+	/**
+	 * The order of the events: by time, then in the order they were sent. The events queued before
+	 * the parallel execution started come first, in the order of their serial numbers.
+	 */
+	static final Comparator<SimEvent> ORDER = new Comparator<SimEvent>() {
+
+		@Override
+		public int compare(SimEvent a, SimEvent b) {
+			if (a == b) {
+				return 0;
+			}
+			if (a.eventTime() != b.eventTime()) {
+				return a.eventTime() < b.eventTime() ? -1 : 1;
+			}
+			boolean sentA = a instanceof Event;
+			boolean sentB = b instanceof Event;
+			if (!sentA || !sentB) {
+				if (sentA != sentB) {
+					return sentA ? 1 : -1;
+				}
+				return a.getSerial() < b.getSerial() ? -1 : 1;
+			}
+			Event x = (Event) a;
+			Event y = (Event) b;
+			if (x.sendTime != y.sendTime) {
+				return x.sendTime < y.sendTime ? -1 : 1;
+			}
+			if (x.round != y.round) {
+				return x.round < y.round ? -1 : 1;
+			}
+			if (x.sender != y.sender) {
+				return x.sender < y.sender ? -1 : 1;
+			}
+			return x.sequence < y.sequence ? -1 : 1;
+		}
+
+	};
+
+	/**
+	 * A stream which buffers what the entities of a logical process write in the logical process,
+	 * and writes through when it is used outside of the logical processes.
+	 */
+	static final class RoutedOutput extends OutputStream {
+
+		/** The stream the output is eventually written to. */
+		private final OutputStream target;
+
+		RoutedOutput(OutputStream target) {
+			this.target = target;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			LogicalProcess process = CURRENT.get();
+			if (process == null) {
+				target.write(b, off, len);
+			} else {
+				process.write(target, b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (CURRENT.get() == null) {
+				target.flush();
+			}
+		}
+
+	}
+
+	/**
+	 * The output written by one entity of a logical process in one round, before it is written to
+	 * its target.
+	 */
+	static final class Output implements Comparable<Output> {
+
+		private final double time;
+
+		private final int round;
+
+		private final int entity;
+
+		private final OutputStream target;
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		Output(double time, int round, int entity, OutputStream target) {
+			this.time = time;
+			this.round = round;
+			this.entity = entity;
+			this.target = target;
+		}
+
+		void writeTo() throws IOException {
+			bytes.writeTo(target);
+		}
+
+		@Override
+		public int compareTo(Output o) {
+			if (time != o.time) {
+				return time < o.time ? -1 : 1;
+			}
+			if (round != o.round) {
+				return round < o.round ? -1 : 1;
+			}
+			return entity < o.entity ? -1 : (entity > o.entity ? 1 : 0);
+		}
+
+	}
+
+	/** The logical process run by the current thread, null outside of the logical processes. */
+	private static final ThreadLocal<LogicalProcess> CURRENT = new ThreadLocal<LogicalProcess>();
+
+	/** The logical processes of the entities, by entity id. */
+	private final LogicalProcess[] processOf;
+
+	/** The entities of the logical process, by increasing id. */
+	private final List<SimEntity> entities = new ArrayList<SimEntity>();
+
+	/** The future events of the entities. */
+	private final TreeSet<SimEvent> future = new TreeSet<SimEvent>(ORDER);
+
+	/** The deferred events of the entities. */
+	private final DeferredQueue deferred = new DeferredQueue();
+
+	/** The predicates the waiting entities wait for. */
+	private final Map<Integer, Predicate> waitPredicates = new HashMap<Integer, Predicate>();
+
+	/** The events sent to other logical processes during the current window. */
+	private final List<SimEvent> outbox = new ArrayList<SimEvent>();
+
+	/** The output written during the current window. */
+	private final List<Output> outputs = new ArrayList<Output>();
+
+	/** The clock of the logical process. */
+	private double clock;
+
+	/** The round of the clock, i.e., the number of times events of that time have been moved. */
+	private int round;
+
+	/** The id of the running entity, -1 if none. */
+	private int runningEntity = -1;
+
+	/** The number of events sent by the logical process. */
+	private long sequence;
+
+	/** The start of the current window. */
+	private double windowStart;
+
+	/** The round of the start of the current window. */
+	private int windowRound;
+
+	/** The end of the current window, exclusive. */
+	private double windowEnd;
+
+	/** The earliest time of an event sent to another logical process in the current window. */
+	private double horizon;
+
+	/** Whether the current window is a single round. */
+	private boolean singleRound;
+
+	/**
+	 * Instantiates a logical process.
+	 *
+	 * @param processOf the logical processes of the entities, by entity id
+	 */
+	LogicalProcess(LogicalProcess[] processOf) {
+		this.processOf = processOf;
+	}
+
+	/**
+	 * Gets the logical process run by the current thread.
+	 *
+	 * @return the logical process, or null outside of the logical processes
+	 */
+	static LogicalProcess current() {
+		return CURRENT.get();
+	}
+
+	double getClock() {
+		return clock;
+	}
+
+	void setClock(double clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Adds an entity. The entities have to be added by increasing id.
+	 *
+	 * @param entity the entity
+	 */
+	void addEntity(SimEntity entity) {
+		entities.add(entity);
+	}
+
+	List<SimEntity> getEntities() {
+		return entities;
+	}
+
+	TreeSet<SimEvent> getFuture() {
+		return future;
+	}
+
+	DeferredQueue getDeferred() {
+		return deferred;
+	}
+
+	Map<Integer, Predicate> getWaitPredicates() {
+		return waitPredicates;
+	}
+
+	List<SimEvent> getOutbox() {
+		return outbox;
+	}
+
+	/**
+	 * Gets the time of the earliest future event.
+	 *
+	 * @return the time, or positive infinity if there is no future event
+	 */
+	double nextEventTime() {
+		return future.isEmpty() ? Double.POSITIVE_INFINITY : future.first().eventTime();
+	}
+
+	/**
+	 * Sets the next window to run.
+	 *
+	 * @param start the start of the window, the earliest event of all the logical processes
+	 * @param startRound the round of the events at the start
+	 * @param end the end of the window, exclusive, ignored for a single round
+	 * @param horizon the earliest time of an event sent to another logical process
+	 * @param single whether the window is a single round
+	 * @return true if the logical process has events in the window
+	 */
+	boolean setWindow(double start, int startRound, double end, double horizon, boolean single) {
+		windowStart = start;
+		windowRound = startRound;
+		windowEnd = end;
+		this.horizon = horizon;
+		singleRound = single;
+		double next = nextEventTime();
+		return single ? next == start : next < end;
+	}
+
+	/**
+	 * Runs the window set by {@link #setWindow(double, int, double, double, boolean)}: moves the
+	 * events of every time of the window to the deferred queue and runs the entities, as the
+	 * sequential engine does.
+	 *
+	 * @return null
+	 */
+	@Override
+	public Object call() {
+		CURRENT.set(this);
+		try {
+			boolean first = true;
+			while (!future.isEmpty()) {
+				double time = future.first().eventTime();
+				if (singleRound ? time != windowStart : time >= windowEnd) {
+					break;
+				}
+				if (first && time == windowStart) {
+					round = windowRound;
+				} else if (time == clock) {
+					round++;
+				} else {
+					round = 1;
+				}
+				first = false;
+				clock = time;
+
+				do {
+					processEvent(future.pollFirst());
+				} while (!future.isEmpty() && future.first().eventTime() == time);
+
+				for (SimEntity ent : entities) {
+					if (ent.getState() == SimEntity.RUNNABLE) {
+						runningEntity = ent.getId();
+						ent.run();
+					}
+				}
+				runningEntity = -1;
+
+				// an entity added in parallel makes the simulation fall back to sequential
+				if (singleRound || CloudSim.hasPendingEntities()) {
+					break;
+				}
+			}
+		} finally {
+			runningEntity = -1;
+			CURRENT.remove();
+		}
+		return null;
+	}
+
+	/**
+	 * Processes an event taken from the future queue, as {@link CloudSim} does.
+	 *
+	 * @param e the event
+	 */
+	private void processEvent(SimEvent e) {
+		switch (e.getType()) {
+			case SimEvent.ENULL:
+				throw new IllegalArgumentException("Event has a null type.");
+
+			case SimEvent.SEND:
+				int dest = e.getDestination();
+				if (dest < 0) {
+					throw new IllegalArgumentException("Attempt to send to a null entity detected.");
+				}
+				SimEntity destEnt = CloudSim.getEntity(dest);
+				if (destEnt.getState() == SimEntity.WAITING) {
+					Integer destObj = Integer.valueOf(dest);
+					Predicate p = waitPredicates.get(destObj);
+					if ((p == null) || (e.getTag() == 9999) || (p.match(e))) {
+						destEnt.setEventBuffer((SimEvent) e.clone());
+						destEnt.setState(SimEntity.RUNNABLE);
+						waitPredicates.remove(destObj);
+					} else {
+						deferred.addEvent(e);
+					}
+				} else {
+					deferred.addEvent(e);
+				}
+				break;
+
+			case SimEvent.HOLD_DONE:
+				int src = e.getSource();
+				if (src < 0) {
+					throw new IllegalArgumentException("Null entity holding.");
+				}
+				CloudSim.getEntity(src).setState(SimEntity.RUNNABLE);
+				break;
+
+			default:
+				throw new IllegalStateException("Entities cannot be created while the simulation runs in parallel.");
+		}
+	}
+
+	/**
+	 * Creates an event sent by the running entity.
+	 *
+	 * @param evtype the internal event type
+	 * @param delay the delay
+	 * @param src the src
+	 * @param dest the dest
+	 * @param tag the tag
+	 * @param data the data
+	 * @param first whether the event goes before the other events of its time
+	 * @return the event
+	 */
+	SimEvent newEvent(int evtype, double delay, int src, int dest, int tag, Object data, boolean first) {
+		return new Event(evtype, clock + delay, src, dest, tag, data, first
+				? Double.NEGATIVE_INFINITY
+				: clock, round, runningEntity, sequence++);
+	}
+
+	/**
+	 * Adds an event to the future queue of its logical process: to this one if the event is sent
+	 * to one of its entities, or else to the outbox until the end of the window.
+	 *
+	 * @param e the event
+	 * @throws IllegalArgumentException if the event is sent to another logical process within the
+	 *             lookahead
+	 */
+	void addEvent(SimEvent e) {
+		int dest = e.getDestination();
+		if (e.getType() != SimEvent.SEND || dest < 0 || dest >= processOf.length
+				|| processOf[dest] == this) {
+			future.add(e);
+			return;
+		}
+		if (e.eventTime() < horizon) {
+			throw new IllegalArgumentException("Event " + e.getTag() + " from entity " + e.getSource()
+					+ " to entity " + dest + " at " + e.eventTime()
+					+ " is sent within the lookahead of the parallel execution.");
+		}
+		outbox.add(e);
+	}
+
+	/**
+	 * Moves the events of the outbox to the future queues of their logical processes.
+	 */
+	void deliverOutbox() {
+		for (SimEvent e : outbox) {
+			processOf[e.getDestination()].future.add(e);
+		}
+		outbox.clear();
+	}
+
+	/**
+	 * Checks if events for an entity are present in the deferred queue.
+	 *
+	 * @param d the entity
+	 * @param p the predicate
+	 * @return the number of events
+	 */
+	int waiting(int d, Predicate p) {
+		int count = 0;
+		Iterator<SimEvent> iterator = deferred.iterator();
+		while (iterator.hasNext()) {
+			SimEvent event = iterator.next();
+			if ((event.getDestination() == d) && (p.match(event))) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Selects a deferred event matching a predicate, removing it if required.
+	 *
+	 * @param src the entity
+	 * @param p the predicate
+	 * @param remove whether the event is removed
+	 * @return the event, or the last deferred event if none matches, as the sequential engine does
+	 */
+	SimEvent select(int src, Predicate p, boolean remove) {
+		SimEvent ev = null;
+		Iterator<SimEvent> iterator = deferred.iterator();
+		while (iterator.hasNext()) {
+			ev = iterator.next();
+			if (ev.getDestination() == src && p.match(ev)) {
+				if (remove) {
+					iterator.remove();
+				}
+				break;
+			}
+		}
+		return ev;
+	}
+
+	/**
+	 * Removes the first or all the future events sent by an entity and matching a predicate. Only
+	 * the events still held by this logical process can be cancelled: those sent to its own
+	 * entities, and those sent to other logical processes during the current window.
+	 *
+	 * @param src the entity
+	 * @param p the predicate
+	 * @param all whether all the matching events are removed
+	 * @return the last removed event, or null if none matches
+	 */
+	SimEvent cancel(int src, Predicate p, boolean all) {
+		SimEvent ev = cancel(future, src, p, all);
+		if (ev == null || all) {
+			SimEvent sent = cancel(outbox, src, p, all);
+			if (sent != null) {
+				ev = sent;
+			}
+		}
+		return ev;
+	}
+
+	/**
+	 * Removes the first or all the events of a collection sent by an entity and matching a
+	 * predicate.
+	 */
+	private static SimEvent cancel(Collection<SimEvent> events, int src, Predicate p, boolean all) {
+		SimEvent removed = null;
+		Iterator<SimEvent> iter = events.iterator();
+		while (iter.hasNext()) {
+			SimEvent ev = iter.next();
+			if (ev.getSource() == src && p.match(ev)) {
+				iter.remove();
+				removed = ev;
+				if (!all) {
+					break;
+				}
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Buffers output written by the running entity.
+	 */
+	private void write(OutputStream target, byte[] b, int off, int len) {
+		Output last = outputs.isEmpty() ? null : outputs.get(outputs.size() - 1);
+		if (last == null || last.time != clock || last.round != round || last.entity != runningEntity
+				|| last.target != target) {
+			last = new Output(clock, round, runningEntity, target);
+			outputs.add(last);
+		}
+		last.bytes.write(b, off, len);
+	}
+
+	/**
+	 * Gets the output buffered during the current window.
+	 *
+	 * @return the output, in the order it was written
+	 */
+	List<Output> getOutputs() {
+		return outputs;
+	}
+
+}
@@ -105,6 +105,25 @@ public abstract class SimEntity implements Cloneable {
 		schedule(dest, delay, tag, null);
 	}
 
+	/**
+	 * Send an event to another entity by id number, with three integers as data, which the
+	 * destination reads with {@link SimEvent#getIntData(int)} without allocating an int[]. Note that
+	 * the tag <code>9999</code> is reserved.
+	 * 
+	 * @param dest The unique id number of the destination entity
+	 * @param delay How long from the current simulation time the event should be sent
+	 * @param tag An user-defined number representing the type of event.
+	 * @param data0 The first integer
+	 * @param data1 The second integer
+	 * @param data2 The third integer
+	 */
+	public void schedule(int dest, double delay, int tag, int data0, int data1, int data2) {
+		if (!CloudSim.running()) {
+			return;
+		}
+		CloudSim.send(id, dest, delay, tag, data0, data1, data2);
+	}
+
 	/**
 	 * Send an event to another entity through a port with a given name, with data. Note that the
 	 * tag <code>9999</code> is reserved.
@@ -401,9 +420,18 @@ public abstract class SimEntity implements Cloneable {
 
 	public void run() {
 		SimEvent ev = evbuf != null ? evbuf : getNextEvent();
+		EngineInstrumentation instrumentation = CloudSim.getInstrumentation();
 
 		while (ev != null) {
-			processEvent(ev);
+			if (instrumentation == null) {
+				processEvent(ev);
+			} else {
+				int tag = ev.getTag();
+				long start = System.nanoTime();
+				processEvent(ev);
+				instrumentation.eventHandled(this, tag, System.nanoTime() - start);
+			}
+			CloudSim.releaseEvent(ev);
 			if (state != RUNNABLE) {
 				break;
 			}
@@ -519,9 +547,46 @@ public abstract class SimEntity implements Cloneable {
 	 */
 	protected void send(int entityId, double delay, int cloudSimTag, Object data) {
 		if (entityId < 0) {
+			Log.printLine(getName() + ".send(): Error - " + "invalid entity id " + entityId);
+			return;
+		}
+
+		schedule(entityId, getSendDelay(entityId, delay), cloudSimTag, data);
+	}
+
+	/**
+	 * Sends an event/message carrying three integers to another entity by <tt>delaying</tt> the
+	 * simulation time from the current time, with a tag representing the event type. This is used
+	 * for the acknowledgements, which would otherwise be sent as an int[].
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param delay how long from the current simulation time the event should be sent. If delay is
+	 *            a negative number, then it will be changed to 0
+	 * @param cloudSimTag an user-defined number representing the type of an event/message
+	 * @param data0 the first integer
+	 * @param data1 the second integer
+	 * @param data2 the third integer
+	 * @pre entityID > 0
+	 * @pre delay >= 0.0
+	 * @post $none
+	 */
+	protected void send(int entityId, double delay, int cloudSimTag, int data0, int data1, int data2) {
+		if (entityId < 0) {
+			Log.printLine(getName() + ".send(): Error - " + "invalid entity id " + entityId);
 			return;
 		}
 
+		schedule(entityId, getSendDelay(entityId, delay), cloudSimTag, data0, data1, data2);
+	}
+
+	/**
+	 * Gets the delay of an event/message sent to another entity, including the network delay.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param delay how long from the current simulation time the event should be sent
+	 * @return the delay
+	 */
+	private double getSendDelay(int entityId, double delay) {
 		// if delay is -ve, then it doesn't make sense. So resets to 0.0
 		if (delay < 0) {
 			delay = 0;
@@ -531,17 +596,11 @@ public abstract class SimEntity implements Cloneable {
 			throw new IllegalArgumentException("The specified delay is infinite value");
 		}
 
-		if (entityId < 0) {
-			Log.printLine(getName() + ".send(): Error - " + "invalid entity id " + entityId);
-			return;
-		}
-
 		int srcId = getId();
 		if (entityId != srcId) {// does not delay self messages
 			delay += getNetworkDelay(srcId, entityId);
 		}
-
-		schedule(entityId, delay, cloudSimTag, data);
+		return delay;
 	}
 
 	/**
@@ -628,6 +687,22 @@ public abstract class SimEntity implements Cloneable {
 		send(entityId, 0, cloudSimTag, null);
 	}
 
+	/**
+	 * Sends an event/message carrying three integers to another entity, with a tag representing
+	 * the event type.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param cloudSimTag an user-defined number representing the type of an event/message
+	 * @param data0 the first integer
+	 * @param data1 the second integer
+	 * @param data2 the third integer
+	 * @pre entityID > 0
+	 * @post $none
+	 */
+	protected void sendNow(int entityId, int cloudSimTag, int data0, int data1, int data2) {
+		send(entityId, 0, cloudSimTag, data0, data1, data2);
+	}
+
 	/**
 	 * Sends an event/message to another entity by <tt>delaying</tt> the simulation time from the
 	 * current time, with a tag representing the event type.
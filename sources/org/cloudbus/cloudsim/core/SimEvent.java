@@ -18,10 +18,10 @@ package org.cloudbus.cloudsim.core;
 public class SimEvent implements Cloneable, Comparable<SimEvent> {
 
 	/** internal event type **/
-	private final int etype;
+	private int etype;
 
 	/** time at which event should occur **/
-	private final double time;
+	private double time;
 
 	/** time that the event was removed from the queue for service **/
 	private double endWaitingTime;
@@ -33,10 +33,22 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	private int entDst;
 
 	/** the user defined type of the event **/
-	private final int tag;
+	private int tag;
 
 	/** any data the event is carrying **/
-	private final Object data;
+	private Object data;
+
+	/** the integer data the event is carrying instead of an int[] **/
+	private int intData0, intData1, intData2;
+
+	/** the number of integers in the integer data, 0 if none **/
+	private int intDataLength;
+
+	/** the double data the event is carrying instead of a Double **/
+	private double doubleData;
+
+	/** whether the event carries double data **/
+	private boolean hasDoubleData;
 
 	private long serial = -1;
 
@@ -82,10 +94,52 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		data = null;
 	}
 
+	/**
+	 * Reinitialises a recycled event, as if it had been created with
+	 * {@link #SimEvent(int, double, int, int, int, Object)}.
+	 */
+	void reset(int evtype, double time, int src, int dest, int tag, Object edata) {
+		etype = evtype;
+		this.time = time;
+		endWaitingTime = -1.0;
+		entSrc = src;
+		entDst = dest;
+		this.tag = tag;
+		data = edata;
+		intDataLength = 0;
+		hasDoubleData = false;
+		serial = -1;
+	}
+
+	/**
+	 * Sets the integer data of the event, which is returned by {@link #getData()} as an int[].
+	 */
+	void setIntData(int data0, int data1, int data2) {
+		intData0 = data0;
+		intData1 = data1;
+		intData2 = data2;
+		intDataLength = 3;
+	}
+
+	/**
+	 * Sets the double data of the event, which is returned by {@link #getData()} as a Double.
+	 */
+	void setDoubleData(double value) {
+		doubleData = value;
+		hasDoubleData = true;
+	}
+
 	protected void setSerial(long serial) {
 		this.serial = serial;
 	}
 
+	/**
+	 * Gets the serial number the future queue ordered the event with.
+	 */
+	long getSerial() {
+		return serial;
+	}
+
 	/**
 	 * Used to set the time at which this event finished waiting in the event
 	 * 
@@ -201,9 +255,62 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 * @return A reference to the data
 	 */
 	public Object getData() {
+		if (data == null) {
+			if (intDataLength > 0) {
+				data = new int[] { intData0, intData1, intData2 };
+			} else if (hasDoubleData) {
+				data = Double.valueOf(doubleData);
+			}
+		}
 		return data;
 	}
 
+	/**
+	 * Checks if the event carries its data as primitive integers or doubles, which can be read
+	 * without allocation by {@link #getIntData(int)} and {@link #getDoubleData()}.
+	 * 
+	 * @return true, if the data is primitive
+	 */
+	public boolean hasPrimitiveData() {
+		return intDataLength > 0 || hasDoubleData;
+	}
+
+	/**
+	 * Get an element of the int[] data passed in this event, whether the event has been sent with
+	 * primitive integer data or with an int[].
+	 * 
+	 * @param index the index of the element
+	 * @return the element
+	 */
+	public int getIntData(int index) {
+		if (intDataLength == 0) {
+			return ((int[]) data)[index];
+		}
+		switch (index) {
+			case 0:
+				return intData0;
+			case 1:
+				return intData1;
+			case 2:
+				return intData2;
+			default:
+				throw new ArrayIndexOutOfBoundsException(index);
+		}
+	}
+
+	/**
+	 * Get the double data passed in this event, whether the event has been sent with primitive
+	 * double data or with a Double.
+	 * 
+	 * @return the double data
+	 */
+	public double getDoubleData() {
+		if (!hasDoubleData) {
+			return ((Double) data).doubleValue();
+		}
+		return doubleData;
+	}
+
 	/**
 	 * Create an exact copy of this event.
 	 * 
@@ -211,7 +318,14 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 */
 	@Override
 	public Object clone() {
-		return new SimEvent(etype, time, entSrc, entDst, tag, data);
+		SimEvent event = new SimEvent(etype, time, entSrc, entDst, tag, data);
+		event.intData0 = intData0;
+		event.intData1 = intData1;
+		event.intData2 = intData2;
+		event.intDataLength = intDataLength;
+		event.doubleData = doubleData;
+		event.hasDoubleData = hasDoubleData;
+		return event;
 	}
 
 	/**
@@ -35,6 +35,16 @@ public class DelayMatrix_Float {
 	private DelayMatrix_Float() {
 	};
 
+	/**
+	 * constructor for subclasses computing the delays in another way; the delay-matrix is left
+	 * empty
+	 * 
+	 * @param totalNodeNum the number of nodes
+	 */
+	protected DelayMatrix_Float(int totalNodeNum) {
+		mTotalNodeNum = totalNodeNum;
+	}
+
 	/**
 	 * this constructor creates an correct initialized Float-Delay-Matrix
 	 * 
@@ -8,6 +8,14 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * FloydWarshall algorithm to calculate all pairs delay and predecessor matrix.
  * 
@@ -18,6 +26,11 @@ package org.cloudbus.cloudsim.network;
  */
 public class FloydWarshall_Float {
 
+	/**
+	 * Default size of the square blocks the matrices are processed by
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 64;
+
 	/**
 	 * Number of vertices (when initialized)
 	 */
@@ -32,14 +45,24 @@ public class FloydWarshall_Float {
 	// private float[][] adjMatrix;
 
 	/**
-	 * Matrices used in dynamic programming
+	 * Delay matrix, updated in place
 	 */
-	private float[][] Dk, Dk_minus_one;
+	private float[][] Dk;
 
 	/**
-	 * Matrices used in dynamic programming
+	 * Predecessor matrix, updated in place
 	 */
-	private int[][] Pk, Pk_minus_one;
+	private int[][] Pk;
+
+	/**
+	 * Size of the square blocks the matrices are processed by
+	 */
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+
+	/**
+	 * Number of threads processing the blocks
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
 
 	/**
 	 * initialization matrix
@@ -49,81 +72,188 @@ public class FloydWarshall_Float {
 	public void initialize(int numVertices) {
 		this.numVertices = numVertices;
 
-		// Initialize Dk matrices.
+		// Initialize Dk matrix.
 		Dk = new float[numVertices][];
-		Dk_minus_one = new float[numVertices][];
 		for (int i = 0; i < numVertices; i++) {
 			Dk[i] = new float[numVertices];
-			Dk_minus_one[i] = new float[numVertices];
 		}
 
-		// Initialize Pk matrices.
+		// Initialize Pk matrix.
 		Pk = new int[numVertices][];
-		Pk_minus_one = new int[numVertices][];
 		for (int i = 0; i < numVertices; i++) {
 			Pk[i] = new int[numVertices];
-			Pk_minus_one[i] = new int[numVertices];
 		}
 
 	}
 
 	/**
-	 * calculates all pairs delay
+	 * calculates all pairs delay. The matrices are updated in place block by block: for every
+	 * block of intermediate vertices, the diagonal block is computed first, then the blocks of its
+	 * row and column, then all the remaining blocks, the blocks of the last two phases being
+	 * independent of each other and processed in parallel. The distances are the same as those of
+	 * the plain triple loop, up to the rounding of the float sums.
 	 * 
 	 * @param adjMatrix original delay matrix
 	 * @return all pairs delay matrix
 	 */
 	public float[][] allPairsShortestPaths(float[][] adjMatrix) {
-		// Dk_minus_one = weights when k = -1
+		// D = weights when k = -1
 		for (int i = 0; i < numVertices; i++) {
 			for (int j = 0; j < numVertices; j++) {
-				if (adjMatrix[i][j] != 0) {
-					Dk_minus_one[i][j] = adjMatrix[i][j];
-					Pk_minus_one[i][j] = i;
+				if (i == j) {
+					Dk[i][j] = 0;
+					Pk[i][j] = -1;
+				} else if (adjMatrix[i][j] != 0) {
+					Dk[i][j] = adjMatrix[i][j];
+					Pk[i][j] = i;
 				} else {
-					Dk_minus_one[i][j] = Float.MAX_VALUE;
-					Pk_minus_one[i][j] = -1;
+					Dk[i][j] = Float.MAX_VALUE;
+					Pk[i][j] = -1;
 				}
 				// NOTE: we have set the value to infinity and will exploit
 				// this to avoid a comparison.
 			}
 		}
 
-		// Now iterate over k.
+		int numBlocks = (numVertices + blockSize - 1) / blockSize;
+		ExecutorService executor = null;
+		if (parallelism > 1 && numBlocks > 2) {
+			executor = Executors.newFixedThreadPool(Math.min(parallelism, numBlocks - 1));
+		}
 
-		for (int k = 0; k < numVertices; k++) {
+		try {
+			// Now iterate over the blocks of k.
+			for (int kb = 0; kb < numBlocks; kb++) {
+				// the diagonal block
+				updateBlock(kb, kb, kb);
+
+				// the blocks of row kb and column kb
+				List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+				for (int b = 0; b < numBlocks; b++) {
+					if (b != kb) {
+						tasks.add(new BlockTask(kb, b, kb, kb + 1));
+						tasks.add(new BlockTask(b, kb, kb, kb + 1));
+					}
+				}
+				run(executor, tasks);
 
-			// Compute Dk[i][j], for each i,j
+				// the remaining blocks, one task per block row
+				tasks.clear();
+				for (int ib = 0; ib < numBlocks; ib++) {
+					if (ib != kb) {
+						tasks.add(new BlockTask(ib, -1, kb, numBlocks));
+					}
+				}
+				run(executor, tasks);
+			} // end-outermost-for
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
 
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					if (i != j) {
+		return Dk;
 
-						// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j].
-						if (Dk_minus_one[i][j] <= Dk_minus_one[i][k] + Dk_minus_one[k][j]) {
-							Dk[i][j] = Dk_minus_one[i][j];
-							Pk[i][j] = Pk_minus_one[i][j];
-						} else {
-							Dk[i][j] = Dk_minus_one[i][k] + Dk_minus_one[k][j];
-							Pk[i][j] = Pk_minus_one[k][j];
-						}
-					} else {
-						Pk[i][j] = -1;
+	}
+
+	/**
+	 * Relaxes the paths of a block through the vertices of block kb.
+	 * 
+	 * @param ib the block row
+	 * @param jb the block column
+	 * @param kb the block of intermediate vertices
+	 */
+	private void updateBlock(int ib, int jb, int kb) {
+		int iEnd = Math.min((ib + 1) * blockSize, numVertices);
+		int jEnd = Math.min((jb + 1) * blockSize, numVertices);
+		int kEnd = Math.min((kb + 1) * blockSize, numVertices);
+		for (int k = kb * blockSize; k < kEnd; k++) {
+			float[] Dkk = Dk[k];
+			int[] Pkk = Pk[k];
+			for (int i = ib * blockSize; i < iEnd; i++) {
+				float[] Di = Dk[i];
+				int[] Pi = Pk[i];
+				float Dik = Di[k];
+				for (int j = jb * blockSize; j < jEnd; j++) {
+					// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j].
+					if (i != j && Di[j] > Dik + Dkk[j]) {
+						Di[j] = Dik + Dkk[j];
+						Pi[j] = Pkk[j];
 					}
 				}
 			}
+		}
+	}
 
-			// Now store current Dk into D_k-1
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					Dk_minus_one[i][j] = Dk[i][j];
-					Pk_minus_one[i][j] = Pk[i][j];
+	/**
+	 * Runs block tasks, in parallel if an executor is given.
+	 * 
+	 * @param executor the executor, or null
+	 * @param tasks the tasks
+	 */
+	private void run(ExecutorService executor, List<Callable<Void>> tasks) {
+		if (executor == null) {
+			for (Callable<Void> task : tasks) {
+				try {
+					task.call();
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
 				}
 			}
+			return;
+		}
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
 
-		} // end-outermost-for
+	/**
+	 * A task updating a block, or all the blocks of a block row except the diagonal and the column
+	 * of the intermediate vertices.
+	 */
+	private class BlockTask implements Callable<Void> {
 
-		return Dk;
+		private final int ib;
+
+		private final int jb;
+
+		private final int kb;
+
+		private final int numBlocks;
+
+		/**
+		 * @param ib the block row
+		 * @param jb the block column, or -1 for the remaining blocks of the row
+		 * @param kb the block of intermediate vertices
+		 * @param numBlocks the number of blocks per row
+		 */
+		public BlockTask(int ib, int jb, int kb, int numBlocks) {
+			this.ib = ib;
+			this.jb = jb;
+			this.kb = kb;
+			this.numBlocks = numBlocks;
+		}
+
+		@Override
+		public Void call() {
+			if (jb >= 0) {
+				updateBlock(ib, jb, kb);
+			} else {
+				for (int b = 0; b < numBlocks; b++) {
+					if (b != kb) {
+						updateBlock(ib, b, kb);
+					}
+				}
+			}
+			return null;
+		}
 
 	}
 
@@ -136,6 +266,30 @@ public class FloydWarshall_Float {
 		return Pk;
 	}
 
+	/**
+	 * sets the size of the square blocks the matrices are processed by
+	 * 
+	 * @param blockSize the block size
+	 */
+	public void setBlockSize(int blockSize) {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("The block size must be greater than zero");
+		}
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * sets the number of threads processing the blocks
+	 * 
+	 * @param parallelism the number of threads, 1 to compute in the calling thread
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("The parallelism must be greater than zero");
+		}
+		this.parallelism = parallelism;
+	}
+
 
 /*
   public static void main (String[] argv)
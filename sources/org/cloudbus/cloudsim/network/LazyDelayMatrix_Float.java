@@ -0,0 +1,272 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A delay-topology for sparse graphs that does not store the delays between all the nodes. The
+ * delays from a node to all the others are computed with Dijkstra's algorithm when one of them is
+ * first requested, and the rows of the most recently used source nodes are kept in a bounded
+ * cache. Memory is O(links + cached rows * nodes) instead of O(nodes^2), and computing a row costs
+ * O(links log nodes).
+ *
+ * The links are read like in {@link DelayMatrix_Float}: a link with zero delay is no link, and of
+ * several links between the same nodes the last one counts. The delays are the same as those of
+ * the Floyd-Warshall algorithm, up to the rounding of the float sums.
+ *
+ * The delays may be requested by several threads at once, e.g., by the logical processes of a
+ * parallel simulation: the cache is guarded by a lock, while the rows are computed outside of it
+ * from the link arrays, which are not modified after the construction.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class LazyDelayMatrix_Float extends DelayMatrix_Float {
+
+	/**
+	 * index of the first outgoing link of every node in the link arrays, and of the end of the
+	 * arrays after the last node
+	 */
+	private final int[] linkOffsets;
+
+	/**
+	 * destination nodes of the links, grouped by source node
+	 */
+	private final int[] linkTargets;
+
+	/**
+	 * delays of the links, grouped by source node
+	 */
+	private final float[] linkDelays;
+
+	/**
+	 * the cached rows of delays, by source node, in least recently used order; guarded by itself
+	 */
+	private final Map<Integer, float[]> rows;
+
+	/**
+	 * creates a lazily computed Float-Delay-Matrix
+	 *
+	 * @param graph the topological graph as source-information
+	 * @param directed true if an directed matrix should be computed, false otherwise
+	 * @param maxCachedRows the maximum number of rows kept in the cache
+	 */
+	public LazyDelayMatrix_Float(TopologicalGraph graph, boolean directed, final int maxCachedRows) {
+		super(graph.getNumberOfNodes());
+		if (maxCachedRows <= 0) {
+			throw new IllegalArgumentException("The number of cached rows must be greater than zero");
+		}
+
+		// the last link between two nodes overrides the previous ones, as in the delay-matrix
+		Map<Long, Float> links = new LinkedHashMap<Long, Float>();
+		Iterator<TopologicalLink> itr = graph.getLinkIterator();
+		while (itr.hasNext()) {
+			TopologicalLink edge = itr.next();
+			links.put(linkKey(edge.getSrcNodeID(), edge.getDestNodeID()), edge.getLinkDelay());
+			if (!directed) {
+				links.put(linkKey(edge.getDestNodeID(), edge.getSrcNodeID()), edge.getLinkDelay());
+			}
+		}
+
+		linkOffsets = new int[mTotalNodeNum + 1];
+		for (Map.Entry<Long, Float> link : links.entrySet()) {
+			if (isLink(link)) {
+				linkOffsets[(int) (link.getKey() >>> 32) + 1]++;
+			}
+		}
+		for (int node = 0; node < mTotalNodeNum; node++) {
+			linkOffsets[node + 1] += linkOffsets[node];
+		}
+		linkTargets = new int[linkOffsets[mTotalNodeNum]];
+		linkDelays = new float[linkOffsets[mTotalNodeNum]];
+		int[] next = Arrays.copyOf(linkOffsets, mTotalNodeNum);
+		for (Map.Entry<Long, Float> link : links.entrySet()) {
+			if (isLink(link)) {
+				int index = next[(int) (link.getKey() >>> 32)]++;
+				linkTargets[index] = (int) (link.getKey() & 0xffffffffL);
+				linkDelays[index] = link.getValue();
+			}
+		}
+
+		rows = new LinkedHashMap<Integer, float[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+				return size() > maxCachedRows;
+			}
+
+		};
+	}
+
+	/**
+	 * @param srcID the id of the source-node
+	 * @param destID the id of the destination-node
+	 * @return the delay-count between the given two nodes
+	 */
+	@Override
+	public float getDelay(int srcID, int destID) {
+		// check the nodeIDs against internal array-boundarys
+		if (srcID > mTotalNodeNum || destID > mTotalNodeNum) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
+		}
+
+		float[] row;
+		synchronized (rows) {
+			row = rows.get(srcID);
+		}
+		if (row == null) {
+			row = calculateShortestPaths(srcID);
+			synchronized (rows) {
+				rows.put(srcID, row);
+			}
+		}
+		return row[destID];
+	}
+
+	/**
+	 * calculates the delays from a node to all the others with Dijkstra's algorithm
+	 *
+	 * @param srcID the id of the source-node
+	 * @return the delays, Float.MAX_VALUE for the unreachable nodes
+	 */
+	private float[] calculateShortestPaths(int srcID) {
+		float[] delays = new float[mTotalNodeNum];
+		Arrays.fill(delays, Float.MAX_VALUE);
+		boolean[] settled = new boolean[mTotalNodeNum];
+		delays[srcID] = 0;
+
+		// binary heap of (delay, node) pairs; outdated pairs are skipped when polled
+		float[] heapDelays = new float[16];
+		int[] heapNodes = new int[16];
+		int heapSize = 0;
+		heapDelays[0] = 0;
+		heapNodes[0] = srcID;
+		heapSize++;
+
+		while (heapSize > 0) {
+			int node = heapNodes[0];
+			float delay = heapDelays[0];
+			heapSize--;
+			if (heapSize > 0) {
+				siftDown(heapDelays, heapNodes, heapSize, heapDelays[heapSize], heapNodes[heapSize]);
+			}
+			if (settled[node]) {
+				continue;
+			}
+			settled[node] = true;
+
+			for (int index = linkOffsets[node]; index < linkOffsets[node + 1]; index++) {
+				int target = linkTargets[index];
+				float candidate = delay + linkDelays[index];
+				if (!settled[target] && candidate < delays[target]) {
+					delays[target] = candidate;
+					if (heapSize == heapNodes.length) {
+						heapDelays = Arrays.copyOf(heapDelays, heapSize * 2);
+						heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+					}
+					siftUp(heapDelays, heapNodes, heapSize++, candidate, target);
+				}
+			}
+		}
+		return delays;
+	}
+
+	/**
+	 * inserts a pair at a free position of the heap and moves it up
+	 */
+	private static void siftUp(float[] heapDelays, int[] heapNodes, int position, float delay, int node) {
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (heapDelays[parent] <= delay) {
+				break;
+			}
+			heapDelays[position] = heapDelays[parent];
+			heapNodes[position] = heapNodes[parent];
+			position = parent;
+		}
+		heapDelays[position] = delay;
+		heapNodes[position] = node;
+	}
+
+	/**
+	 * inserts a pair at the root of the heap and moves it down
+	 */
+	private static void siftDown(float[] heapDelays, int[] heapNodes, int heapSize, float delay, int node) {
+		int position = 0;
+		int half = heapSize >>> 1;
+		while (position < half) {
+			int child = 2 * position + 1;
+			int right = child + 1;
+			if (right < heapSize && heapDelays[right] < heapDelays[child]) {
+				child = right;
+			}
+			if (delay <= heapDelays[child]) {
+				break;
+			}
+			heapDelays[position] = heapDelays[child];
+			heapNodes[position] = heapNodes[child];
+			position = child;
+		}
+		heapDelays[position] = delay;
+		heapNodes[position] = node;
+	}
+
+	/**
+	 * checks whether an entry of the link map is a link, i.e., has a non-zero delay and is not a
+	 * self-loop
+	 */
+	private static boolean isLink(Map.Entry<Long, Float> link) {
+		long key = link.getKey();
+		return link.getValue() != 0 && (int) (key >>> 32) != (int) (key & 0xffffffffL);
+	}
+
+	/**
+	 * gets the key of the link between two nodes
+	 */
+	private static long linkKey(int srcID, int destID) {
+		return ((long) srcID << 32) | (destID & 0xffffffffL);
+	}
+
+	/**
+	 * this method just creates an string-output from the internal structures... eg. printsout the
+	 * delay-matrix...
+	 */
+	@Override
+	public String toString() {
+		StringBuffer buffer = new StringBuffer();
+
+		buffer.append("just a simple printout of the distance-aware-topology-class\n");
+		buffer.append("delay-matrix is:\n");
+
+		for (int column = 0; column < mTotalNodeNum; ++column) {
+			buffer.append("\t" + column);
+		}
+
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			buffer.append("\n" + row);
+
+			for (int col = 0; col < mTotalNodeNum; ++col) {
+				float delay = getDelay(row, col);
+				if (delay == Float.MAX_VALUE) {
+					buffer.append("\t" + "-");
+				} else {
+					buffer.append("\t" + delay);
+				}
+			}
+		}
+
+		return buffer.toString();
+	}
+
+}
@@ -0,0 +1,373 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * FlowNetwork is a flow-level alternative to forwarding packets through the switches of a
+ * {@link NetworkDatacenter}. Instead of one event per packet and hop, the packets sent at the same
+ * time between two VMs are aggregated into a {@link NetworkFlow} over the path between their hosts
+ * in the Edge/Aggregate/Root switch tree. The capacity of every link is shared among the flows
+ * crossing it with max-min fairness, and the rates are only recomputed when a flow starts or
+ * finishes, so a transfer costs two events regardless of its size and length.
+ *
+ * A link is a port of a switch or the uplink of a host; as in the packet mode, every port of a
+ * switch has the uplink or downlink bandwidth of the switch, and the time to transfer a packet over
+ * a link of bandwidth b alone is 1000 * data / b. When a flow finishes, its packets are delivered
+ * to the edge switch of the receiving host after the switching delays along the path, which then
+ * hands them to the host like in the packet mode.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class FlowNetwork {
+
+	/**
+	 * A directed link between two nodes of the network.
+	 */
+	static class Link {
+
+		/** The bandwidth of the link. */
+		final double capacity;
+
+		/** The flows crossing the link. */
+		final List<NetworkFlow> flows = new ArrayList<NetworkFlow>();
+
+		/** The capacity not allocated yet while computing the allocation. */
+		double residual;
+
+		/** The number of flows whose rate is not fixed yet while computing the allocation. */
+		int unfixed;
+
+		Link(double capacity) {
+			this.capacity = capacity;
+		}
+
+	}
+
+	/** The datacenter whose network is modelled. */
+	private final NetworkDatacenter dc;
+
+	/** The links that have been used, keyed by their source and destination nodes. */
+	private final Map<Long, Link> links = new HashMap<Long, Link>();
+
+	/** The links crossed by at least one flow. */
+	private final List<Link> activeLinks = new ArrayList<Link>();
+
+	/** The flows in progress. */
+	private final List<NetworkFlow> flows = new ArrayList<NetworkFlow>();
+
+	/** The time the remaining data of the flows has been updated at. */
+	private double lastUpdateTime;
+
+	/**
+	 * The generation of the completion event, the data of the pending completion event. Scheduling
+	 * a new completion event supersedes the previous ones, which are ignored when they arrive.
+	 */
+	private long completionGeneration;
+
+	/**
+	 * Creates the flow-level model of the network of a datacenter.
+	 *
+	 * @param dc the datacenter
+	 */
+	public FlowNetwork(NetworkDatacenter dc) {
+		this.dc = dc;
+	}
+
+	/**
+	 * Starts the transfer of the packets a host sends to VMs on other hosts. The packets sent from
+	 * one VM to another are aggregated into a single flow.
+	 *
+	 * @param host the sending host
+	 * @param pktlist the packets
+	 */
+	public void send(NetworkHost host, List<NetworkPacket> pktlist) {
+		if (pktlist.isEmpty()) {
+			return;
+		}
+		updateFlows();
+
+		Map<Long, NetworkFlow> newflows = new LinkedHashMap<Long, NetworkFlow>();
+		for (NetworkPacket hspkt : pktlist) {
+			Long key = ((long) hspkt.sendervmid << 32) | (hspkt.recievervmid & 0xffffffffL);
+			NetworkFlow flow = newflows.get(key);
+			if (flow == null) {
+				flow = createFlow(host, hspkt.sendervmid, hspkt.recievervmid);
+				if (flow == null) {
+					Log.printLine(" No destination for this packet");
+					continue;
+				}
+				newflows.put(key, flow);
+			}
+			hspkt.recieverhostid = dc.VmtoHostlist.get(hspkt.recievervmid);
+			flow.add(hspkt);
+		}
+
+		for (NetworkFlow flow : newflows.values()) {
+			for (Link link : flow.links) {
+				if (link.flows.isEmpty()) {
+					activeLinks.add(link);
+				}
+				link.flows.add(flow);
+			}
+			flows.add(flow);
+		}
+
+		computeRates();
+		scheduleNextCompletion();
+	}
+
+	/**
+	 * Processes the completion of flows: the finished flows are removed, their packets are sent to
+	 * the edge switch of the receiving host and the rates of the remaining flows are recomputed.
+	 * Completion events superseded by a later one are ignored.
+	 *
+	 * @param ev the completion event
+	 */
+	public void processFlowCompletion(SimEvent ev) {
+		if (!Long.valueOf(completionGeneration).equals(ev.getData())) {
+			return;
+		}
+		updateFlows();
+
+		List<NetworkFlow> finished = new ArrayList<NetworkFlow>();
+		Iterator<NetworkFlow> it = flows.iterator();
+		while (it.hasNext()) {
+			NetworkFlow flow = it.next();
+			if (flow.remaining <= 0
+					|| flow.rate > 0 && flow.remaining / flow.rate < CloudSim.getMinTimeBetweenEvents()) {
+				it.remove();
+				finished.add(flow);
+			}
+		}
+		if (finished.isEmpty()) {
+			scheduleNextCompletion();
+			return;
+		}
+
+		for (NetworkFlow flow : finished) {
+			for (Link link : flow.links) {
+				link.flows.remove(flow);
+				if (link.flows.isEmpty()) {
+					activeLinks.remove(link);
+				}
+			}
+			for (NetworkPacket hspkt : flow.packets) {
+				CloudSim.send(
+						dc.getId(),
+						flow.edgeswitch.getId(),
+						flow.latency,
+						CloudSimTags.Network_Event_Host,
+						hspkt);
+			}
+		}
+
+		computeRates();
+		scheduleNextCompletion();
+	}
+
+	/**
+	 * Gets the number of flows in progress.
+	 *
+	 * @return the number of flows
+	 */
+	public int getNumberOfFlows() {
+		return flows.size();
+	}
+
+	/**
+	 * Creates a flow over the path from a host to the host of a VM.
+	 *
+	 * @param host the sending host
+	 * @param sendervmid the id of the sending VM
+	 * @param recievervmid the id of the receiving VM
+	 * @return the flow, or null if there is no path to the receiving VM
+	 */
+	private NetworkFlow createFlow(NetworkHost host, int sendervmid, int recievervmid) {
+		Integer hostid = dc.VmtoHostlist.get(recievervmid);
+		Integer switchid = dc.VmToSwitchid.get(recievervmid);
+		if (hostid == null || switchid == null) {
+			return null;
+		}
+		Switch srcedge = host.sw;
+		Switch dstedge = dc.Switchlist.get(switchid);
+		if (dstedge == null) {
+			return null;
+		}
+
+		List<Link> path = new ArrayList<Link>();
+		double latency = getSwitchingDelay(srcedge);
+		path.add(getLink(hostNode(host.getId()), srcedge.getId(), host.bandwidth));
+		if (srcedge != dstedge) {
+			Switch srcagg = getUplinkSwitch(srcedge);
+			Switch dstagg = getUplinkSwitch(dstedge);
+			if (srcagg == null || dstagg == null) {
+				return null;
+			}
+			path.add(getLink(srcedge.getId(), srcagg.getId(), srcedge.uplinkbandwidth));
+			latency += getSwitchingDelay(srcagg);
+			if (srcagg != dstagg) {
+				Switch root = getUplinkSwitch(srcagg);
+				if (root == null) {
+					return null;
+				}
+				path.add(getLink(srcagg.getId(), root.getId(), srcagg.uplinkbandwidth));
+				path.add(getLink(root.getId(), dstagg.getId(), root.downlinkbandwidth));
+				latency += getSwitchingDelay(root) + getSwitchingDelay(dstagg);
+			}
+			path.add(getLink(dstagg.getId(), dstedge.getId(), dstagg.downlinkbandwidth));
+			latency += getSwitchingDelay(dstedge);
+		}
+		path.add(getLink(dstedge.getId(), hostNode(hostid), dstedge.downlinkbandwidth));
+
+		NetworkFlow flow = new NetworkFlow(sendervmid, recievervmid, dstedge);
+		flow.links = path.toArray(new Link[path.size()]);
+		flow.latency = latency;
+		return flow;
+	}
+
+	/**
+	 * Allocates the capacity of the links to the flows with max-min fairness by progressive
+	 * filling: the link offering the smallest equal share to its flows whose rate is not fixed yet
+	 * is the bottleneck of these flows, which get this share, and so on until every rate is fixed.
+	 */
+	private void computeRates() {
+		for (Link link : activeLinks) {
+			link.residual = link.capacity;
+			link.unfixed = link.flows.size();
+		}
+		for (NetworkFlow flow : flows) {
+			flow.fixed = false;
+		}
+
+		int unfixed = flows.size();
+		while (unfixed > 0) {
+			Link bottleneck = null;
+			double share = Double.MAX_VALUE;
+			for (Link link : activeLinks) {
+				if (link.unfixed > 0) {
+					double linkshare = Math.max(link.residual, 0) / link.unfixed;
+					if (linkshare < share) {
+						share = linkshare;
+						bottleneck = link;
+					}
+				}
+			}
+			for (NetworkFlow flow : bottleneck.flows) {
+				if (flow.fixed) {
+					continue;
+				}
+				flow.rate = share;
+				flow.fixed = true;
+				unfixed--;
+				for (Link link : flow.links) {
+					link.residual -= share;
+					link.unfixed--;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates the remaining data of the flows up to the current time.
+	 */
+	private void updateFlows() {
+		double currentTime = CloudSim.clock();
+		double timespan = currentTime - lastUpdateTime;
+		if (timespan > 0) {
+			for (NetworkFlow flow : flows) {
+				flow.remaining -= flow.rate * timespan;
+			}
+		}
+		lastUpdateTime = currentTime;
+	}
+
+	/**
+	 * Replaces the pending completion event by one at the time the next flow finishes at the
+	 * current rates. Rather than being removed from the event queue, which would take a scan of
+	 * the queue at every flow event, the pending event is superseded by incrementing the
+	 * generation of the completion event.
+	 */
+	private void scheduleNextCompletion() {
+		completionGeneration++;
+		double delay = Double.MAX_VALUE;
+		for (NetworkFlow flow : flows) {
+			if (flow.rate > 0) {
+				delay = Math.min(delay, Math.max(flow.remaining, 0) / flow.rate);
+			}
+		}
+		if (delay != Double.MAX_VALUE) {
+			dc.schedule(dc.getId(), delay, CloudSimTags.Network_Event_Flow, completionGeneration);
+		}
+	}
+
+	/**
+	 * Gets a link, creating it on first use.
+	 *
+	 * @param from the source node
+	 * @param to the destination node
+	 * @param capacity the bandwidth of the link
+	 * @return the link
+	 */
+	private Link getLink(int from, int to, double capacity) {
+		Long key = ((long) from << 32) | (to & 0xffffffffL);
+		Link link = links.get(key);
+		if (link == null) {
+			link = new Link(capacity);
+			links.put(key, link);
+		}
+		return link;
+	}
+
+	/**
+	 * Gets the node id of a host, distinct from the entity ids of the switches.
+	 *
+	 * @param hostid the host id
+	 * @return the node id
+	 */
+	private static int hostNode(int hostid) {
+		return -1 - hostid;
+	}
+
+	/**
+	 * Gets the switch a switch is connected to through its uplink port. As in the packet mode,
+	 * every switch is assumed to be connected to a single upper switch.
+	 *
+	 * @param sw the switch
+	 * @return the upper switch, or null if there is none
+	 */
+	private static Switch getUplinkSwitch(Switch sw) {
+		if (sw.uplinkswitches == null || sw.uplinkswitches.isEmpty()) {
+			return null;
+		}
+		return sw.uplinkswitches.get(0);
+	}
+
+	/**
+	 * Gets the delay a packet spends in a switch.
+	 *
+	 * @param sw the switch
+	 * @return the switching delay
+	 */
+	private static double getSwitchingDelay(Switch sw) {
+		return sw.switching_delay + sw.latency;
+	}
+
+}
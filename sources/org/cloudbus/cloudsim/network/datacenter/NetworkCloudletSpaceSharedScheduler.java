@@ -16,6 +16,7 @@ import java.util.Map;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.MipsShare;
 import org.cloudbus.cloudsim.ResCloudlet;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
@@ -93,7 +94,9 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		double capacity = 0.0;
 		int cpus = 0;
 
-		for (Double mips : mipsShare) { // count the CPUs available to the VMM
+		MipsShare share = MipsShare.valueOf(mipsShare);
+		for (int pe = 0; pe < share.size(); pe++) { // count the CPUs available to the VMM
+			double mips = share.getMips(pe);
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -406,6 +409,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		rcl.setCloudletStatus(Cloudlet.SUCCESS);
 		rcl.finalizeCloudlet();
 		getCloudletFinishedList().add(rcl);
+		notifyCloudletFinished();
 		usedPes -= rcl.getNumberOfPes();
 	}
 
@@ -451,7 +455,9 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 				// calculate the expected time for cloudlet completion
 				double capacity = 0.0;
 				int cpus = 0;
-				for (Double mips : getCurrentMipsShare()) {
+				MipsShare share = MipsShare.valueOf(getCurrentMipsShare());
+				for (int pe = 0; pe < share.size(); pe++) {
+					double mips = share.getMips(pe);
 					capacity += mips;
 					if (mips > 0) {
 						cpus++;
@@ -515,7 +521,9 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		// calculate the expected time for cloudlet completion
 		double capacity = 0.0;
 		int cpus = 0;
-		for (Double mips : getCurrentMipsShare()) {
+		MipsShare share = MipsShare.valueOf(getCurrentMipsShare());
+		for (int pe = 0; pe < share.size(); pe++) {
+			double mips = share.getMips(pe);
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -735,13 +743,11 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 	 */
 	@Override
 	public List<Double> getCurrentRequestedMips() {
-		List<Double> mipsShare = new ArrayList<Double>();
-		if (getCurrentMipsShare() != null) {
-			for (Double mips : getCurrentMipsShare()) {
-				mipsShare.add(mips);
-			}
+		MipsShare mipsShare = MipsShare.valueOf(getCurrentMipsShare());
+		if (mipsShare == null) {
+			return new MipsShare(0);
 		}
-		return mipsShare;
+		return mipsShare.copy();
 	}
 
 	/*
@@ -753,7 +759,9 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
 		double capacity = 0.0;
 		int cpus = 0;
-		for (Double mips : mipsShare) { // count the cpus available to the vmm
+		MipsShare share = MipsShare.valueOf(mipsShare);
+		for (int pe = 0; pe < share.size(); pe++) { // count the cpus available to the vmm
+			double mips = share.getMips(pe);
 			capacity += mips;
 			if (mips > 0) {
 				cpus++;
@@ -794,4 +802,15 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		return 0;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#isPublishingCompletions()
+	 */
+	@Override
+	public boolean isPublishingCompletions() {
+		// a subclass may add cloudlets to the finished list on its own, so it is polled unless
+		// it overrides this method too
+		return getClass() == NetworkCloudletSpaceSharedScheduler.class;
+	}
+
 }
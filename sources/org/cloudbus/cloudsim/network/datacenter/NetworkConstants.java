@@ -55,6 +55,9 @@ public class NetworkConstants {
 
 	public static boolean logflag = false;
 
+	// flow-level network model instead of forwarding packets through the switches
+	public static boolean FlowLevelNetwork = false;
+
 	public static int iteration = 10;
 	public static int nexttime = 1000;
 
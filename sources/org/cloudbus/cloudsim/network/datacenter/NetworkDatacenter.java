@@ -77,7 +77,9 @@ public class NetworkDatacenter extends Datacenter {
 		VmToSwitchid = new HashMap<Integer, Integer>();
 		HostToSwitchid = new HashMap<Integer, Integer>();
 		VmtoHostlist = new HashMap<Integer, Integer>();
+		VmToHost = new HashMap<Integer, NetworkHost>();
 		Switchlist = new HashMap<Integer, Switch>();
+		setFlowLevelNetwork(NetworkConstants.FlowLevelNetwork);
 	}
 
 	public Map<Integer, Integer> VmToSwitchid;
@@ -88,6 +90,41 @@ public class NetworkDatacenter extends Datacenter {
 
 	public Map<Integer, Integer> VmtoHostlist;
 
+	// routing table of the VMs, updated on placement, migration and destroy like VmToSwitchid
+	// and VmtoHostlist
+	private final Map<Integer, NetworkHost> VmToHost;
+
+	/** The flow-level network model, or null if the packets are forwarded by the switches. */
+	private FlowNetwork flowNetwork;
+
+	/**
+	 * Selects how the packets between hosts are transferred: either aggregated into flows sharing
+	 * the links with max-min fairness, or forwarded packet by packet through the switches.
+	 * 
+	 * @param flowLevel true to use the flow-level network model, false to use the packet mode
+	 */
+	public void setFlowLevelNetwork(boolean flowLevel) {
+		flowNetwork = flowLevel ? new FlowNetwork(this) : null;
+	}
+
+	/**
+	 * Checks if the flow-level network model is used.
+	 * 
+	 * @return true, if the packets between hosts are transferred as flows
+	 */
+	public boolean isFlowLevelNetwork() {
+		return flowNetwork != null;
+	}
+
+	/**
+	 * Gets the flow-level network model.
+	 * 
+	 * @return the flow-level network model, or null if the packet mode is used
+	 */
+	public FlowNetwork getFlowNetwork() {
+		return flowNetwork;
+	}
+
 	/**
 	 * Get list of all EdgeSwitches in the Datacenter network One can design similar functions for
 	 * other type of switches.
@@ -115,8 +152,7 @@ public class NetworkDatacenter extends Datacenter {
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
 
 		if (result) {
-			VmToSwitchid.put(vm.getId(), ((NetworkHost) vm.getHost()).sw.getId());
-			VmtoHostlist.put(vm.getId(), vm.getHost().getId());
+			addVmRoute(vm);
 			System.out.println(vm.getId() + " VM is created on " + vm.getHost().getId());
 
 			getVmList().add(vm);
@@ -127,6 +163,80 @@ public class NetworkDatacenter extends Datacenter {
 		return result;
 	}
 
+	/**
+	 * Gets the host of a VM from the routing table.
+	 * 
+	 * @param vmid the VM id
+	 * @return the host, or null if the VM is not placed in the datacenter
+	 */
+	public NetworkHost getVmHost(int vmid) {
+		return VmToHost.get(vmid);
+	}
+
+	/**
+	 * Adds a VM to the routing tables, or updates its route after a migration.
+	 * 
+	 * @param vm the VM
+	 */
+	protected void addVmRoute(Vm vm) {
+		NetworkHost hs = (NetworkHost) vm.getHost();
+		VmToHost.put(vm.getId(), hs);
+		VmtoHostlist.put(vm.getId(), hs.getId());
+		if (hs.sw != null) {
+			VmToSwitchid.put(vm.getId(), hs.sw.getId());
+		}
+	}
+
+	/**
+	 * Removes a VM from the routing tables.
+	 * 
+	 * @param vm the VM
+	 */
+	protected void removeVmRoute(Vm vm) {
+		VmToHost.remove(vm.getId());
+		VmtoHostlist.remove(vm.getId());
+		VmToSwitchid.remove(vm.getId());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processVmCreateResult(org.cloudbus.cloudsim.Vm,
+	 * boolean, boolean)
+	 */
+	@Override
+	protected void processVmCreateResult(Vm vm, boolean result, boolean ack) {
+		super.processVmCreateResult(vm, result, ack);
+		if (vm.getHost() != null) {
+			addVmRoute(vm);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processVmDestroy(org.cloudbus.cloudsim.core.SimEvent,
+	 * boolean)
+	 */
+	@Override
+	protected void processVmDestroy(SimEvent ev, boolean ack) {
+		super.processVmDestroy(ev, ack);
+		removeVmRoute((Vm) ev.getData());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processVmMigrate(org.cloudbus.cloudsim.Vm,
+	 * org.cloudbus.cloudsim.Host, int, boolean)
+	 */
+	@Override
+	protected void processVmMigrate(Vm vm, Host host, int source, boolean ack) {
+		super.processVmMigrate(vm, host, source, ack);
+		if (vm.getHost() != null) {
+			addVmRoute(vm);
+		} else {
+			removeVmRoute(vm);
+		}
+	}
+
 	/**
 	 * Processes a Cloudlet submission.
 	 * 
@@ -158,14 +268,9 @@ public class NetworkDatacenter extends Datacenter {
 				// Hence, this might cause CloudSim to be hanged since waiting
 				// for this Cloudlet back.
 				if (ack) {
-					int[] data = new int[3];
-					data[0] = getId();
-					data[1] = cl.getCloudletId();
-					data[2] = CloudSimTags.FALSE;
-
 					// unique tag = operation tag
 					int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-					sendNow(cl.getUserId(), tag, data);
+					sendNow(cl.getUserId(), tag, getId(), cl.getCloudletId(), CloudSimTags.FALSE);
 				}
 
 				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
@@ -181,7 +286,10 @@ public class NetworkDatacenter extends Datacenter {
 			int vmId = cl.getVmId();
 
 			// time to transfer the files
-			double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+			double fileTransferTime = 0.0;
+			if (cl.requiresFiles()) {
+				fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+			}
 
 			Host host = getVmAllocationPolicy().getHost(vmId, userId);
 			Vm vm = host.getVm(vmId, userId);
@@ -198,14 +306,9 @@ public class NetworkDatacenter extends Datacenter {
 			}
 
 			if (ack) {
-				int[] data = new int[3];
-				data[0] = getId();
-				data[1] = cl.getCloudletId();
-				data[2] = CloudSimTags.TRUE;
-
 				// unique tag = operation tag
 				int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-				sendNow(cl.getUserId(), tag, data);
+				sendNow(cl.getUserId(), tag, getId(), cl.getCloudletId(), CloudSimTags.TRUE);
 			}
 		} catch (ClassCastException c) {
 			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
@@ -218,4 +321,33 @@ public class NetworkDatacenter extends Datacenter {
 		checkCloudletCompletion();
 	}
 
+	/**
+	 * Processes the submission of a list of Cloudlets, with a single event to update the stages of
+	 * the network cloudlets.
+	 * 
+	 * @param ev a SimEvent object whose data is the list of Cloudlets
+	 */
+	@Override
+	protected void processCloudletSubmitBatch(SimEvent ev) {
+		super.processCloudletSubmitBatch(ev);
+
+		// event to update the stages
+		send(getId(), 0.0001, CloudSimTags.VM_DATACENTER_EVENT);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processOtherEvent(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == CloudSimTags.Network_Event_Flow) {
+			if (flowNetwork != null) {
+				flowNetwork.processFlowCompletion(ev);
+			}
+			return;
+		}
+		super.processOtherEvent(ev);
+	}
+
 }
@@ -0,0 +1,62 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NetworkFlow represents the transfer of the packets sent at the same time from one VM to another
+ * VM hosted on a different machine, as modelled by a {@link FlowNetwork}. The flow crosses the
+ * links of the path between the two hosts and progresses at the rate the links allocate to it,
+ * which changes whenever a flow starts or finishes.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class NetworkFlow {
+
+	public NetworkFlow(int sendervmid, int recievervmid, Switch edgeswitch) {
+		this.sendervmid = sendervmid;
+		this.recievervmid = recievervmid;
+		this.edgeswitch = edgeswitch;
+		packets = new ArrayList<NetworkPacket>();
+	}
+
+	int sendervmid;
+
+	int recievervmid;
+
+	Switch edgeswitch;// edge switch of the receiving host
+
+	List<NetworkPacket> packets;
+
+	FlowNetwork.Link[] links;// links of the path, from the sending host to the receiving host
+
+	double latency;// switching delay along the path
+
+	double size;// amount of data to transfer, in the units of the link bandwidths
+
+	double remaining;// amount of data still to transfer
+
+	double rate;// current transfer rate
+
+	boolean fixed;// whether the rate has been fixed while computing the allocation
+
+	/**
+	 * Adds a packet to the flow.
+	 *
+	 * @param pkt the packet
+	 */
+	void add(NetworkPacket pkt) {
+		packets.add(pkt);
+		size += 1000 * pkt.pkt.data;
+		remaining = size;
+	}
+
+}
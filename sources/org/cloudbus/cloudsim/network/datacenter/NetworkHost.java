@@ -9,7 +9,9 @@
 package org.cloudbus.cloudsim.network.datacenter;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import org.cloudbus.cloudsim.Host;
@@ -19,7 +21,6 @@ import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.lists.PeList;
-import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
@@ -57,6 +58,9 @@ public class NetworkHost extends Host {
 
 	public double fintime = 0;
 
+	// VMs of the host indexed by id, including the VMs migrating in
+	private final Map<Integer, Vm> vmsbyid = new HashMap<Integer, Vm>();
+
 	public NetworkHost(
 			int id,
 			RamProvisioner ramProvisioner,
@@ -90,7 +94,7 @@ public class NetworkHost extends Host {
 		recvpackets();
 		for (Vm vm : super.getVmList()) {
 			double time = ((NetworkVm) vm).updateVmProcessing(currentTime, getVmScheduler()
-					.getAllocatedMipsForVm(vm));
+					.getAllocatedMipsShareForVm(vm));
 			if (time > 0.0 && time < smallerTime) {
 				smallerTime = time;
 			}
@@ -113,7 +117,7 @@ public class NetworkHost extends Host {
 			hs.pkt.recievetime = CloudSim.clock();
 
 			// insertthe packet in recievedlist of VM
-			Vm vm = VmList.getById(getVmList(), hs.pkt.reciever);
+			Vm vm = vmsbyid.get(hs.pkt.reciever);
 			List<HostPacket> pktlist = ((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv
 					.get(hs.pkt.sender);
 
@@ -143,8 +147,7 @@ public class NetworkHost extends Host {
 				List<HostPacket> pktlist = es.getValue();
 				for (HostPacket pkt : pktlist) {
 					NetworkPacket hpkt = new NetworkPacket(getId(), pkt, vm.getId(), pkt.sender);
-					Vm vm2 = VmList.getById(this.getVmList(), hpkt.recievervmid);
-					if (vm2 != null) {
+					if (vmsbyid.containsKey(hpkt.recievervmid)) {
 						packetTosendLocal.add(hpkt);
 					} else {
 						packetTosendGlobal.add(hpkt);
@@ -163,7 +166,7 @@ public class NetworkHost extends Host {
 			hs.stime = hs.rtime;
 			hs.pkt.recievetime = CloudSim.clock();
 			// insertthe packet in recievedlist
-			Vm vm = VmList.getById(getVmList(), hs.pkt.reciever);
+			Vm vm = vmsbyid.get(hs.pkt.reciever);
 
 			List<HostPacket> pktlist = ((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv
 					.get(hs.pkt.sender);
@@ -178,12 +181,24 @@ public class NetworkHost extends Host {
 		}
 		if (flag) {
 			for (Vm vm : super.getVmList()) {
-				vm.updateVmProcessing(CloudSim.clock(), getVmScheduler().getAllocatedMipsForVm(vm));
+				vm.updateVmProcessing(CloudSim.clock(), getVmScheduler().getAllocatedMipsShareForVm(vm));
 			}
 		}
 
-		// Sending packet to other VMs therefore packet is forwarded to a Edge switch
 		packetTosendLocal.clear();
+
+		// Sending packet to other VMs as flows over the network of the datacenter
+		NetworkDatacenter dc = (NetworkDatacenter) getDatacenter();
+		if (dc.isFlowLevelNetwork()) {
+			for (NetworkPacket hs : packetTosendGlobal) {
+				NetworkConstants.totaldatatransfer += hs.pkt.data;
+			}
+			dc.getFlowNetwork().send(this, packetTosendGlobal);
+			packetTosendGlobal.clear();
+			return;
+		}
+
+		// Sending packet to other VMs therefore packet is forwarded to a Edge switch
 		double avband = bandwidth / packetTosendGlobal.size();
 		for (NetworkPacket hs : packetTosendGlobal) {
 			double delay = (1000 * hs.pkt.data) / avband;
@@ -195,6 +210,70 @@ public class NetworkHost extends Host {
 		packetTosendGlobal.clear();
 	}
 
+	@Override
+	public boolean vmCreate(Vm vm) {
+		boolean result = super.vmCreate(vm);
+		if (result) {
+			vmsbyid.put(vm.getId(), vm);
+		}
+		return result;
+	}
+
+	@Override
+	public void vmDestroy(Vm vm) {
+		super.vmDestroy(vm);
+		if (vm != null && vmsbyid.get(vm.getId()) == vm) {
+			vmsbyid.remove(vm.getId());
+		}
+	}
+
+	@Override
+	public void vmDestroyAll() {
+		super.vmDestroyAll();
+		vmsbyid.clear();
+	}
+
+	@Override
+	public void addMigratingInVm(Vm vm) {
+		super.addMigratingInVm(vm);
+		vmsbyid.put(vm.getId(), vm);
+	}
+
+	@Override
+	public void removeMigratingInVm(Vm vm) {
+		super.removeMigratingInVm(vm);
+		if (vmsbyid.get(vm.getId()) == vm) {
+			vmsbyid.remove(vm.getId());
+		}
+	}
+
+	@Override
+	public boolean setPeStatus(int peId, int status) {
+		boolean result = super.setPeStatus(peId, status);
+		if (sw != null) {
+			sw.updateFreeHost(this);
+		}
+		return result;
+	}
+
+	@Override
+	public boolean setFailed(String resName, boolean failed) {
+		boolean result = super.setFailed(resName, failed);
+		if (sw != null) {
+			sw.updateFreeHost(this);
+		}
+		return result;
+	}
+
+	@Override
+	public boolean setFailed(boolean failed) {
+		boolean result = super.setFailed(failed);
+		if (sw != null) {
+			sw.updateFreeHost(this);
+		}
+		return result;
+	}
+
 	public double getMaxUtilizationAmongVmsPes(Vm vm) {
 		return PeList.getMaxUtilizationAmongVmsPes(getPeList(), vm);
 	}
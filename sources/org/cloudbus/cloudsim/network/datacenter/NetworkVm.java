@@ -51,7 +51,7 @@ public class NetworkVm extends Vm implements Comparable<Object> {
 
 	public double memory;
 
-	public boolean flagfree;// if true it is free
+	public boolean flagfree;// if true it is free, set with setFree to keep the switch index updated
 
 	public double finishtime;
 
@@ -59,6 +59,13 @@ public class NetworkVm extends Vm implements Comparable<Object> {
 		return flagfree;
 	}
 
+	public void setFree(boolean free) {
+		flagfree = free;
+		if (getHost() instanceof NetworkHost && ((NetworkHost) getHost()).sw != null) {
+			((NetworkHost) getHost()).sw.updateFreeVm(this);
+		}
+	}
+
 	@Override
 	public int compareTo(Object arg0) {
 		NetworkVm hs = (NetworkVm) arg0;
@@ -23,7 +23,6 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
-import org.cloudbus.cloudsim.lists.VmList;
 
 public class Switch extends SimEntity {
 
@@ -72,10 +71,23 @@ public class Switch extends SimEntity {
 
 	public Map<Integer, NetworkVm> Vmlist;
 
+	// free hosts and VMs of hostlist and Vmlist, indexed by id
+	private final SortedMap<Integer, NetworkHost> freehosts = new TreeMap<Integer, NetworkHost>();
+
+	private final SortedMap<Integer, NetworkVm> freevms = new TreeMap<Integer, NetworkVm>();
+
+	// number of hosts and VMs the free sets have been built from, -1 if not built yet
+	private int indexedhosts = -1;
+
+	private int indexedvms = -1;
+
 	public Switch(String name, int level, NetworkDatacenter dc) {
 		super(name);
 		this.level = level;
 		this.dc = dc;
+		if (dc != null) {
+			CloudSim.setLogicalProcessOwner(this, dc);
+		}
 	}
 
 	@Override
@@ -261,6 +273,7 @@ public class Switch extends SimEntity {
 	private void registerHost(SimEvent ev) {
 		NetworkHost hs = (NetworkHost) ev.getData();
 		hostlist.put(hs.getId(), (NetworkHost) ev.getData());
+		updateFreeHost(hs);
 	}
 
 	protected void processpacket(SimEvent ev) {
@@ -341,24 +354,33 @@ public class Switch extends SimEntity {
 	//
 
 	protected NetworkHost getHostwithVM(int vmid) {
-		for (Entry<Integer, NetworkHost> es : hostlist.entrySet()) {
-			Vm vm = VmList.getById(es.getValue().getVmList(), vmid);
-			if (vm != null) {
-				return es.getValue();
-			}
+		// routing table of the datacenter instead of searching the VM lists of the hosts
+		NetworkHost hs = dc.getVmHost(vmid);
+		if (hs != null && hostlist.get(hs.getId()) == hs) {
+			return hs;
 		}
 		return null;
 	}
 
 	protected List<NetworkVm> getfreeVmlist(int numVMReq) {
 		List<NetworkVm> freehostls = new ArrayList<NetworkVm>();
-		for (Entry<Integer, NetworkVm> et : Vmlist.entrySet()) {
-			if (et.getValue().isFree()) {
-				freehostls.add(et.getValue());
+		if (Vmlist == null) {
+			return freehostls;
+		}
+		if (indexedvms != Vmlist.size()) {
+			freevms.clear();
+			for (NetworkVm vm : Vmlist.values()) {
+				if (vm.isFree()) {
+					freevms.put(vm.getId(), vm);
+				}
 			}
+			indexedvms = Vmlist.size();
+		}
+		for (NetworkVm vm : freevms.values()) {
 			if (freehostls.size() == numVMReq) {
 				break;
 			}
+			freehostls.add(vm);
 		}
 
 		return freehostls;
@@ -366,18 +388,62 @@ public class Switch extends SimEntity {
 
 	protected List<NetworkHost> getfreehostlist(int numhost) {
 		List<NetworkHost> freehostls = new ArrayList<NetworkHost>();
-		for (Entry<Integer, NetworkHost> et : hostlist.entrySet()) {
-			if (et.getValue().getNumberOfFreePes() == et.getValue().getNumberOfPes()) {
-				freehostls.add(et.getValue());
+		if (hostlist == null) {
+			return freehostls;
+		}
+		if (indexedhosts != hostlist.size()) {
+			freehosts.clear();
+			for (NetworkHost hs : hostlist.values()) {
+				if (hs.getNumberOfFreePes() == hs.getNumberOfPes()) {
+					freehosts.put(hs.getId(), hs);
+				}
 			}
+			indexedhosts = hostlist.size();
+		}
+		for (NetworkHost hs : freehosts.values()) {
 			if (freehostls.size() == numhost) {
 				break;
 			}
+			freehostls.add(hs);
 		}
 
 		return freehostls;
 	}
 
+	/**
+	 * Updates the set of free hosts after the status of the PEs of a host connected to the switch
+	 * has changed. The set is rebuilt from hostlist whenever hosts are added to or removed from it.
+	 * 
+	 * @param hs the host
+	 */
+	public void updateFreeHost(NetworkHost hs) {
+		if (hostlist == null || indexedhosts != hostlist.size()) {
+			return;
+		}
+		if (hostlist.get(hs.getId()) == hs && hs.getNumberOfFreePes() == hs.getNumberOfPes()) {
+			freehosts.put(hs.getId(), hs);
+		} else {
+			freehosts.remove(hs.getId());
+		}
+	}
+
+	/**
+	 * Updates the set of free VMs after a VM of Vmlist has been marked free or busy. The set is
+	 * rebuilt from Vmlist whenever VMs are added to or removed from it.
+	 * 
+	 * @param vm the VM
+	 */
+	public void updateFreeVm(NetworkVm vm) {
+		if (Vmlist == null || indexedvms != Vmlist.size()) {
+			return;
+		}
+		if (Vmlist.get(vm.getId()) == vm && vm.isFree()) {
+			freevms.put(vm.getId(), vm);
+		} else {
+			freevms.remove(vm.getId());
+		}
+	}
+
 	@Override
 	public void shutdownEntity() {
 		Log.printLine(getName() + " is shutting down...");
@@ -8,12 +8,15 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.MigrationPlan;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
@@ -99,43 +102,10 @@ public class PowerDatacenter extends Datacenter {
 			double minTime = updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 
 			if (!isDisableMigrations()) {
-				List<Map<String, Object>> migrationMap = getVmAllocationPolicy().optimizeAllocation(
-						getVmList());
-
-				if (migrationMap != null) {
-					for (Map<String, Object> migrate : migrationMap) {
-						Vm vm = (Vm) migrate.get("vm");
-						PowerHost targetHost = (PowerHost) migrate.get("host");
-						PowerHost oldHost = (PowerHost) vm.getHost();
-
-						if (oldHost == null) {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d to Host #%d is started",
-									currentTime,
-									vm.getId(),
-									targetHost.getId());
-						} else {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
-									currentTime,
-									vm.getId(),
-									oldHost.getId(),
-									targetHost.getId());
-						}
-
-						targetHost.addMigratingInVm(vm);
-						incrementMigrationCount();
-
-						/** VM migration delay = RAM / bandwidth **/
-						// we use BW / 2 to model BW available for migration purposes, the other
-						// half of BW is for VM communication
-						// around 16 seconds for 1024 MB using 1 Gbit/s network
-						send(
-								getId(),
-								vm.getRam() / ((double) targetHost.getBw() / (2 * 8000)),
-								CloudSimTags.VM_MIGRATE,
-								migrate);
-					}
+				MigrationPlan migrationPlan = getVmAllocationPolicy().optimizeAllocationPlan(getVmList());
+
+				if (migrationPlan != null) {
+					startMigrations(migrationPlan);
 				}
 			}
 
@@ -149,6 +119,68 @@ public class PowerDatacenter extends Datacenter {
 		}
 	}
 
+	/**
+	 * Starts the migrations of a plan. The delay of every migration is estimated once and stored in
+	 * the plan, and the migrations with the same delay, which complete at the same time, are sent as
+	 * a single batch event.
+	 * 
+	 * @param migrationPlan the migration plan
+	 */
+	protected void startMigrations(MigrationPlan migrationPlan) {
+		Map<Double, MigrationPlan> batches = new LinkedHashMap<Double, MigrationPlan>();
+		for (int i = 0; i < migrationPlan.size(); i++) {
+			Vm vm = migrationPlan.getVm(i);
+			PowerHost targetHost = migrationPlan.getHost(i);
+			PowerHost oldHost = (PowerHost) vm.getHost();
+
+			if (oldHost == null) {
+				Log.formatLine(
+						"%.2f: Migration of VM #%d to Host #%d is started",
+						CloudSim.clock(),
+						vm.getId(),
+						targetHost.getId());
+			} else {
+				Log.formatLine(
+						"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
+						CloudSim.clock(),
+						vm.getId(),
+						oldHost.getId(),
+						targetHost.getId());
+			}
+
+			targetHost.addMigratingInVm(vm);
+			incrementMigrationCount();
+
+			double delay = getMigrationDelay(vm, targetHost);
+			migrationPlan.setDelay(i, delay);
+			MigrationPlan batch = batches.get(delay);
+			if (batch == null) {
+				batch = new MigrationPlan();
+				batches.put(delay, batch);
+			}
+			batch.add(vm, targetHost, delay);
+		}
+
+		for (Map.Entry<Double, MigrationPlan> batch : batches.entrySet()) {
+			send(getId(), batch.getKey(), CloudSimTags.VM_MIGRATE_BATCH, batch.getValue());
+		}
+	}
+
+	/**
+	 * Gets the delay of the migration of a VM to a host.
+	 * 
+	 * @param vm the vm
+	 * @param targetHost the target host
+	 * @return the migration delay
+	 */
+	protected double getMigrationDelay(Vm vm, Host targetHost) {
+		/** VM migration delay = RAM / bandwidth **/
+		// we use BW / 2 to model BW available for migration purposes, the other
+		// half of BW is for VM communication
+		// around 16 seconds for 1024 MB using 1 Gbit/s network
+		return vm.getRam() / ((double) targetHost.getBw() / (2 * 8000));
+	}
+
 	/**
 	 * Update cloudet processing without scheduling future events.
 	 * 
@@ -175,6 +207,7 @@ public class PowerDatacenter extends Datacenter {
 		Log.printLine("\n\n--------------------------------------------------------------\n\n");
 		Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
 
+		getCompletionQueue().clearCompletedVms();
 		for (PowerHost host : this.<PowerHost> getHostList()) {
 			Log.printLine();
 
@@ -204,6 +237,7 @@ public class PowerDatacenter extends Datacenter {
 						utilizationOfCpu,
 						timeDiff);
 				timeFrameDatacenterEnergy += timeFrameHostEnergy;
+				host.getStateMetrics().addEnergy(timeFrameHostEnergy);
 
 				Log.printLine();
 				Log.formatLine(
@@ -229,15 +263,7 @@ public class PowerDatacenter extends Datacenter {
 		setPower(getPower() + timeFrameDatacenterEnergy);
 
 		checkCloudletCompletion();
-
-		/** Remove completed VMs **/
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			for (Vm vm : host.getCompletedVms()) {
-				getVmAllocationPolicy().deallocateHostForVm(vm);
-				getVmList().remove(vm);
-				Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
-			}
-		}
+		removeCompletedVms();
 
 		Log.printLine();
 
@@ -245,6 +271,19 @@ public class PowerDatacenter extends Datacenter {
 		return minTime;
 	}
 
+	/**
+	 * Removes the completed VMs, which the hosts published into the completion queue while
+	 * updating the processing of their VMs.
+	 */
+	protected void removeCompletedVms() {
+		for (Vm vm : getCompletionQueue().pollCompletedVms()) {
+			Host host = vm.getHost();
+			getVmAllocationPolicy().deallocateHostForVm(vm);
+			getVmList().remove(vm);
+			Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.cloudbus.cloudsim.Datacenter#processVmMigrate(org.cloudbus.cloudsim.core.SimEvent,
@@ -254,12 +293,35 @@ public class PowerDatacenter extends Datacenter {
 	protected void processVmMigrate(SimEvent ev, boolean ack) {
 		updateCloudetProcessingWithoutSchedulingFutureEvents();
 		super.processVmMigrate(ev, ack);
-		SimEvent event = CloudSim.findFirstDeferred(getId(), new PredicateType(CloudSimTags.VM_MIGRATE));
-		if (event == null || event.eventTime() > CloudSim.clock()) {
+		if (!isMigrationDeferred()) {
 			updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processVmMigrateBatch(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processVmMigrateBatch(SimEvent ev) {
+		updateCloudetProcessingWithoutSchedulingFutureEvents();
+		super.processVmMigrateBatch(ev);
+		if (!isMigrationDeferred()) {
+			updateCloudetProcessingWithoutSchedulingFutureEventsForce();
+		}
+	}
+
+	/**
+	 * Checks if another migration completes at the current time.
+	 * 
+	 * @return true, if a migration event is deferred for the current time
+	 */
+	protected boolean isMigrationDeferred() {
+		SimEvent event = CloudSim.findFirstDeferred(getId(), new PredicateType(new int[] {
+				CloudSimTags.VM_MIGRATE, CloudSimTags.VM_MIGRATE_BATCH }));
+		return event != null && event.eventTime() <= CloudSim.clock();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see cloudsim.Datacenter#processCloudletSubmit(cloudsim.core.SimEvent, boolean)
@@ -270,6 +332,16 @@ public class PowerDatacenter extends Datacenter {
 		setCloudletSubmitted(CloudSim.clock());
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processCloudletSubmitBatch(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processCloudletSubmitBatch(SimEvent ev) {
+		super.processCloudletSubmitBatch(ev);
+		setCloudletSubmitted(CloudSim.clock());
+	}
+
 	/**
 	 * Gets the power.
 	 * 
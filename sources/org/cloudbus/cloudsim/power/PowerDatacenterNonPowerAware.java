@@ -9,10 +9,11 @@
 package org.cloudbus.cloudsim.power;
 
 import java.util.List;
-import java.util.Map;
 
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.MigrationPlan;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
@@ -90,6 +91,7 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 				try {
 					hostPower = host.getMaxPower() * timeDiff;
 					timeframePower += hostPower;
+					host.getStateMetrics().addEnergy(hostPower);
 				} catch (Exception e) {
 					e.printStackTrace();
 				}
@@ -110,6 +112,7 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 
 			Log.printLine("\n\n--------------------------------------------------------------\n\n");
 
+			getCompletionQueue().clearCompletedVms();
 			for (PowerHost host : this.<PowerHost> getHostList()) {
 				Log.formatLine("\n%.2f: Host #%d", CloudSim.clock(), host.getId());
 
@@ -123,53 +126,15 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 			setPower(getPower() + timeframePower);
 
 			checkCloudletCompletion();
-
-			/** Remove completed VMs **/
-			for (PowerHost host : this.<PowerHost> getHostList()) {
-				for (Vm vm : host.getCompletedVms()) {
-					getVmAllocationPolicy().deallocateHostForVm(vm);
-					getVmList().remove(vm);
-					Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
-				}
-			}
+			removeCompletedVms();
 
 			Log.printLine();
 
 			if (!isDisableMigrations()) {
-				List<Map<String, Object>> migrationMap = getVmAllocationPolicy().optimizeAllocation(
-						getVmList());
-
-				if (migrationMap != null) {
-					for (Map<String, Object> migrate : migrationMap) {
-						Vm vm = (Vm) migrate.get("vm");
-						PowerHost targetHost = (PowerHost) migrate.get("host");
-						PowerHost oldHost = (PowerHost) vm.getHost();
-
-						if (oldHost == null) {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d to Host #%d is started",
-									CloudSim.clock(),
-									vm.getId(),
-									targetHost.getId());
-						} else {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
-									CloudSim.clock(),
-									vm.getId(),
-									oldHost.getId(),
-									targetHost.getId());
-						}
-
-						targetHost.addMigratingInVm(vm);
-						incrementMigrationCount();
-
-						/** VM migration delay = RAM / bandwidth + C (C = 10 sec) **/
-						send(
-								getId(),
-								vm.getRam() / ((double) vm.getBw() / 8000) + 10,
-								CloudSimTags.VM_MIGRATE,
-								migrate);
-					}
+				MigrationPlan migrationPlan = getVmAllocationPolicy().optimizeAllocationPlan(getVmList());
+
+				if (migrationPlan != null) {
+					startMigrations(migrationPlan);
 				}
 			}
 
@@ -184,4 +149,15 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.power.PowerDatacenter#getMigrationDelay(org.cloudbus.cloudsim.Vm,
+	 * org.cloudbus.cloudsim.Host)
+	 */
+	@Override
+	protected double getMigrationDelay(Vm vm, Host targetHost) {
+		/** VM migration delay = RAM / bandwidth + C (C = 10 sec) **/
+		return vm.getRam() / ((double) vm.getBw() / 8000) + 10;
+	}
+
 }
@@ -12,6 +12,7 @@ import java.util.List;
 
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
@@ -36,6 +37,9 @@ public class PowerHost extends HostDynamicWorkload {
 	/** The power model. */
 	private PowerModel powerModel;
 
+	/** The host capacity index to update when VMs are allocated or deallocated, if any. */
+	private PowerHostCapacityIndex capacityIndex;
+
 	/**
 	 * Instantiates a new host.
 	 * 
@@ -58,6 +62,31 @@ public class PowerHost extends HostDynamicWorkload {
 		setPowerModel(powerModel);
 	}
 
+	@Override
+	public boolean vmCreate(Vm vm) {
+		boolean result = super.vmCreate(vm);
+		if (result && capacityIndex != null) {
+			capacityIndex.update(this);
+		}
+		return result;
+	}
+
+	@Override
+	public void vmDestroy(Vm vm) {
+		super.vmDestroy(vm);
+		if (vm != null && capacityIndex != null) {
+			capacityIndex.update(this);
+		}
+	}
+
+	@Override
+	public void vmDestroyAll() {
+		super.vmDestroyAll();
+		if (capacityIndex != null) {
+			capacityIndex.update(this);
+		}
+	}
+
 	/**
 	 * Gets the power. For this moment only consumed by all PEs.
 	 * 
@@ -135,4 +164,14 @@ public class PowerHost extends HostDynamicWorkload {
 		return powerModel;
 	}
 
+	/**
+	 * Sets the host capacity index to update when VMs are allocated to or deallocated from the
+	 * host.
+	 * 
+	 * @param capacityIndex the host capacity index, or null
+	 */
+	void setCapacityIndex(PowerHostCapacityIndex capacityIndex) {
+		this.capacityIndex = capacityIndex;
+	}
+
 }
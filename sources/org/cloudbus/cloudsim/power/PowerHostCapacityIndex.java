@@ -0,0 +1,201 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * An index of hosts ordered by their available MIPS. The index allows finding the hosts that have
+ * enough free capacity for a VM without scanning the whole host list, which is used while a
+ * migration plan is being built to skip the hosts that cannot accommodate the VM anyway.
+ *
+ * The index holds a {@link PowerHostCapacitySnapshot} of every host, which only reflects the
+ * host's state at the time it has been taken. While the index is active, the indexed hosts notify
+ * it from {@link PowerHost#vmCreate(Vm)} and {@link PowerHost#vmDestroy(Vm)}, and the snapshot of
+ * the host is then replaced with one taken by {@link #createSnapshot(PowerHost, int)}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerHostCapacityIndex {
+
+	/** The order of the snapshots by available MIPS, ties broken by the position in the host list. */
+	private static final Comparator<PowerHostCapacitySnapshot> AVAILABLE_MIPS_ORDER = new Comparator<PowerHostCapacitySnapshot>() {
+
+		@Override
+		public int compare(PowerHostCapacitySnapshot a, PowerHostCapacitySnapshot b) {
+			int result = Double.compare(a.getAvailableMips(), b.getAvailableMips());
+			if (result == 0) {
+				result = POSITION_ORDER.compare(a, b);
+			}
+			return result;
+		}
+
+	};
+
+	/** The order of the snapshots by the position in the host list. */
+	private static final Comparator<PowerHostCapacitySnapshot> POSITION_ORDER = new Comparator<PowerHostCapacitySnapshot>() {
+
+		@Override
+		public int compare(PowerHostCapacitySnapshot a, PowerHostCapacitySnapshot b) {
+			return a.getPosition() < b.getPosition() ? -1 : (a.getPosition() == b.getPosition() ? 0 : 1);
+		}
+
+	};
+
+	/** The snapshots of the indexed hosts. */
+	private final Map<PowerHost, PowerHostCapacitySnapshot> snapshots = new HashMap<PowerHost, PowerHostCapacitySnapshot>();
+
+	/** The snapshots ordered by available MIPS. */
+	private final TreeSet<PowerHostCapacitySnapshot> snapshotsByAvailableMips = new TreeSet<PowerHostCapacitySnapshot>(
+			AVAILABLE_MIPS_ORDER);
+
+	/** Whether the index has been built. */
+	private boolean active;
+
+	/**
+	 * Builds the index from the snapshots of the hosts, discarding the previous content.
+	 *
+	 * @param hostSnapshots the snapshots of the hosts
+	 */
+	public void rebuild(List<PowerHostCapacitySnapshot> hostSnapshots) {
+		clear();
+		for (PowerHostCapacitySnapshot snapshot : hostSnapshots) {
+			snapshots.put(snapshot.getHost(), snapshot);
+			snapshotsByAvailableMips.add(snapshot);
+			snapshot.getHost().setCapacityIndex(this);
+		}
+		active = true;
+	}
+
+	/**
+	 * Replaces the snapshot of a host after VMs have been allocated to or deallocated from it, with
+	 * a snapshot taken by {@link #createSnapshot(PowerHost, int)}. Does nothing if the index is not
+	 * active or the host is not indexed.
+	 *
+	 * @param host the host
+	 */
+	public void update(PowerHost host) {
+		PowerHostCapacitySnapshot previous = snapshots.get(host);
+		if (active && previous != null) {
+			update(createSnapshot(host, previous.getPosition()));
+		}
+	}
+
+	/**
+	 * Takes a snapshot of an indexed host. Allocation policies override this method to estimate
+	 * the utilization of the host in the same way as when the index has been built.
+	 *
+	 * @param host the host
+	 * @param position the position of the host in the host list
+	 * @return the snapshot
+	 */
+	protected PowerHostCapacitySnapshot createSnapshot(PowerHost host, int position) {
+		return new PowerHostCapacitySnapshot(host, position, host.getUtilizationOfCpuMips());
+	}
+
+	/**
+	 * Replaces the snapshot of a host after VMs have been allocated to or deallocated from it. Does
+	 * nothing if the index is not active or the host is not indexed.
+	 *
+	 * @param snapshot the new snapshot of the host
+	 */
+	public void update(PowerHostCapacitySnapshot snapshot) {
+		if (!active) {
+			return;
+		}
+		PowerHostCapacitySnapshot previous = snapshots.get(snapshot.getHost());
+		if (previous == null) {
+			return;
+		}
+		snapshotsByAvailableMips.remove(previous);
+		snapshots.put(snapshot.getHost(), snapshot);
+		snapshotsByAvailableMips.add(snapshot);
+	}
+
+	/**
+	 * Discards the content of the index and deactivates it.
+	 */
+	public void clear() {
+		for (PowerHost host : snapshots.keySet()) {
+			host.setCapacityIndex(null);
+		}
+		snapshots.clear();
+		snapshotsByAvailableMips.clear();
+		active = false;
+	}
+
+	/**
+	 * Checks if the index has been built and not cleared since.
+	 *
+	 * @return true, if the index is active
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Gets the snapshots of the hosts that have at least the given MIPS available. The result
+	 * contains every host that may be suitable for a VM requesting the MIPS, by increasing
+	 * available MIPS; it still has to be checked with {@link Host#isSuitableForVm(Vm)}, since RAM,
+	 * bandwidth and the capacity of individual PEs are not indexed. The result is a view of the
+	 * index, so it must not be iterated while VMs are allocated to or deallocated from the hosts.
+	 *
+	 * @param requestedTotalMips the total requested MIPS
+	 * @return the snapshots of the candidate hosts
+	 */
+	public SortedSet<PowerHostCapacitySnapshot> getCandidates(double requestedTotalMips) {
+		return snapshotsByAvailableMips.tailSet(new PowerHostCapacitySnapshot(requestedTotalMips), true);
+	}
+
+	/**
+	 * Gets the hosts that have at least the MIPS requested by the VM available, by increasing
+	 * available MIPS.
+	 *
+	 * @param vm the vm
+	 * @return the candidate hosts
+	 * @see #getCandidates(double)
+	 */
+	public List<PowerHost> getCandidateHosts(Vm vm) {
+		SortedSet<PowerHostCapacitySnapshot> candidates = getCandidates(vm.getCurrentRequestedTotalMips());
+		List<PowerHost> hosts = new ArrayList<PowerHost>(candidates.size());
+		for (PowerHostCapacitySnapshot snapshot : candidates) {
+			hosts.add(snapshot.getHost());
+		}
+		return hosts;
+	}
+
+	/**
+	 * Gets the current snapshot of a host.
+	 *
+	 * @param host the host
+	 * @return the snapshot, or null if the host is not indexed
+	 */
+	public PowerHostCapacitySnapshot getSnapshot(Host host) {
+		return snapshots.get(host);
+	}
+
+	/**
+	 * Gets the number of indexed hosts.
+	 *
+	 * @return the number of hosts
+	 */
+	public int size() {
+		return snapshots.size();
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+/**
+ * An immutable snapshot of the capacity and the power consumption of a host. Snapshots are taken
+ * while the migrations are planned and are read by concurrent scoring tasks, which therefore never
+ * access the mutable state of the host.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerHostCapacitySnapshot {
+
+	/** The host. */
+	private final PowerHost host;
+
+	/** The position of the host in the host list. */
+	private final int position;
+
+	/** The total MIPS of the host. */
+	private final double totalMips;
+
+	/** The available MIPS of the host. */
+	private final double availableMips;
+
+	/** The maximum available MIPS of a single PE of the host. */
+	private final double peCapacity;
+
+	/** The CPU utilization of the host in MIPS as estimated by the allocation policy. */
+	private final double utilizationMips;
+
+	/** The current power consumption of the host. */
+	private final double power;
+
+	/**
+	 * Instantiates a new snapshot.
+	 *
+	 * @param host the host
+	 * @param position the position of the host in the host list
+	 * @param utilizationMips the CPU utilization of the host in MIPS as estimated by the policy
+	 */
+	public PowerHostCapacitySnapshot(PowerHost host, int position, double utilizationMips) {
+		this.host = host;
+		this.position = position;
+		totalMips = host.getTotalMips();
+		availableMips = host.getVmScheduler().getAvailableMips();
+		peCapacity = host.getVmScheduler().getPeCapacity();
+		this.utilizationMips = utilizationMips;
+		power = host.getPower();
+	}
+
+	/**
+	 * Instantiates a snapshot without host that is ordered before all the snapshots with the given
+	 * available MIPS, used to search the host capacity index.
+	 *
+	 * @param availableMips the available MIPS
+	 */
+	PowerHostCapacitySnapshot(double availableMips) {
+		host = null;
+		position = Integer.MIN_VALUE;
+		totalMips = 0;
+		this.availableMips = availableMips;
+		peCapacity = 0;
+		utilizationMips = 0;
+		power = 0;
+	}
+
+	/**
+	 * Checks whether the host has enough MIPS available for the requested MIPS. RAM and bandwidth
+	 * are not part of the snapshot, so the host may still turn out to be unsuitable.
+	 *
+	 * @param requestedTotalMips the total requested MIPS
+	 * @param requestedMaxMips the maximum requested MIPS of a single PE
+	 * @return true, if the MIPS are available
+	 */
+	public boolean hasAvailableMips(double requestedTotalMips, double requestedMaxMips) {
+		return peCapacity >= requestedMaxMips && availableMips >= requestedTotalMips;
+	}
+
+	/**
+	 * Gets the CPU utilization of the host after allocating the requested MIPS.
+	 *
+	 * @param requestedTotalMips the total requested MIPS
+	 * @return the utilization after the allocation
+	 */
+	public double getUtilizationAfterAllocation(double requestedTotalMips) {
+		return (utilizationMips + requestedTotalMips) / totalMips;
+	}
+
+	/**
+	 * Gets the host.
+	 *
+	 * @return the host
+	 */
+	public PowerHost getHost() {
+		return host;
+	}
+
+	/**
+	 * Gets the position of the host in the host list.
+	 *
+	 * @return the position
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Gets the available MIPS.
+	 *
+	 * @return the available MIPS
+	 */
+	public double getAvailableMips() {
+		return availableMips;
+	}
+
+	/**
+	 * Gets the CPU utilization in MIPS.
+	 *
+	 * @return the utilization in MIPS
+	 */
+	public double getUtilizationMips() {
+		return utilizationMips;
+	}
+
+	/**
+	 * Gets the power consumption.
+	 *
+	 * @return the power
+	 */
+	public double getPower() {
+		return power;
+	}
+
+}
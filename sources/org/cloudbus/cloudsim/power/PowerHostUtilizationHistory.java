@@ -8,13 +8,18 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.util.DoubleRingBuffer;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -34,6 +39,21 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerHostUtilizationHistory extends PowerHost {
 
+	/**
+	 * The sum of the VM utilization histories scaled to the host capacity, as a ring of
+	 * {@link PowerVm#HISTORY_LENGTH} slots, the value of tick t being in slot t modulo the length.
+	 */
+	private final double[] utilizationHistorySum = new double[PowerVm.HISTORY_LENGTH];
+
+	/** The tick of the most recent value of the utilization history sum. */
+	private long utilizationHistoryTick = PowerVm.HISTORY_LENGTH;
+
+	/** The host MIPS the utilization history sum has been scaled with. */
+	private double utilizationHistoryHostMips = -1;
+
+	/** The states of the VM utilization histories as they have been added to the sum. */
+	private final Map<Vm, UtilizationHistoryContribution> utilizationHistoryContributions = new HashMap<Vm, UtilizationHistoryContribution>();
+
 	/**
 	 * Instantiates a new power host utilization history.
 	 * 
@@ -57,19 +77,148 @@ public class PowerHostUtilizationHistory extends PowerHost {
 	}
 
 	/**
-	 * Gets the host utilization history.
+	 * Gets the host utilization history. The history is maintained incrementally, see
+	 * {@link #updateUtilizationHistorySum()}.
 	 * 
 	 * @return the host utilization history
 	 */
 	protected double[] getUtilizationHistory() {
+		updateUtilizationHistorySum();
 		double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+		for (int i = 0; i < utilizationHistory.length; i++) {
+			utilizationHistory[i] = utilizationHistorySum[getUtilizationHistorySlot(utilizationHistoryTick - i)];
+		}
+		return MathUtil.trimZeroTail(utilizationHistory);
+	}
+
+	/**
+	 * Brings the utilization history sum up to date with the current VM list. The VMs usually
+	 * record their utilization together, so when every VM has recorded the same number of new
+	 * values since the last update, the sum is moved forward by as many ticks: the oldest ticks are
+	 * dropped and the new values of the VMs are added to the new ticks, which costs O(1) per new VM
+	 * value. Otherwise, e.g., when a VM has been added or removed, the sum is recomputed from the VM
+	 * histories. Either way, every value of the sum is added up in the order of the VM list, so that
+	 * it does not depend on the order of the past updates.
+	 */
+	protected void updateUtilizationHistorySum() {
 		double hostMips = getTotalMips();
-		for (PowerVm vm : this.<PowerVm> getVmList()) {
-			for (int i = 0; i < vm.getUtilizationHistory().size(); i++) {
-				utilizationHistory[i] += vm.getUtilizationHistory().get(i) * vm.getMips() / hostMips;
+		List<PowerVm> vms = getVmList();
+		boolean rebuild = hostMips != utilizationHistoryHostMips
+				|| utilizationHistoryContributions.size() != vms.size();
+		long newValues = -1;
+		for (int i = 0; i < vms.size() && !rebuild; i++) {
+			PowerVm vm = vms.get(i);
+			DoubleRingBuffer history = vm.getUtilizationHistoryBuffer();
+			UtilizationHistoryContribution contribution = utilizationHistoryContributions.get(vm);
+			if (contribution == null || contribution.vmMips != vm.getMips()) {
+				rebuild = true;
+				break;
+			}
+			long vmNewValues = history.getModificationCount() - contribution.modificationCount;
+			if (newValues == -1) {
+				newValues = vmNewValues;
 			}
+			// the VMs have to move forward together, by pushing values only
+			rebuild = vmNewValues != newValues
+					|| newValues >= PowerVm.HISTORY_LENGTH
+					|| history.size() != Math.min(history.getCapacity(), contribution.size + vmNewValues);
 		}
-		return MathUtil.trimZeroTail(utilizationHistory);
+
+		if (rebuild) {
+			rebuildUtilizationHistorySum(vms, hostMips);
+		} else if (newValues > 0) {
+			moveUtilizationHistorySum(vms, hostMips, (int) newValues);
+		}
+	}
+
+	/**
+	 * Recomputes the utilization history sum from the VM histories, the most recent values of the
+	 * VMs being at the current tick.
+	 * 
+	 * @param vms the vms
+	 * @param hostMips the host MIPS
+	 */
+	private void rebuildUtilizationHistorySum(List<PowerVm> vms, double hostMips) {
+		Arrays.fill(utilizationHistorySum, 0);
+		utilizationHistoryContributions.clear();
+		utilizationHistoryHostMips = hostMips;
+		for (PowerVm vm : vms) {
+			DoubleRingBuffer history = vm.getUtilizationHistoryBuffer();
+			double vmMips = vm.getMips();
+			for (int i = 0; i < history.size(); i++) {
+				utilizationHistorySum[getUtilizationHistorySlot(utilizationHistoryTick - i)] += history.get(i)
+						* vmMips / hostMips;
+			}
+			setUtilizationHistoryContribution(vm, history);
+		}
+	}
+
+	/**
+	 * Moves the utilization history sum forward, every VM having recorded the same number of new
+	 * values.
+	 * 
+	 * @param vms the vms
+	 * @param hostMips the host MIPS
+	 * @param newValues the number of new values of every VM
+	 */
+	private void moveUtilizationHistorySum(List<PowerVm> vms, double hostMips, int newValues) {
+		for (int i = 0; i < newValues; i++) {
+			utilizationHistoryTick++;
+			utilizationHistorySum[getUtilizationHistorySlot(utilizationHistoryTick)] = 0;
+		}
+		for (PowerVm vm : vms) {
+			DoubleRingBuffer history = vm.getUtilizationHistoryBuffer();
+			double vmMips = vm.getMips();
+			for (int i = newValues - 1; i >= 0; i--) {
+				utilizationHistorySum[getUtilizationHistorySlot(utilizationHistoryTick - i)] += history.get(i)
+						* vmMips / hostMips;
+			}
+			setUtilizationHistoryContribution(vm, history);
+		}
+	}
+
+	/**
+	 * Records the state of the utilization history of a VM as it has been added to the sum.
+	 * 
+	 * @param vm the vm
+	 * @param history the utilization history of the VM
+	 */
+	private void setUtilizationHistoryContribution(Vm vm, DoubleRingBuffer history) {
+		UtilizationHistoryContribution contribution = utilizationHistoryContributions.get(vm);
+		if (contribution == null) {
+			contribution = new UtilizationHistoryContribution();
+			utilizationHistoryContributions.put(vm, contribution);
+		}
+		contribution.size = history.size();
+		contribution.modificationCount = history.getModificationCount();
+		contribution.vmMips = vm.getMips();
+	}
+
+	/**
+	 * Gets the slot of a tick in the utilization history sum.
+	 * 
+	 * @param tick the tick
+	 * @return the slot
+	 */
+	private static int getUtilizationHistorySlot(long tick) {
+		return (int) (tick % PowerVm.HISTORY_LENGTH);
+	}
+
+	/**
+	 * The state of the utilization history of a VM as it has been added to the utilization history
+	 * sum.
+	 */
+	private static class UtilizationHistoryContribution {
+
+		/** The number of values. */
+		int size;
+
+		/** The modification count of the VM utilization history. */
+		long modificationCount;
+
+		/** The VM MIPS the values have been scaled with. */
+		double vmMips;
+
 	}
 
 }
@@ -9,20 +9,29 @@
 package org.cloudbus.cloudsim.power;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.MigrationPlan;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.power.lists.PowerVmList;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
+import org.cloudbus.cloudsim.util.stats.SlidingWindowQuantiles;
 
 /**
  * The class of an abstract power-aware VM allocation policy that dynamically optimizes the VM
@@ -56,6 +65,25 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The time history. */
 	private final Map<Integer, List<Double>> timeHistory = new HashMap<Integer, List<Double>>();
 
+	/** The order statistics of the host utilization histories. */
+	private final Map<Integer, SlidingWindowQuantiles> utilizationHistoryQuantiles = new HashMap<Integer, SlidingWindowQuantiles>();
+
+	/** The index of the hosts by available capacity, active while the migrations are planned. */
+	private final PowerHostCapacityIndex hostCapacityIndex = new PowerHostCapacityIndex() {
+
+		@Override
+		protected PowerHostCapacitySnapshot createSnapshot(PowerHost host, int position) {
+			return createHostCapacitySnapshot(host, position);
+		}
+
+	};
+
+	/** The number of threads used to score the candidate hosts while the migrations are planned. */
+	private int planningParallelism = 1;
+
+	/** The executor of the scoring tasks, if the planning is parallel. */
+	private ExecutorService planningExecutor;
+
 	/** The execution time history vm selection. */
 	private final List<Double> executionTimeHistoryVmSelection = new LinkedList<Double>();
 
@@ -68,6 +96,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The execution time history total. */
 	private final List<Double> executionTimeHistoryTotal = new LinkedList<Double>();
 
+	/** The minimum number of hosts for the candidate hosts to be scored in parallel. */
+	protected static final int PARALLEL_PLANNING_MIN_HOSTS = 256;
+
 	/**
 	 * Instantiates a new power vm allocation policy migration abstract.
 	 * 
@@ -90,6 +121,18 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	@Override
 	public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
+		return optimizeAllocationPlan(vmList).toMigrationMap();
+	}
+
+	/**
+	 * Optimize allocation of the VMs according to current utilization.
+	 * 
+	 * @param vmList the vm list
+	 * 
+	 * @return the migration plan
+	 */
+	@Override
+	public MigrationPlan optimizeAllocationPlan(List<? extends Vm> vmList) {
 		ExecutionTimeMeasurer.start("optimizeAllocationTotal");
 
 		ExecutionTimeMeasurer.start("optimizeAllocationHostSelection");
@@ -100,6 +143,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		printOverUtilizedHosts(overUtilizedHosts);
 
 		saveAllocation();
+		rebuildHostCapacityIndex();
 
 		ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
 		List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
@@ -107,19 +151,20 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 
 		Log.printLine("Reallocation of VMs from the over-utilized hosts:");
 		ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
-		List<Map<String, Object>> migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
+		MigrationPlan migrationPlan = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
 				overUtilizedHosts));
 		getExecutionTimeHistoryVmReallocation().add(
 				ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
 		Log.printLine();
 
-		migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
+		migrationPlan.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
 
+		getHostCapacityIndex().clear();
 		restoreAllocation();
 
 		getExecutionTimeHistoryTotal().add(ExecutionTimeMeasurer.end("optimizeAllocationTotal"));
 
-		return migrationMap;
+		return migrationPlan;
 	}
 
 	/**
@@ -128,16 +173,16 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param overUtilizedHosts the over utilized hosts
 	 * @return the migration map from under utilized hosts
 	 */
-	protected List<Map<String, Object>> getMigrationMapFromUnderUtilizedHosts(
+	protected MigrationPlan getMigrationMapFromUnderUtilizedHosts(
 			List<PowerHostUtilizationHistory> overUtilizedHosts) {
-		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
+		MigrationPlan migrationPlan = new MigrationPlan();
 		List<PowerHost> switchedOffHosts = getSwitchedOffHosts();
 
 		// over-utilized hosts + hosts that are selected to migrate VMs to from over-utilized hosts
 		Set<PowerHost> excludedHostsForFindingUnderUtilizedHost = new HashSet<PowerHost>();
 		excludedHostsForFindingUnderUtilizedHost.addAll(overUtilizedHosts);
 		excludedHostsForFindingUnderUtilizedHost.addAll(switchedOffHosts);
-		excludedHostsForFindingUnderUtilizedHost.addAll(extractHostListFromMigrationMap(migrationMap));
+		excludedHostsForFindingUnderUtilizedHost.addAll(migrationPlan.<PowerHost> getHosts());
 
 		// over-utilized + under-utilized hosts
 		Set<PowerHost> excludedHostsForFindingNewVmPlacement = new HashSet<PowerHost>();
@@ -174,17 +219,17 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			}
 			Log.printLine();
 
-			List<Map<String, Object>> newVmPlacement = getNewVmPlacementFromUnderUtilizedHost(
+			MigrationPlan newVmPlacement = getNewVmPlacementFromUnderUtilizedHost(
 					vmsToMigrateFromUnderUtilizedHost,
 					excludedHostsForFindingNewVmPlacement);
 
-			excludedHostsForFindingUnderUtilizedHost.addAll(extractHostListFromMigrationMap(newVmPlacement));
+			excludedHostsForFindingUnderUtilizedHost.addAll(newVmPlacement.<PowerHost> getHosts());
 
-			migrationMap.addAll(newVmPlacement);
+			migrationPlan.addAll(newVmPlacement);
 			Log.printLine();
 		}
 
-		return migrationMap;
+		return migrationPlan;
 	}
 
 	/**
@@ -203,39 +248,152 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Find host for vm.
+	 * Find host for vm. The selected host is the one with the least increase of power consumption
+	 * among the suitable hosts that are not over-utilized after the allocation, the first one in
+	 * the host list in case of ties.
+	 * 
+	 * The suitable hosts are ranked by the increase of power consumption first, which is cheap to
+	 * compute, and the costly check of the over-utilization after the allocation is then only done
+	 * until the first host passing it. While the migrations are planned, the hosts without enough
+	 * available MIPS are skipped using the host capacity index, and if the planning parallelism is
+	 * greater than 1, the candidate hosts are scored concurrently.
 	 * 
 	 * @param vm the vm
 	 * @param excludedHosts the excluded hosts
 	 * @return the power host
 	 */
 	public PowerHost findHostForVm(Vm vm, Set<? extends Host> excludedHosts) {
-		double minPower = Double.MAX_VALUE;
-		PowerHost allocatedHost = null;
+		List<HostPowerIncrease> rankedHosts;
+		if (getHostCapacityIndex().isActive()) {
+			if (getPlanningParallelism() > 1 && getHostCapacityIndex().size() >= PARALLEL_PLANNING_MIN_HOSTS) {
+				rankedHosts = rankHostsInParallel(vm, excludedHosts);
+			} else {
+				// ranking a host may allocate the vm on it, which updates the index, so the suitable
+				// hosts are collected before they are ranked
+				List<PowerHostCapacitySnapshot> suitableHosts = new ArrayList<PowerHostCapacitySnapshot>();
+				for (PowerHostCapacitySnapshot snapshot : getHostCapacityIndex().getCandidates(
+						vm.getCurrentRequestedTotalMips())) {
+					PowerHost host = snapshot.getHost();
+					if (!excludedHosts.contains(host) && host.isSuitableForVm(vm)) {
+						suitableHosts.add(snapshot);
+					}
+				}
+				rankedHosts = new ArrayList<HostPowerIncrease>();
+				for (PowerHostCapacitySnapshot snapshot : suitableHosts) {
+					rankHost(rankedHosts, snapshot.getHost(), snapshot.getPosition(), vm);
+				}
+			}
+		} else {
+			rankedHosts = new ArrayList<HostPowerIncrease>();
+			int position = 0;
+			for (PowerHost host : this.<PowerHost> getHostList()) {
+				if (!excludedHosts.contains(host) && host.isSuitableForVm(vm)) {
+					rankHost(rankedHosts, host, position, vm);
+				}
+				position++;
+			}
+		}
 
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			if (excludedHosts.contains(host)) {
+		Collections.sort(rankedHosts);
+		for (HostPowerIncrease rankedHost : rankedHosts) {
+			PowerHost host = rankedHost.getHost();
+			if (!rankedHost.isSuitabilityChecked() && !host.isSuitableForVm(vm)) {
 				continue;
 			}
-			if (host.isSuitableForVm(vm)) {
-				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
-					continue;
+			if (!rankedHost.isChecked() && getUtilizationOfCpuMips(host) != 0
+					&& isHostOverUtilizedAfterAllocation(host, vm)) {
+				continue;
+			}
+			return host;
+		}
+		return null;
+	}
+
+	/**
+	 * Adds a suitable host to the ranked hosts if its power consumption after the allocation can be
+	 * estimated.
+	 * 
+	 * @param rankedHosts the ranked hosts
+	 * @param host the host, suitable for the vm
+	 * @param position the position of the host in the host list
+	 * @param vm the vm
+	 */
+	private void rankHost(List<HostPowerIncrease> rankedHosts, PowerHost host, int position, Vm vm) {
+		double utilizationAfterAllocation = getMaxUtilizationAfterAllocation(host, vm);
+		boolean isChecked = false;
+		if (utilizationAfterAllocation < 0 || utilizationAfterAllocation > 1) {
+			// the power model is not defined for the utilization, so the host is checked in the
+			// original order: the power is only estimated if the host is not over-utilized after
+			// the allocation
+			if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
+				return;
+			}
+			isChecked = true;
+		}
+		try {
+			double powerAfterAllocation = getPowerAfterAllocation(host, vm);
+			if (powerAfterAllocation != -1) {
+				double powerDiff = powerAfterAllocation - host.getPower();
+				if (powerDiff < Double.MAX_VALUE) {
+					rankedHosts.add(new HostPowerIncrease(host, position, powerDiff, true, isChecked));
 				}
+			}
+		} catch (Exception e) {
+		}
+	}
 
-				try {
-					double powerAfterAllocation = getPowerAfterAllocation(host, vm);
-					if (powerAfterAllocation != -1) {
-						double powerDiff = powerAfterAllocation - host.getPower();
-						if (powerDiff < minPower) {
-							minPower = powerDiff;
-							allocatedHost = host;
-						}
-					}
-				} catch (Exception e) {
+	/**
+	 * Scores the candidate hosts of the host capacity index concurrently. The scoring tasks only
+	 * read the immutable host snapshots, and estimate the power consumption after the allocation
+	 * from the power model in the same way as {@link #getPowerAfterAllocation(PowerHost, Vm)}. RAM
+	 * and bandwidth are checked later, when the ranked hosts are committed sequentially, and the
+	 * hosts whose power cannot be estimated from the snapshot are ranked sequentially as well.
+	 * 
+	 * @param vm the vm
+	 * @param excludedHosts the excluded hosts
+	 * @return the ranked hosts
+	 */
+	private List<HostPowerIncrease> rankHostsInParallel(Vm vm, Set<? extends Host> excludedHosts) {
+		double requestedTotalMips = vm.getCurrentRequestedTotalMips();
+		double requestedMaxMips = vm.getCurrentRequestedMaxMips();
+		SortedSet<PowerHostCapacitySnapshot> candidates = getHostCapacityIndex().getCandidates(
+				requestedTotalMips);
+		int chunkSize = Math.max(1, (candidates.size() + getPlanningParallelism() - 1)
+				/ getPlanningParallelism());
+		List<HostScoringTask> tasks = new ArrayList<HostScoringTask>();
+		List<PowerHostCapacitySnapshot> chunk = new ArrayList<PowerHostCapacitySnapshot>(chunkSize);
+		for (PowerHostCapacitySnapshot snapshot : candidates) {
+			chunk.add(snapshot);
+			if (chunk.size() == chunkSize) {
+				tasks.add(new HostScoringTask(chunk, excludedHosts, requestedTotalMips, requestedMaxMips));
+				chunk = new ArrayList<PowerHostCapacitySnapshot>(chunkSize);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			tasks.add(new HostScoringTask(chunk, excludedHosts, requestedTotalMips, requestedMaxMips));
+		}
+
+		List<HostPowerIncrease> rankedHosts = new ArrayList<HostPowerIncrease>();
+		try {
+			for (Future<Void> future : planningExecutor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(0);
+		}
+		for (HostScoringTask task : tasks) {
+			rankedHosts.addAll(task.getRankedHosts());
+		}
+		for (HostScoringTask task : tasks) {
+			for (PowerHostCapacitySnapshot snapshot : task.getDeferredHosts()) {
+				PowerHost host = snapshot.getHost();
+				if (host.isSuitableForVm(vm)) {
+					rankHost(rankedHosts, host, snapshot.getPosition(), vm);
 				}
 			}
 		}
-		return allocatedHost;
+		return rankedHosts;
 	}
 
 	/**
@@ -269,20 +427,6 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return findHostForVm(vm, excludedHosts);
 	}
 
-	/**
-	 * Extract host list from migration map.
-	 * 
-	 * @param migrationMap the migration map
-	 * @return the list
-	 */
-	protected List<PowerHost> extractHostListFromMigrationMap(List<Map<String, Object>> migrationMap) {
-		List<PowerHost> hosts = new LinkedList<PowerHost>();
-		for (Map<String, Object> map : migrationMap) {
-			hosts.add((PowerHost) map.get("host"));
-		}
-		return hosts;
-	}
-
 	/**
 	 * Gets the new vm placement.
 	 * 
@@ -290,10 +434,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param excludedHosts the excluded hosts
 	 * @return the new vm placement
 	 */
-	protected List<Map<String, Object>> getNewVmPlacement(
+	protected MigrationPlan getNewVmPlacement(
 			List<? extends Vm> vmsToMigrate,
 			Set<? extends Host> excludedHosts) {
-		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
+		MigrationPlan migrationPlan = new MigrationPlan();
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
@@ -301,13 +445,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				allocatedHost.vmCreate(vm);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
-				Map<String, Object> migrate = new HashMap<String, Object>();
-				migrate.put("vm", vm);
-				migrate.put("host", allocatedHost);
-				migrationMap.add(migrate);
+				migrationPlan.add(vm, allocatedHost);
 			}
 		}
-		return migrationMap;
+		return migrationPlan;
 	}
 
 	/**
@@ -317,10 +458,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param excludedHosts the excluded hosts
 	 * @return the new vm placement from under utilized host
 	 */
-	protected List<Map<String, Object>> getNewVmPlacementFromUnderUtilizedHost(
+	protected MigrationPlan getNewVmPlacementFromUnderUtilizedHost(
 			List<? extends Vm> vmsToMigrate,
 			Set<? extends Host> excludedHosts) {
-		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
+		MigrationPlan migrationPlan = new MigrationPlan();
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
@@ -328,20 +469,18 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				allocatedHost.vmCreate(vm);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
-				Map<String, Object> migrate = new HashMap<String, Object>();
-				migrate.put("vm", vm);
-				migrate.put("host", allocatedHost);
-				migrationMap.add(migrate);
+				migrationPlan.add(vm, allocatedHost);
 			} else {
 				Log.printLine("Not all VMs can be reallocated from the host, reallocation cancelled");
-				for (Map<String, Object> map : migrationMap) {
-					((Host) map.get("host")).vmDestroy((Vm) map.get("vm"));
+				for (int i = 0; i < migrationPlan.size(); i++) {
+					PowerHost host = migrationPlan.getHost(i);
+					host.vmDestroy(migrationPlan.getVm(i));
 				}
-				migrationMap.clear();
+				migrationPlan.clear();
 				break;
 			}
 		}
-		return migrationMap;
+		return migrationPlan;
 	}
 
 	/**
@@ -482,13 +621,38 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		if (!getMetricHistory().containsKey(hostId)) {
 			getMetricHistory().put(hostId, new LinkedList<Double>());
 		}
-		if (!getTimeHistory().get(hostId).contains(CloudSim.clock())) {
-			getTimeHistory().get(hostId).add(CloudSim.clock());
+		List<Double> hostTimeHistory = getTimeHistory().get(hostId);
+		// the entries are added in time order, so the last one is checked before the whole history
+		boolean isRecorded = !hostTimeHistory.isEmpty()
+				&& hostTimeHistory.get(hostTimeHistory.size() - 1) == CloudSim.clock();
+		if (!isRecorded && !hostTimeHistory.contains(CloudSim.clock())) {
+			hostTimeHistory.add(CloudSim.clock());
 			getUtilizationHistory().get(hostId).add(host.getUtilizationOfCpu());
 			getMetricHistory().get(hostId).add(metric);
 		}
 	}
 
+	/**
+	 * Gets the order statistics of the utilization history of a host. The statistics are kept per
+	 * host between calls, so when the history has only advanced by one value since the previous call,
+	 * they are updated incrementally instead of being recomputed.
+	 * 
+	 * @param host the host
+	 * @param utilizationHistory the current utilization history of the host, the most recent first
+	 * @return the order statistics of the utilization history
+	 */
+	protected SlidingWindowQuantiles getUtilizationHistoryQuantiles(
+			PowerHost host,
+			double[] utilizationHistory) {
+		SlidingWindowQuantiles quantiles = utilizationHistoryQuantiles.get(host.getId());
+		if (quantiles == null) {
+			quantiles = new SlidingWindowQuantiles(PowerVm.HISTORY_LENGTH);
+			utilizationHistoryQuantiles.put(host.getId(), quantiles);
+		}
+		quantiles.update(utilizationHistory);
+		return quantiles;
+	}
+
 	/**
 	 * Save allocation.
 	 */
@@ -581,6 +745,81 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return hostUtilizationMips;
 	}
 
+	/**
+	 * Takes a snapshot of the capacity of a host.
+	 * 
+	 * @param host the host
+	 * @param position the position of the host in the host list
+	 * @return the snapshot
+	 */
+	protected PowerHostCapacitySnapshot createHostCapacitySnapshot(PowerHost host, int position) {
+		return new PowerHostCapacitySnapshot(host, position, getUtilizationOfCpuMips(host));
+	}
+
+	/**
+	 * Builds the host capacity index from the current state of the hosts.
+	 */
+	protected void rebuildHostCapacityIndex() {
+		List<PowerHostCapacitySnapshot> snapshots = new ArrayList<PowerHostCapacitySnapshot>();
+		int position = 0;
+		for (PowerHost host : this.<PowerHost> getHostList()) {
+			snapshots.add(createHostCapacitySnapshot(host, position++));
+		}
+		getHostCapacityIndex().rebuild(snapshots);
+	}
+
+	/**
+	 * Gets the host capacity index.
+	 * 
+	 * @return the host capacity index
+	 */
+	protected PowerHostCapacityIndex getHostCapacityIndex() {
+		return hostCapacityIndex;
+	}
+
+	/**
+	 * Sets the number of threads used to score the candidate hosts while the migrations are
+	 * planned. With more than one thread, the candidate hosts of large data centers are scored
+	 * concurrently, while the placements are still committed sequentially in a deterministic
+	 * order, so the migration decisions do not depend on the parallelism. The concurrent scoring
+	 * relies on the default estimation of the power consumption after the allocation; subclasses
+	 * that override {@link #getPowerAfterAllocation(PowerHost, Vm)} should keep the parallelism
+	 * at 1.
+	 * 
+	 * @param planningParallelism the number of threads
+	 */
+	public void setPlanningParallelism(int planningParallelism) {
+		if (planningParallelism < 1) {
+			throw new IllegalArgumentException("The planning parallelism must be at least 1");
+		}
+		if (planningExecutor != null) {
+			planningExecutor.shutdown();
+			planningExecutor = null;
+		}
+		this.planningParallelism = planningParallelism;
+		if (planningParallelism > 1) {
+			planningExecutor = Executors.newFixedThreadPool(planningParallelism, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "vm-migration-planning");
+					thread.setDaemon(true);
+					return thread;
+				}
+
+			});
+		}
+	}
+
+	/**
+	 * Gets the number of threads used to score the candidate hosts.
+	 * 
+	 * @return the planning parallelism
+	 */
+	public int getPlanningParallelism() {
+		return planningParallelism;
+	}
+
 	/**
 	 * Gets the saved allocation.
 	 * 
@@ -671,4 +910,180 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return executionTimeHistoryTotal;
 	}
 
+	/**
+	 * A candidate host for a VM ranked by the increase of its power consumption after the
+	 * allocation.
+	 */
+	private static class HostPowerIncrease implements Comparable<HostPowerIncrease> {
+
+		/** The host. */
+		private final PowerHost host;
+
+		/** The position of the host in the host list. */
+		private final int position;
+
+		/** The increase of power consumption. */
+		private final double powerIncrease;
+
+		/** Whether the host is known to be suitable for the VM. */
+		private final boolean suitabilityChecked;
+
+		/** Whether the host is known not to be over-utilized after the allocation. */
+		private final boolean checked;
+
+		/**
+		 * Instantiates a new ranked host.
+		 * 
+		 * @param host the host
+		 * @param position the position of the host in the host list
+		 * @param powerIncrease the increase of power consumption
+		 * @param suitabilityChecked whether the host is known to be suitable for the VM
+		 * @param checked whether the host is known not to be over-utilized after the allocation
+		 */
+		public HostPowerIncrease(
+				PowerHost host,
+				int position,
+				double powerIncrease,
+				boolean suitabilityChecked,
+				boolean checked) {
+			this.host = host;
+			this.position = position;
+			this.powerIncrease = powerIncrease;
+			this.suitabilityChecked = suitabilityChecked;
+			this.checked = checked;
+		}
+
+		/**
+		 * Gets the host.
+		 * 
+		 * @return the host
+		 */
+		public PowerHost getHost() {
+			return host;
+		}
+
+		/**
+		 * Checks whether the host is known to be suitable for the VM.
+		 * 
+		 * @return true, if the suitability has been checked
+		 */
+		public boolean isSuitabilityChecked() {
+			return suitabilityChecked;
+		}
+
+		/**
+		 * Checks whether the host is known not to be over-utilized after the allocation.
+		 * 
+		 * @return true, if the over-utilization after the allocation has been checked
+		 */
+		public boolean isChecked() {
+			return checked;
+		}
+
+		@Override
+		public int compareTo(HostPowerIncrease other) {
+			if (powerIncrease < other.powerIncrease) {
+				return -1;
+			}
+			if (powerIncrease > other.powerIncrease) {
+				return 1;
+			}
+			return position < other.position ? -1 : (position == other.position ? 0 : 1);
+		}
+
+	}
+
+	/**
+	 * A task scoring a range of candidate hosts from their snapshots.
+	 */
+	private static class HostScoringTask implements Callable<Void> {
+
+		/** The snapshots of the candidate hosts. */
+		private final List<PowerHostCapacitySnapshot> candidates;
+
+		/** The excluded hosts. */
+		private final Set<? extends Host> excludedHosts;
+
+		/** The total MIPS requested by the VM. */
+		private final double requestedTotalMips;
+
+		/** The maximum MIPS requested by a PE of the VM. */
+		private final double requestedMaxMips;
+
+		/** The ranked hosts. */
+		private final List<HostPowerIncrease> rankedHosts = new ArrayList<HostPowerIncrease>();
+
+		/** The hosts whose power cannot be estimated from the snapshot. */
+		private final List<PowerHostCapacitySnapshot> deferredHosts = new ArrayList<PowerHostCapacitySnapshot>();
+
+		/**
+		 * Instantiates a new scoring task.
+		 * 
+		 * @param candidates the snapshots of the candidate hosts
+		 * @param excludedHosts the excluded hosts
+		 * @param requestedTotalMips the total MIPS requested by the VM
+		 * @param requestedMaxMips the maximum MIPS requested by a PE of the VM
+		 */
+		public HostScoringTask(
+				List<PowerHostCapacitySnapshot> candidates,
+				Set<? extends Host> excludedHosts,
+				double requestedTotalMips,
+				double requestedMaxMips) {
+			this.candidates = candidates;
+			this.excludedHosts = excludedHosts;
+			this.requestedTotalMips = requestedTotalMips;
+			this.requestedMaxMips = requestedMaxMips;
+		}
+
+		@Override
+		public Void call() {
+			for (PowerHostCapacitySnapshot snapshot : candidates) {
+				PowerHost host = snapshot.getHost();
+				if (excludedHosts.contains(host)
+						|| !snapshot.hasAvailableMips(requestedTotalMips, requestedMaxMips)) {
+					continue;
+				}
+				double utilizationAfterAllocation = snapshot.getUtilizationAfterAllocation(requestedTotalMips);
+				if (utilizationAfterAllocation < 0 || utilizationAfterAllocation > 1) {
+					deferredHosts.add(snapshot);
+					continue;
+				}
+				try {
+					double powerDiff = host.getPowerModel().getPower(utilizationAfterAllocation)
+							- snapshot.getPower();
+					if (powerDiff < Double.MAX_VALUE) {
+						rankedHosts.add(new HostPowerIncrease(
+								host,
+								snapshot.getPosition(),
+								powerDiff,
+								false,
+								false));
+					}
+				} catch (Exception e) {
+					deferredHosts.add(snapshot);
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Gets the ranked hosts.
+		 * 
+		 * @return the ranked hosts
+		 */
+		public List<HostPowerIncrease> getRankedHosts() {
+			return rankedHosts;
+		}
+
+		/**
+		 * Gets the hosts whose power cannot be estimated from the snapshot.
+		 * 
+		 * @return the deferred hosts
+		 */
+		public List<PowerHostCapacitySnapshot> getDeferredHosts() {
+			return deferredHosts;
+		}
+
+	}
+
 }
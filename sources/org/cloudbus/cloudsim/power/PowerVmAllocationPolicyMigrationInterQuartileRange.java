@@ -107,7 +107,7 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 	protected double getHostUtilizationIqr(PowerHostUtilizationHistory host) throws IllegalArgumentException {
 		double[] data = host.getUtilizationHistory();
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
-			return MathUtil.iqr(data);
+			return getUtilizationHistoryQuantiles(host, data).getIqr();
 		}
 		throw new IllegalArgumentException();
 	}
@@ -107,7 +107,7 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 	protected double getHostUtilizationMad(PowerHostUtilizationHistory host) throws IllegalArgumentException {
 		double[] data = host.getUtilizationHistory();
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
-			return MathUtil.mad(data);
+			return getUtilizationHistoryQuantiles(host, data).getMad();
 		}
 		throw new IllegalArgumentException();
 	}
@@ -8,16 +8,27 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.stats.SlidingCovarianceMatrix;
 
 /**
  * The Maximum Correlation (MC) VM selection policy.
  * 
+ * The multiple correlation coefficients of the VMs are first estimated for all the VMs at once from
+ * a covariance matrix of the VM utilization histories that is maintained per host. The exact least
+ * squares regressions are then only fitted for the VMs whose estimate is close to the maximum,
+ * which selects the same VM as fitting the regressions of all the VMs.
+ * 
  * If you are using any algorithms, policies or workload included in the power package, please cite
  * the following paper:
  * 
@@ -31,9 +42,18 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPolicy {
 
+	/** The maximum difference between the estimated and the exact correlation coefficients. */
+	protected static final double CORRELATION_ESTIMATE_TOLERANCE = 1e-4;
+
+	/** The minimum pivot of the correlation matrix for the estimates to be used. */
+	protected static final double CORRELATION_MIN_PIVOT = 1e-8;
+
 	/** The fallback policy. */
 	private PowerVmSelectionPolicy fallbackPolicy;
 
+	/** The covariance matrices of the utilization histories of the VMs by host id. */
+	private final Map<Integer, UtilizationCovariance> utilizationCovariances = new HashMap<Integer, UtilizationCovariance>();
+
 	/**
 	 * Instantiates a new power vm selection policy maximum correlation.
 	 * 
@@ -56,9 +76,23 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		if (migratableVms.isEmpty()) {
 			return null;
 		}
+		double[][] utilizationMatrix = getUtilizationMatrix(migratableVms);
+		// as with the regressions of all the VMs, the fallback policy is used whenever the
+		// correlation coefficients cannot be computed, and not only when a candidate's fit fails
+		if (!isCorrelationComputable(utilizationMatrix)) {
+			return getFallbackPolicy().getVmToMigrate(host);
+		}
+		List<Integer> candidates = getCandidateIndexes(host, migratableVms, utilizationMatrix);
 		List<Double> metrics = null;
 		try {
-			metrics = getCorrelationCoefficients(getUtilizationMatrix(migratableVms));
+			if (candidates == null) {
+				metrics = getCorrelationCoefficients(utilizationMatrix);
+			} else {
+				metrics = new ArrayList<Double>(candidates.size());
+				for (int i : candidates) {
+					metrics.add(getCorrelationCoefficient(utilizationMatrix, i));
+				}
+			}
 		} catch (IllegalArgumentException e) { // the degrees of freedom must be greater than zero
 			return getFallbackPolicy().getVmToMigrate(host);
 		}
@@ -68,12 +102,144 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 			double metric = metrics.get(i);
 			if (metric > maxMetric) {
 				maxMetric = metric;
-				maxIndex = i;
+				maxIndex = candidates == null ? i : candidates.get(i);
 			}
 		}
 		return migratableVms.get(maxIndex);
 	}
 
+	/**
+	 * Checks whether the correlation coefficients of the VMs can be computed, i.e., whether there
+	 * are at least two VMs and at least as many observations as VMs, so that the regression of
+	 * every VM on the other ones and an intercept has enough data.
+	 * 
+	 * @param utilizationMatrix the utilization matrix of the VMs
+	 * @return true, if the correlation coefficients can be computed
+	 */
+	protected boolean isCorrelationComputable(final double[][] utilizationMatrix) {
+		int n = utilizationMatrix.length;
+		return n >= 2 && utilizationMatrix[0].length >= n;
+	}
+
+	/**
+	 * Gets the indexes of the VMs whose correlation coefficient may be the maximum one, according to
+	 * the estimates obtained from the covariance matrix of the host.
+	 * 
+	 * @param host the host
+	 * @param vmList the migratable VMs
+	 * @param utilizationMatrix the utilization matrix of the VMs
+	 * @return the candidate indexes in ascending order, or null if the correlation coefficients
+	 *         cannot be estimated accurately and have to be computed for all the VMs
+	 */
+	protected List<Integer> getCandidateIndexes(
+			final PowerHost host,
+			final List<PowerVm> vmList,
+			final double[][] utilizationMatrix) {
+		int n = vmList.size();
+		int m = utilizationMatrix[0].length;
+		// leave the cases with too few observations to the exact regressions, which fail for them
+		if (n < 2 || m <= n + 1) {
+			utilizationCovariances.remove(host.getId());
+			return null;
+		}
+		Map<Integer, Integer> vmIndexes = new HashMap<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			vmIndexes.put(vmList.get(i).getId(), i);
+		}
+		UtilizationCovariance covariance = getUtilizationCovariance(
+				host,
+				vmList,
+				vmIndexes,
+				utilizationMatrix);
+		double[] estimates = covariance.getMatrix().getMultipleCorrelations(CORRELATION_MIN_PIVOT);
+		if (estimates == null) {
+			return null;
+		}
+		double[] vmEstimates = new double[n];
+		double maxEstimate = Double.NEGATIVE_INFINITY;
+		for (int k = 0; k < n; k++) {
+			vmEstimates[vmIndexes.get(covariance.getVms().get(k).getId())] = estimates[k];
+			maxEstimate = Math.max(maxEstimate, estimates[k]);
+		}
+		if (!(maxEstimate > 2 * CORRELATION_ESTIMATE_TOLERANCE)) {
+			return null;
+		}
+		List<Integer> candidates = new ArrayList<Integer>();
+		for (int i = 0; i < n; i++) {
+			if (vmEstimates[i] >= maxEstimate - 2 * CORRELATION_ESTIMATE_TOLERANCE) {
+				candidates.add(i);
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Brings the covariance matrix of a host in line with the utilization histories of its VMs.
+	 * The VMs that have left the host are removed from the matrix, the ones that have arrived are
+	 * added, and if all the histories have advanced by one value, the new values are pushed;
+	 * otherwise the matrix is rebuilt.
+	 * 
+	 * @param host the host
+	 * @param vmList the migratable VMs
+	 * @param vmIndexes the indexes of the migratable VMs in the list by VM id
+	 * @param utilizationMatrix the utilization matrix of the VMs
+	 * @return the covariance matrix
+	 */
+	protected UtilizationCovariance getUtilizationCovariance(
+			final PowerHost host,
+			final List<PowerVm> vmList,
+			final Map<Integer, Integer> vmIndexes,
+			final double[][] utilizationMatrix) {
+		int m = utilizationMatrix[0].length;
+		UtilizationCovariance covariance = utilizationCovariances.get(host.getId());
+		if (covariance != null && covariance.getMatrix().getLength() == m) {
+			SlidingCovarianceMatrix matrix = covariance.getMatrix();
+			List<PowerVm> vms = covariance.getVms();
+			for (int k = vms.size() - 1; k >= 0; k--) {
+				Integer index = vmIndexes.get(vms.get(k).getId());
+				if (index == null || vmList.get(index) != vms.get(k)) {
+					matrix.removeVariable(k);
+					vms.remove(k);
+				}
+			}
+			boolean isCurrent = true;
+			boolean isShifted = true;
+			for (int k = 0; k < vms.size() && (isCurrent || isShifted); k++) {
+				double[] utilization = utilizationMatrix[vmIndexes.get(vms.get(k).getId())];
+				for (int j = 0; j < m; j++) {
+					double value = matrix.getValue(k, j);
+					isCurrent &= Double.compare(utilization[j], value) == 0;
+					isShifted &= j == m - 1 || Double.compare(utilization[j + 1], value) == 0;
+				}
+			}
+			if (!isCurrent && isShifted) {
+				double[] sample = new double[vms.size()];
+				for (int k = 0; k < vms.size(); k++) {
+					sample[k] = utilizationMatrix[vmIndexes.get(vms.get(k).getId())][0];
+				}
+				matrix.addSample(sample);
+			}
+			if (isCurrent || isShifted) {
+				Set<Integer> matrixVmIds = new HashSet<Integer>();
+				for (PowerVm vm : vms) {
+					matrixVmIds.add(vm.getId());
+				}
+				for (int i = 0; i < vmList.size(); i++) {
+					if (!matrixVmIds.contains(vmList.get(i).getId())) {
+						matrix.addVariable(utilizationMatrix[i]);
+						vms.add(vmList.get(i));
+					}
+				}
+				return covariance;
+			}
+		}
+		covariance = new UtilizationCovariance(
+				new ArrayList<PowerVm>(vmList),
+				new SlidingCovarianceMatrix(utilizationMatrix, m));
+		utilizationCovariances.put(host.getId(), covariance);
+		return covariance;
+	}
+
 	/**
 	 * Gets the utilization matrix.
 	 * 
@@ -121,22 +287,33 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		int m = data[0].length;
 		List<Double> correlationCoefficients = new LinkedList<Double>();
 		for (int i = 0; i < n; i++) {
-			double[][] x = new double[n - 1][m];
-			int k = 0;
-			for (int j = 0; j < n; j++) {
-				if (j != i) {
-					x[k++] = data[j];
-				}
+			correlationCoefficients.add(getCorrelationCoefficient(data, i));
+		}
+		return correlationCoefficients;
+	}
+
+	/**
+	 * Gets the correlation coefficient of a VM with all the other VMs.
+	 * 
+	 * @param data the data
+	 * @param i the index of the VM
+	 * @return the correlation coefficient
+	 */
+	protected double getCorrelationCoefficient(final double[][] data, final int i) {
+		int n = data.length;
+		double[][] x = new double[n - 1][];
+		int k = 0;
+		for (int j = 0; j < n; j++) {
+			if (j != i) {
+				x[k++] = data[j];
 			}
+		}
 
-			// Transpose the matrix so that it fits the linear model
-			double[][] xT = new Array2DRowRealMatrix(x).transpose().getData();
+		// Transpose the matrix so that it fits the linear model
+		double[][] xT = new Array2DRowRealMatrix(x).transpose().getData();
 
-			// RSquare is the "coefficient of determination"
-			correlationCoefficients.add(MathUtil.createLinearRegression(xT,
-					data[i]).calculateRSquared());
-		}
-		return correlationCoefficients;
+		// RSquare is the "coefficient of determination"
+		return MathUtil.createLinearRegression(xT, data[i]).calculateRSquared();
 	}
 
 	/**
@@ -157,4 +334,46 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		this.fallbackPolicy = fallbackPolicy;
 	}
 
+	/**
+	 * The covariance matrix of the utilization histories of the VMs of a host.
+	 */
+	protected static class UtilizationCovariance {
+
+		/** The VMs in the order of the variables of the matrix. */
+		private final List<PowerVm> vms;
+
+		/** The covariance matrix. */
+		private final SlidingCovarianceMatrix matrix;
+
+		/**
+		 * Instantiates a new utilization covariance.
+		 * 
+		 * @param vms the VMs in the order of the variables of the matrix
+		 * @param matrix the covariance matrix
+		 */
+		public UtilizationCovariance(final List<PowerVm> vms, final SlidingCovarianceMatrix matrix) {
+			this.vms = vms;
+			this.matrix = matrix;
+		}
+
+		/**
+		 * Gets the VMs in the order of the variables of the matrix.
+		 * 
+		 * @return the VMs
+		 */
+		public List<PowerVm> getVms() {
+			return vms;
+		}
+
+		/**
+		 * Gets the covariance matrix.
+		 * 
+		 * @return the matrix
+		 */
+		public SlidingCovarianceMatrix getMatrix() {
+			return matrix;
+		}
+
+	}
+
 }
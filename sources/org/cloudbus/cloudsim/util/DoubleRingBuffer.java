@@ -0,0 +1,275 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A fixed-capacity circular buffer of primitive doubles. New values are pushed to the front of the
+ * buffer, so that the value at index 0 is always the most recent one; once the buffer is full,
+ * every push evicts the oldest value. Pushing and random access are O(1) and do not box values.
+ *
+ * The buffer maintains a running sum of the stored values, and a running sum and sum of squares of
+ * their deviations from a shift close to their mean, so the mean and the variance are also
+ * available in O(1). Summing the deviations rather than the values avoids the cancellation of
+ * {@code sumOfSquares / n - mean * mean} when the variance is small compared to the mean. To keep
+ * the rounding error of the running sums bounded, they are recomputed from the stored values each
+ * time the buffer wraps around, the shift being moved to the current mean, which amortizes to O(1)
+ * per push.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class DoubleRingBuffer {
+
+	/** The stored values. */
+	private final double[] data;
+
+	/** The index of the most recent value in the data array. */
+	private int head;
+
+	/** The number of stored values. */
+	private int size;
+
+	/** The number of modifications since the creation of the buffer. */
+	private long modificationCount;
+
+	/** The running sum of the stored values. */
+	private double sum;
+
+	/** The value the deviations are taken from, close to the mean of the stored values. */
+	private double shift;
+
+	/** The running sum of the deviations of the stored values from the shift. */
+	private double shiftedSum;
+
+	/** The running sum of squares of the deviations of the stored values from the shift. */
+	private double shiftedSumOfSquares;
+
+	/**
+	 * Instantiates a new ring buffer.
+	 *
+	 * @param capacity the maximum number of stored values
+	 */
+	public DoubleRingBuffer(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be greater than zero");
+		}
+		data = new double[capacity];
+		head = capacity - 1;
+	}
+
+	/**
+	 * Pushes a value to the front of the buffer, evicting the oldest value if the buffer is full.
+	 *
+	 * @param value the value
+	 */
+	public void push(final double value) {
+		head = head == 0 ? data.length - 1 : head - 1;
+		if (size == data.length) {
+			double evicted = data[head];
+			double deviation = evicted - shift;
+			sum -= evicted;
+			shiftedSum -= deviation;
+			shiftedSumOfSquares -= deviation * deviation;
+		} else {
+			if (size == 0) {
+				shift = value;
+			}
+			size++;
+		}
+		data[head] = value;
+		double deviation = value - shift;
+		sum += value;
+		shiftedSum += deviation;
+		shiftedSumOfSquares += deviation * deviation;
+		modificationCount++;
+		if (head == 0) {
+			resum();
+		}
+	}
+
+	/**
+	 * Gets the value at the given position, where 0 is the most recent value.
+	 *
+	 * @param index the index
+	 * @return the value
+	 */
+	public double get(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int i = head + index;
+		if (i >= data.length) {
+			i -= data.length;
+		}
+		return data[i];
+	}
+
+	/**
+	 * Copies the stored values from the most recent to the oldest into the given array.
+	 *
+	 * @param destination the destination array, must hold at least {@link #size()} values
+	 * @return the number of copied values
+	 */
+	public int copyTo(final double[] destination) {
+		int firstPart = Math.min(size, data.length - head);
+		System.arraycopy(data, head, destination, 0, firstPart);
+		System.arraycopy(data, 0, destination, firstPart, size - firstPart);
+		return size;
+	}
+
+	/**
+	 * Returns the stored values from the most recent to the oldest.
+	 *
+	 * @return the array of values
+	 */
+	public double[] toArray() {
+		double[] array = new double[size];
+		copyTo(array);
+		return array;
+	}
+
+	/**
+	 * Returns a read-only list view of the buffer, where the element at index 0 is the most recent
+	 * value. The view reflects subsequent pushes.
+	 *
+	 * @return the list view
+	 */
+	public List<Double> asList() {
+		return new AbstractList<Double>() {
+
+			@Override
+			public Double get(int index) {
+				return DoubleRingBuffer.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return DoubleRingBuffer.this.size();
+			}
+
+		};
+	}
+
+	/**
+	 * Removes all the values from the buffer.
+	 */
+	public void clear() {
+		head = data.length - 1;
+		size = 0;
+		sum = 0;
+		shift = 0;
+		shiftedSum = 0;
+		shiftedSumOfSquares = 0;
+		modificationCount++;
+	}
+
+	/**
+	 * Recomputes the running sums from the stored values, moving the shift to their mean.
+	 */
+	protected void resum() {
+		double newSum = 0;
+		for (int i = 0; i < size; i++) {
+			newSum += data[i];
+		}
+		sum = newSum;
+		shift = size == 0 ? 0 : newSum / size;
+		double newShiftedSum = 0;
+		double newShiftedSumOfSquares = 0;
+		for (int i = 0; i < size; i++) {
+			double deviation = data[i] - shift;
+			newShiftedSum += deviation;
+			newShiftedSumOfSquares += deviation * deviation;
+		}
+		shiftedSum = newShiftedSum;
+		shiftedSumOfSquares = newShiftedSumOfSquares;
+	}
+
+	/**
+	 * Gets the number of stored values.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the buffer is empty.
+	 *
+	 * @return true, if the buffer is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the capacity.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return data.length;
+	}
+
+	/**
+	 * Gets the number of modifications of the buffer since its creation. The value can be used to
+	 * check whether a copy of the buffer is still up to date.
+	 *
+	 * @return the modification count
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Gets the sum of the stored values.
+	 *
+	 * @return the sum
+	 */
+	public double getSum() {
+		return sum;
+	}
+
+	/**
+	 * Gets the sum of squares of the stored values.
+	 *
+	 * @return the sum of squares
+	 */
+	public double getSumOfSquares() {
+		return shiftedSumOfSquares + 2 * shift * shiftedSum + size * shift * shift;
+	}
+
+	/**
+	 * Gets the mean of the stored values.
+	 *
+	 * @return the mean, or 0 if the buffer is empty
+	 */
+	public double getMean() {
+		if (size == 0) {
+			return 0;
+		}
+		return sum / size;
+	}
+
+	/**
+	 * Gets the population variance of the stored values.
+	 *
+	 * @return the variance, or 0 if the buffer is empty
+	 */
+	public double getVariance() {
+		if (size == 0) {
+			return 0;
+		}
+		double variance = (shiftedSumOfSquares - shiftedSum * shiftedSum / size) / size;
+		return variance > 0 ? variance : 0;
+	}
+
+}
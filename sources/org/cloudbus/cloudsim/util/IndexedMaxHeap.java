@@ -0,0 +1,216 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * A binary max-heap of the items 0 to n-1, each with an int key, e.g., the free PEs of the hosts
+ * of a list. The top of the heap is the item with the largest key, the item with the smallest
+ * index among those with the same key, which is the item a linear scan keeping the first maximum
+ * finds. An item keeps its key while it is out of the heap, and changing the key of an item or
+ * taking it out of the heap or back costs O(log n).
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class IndexedMaxHeap {
+
+	/** The keys of the items. */
+	private final int[] keys;
+
+	/** The items in heap order. */
+	private final int[] heap;
+
+	/** The positions of the items in the heap, -1 for the items out of the heap. */
+	private final int[] positions;
+
+	/** The number of items in the heap. */
+	private int size;
+
+	/**
+	 * Creates a heap of the items 0 to keys.length-1, all in the heap.
+	 *
+	 * @param keys the keys of the items, copied
+	 */
+	public IndexedMaxHeap(int[] keys) {
+		this.keys = keys.clone();
+		heap = new int[keys.length];
+		positions = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			heap[i] = i;
+			positions[i] = i;
+		}
+		size = keys.length;
+		for (int i = size / 2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	/**
+	 * Gets the number of items, in the heap or not.
+	 *
+	 * @return the number of items
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Gets the number of items in the heap.
+	 *
+	 * @return the number of items in the heap
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the heap is empty.
+	 *
+	 * @return true if no item is in the heap
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the item with the largest key, the smallest one among those with the same key.
+	 *
+	 * @return the top item, -1 if the heap is empty
+	 */
+	public int peek() {
+		return size == 0 ? -1 : heap[0];
+	}
+
+	/**
+	 * Gets the key of an item.
+	 *
+	 * @param item the item
+	 * @return the key
+	 */
+	public int getKey(int item) {
+		return keys[item];
+	}
+
+	/**
+	 * Sets the key of an item, moving it in the heap if it is in.
+	 *
+	 * @param item the item
+	 * @param key the new key
+	 */
+	public void setKey(int item, int key) {
+		int previous = keys[item];
+		keys[item] = key;
+		int position = positions[item];
+		if (position < 0) {
+			return;
+		}
+		if (key > previous) {
+			siftUp(position);
+		} else if (key < previous) {
+			siftDown(position);
+		}
+	}
+
+	/**
+	 * Checks whether an item is in the heap.
+	 *
+	 * @param item the item
+	 * @return true if the item is in the heap
+	 */
+	public boolean contains(int item) {
+		return positions[item] >= 0;
+	}
+
+	/**
+	 * Takes an item out of the heap. It keeps its key.
+	 *
+	 * @param item the item
+	 */
+	public void remove(int item) {
+		int position = positions[item];
+		if (position < 0) {
+			return;
+		}
+		size--;
+		positions[item] = -1;
+		if (position == size) {
+			return;
+		}
+		int last = heap[size];
+		heap[position] = last;
+		positions[last] = position;
+		siftDown(position);
+		if (heap[position] == last) {
+			siftUp(position);
+		}
+	}
+
+	/**
+	 * Puts an item back in the heap with its key.
+	 *
+	 * @param item the item
+	 */
+	public void add(int item) {
+		if (positions[item] >= 0) {
+			return;
+		}
+		heap[size] = item;
+		positions[item] = size;
+		siftUp(size++);
+	}
+
+	/**
+	 * Checks whether item a comes before item b in the heap order.
+	 */
+	private boolean before(int a, int b) {
+		return keys[a] > keys[b] || keys[a] == keys[b] && a < b;
+	}
+
+	/**
+	 * Moves the item at a position up until its parent comes before it.
+	 */
+	private void siftUp(int position) {
+		int item = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (!before(item, heap[parent])) {
+				break;
+			}
+			heap[position] = heap[parent];
+			positions[heap[position]] = position;
+			position = parent;
+		}
+		heap[position] = item;
+		positions[item] = position;
+	}
+
+	/**
+	 * Moves the item at a position down until it comes before its children.
+	 */
+	private void siftDown(int position) {
+		int item = heap[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && before(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!before(heap[child], item)) {
+				break;
+			}
+			heap[position] = heap[child];
+			positions[heap[position]] = position;
+			position = child;
+		}
+		heap[position] = item;
+		positions[item] = position;
+	}
+
+}
@@ -14,6 +14,7 @@ import java.util.List;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
 import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.cloudbus.cloudsim.util.stats.WeightedLinearRegression;
 
 /**
  * A class containing multiple convenient math functions.
@@ -240,8 +241,7 @@ public class MathUtil {
 		for (int i = 0; i < n; i++) {
 			x[i] = i + 1;
 		}
-		return createWeigthedLinearRegression(x, y, getTricubeWeigts(n))
-				.regress().getParameterEstimates();
+		return getWeightedLinearRegression(x, y, getTricubeWeigts(n)).getParameterEstimates();
 	}
 
 	public static SimpleRegression createLinearRegression(final double[] x,
@@ -288,6 +288,39 @@ public class MathUtil {
 		return createLinearRegression(xW, yW);
 	}
 
+	/**
+	 * Gets the weighted linear regression accumulated without intermediate objects. The weights are
+	 * applied under the same condition as in
+	 * {@link #createWeigthedLinearRegression(double[], double[], double[])}, and the estimates are
+	 * identical to the ones of the regression it returns.
+	 * 
+	 * @param x the x
+	 * @param y the y
+	 * @param weigths the weigths
+	 * @return the weighted linear regression
+	 */
+	public static WeightedLinearRegression getWeightedLinearRegression(
+			final double[] x, final double[] y, final double[] weigths) {
+		int numZeroWeigths = 0;
+		for (int i = 0; i < weigths.length; i++) {
+			if (weigths[i] <= 0) {
+				numZeroWeigths++;
+			}
+		}
+		boolean weighted = numZeroWeigths >= 0.4 * weigths.length;
+
+		WeightedLinearRegression regression = new WeightedLinearRegression();
+		for (int i = 0; i < x.length; i++) {
+			if (weighted) {
+				double sqrtWeigth = Math.sqrt(weigths[i]);
+				regression.addData(sqrtWeigth * x[i], sqrtWeigth * y[i]);
+			} else {
+				regression.addData(x[i], y[i]);
+			}
+		}
+		return regression;
+	}
+
 	/**
 	 * Gets the robust loess parameter estimates.
 	 * 
@@ -300,19 +333,18 @@ public class MathUtil {
 		for (int i = 0; i < n; i++) {
 			x[i] = i + 1;
 		}
-		SimpleRegression tricubeRegression = createWeigthedLinearRegression(x,
+		WeightedLinearRegression tricubeRegression = getWeightedLinearRegression(x,
 				y, getTricubeWeigts(n));
 		double[] residuals = new double[n];
 		for (int i = 0; i < n; i++) {
 			residuals[i] = y[i] - tricubeRegression.predict(x[i]);
 		}
-		SimpleRegression tricubeBySquareRegression = createWeigthedLinearRegression(
+		WeightedLinearRegression tricubeBySquareRegression = getWeightedLinearRegression(
 				x, y, getTricubeBisquareWeigts(residuals));
 
-		double[] estimates = tricubeBySquareRegression.regress()
-				.getParameterEstimates();
+		double[] estimates = tricubeBySquareRegression.getParameterEstimates();
 		if (estimates[0] == Double.NaN || estimates[1] == Double.NaN) {
-			return tricubeRegression.regress().getParameterEstimates();
+			return tricubeRegression.getParameterEstimates();
 		}
 		return estimates;
 	}
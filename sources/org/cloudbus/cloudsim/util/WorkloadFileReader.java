@@ -21,6 +21,7 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletTable;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelFull;
 
@@ -68,6 +69,7 @@ public class WorkloadFileReader implements WorkloadModel {
 	private ArrayList<Cloudlet> jobs = null; // a list for getting all the
 
 	// Gridlets
+	private CloudletTable table = null; // the jobs read from the file
 
 	// using Standard Workload Format
 	private int JOB_NUM = 1 - 1; // job number
@@ -137,7 +139,32 @@ public class WorkloadFileReader implements WorkloadModel {
 	@Override
 	public ArrayList<Cloudlet> generateWorkload() {
 		if (jobs == null) {
-			jobs = new ArrayList<Cloudlet>();
+			// keep the table only if it was asked for
+			final boolean tableRequested = table != null;
+			final CloudletTable jobTable = generateWorkloadTable();
+			jobs = new ArrayList<Cloudlet>(jobTable.size());
+			for (int row = 0; row < jobTable.size(); row++) {
+				jobs.add(jobTable.createCloudlet(row));
+			}
+			if (!tableRequested) {
+				table = null;
+			}
+		}
+
+		return jobs;
+	}
+
+	/**
+	 * Reads job information from a given file into a table, without creating the Cloudlets. The
+	 * Cloudlets of a huge trace can then be created in parts, as they are submitted, instead of
+	 * all at once by {@link #generateWorkload()}.
+	 * 
+	 * @return the table of the jobs read from the file
+	 */
+	public CloudletTable generateWorkloadTable() {
+		if (table == null) {
+			UtilizationModel utilizationModel = new UtilizationModelFull();
+			table = new CloudletTable(utilizationModel, utilizationModel, utilizationModel);
 
 			// create a temp array
 			fieldArray = new String[MAX_FIELD];
@@ -155,7 +182,7 @@ public class WorkloadFileReader implements WorkloadModel {
 			}
 		}
 
-		return jobs;
+		return table;
 	}
 
 	/**
@@ -272,19 +299,9 @@ public class WorkloadFileReader implements WorkloadModel {
 			final int reqRunTime,
 			final int userID,
 			final int groupID) {
-		// create the cloudlet
+		// add the job to the table
 		final int len = runTime * rating;
-		UtilizationModel utilizationModel = new UtilizationModelFull();
-		final Cloudlet wgl = new Cloudlet(
-				id,
-				len,
-				numProc,
-				0,
-				0,
-				utilizationModel,
-				utilizationModel,
-				utilizationModel);
-		jobs.add(wgl);
+		table.add(id, len, numProc, 0, 0);
 	}
 
 	/**
@@ -302,7 +319,7 @@ public class WorkloadFileReader implements WorkloadModel {
 			// get the job number
 			int id = 0;
 			if (JOB_NUM == IRRELEVANT) {
-				id = jobs.size() + 1;
+				id = table.size() + 1;
 			} else {
 				obj = new Integer(array[JOB_NUM].trim());
 				id = obj.intValue();
@@ -0,0 +1,184 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util.stats;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative long values, e.g., latencies in nanoseconds, with a bounded relative
+ * error in the style of HdrHistogram. The values below 32 have a bucket of their own; above, every
+ * power of two is split into 16 linear buckets, so that a value is known up to 1/16 of its
+ * magnitude. The whole long range takes 960 counters, and recording a value costs a few bit
+ * operations and no allocation.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class LogLinearHistogram {
+
+	/** The number of values below which every value has its own bucket. */
+	private static final int EXACT_VALUES = 32;
+
+	/** The number of linear buckets a power of two is split into. */
+	private static final int SUB_BUCKETS = 16;
+
+	/** The number of bits of a value kept by its bucket. */
+	private static final int SUB_BUCKET_BITS = 4;
+
+	/** The number of buckets covering all the long values. */
+	private static final int BUCKETS = EXACT_VALUES + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+	/** The counts of the buckets. */
+	private final long[] counts = new long[BUCKETS];
+
+	/** The number of recorded values. */
+	private long totalCount;
+
+	/** The sum of the recorded values. */
+	private double sum;
+
+	/** The smallest recorded value. */
+	private long min = Long.MAX_VALUE;
+
+	/** The largest recorded value. */
+	private long max;
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value the value, negative values being recorded as 0
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts[bucketIndex(value)]++;
+		totalCount++;
+		sum += value;
+		if (value < min) {
+			min = value;
+		}
+		if (value > max) {
+			max = value;
+		}
+	}
+
+	/**
+	 * Gets the number of recorded values.
+	 *
+	 * @return the number of values
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Gets the smallest recorded value.
+	 *
+	 * @return the smallest value, 0 if no value has been recorded
+	 */
+	public long getMin() {
+		return totalCount == 0 ? 0 : min;
+	}
+
+	/**
+	 * Gets the largest recorded value.
+	 *
+	 * @return the largest value, 0 if no value has been recorded
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Gets the mean of the recorded values, computed from the exact values.
+	 *
+	 * @return the mean, 0 if no value has been recorded
+	 */
+	public double getMean() {
+		return totalCount == 0 ? 0 : sum / totalCount;
+	}
+
+	/**
+	 * Gets the sum of the recorded values.
+	 *
+	 * @return the sum
+	 */
+	public double getSum() {
+		return sum;
+	}
+
+	/**
+	 * Gets a percentile of the recorded values, i.e., the largest value equivalent to the value
+	 * below which the given percentage of the recorded values fall, bounded by the largest recorded
+	 * value.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the value at the percentile, 0 if no value has been recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * totalCount);
+		rank = Math.max(rank, 1);
+		long seen = 0;
+		for (int index = 0; index < BUCKETS; index++) {
+			seen += counts[index];
+			if (seen >= rank) {
+				return Math.max(Math.min(highestEquivalentValue(index), max), min);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Removes all the recorded values.
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		totalCount = 0;
+		sum = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+	}
+
+	/**
+	 * Gets the bucket of a value.
+	 *
+	 * @param value the non-negative value
+	 * @return the index of the bucket
+	 */
+	private static int bucketIndex(long value) {
+		if (value < EXACT_VALUES) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int top = (int) (value >>> shift);
+		return EXACT_VALUES + (shift - 1) * SUB_BUCKETS + top - SUB_BUCKETS;
+	}
+
+	/**
+	 * Gets the largest value of a bucket.
+	 *
+	 * @param index the index of the bucket
+	 * @return the largest value
+	 */
+	private static long highestEquivalentValue(int index) {
+		if (index < EXACT_VALUES) {
+			return index;
+		}
+		int shift = (index - EXACT_VALUES) / SUB_BUCKETS + 1;
+		long top = (index - EXACT_VALUES) % SUB_BUCKETS + SUB_BUCKETS;
+		if (shift + SUB_BUCKET_BITS >= 63 && top == 2 * SUB_BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+		return ((top + 1) << shift) - 1;
+	}
+
+}
@@ -0,0 +1,409 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util.stats;
+
+/**
+ * The covariance matrix of a set of variables over a sliding window of their most recent values.
+ * Every variable holds the same number of values; pushing a new sample of all the variables
+ * evicts the oldest one and updates the cross products in O(n^2), and variables can be added and
+ * removed individually, e.g., when VMs migrate to or from a host.
+ *
+ * The matrix provides the coefficients of multiple determination of every variable with respect
+ * to all the others (the R^2 of the least squares regression of the variable on the other ones
+ * with an intercept) from a single inversion of the correlation matrix. After a variable has been
+ * removed, the inverse is downdated in O(n^2) instead of being recomputed.
+ *
+ * The cross products are accumulated around a per-variable offset, the mean of the variable at the
+ * time it has been added, which keeps the cancellation error of the centering small. To keep the
+ * rounding error of the running sums bounded, they are recomputed from the window, around the
+ * current means, once every window length samples, which amortizes to O(n^2) per sample.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SlidingCovarianceMatrix {
+
+	/** The values of the variables in the window, stored as rings with the most recent at head. */
+	private double[][] window;
+
+	/** The offsets the values are shifted by in the sums. */
+	private double[] offsets;
+
+	/** The sums of the shifted values. */
+	private double[] sums;
+
+	/** The sums of the cross products of the shifted values. */
+	private double[][] crossProducts;
+
+	/** The number of variables. */
+	private int n;
+
+	/** The length of the window. */
+	private final int length;
+
+	/** The index of the most recent value in the window rings. */
+	private int head;
+
+	/** The number of samples pushed since the sums have been recomputed. */
+	private int samplesSinceResum;
+
+	/** The inverse of the correlation matrix, or null if it has to be recomputed. */
+	private double[][] inverseCorrelation;
+
+	/**
+	 * Instantiates a new matrix.
+	 *
+	 * @param data the values of the variables, data[i][j] being the j-th most recent value of the
+	 *            i-th variable
+	 * @param length the length of the window, no greater than the number of values of any variable
+	 */
+	public SlidingCovarianceMatrix(final double[][] data, final int length) {
+		if (length <= 0) {
+			throw new IllegalArgumentException("The length of the window must be greater than zero");
+		}
+		this.length = length;
+		int capacity = Math.max(data.length, 1);
+		window = new double[capacity][];
+		offsets = new double[capacity];
+		sums = new double[capacity];
+		crossProducts = new double[capacity][capacity];
+		for (double[] values : data) {
+			addVariable(values);
+		}
+	}
+
+	/**
+	 * Adds a variable.
+	 *
+	 * @param values the values of the variable, the most recent first
+	 * @return the index of the variable
+	 */
+	public int addVariable(final double[] values) {
+		if (values.length < length) {
+			throw new IllegalArgumentException("The variable has less values than the window length");
+		}
+		if (n == window.length) {
+			grow();
+		}
+		int k = n++;
+		double[] ring = new double[length];
+		double offset = 0;
+		for (int j = 0; j < length; j++) {
+			ring[ringIndex(j)] = values[j];
+			offset += values[j];
+		}
+		offset /= length;
+		window[k] = ring;
+		offsets[k] = offset;
+		double sum = 0;
+		for (int j = 0; j < length; j++) {
+			sum += ring[j] - offset;
+		}
+		sums[k] = sum;
+		for (int i = 0; i <= k; i++) {
+			double[] other = window[i];
+			double otherOffset = offsets[i];
+			double crossProduct = 0;
+			for (int j = 0; j < length; j++) {
+				crossProduct += (ring[j] - offset) * (other[j] - otherOffset);
+			}
+			crossProducts[i][k] = crossProduct;
+			crossProducts[k][i] = crossProduct;
+		}
+		inverseCorrelation = null;
+		return k;
+	}
+
+	/**
+	 * Removes a variable. The variables after it are shifted down by one index.
+	 *
+	 * @param k the index of the variable
+	 */
+	public void removeVariable(final int k) {
+		checkVariable(k);
+		if (inverseCorrelation != null) {
+			downdateInverse(k);
+		}
+		for (int i = k; i < n - 1; i++) {
+			window[i] = window[i + 1];
+			offsets[i] = offsets[i + 1];
+			sums[i] = sums[i + 1];
+			crossProducts[i] = crossProducts[i + 1];
+		}
+		n--;
+		window[n] = null;
+		crossProducts[n] = new double[crossProducts.length];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(crossProducts[i], k + 1, crossProducts[i], k, n - k);
+		}
+	}
+
+	/**
+	 * Pushes a new value of every variable, evicting the oldest value of the window.
+	 *
+	 * @param sample the new values, sample[i] being the value of the i-th variable
+	 */
+	public void addSample(final double[] sample) {
+		head = head == 0 ? length - 1 : head - 1;
+		double[] added = new double[n];
+		double[] evicted = new double[n];
+		for (int i = 0; i < n; i++) {
+			evicted[i] = window[i][head] - offsets[i];
+			added[i] = sample[i] - offsets[i];
+			window[i][head] = sample[i];
+			sums[i] += added[i] - evicted[i];
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = i; j < n; j++) {
+				double crossProduct = crossProducts[i][j] + added[i] * added[j] - evicted[i] * evicted[j];
+				crossProducts[i][j] = crossProduct;
+				crossProducts[j][i] = crossProduct;
+			}
+		}
+		if (++samplesSinceResum >= length) {
+			resum();
+		}
+		inverseCorrelation = null;
+	}
+
+	/**
+	 * Recomputes the sums and the cross products from the window, moving the offsets to the current
+	 * means of the variables.
+	 */
+	protected void resum() {
+		for (int i = 0; i < n; i++) {
+			double[] ring = window[i];
+			double offset = 0;
+			for (int j = 0; j < length; j++) {
+				offset += ring[j];
+			}
+			offsets[i] = offset / length;
+			double sum = 0;
+			for (int j = 0; j < length; j++) {
+				sum += ring[j] - offsets[i];
+			}
+			sums[i] = sum;
+		}
+		for (int i = 0; i < n; i++) {
+			double[] ring = window[i];
+			for (int k = 0; k <= i; k++) {
+				double[] other = window[k];
+				double crossProduct = 0;
+				for (int j = 0; j < length; j++) {
+					crossProduct += (ring[j] - offsets[i]) * (other[j] - offsets[k]);
+				}
+				crossProducts[i][k] = crossProduct;
+				crossProducts[k][i] = crossProduct;
+			}
+		}
+		samplesSinceResum = 0;
+	}
+
+	/**
+	 * Gets a value in the window.
+	 *
+	 * @param k the index of the variable
+	 * @param age the age of the value, 0 being the most recent value
+	 * @return the value
+	 */
+	public double getValue(final int k, final int age) {
+		checkVariable(k);
+		if (age < 0 || age >= length) {
+			throw new IndexOutOfBoundsException("Age: " + age + ", Length: " + length);
+		}
+		return window[k][ringIndex(age)];
+	}
+
+	/**
+	 * Gets the population covariance of two variables over the window.
+	 *
+	 * @param i the index of the first variable
+	 * @param j the index of the second variable
+	 * @return the covariance
+	 */
+	public double getCovariance(final int i, final int j) {
+		checkVariable(i);
+		checkVariable(j);
+		return (crossProducts[i][j] - sums[i] * sums[j] / length) / length;
+	}
+
+	/**
+	 * Gets the coefficients of multiple determination of all the variables, i.e., for each
+	 * variable the R^2 of its regression on all the other variables. The coefficients are computed
+	 * from the diagonal of the inverse of the correlation matrix: R^2_i = 1 - 1 / inverse_ii.
+	 *
+	 * @param minPivot the minimum pivot of the Cholesky decomposition of the correlation matrix,
+	 *            i.e., the minimum share of the variance of a variable that must not be explained
+	 *            by the preceding ones
+	 * @return the coefficients, or null if a variable is constant or the correlation matrix is too
+	 *         ill-conditioned for the given minimum pivot
+	 */
+	public double[] getMultipleCorrelations(final double minPivot) {
+		if (inverseCorrelation == null && !invertCorrelation(minPivot)) {
+			return null;
+		}
+		double[] coefficients = new double[n];
+		for (int i = 0; i < n; i++) {
+			coefficients[i] = 1 - 1 / inverseCorrelation[i][i];
+		}
+		return coefficients;
+	}
+
+	/**
+	 * Gets the number of variables.
+	 *
+	 * @return the number of variables
+	 */
+	public int getNumberOfVariables() {
+		return n;
+	}
+
+	/**
+	 * Gets the length of the window.
+	 *
+	 * @return the length
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Inverts the correlation matrix through its Cholesky decomposition.
+	 *
+	 * @param minPivot the minimum pivot
+	 * @return true, if the matrix has been inverted
+	 */
+	private boolean invertCorrelation(final double minPivot) {
+		double[] deviations = new double[n];
+		for (int i = 0; i < n; i++) {
+			double variance = getCovariance(i, i);
+			if (!(variance > 0)) {
+				return false;
+			}
+			deviations[i] = Math.sqrt(variance);
+		}
+
+		// the Cholesky factor L of the correlation matrix
+		double[][] l = new double[n][n];
+		for (int j = 0; j < n; j++) {
+			double pivot = 1;
+			for (int k = 0; k < j; k++) {
+				pivot -= l[j][k] * l[j][k];
+			}
+			if (!(pivot >= minPivot)) {
+				return false;
+			}
+			double diagonal = Math.sqrt(pivot);
+			l[j][j] = diagonal;
+			for (int i = j + 1; i < n; i++) {
+				double value = getCovariance(i, j) / (deviations[i] * deviations[j]);
+				for (int k = 0; k < j; k++) {
+					value -= l[i][k] * l[j][k];
+				}
+				l[i][j] = value / diagonal;
+			}
+		}
+
+		// the inverse of L, lower triangular as well
+		double[][] lInverse = new double[n][n];
+		for (int j = 0; j < n; j++) {
+			lInverse[j][j] = 1 / l[j][j];
+			for (int i = j + 1; i < n; i++) {
+				double value = 0;
+				for (int k = j; k < i; k++) {
+					value -= l[i][k] * lInverse[k][j];
+				}
+				lInverse[i][j] = value / l[i][i];
+			}
+		}
+
+		// the inverse of the correlation matrix is the transpose of the inverse of L times itself
+		double[][] inverse = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = i; j < n; j++) {
+				double value = 0;
+				for (int k = j; k < n; k++) {
+					value += lInverse[k][i] * lInverse[k][j];
+				}
+				inverse[i][j] = value;
+				inverse[j][i] = value;
+			}
+		}
+		inverseCorrelation = inverse;
+		return true;
+	}
+
+	/**
+	 * Downdates the inverse of the correlation matrix after the removal of a variable. The inverse of
+	 * the remaining submatrix is the Schur complement of the removed diagonal element in the inverse.
+	 *
+	 * @param k the index of the removed variable
+	 */
+	private void downdateInverse(final int k) {
+		double[][] inverse = new double[n - 1][n - 1];
+		double pivot = inverseCorrelation[k][k];
+		for (int i = 0, a = 0; i < n; i++) {
+			if (i == k) {
+				continue;
+			}
+			double factor = inverseCorrelation[i][k] / pivot;
+			for (int j = 0, b = 0; j < n; j++) {
+				if (j == k) {
+					continue;
+				}
+				inverse[a][b++] = inverseCorrelation[i][j] - factor * inverseCorrelation[k][j];
+			}
+			a++;
+		}
+		inverseCorrelation = inverse;
+	}
+
+	/**
+	 * Doubles the capacity of the arrays.
+	 */
+	private void grow() {
+		int capacity = window.length * 2;
+		double[][] newWindow = new double[capacity][];
+		System.arraycopy(window, 0, newWindow, 0, n);
+		window = newWindow;
+		double[] newOffsets = new double[capacity];
+		System.arraycopy(offsets, 0, newOffsets, 0, n);
+		offsets = newOffsets;
+		double[] newSums = new double[capacity];
+		System.arraycopy(sums, 0, newSums, 0, n);
+		sums = newSums;
+		double[][] newCrossProducts = new double[capacity][capacity];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(crossProducts[i], 0, newCrossProducts[i], 0, n);
+		}
+		crossProducts = newCrossProducts;
+	}
+
+	/**
+	 * Converts the age of a value into an index of the window rings.
+	 *
+	 * @param age the age
+	 * @return the index
+	 */
+	private int ringIndex(final int age) {
+		int index = head + age;
+		return index >= length ? index - length : index;
+	}
+
+	/**
+	 * Checks the index of a variable.
+	 *
+	 * @param k the index
+	 */
+	private void checkVariable(final int k) {
+		if (k < 0 || k >= n) {
+			throw new IndexOutOfBoundsException("Variable: " + k + ", Variables: " + n);
+		}
+	}
+
+}
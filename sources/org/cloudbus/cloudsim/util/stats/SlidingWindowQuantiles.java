@@ -0,0 +1,382 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util.stats;
+
+/**
+ * Order statistics over a sliding window of the most recent values. The window keeps the values
+ * both in arrival order and in sorted order, so that adding a value and evicting the oldest one
+ * costs two binary searches, and the median, percentiles, the median absolute deviation (MAD) and
+ * the interquartile range (IQR) are obtained in O(log w) without copying or sorting the window.
+ *
+ * The estimators produce the same values as the ones of {@link org.cloudbus.cloudsim.util.MathUtil},
+ * i.e. percentiles follow the default (legacy) estimation of commons-math's Percentile and the IQR
+ * follows {@link org.cloudbus.cloudsim.util.MathUtil#iqr(double[])}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SlidingWindowQuantiles {
+
+	/** The values in arrival order, stored as a ring with the most recent value at head. */
+	private final double[] window;
+
+	/** The values in ascending order. */
+	private final double[] sorted;
+
+	/** The index of the most recent value in the window. */
+	private int head;
+
+	/** The number of values in the window. */
+	private int size;
+
+	/**
+	 * Instantiates a new sliding window.
+	 *
+	 * @param capacity the maximum number of values in the window
+	 */
+	public SlidingWindowQuantiles(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be greater than zero");
+		}
+		window = new double[capacity];
+		sorted = new double[capacity];
+		head = capacity - 1;
+	}
+
+	/**
+	 * Adds a value to the window, evicting the oldest value if the window is full.
+	 *
+	 * @param value the value
+	 */
+	public void add(final double value) {
+		head = head == 0 ? window.length - 1 : head - 1;
+		if (size == window.length) {
+			int index = indexOf(window[head]);
+			System.arraycopy(sorted, index + 1, sorted, index, size - index - 1);
+			size--;
+		}
+		window[head] = value;
+		int index = insertionPoint(value);
+		System.arraycopy(sorted, index, sorted, index + 1, size - index);
+		sorted[index] = value;
+		size++;
+	}
+
+	/**
+	 * Replaces the content of the window with the given values.
+	 *
+	 * @param values the values, the most recent first
+	 * @param length the number of values to take
+	 */
+	public void reset(final double[] values, final int length) {
+		if (length > window.length) {
+			throw new IllegalArgumentException("The number of values exceeds the capacity");
+		}
+		head = 0;
+		size = length;
+		System.arraycopy(values, 0, window, 0, length);
+		for (int i = 0; i < length; i++) {
+			double value = values[i];
+			int j = i - 1;
+			while (j >= 0 && Double.compare(sorted[j], value) > 0) {
+				sorted[j + 1] = sorted[j];
+				j--;
+			}
+			sorted[j + 1] = value;
+		}
+	}
+
+	/**
+	 * Brings the window in line with the given values. If the values are the current content of
+	 * the window shifted by one new value, the new value is added incrementally; otherwise the
+	 * window is reset.
+	 *
+	 * @param values the values, the most recent first
+	 */
+	public void update(final double[] values) {
+		int length = Math.min(values.length, window.length);
+		if (length == size && matches(values, 0, length)) {
+			return;
+		}
+		if (length > 0 && length == Math.min(size + 1, window.length)
+				&& matches(values, 1, length - 1)) {
+			add(values[0]);
+			return;
+		}
+		reset(values, length);
+	}
+
+	/**
+	 * Checks whether the values starting at the given offset equal the most recent values of the
+	 * window.
+	 *
+	 * @param values the values, the most recent first
+	 * @param offset the offset of the first value to compare
+	 * @param length the number of values to compare
+	 * @return true, if all the values are equal
+	 */
+	private boolean matches(final double[] values, final int offset, final int length) {
+		for (int i = 0; i < length; i++) {
+			if (Double.compare(values[offset + i], get(i)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the value at the given position in arrival order, where 0 is the most recent value.
+	 *
+	 * @param index the index
+	 * @return the value
+	 */
+	public double get(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int i = head + index;
+		if (i >= window.length) {
+			i -= window.length;
+		}
+		return window[i];
+	}
+
+	/**
+	 * Gets the k-th smallest value of the window.
+	 *
+	 * @param k the zero-based rank
+	 * @return the value
+	 */
+	public double getOrderStatistic(final int k) {
+		if (k < 0 || k >= size) {
+			throw new IndexOutOfBoundsException("Rank: " + k + ", Size: " + size);
+		}
+		return sorted[k];
+	}
+
+	/**
+	 * Gets an estimate of the given percentile of the window.
+	 *
+	 * @param p the percentile, in the range (0, 100]
+	 * @return the percentile
+	 */
+	public double getPercentile(final double p) {
+		if (size == 0) {
+			return Double.NaN;
+		}
+		return estimate(p, size, sorted, 0, 0);
+	}
+
+	/**
+	 * Gets the median of the window.
+	 *
+	 * @return the median
+	 */
+	public double getMedian() {
+		return getPercentile(50);
+	}
+
+	/**
+	 * Gets the median absolute deviation of the window. The deviations from the median form two
+	 * ascending sequences on both sides of the median in the sorted window, so their order
+	 * statistics are found by a binary search over the two sequences.
+	 *
+	 * @return the MAD, or 0 if the window is empty
+	 */
+	public double getMad() {
+		if (size == 0) {
+			return 0;
+		}
+		double median = getMedian();
+		int split = insertionPoint(median);
+		return estimate(50, size, null, median, split);
+	}
+
+	/**
+	 * Gets the interquartile range of the window.
+	 *
+	 * @return the IQR
+	 */
+	public double getIqr() {
+		int q1 = (int) Math.round(0.25 * (size + 1)) - 1;
+		int q3 = (int) Math.round(0.75 * (size + 1)) - 1;
+		return sorted[q3] - sorted[q1];
+	}
+
+	/**
+	 * Gets the number of values in the window.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the capacity of the window.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return window.length;
+	}
+
+	/**
+	 * Estimates a percentile of n ordered values the same way as the default estimation of
+	 * commons-math's Percentile. The values are either the given sorted array or, if it is null, the
+	 * absolute deviations of the window from the given center.
+	 *
+	 * @param p the percentile
+	 * @param n the number of values
+	 * @param values the sorted values, or null to use the deviations from the center
+	 * @param center the center of the deviations
+	 * @param split the number of window values less than the center
+	 * @return the estimate
+	 */
+	private double estimate(
+			final double p,
+			final int n,
+			final double[] values,
+			final double center,
+			final int split) {
+		double pos = p == 100 ? n : p / 100 * (n + 1);
+		double fpos = Math.floor(pos);
+		int intPos = (int) fpos;
+		double dif = pos - fpos;
+		if (pos < 1) {
+			return select(values, center, split, 0);
+		}
+		if (pos >= n) {
+			return select(values, center, split, n - 1);
+		}
+		double lower = select(values, center, split, intPos - 1);
+		double upper = select(values, center, split, intPos);
+		return lower + dif * (upper - lower);
+	}
+
+	/**
+	 * Selects the k-th smallest of either the sorted values or the deviations from the center.
+	 *
+	 * @param values the sorted values, or null to use the deviations from the center
+	 * @param center the center of the deviations
+	 * @param split the number of window values less than the center
+	 * @param k the zero-based rank
+	 * @return the value
+	 */
+	private double select(final double[] values, final double center, final int split, final int k) {
+		if (values != null) {
+			return values[k];
+		}
+		return selectDeviation(center, split, k);
+	}
+
+	/**
+	 * Selects the k-th smallest absolute deviation from the center. The left sequence holds the
+	 * deviations of the values below the center, from the closest one, and the right sequence
+	 * holds the deviations of the remaining values, also from the closest one.
+	 *
+	 * @param center the center
+	 * @param split the number of window values less than the center
+	 * @param k the zero-based rank
+	 * @return the deviation
+	 */
+	private double selectDeviation(final double center, final int split, final int k) {
+		int leftLength = split;
+		int rightLength = size - split;
+		// i is the number of values taken from the left sequence
+		int low = Math.max(0, k + 1 - rightLength);
+		int high = Math.min(k + 1, leftLength);
+		while (low < high) {
+			int i = (low + high) >>> 1;
+			int j = k + 1 - i;
+			if (leftDeviation(center, split, i) < rightDeviation(center, split, j - 1)) {
+				low = i + 1;
+			} else {
+				high = i;
+			}
+		}
+		int i = low;
+		int j = k + 1 - i;
+		double value = Double.NEGATIVE_INFINITY;
+		if (i > 0) {
+			value = leftDeviation(center, split, i - 1);
+		}
+		if (j > 0) {
+			value = Math.max(value, rightDeviation(center, split, j - 1));
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the i-th deviation of the left sequence.
+	 *
+	 * @param center the center
+	 * @param split the number of window values less than the center
+	 * @param i the index
+	 * @return the deviation
+	 */
+	private double leftDeviation(final double center, final int split, final int i) {
+		return Math.abs(center - sorted[split - 1 - i]);
+	}
+
+	/**
+	 * Gets the j-th deviation of the right sequence.
+	 *
+	 * @param center the center
+	 * @param split the number of window values less than the center
+	 * @param j the index
+	 * @return the deviation
+	 */
+	private double rightDeviation(final double center, final int split, final int j) {
+		return Math.abs(center - sorted[split + j]);
+	}
+
+	/**
+	 * Finds the position of a value in the sorted array.
+	 *
+	 * @param value the value
+	 * @return the index
+	 */
+	private int indexOf(final double value) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = Double.compare(sorted[mid], value);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		throw new IllegalStateException("The value " + value + " is not in the window");
+	}
+
+	/**
+	 * Finds the number of values in the sorted array that are less than the given value.
+	 *
+	 * @param value the value
+	 * @return the insertion point
+	 */
+	private int insertionPoint(final double value) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (Double.compare(sorted[mid], value) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+}
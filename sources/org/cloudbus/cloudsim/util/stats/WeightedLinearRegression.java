@@ -0,0 +1,202 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util.stats;
+
+/**
+ * Simple weighted least squares regression y = intercept + slope * x, maintained by rank-one
+ * updates. Observations can be added and removed in O(1), so the regression can follow a sliding
+ * window without being refitted from scratch.
+ *
+ * The sums are kept centered on the weighted means (West's algorithm), which for unit weights
+ * performs exactly the same floating point operations as commons-math's SimpleRegression, so both
+ * produce identical estimates for the same sequence of added observations.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class WeightedLinearRegression {
+
+	/** The number of observations. */
+	private int n;
+
+	/** The sum of the weights. */
+	private double sumW;
+
+	/** The weighted sum of x. */
+	private double sumX;
+
+	/** The weighted sum of y. */
+	private double sumY;
+
+	/** The weighted mean of x. */
+	private double xbar;
+
+	/** The weighted mean of y. */
+	private double ybar;
+
+	/** The weighted sum of squared deviations of x. */
+	private double sumXX;
+
+	/** The weighted sum of cross products of the deviations of x and y. */
+	private double sumXY;
+
+	/**
+	 * Adds an observation with unit weight.
+	 *
+	 * @param x the x
+	 * @param y the y
+	 */
+	public void addData(final double x, final double y) {
+		addData(x, y, 1);
+	}
+
+	/**
+	 * Adds a weighted observation.
+	 *
+	 * @param x the x
+	 * @param y the y
+	 * @param weight the weight, must be positive
+	 */
+	public void addData(final double x, final double y, final double weight) {
+		if (n == 0) {
+			xbar = x;
+			ybar = y;
+		} else {
+			double fact1 = sumW + weight;
+			double fact2 = weight * sumW / fact1;
+			double dx = x - xbar;
+			double dy = y - ybar;
+			sumXX += dx * dx * fact2;
+			sumXY += dx * dy * fact2;
+			xbar += dx * weight / fact1;
+			ybar += dy * weight / fact1;
+		}
+		sumW += weight;
+		sumX += x * weight;
+		sumY += y * weight;
+		n++;
+	}
+
+	/**
+	 * Removes a weighted observation that has previously been added (rank-one downdate).
+	 *
+	 * @param x the x
+	 * @param y the y
+	 * @param weight the weight the observation has been added with
+	 */
+	public void removeData(final double x, final double y, final double weight) {
+		if (n <= 1) {
+			clear();
+			return;
+		}
+		double fact1 = sumW - weight;
+		double fact2 = weight * sumW / fact1;
+		double dx = x - xbar;
+		double dy = y - ybar;
+		sumXX -= dx * dx * fact2;
+		sumXY -= dx * dy * fact2;
+		xbar -= dx * weight / fact1;
+		ybar -= dy * weight / fact1;
+		sumW = fact1;
+		sumX -= x * weight;
+		sumY -= y * weight;
+		n--;
+	}
+
+	/**
+	 * Removes all the observations.
+	 */
+	public void clear() {
+		n = 0;
+		sumW = 0;
+		sumX = 0;
+		sumY = 0;
+		xbar = 0;
+		ybar = 0;
+		sumXX = 0;
+		sumXY = 0;
+	}
+
+	/**
+	 * Gets the slope.
+	 *
+	 * @return the slope, or NaN if it cannot be estimated
+	 */
+	public double getSlope() {
+		if (n < 2 || Math.abs(sumXX) < 10 * Double.MIN_VALUE) {
+			return Double.NaN;
+		}
+		return sumXY / sumXX;
+	}
+
+	/**
+	 * Gets the intercept.
+	 *
+	 * @return the intercept
+	 */
+	public double getIntercept() {
+		return getIntercept(getSlope());
+	}
+
+	/**
+	 * Gets the intercept for the given slope.
+	 *
+	 * @param slope the slope
+	 * @return the intercept
+	 */
+	private double getIntercept(final double slope) {
+		return (sumY - slope * sumX) / sumW;
+	}
+
+	/**
+	 * Predicts y for the given x.
+	 *
+	 * @param x the x
+	 * @return the predicted y
+	 */
+	public double predict(final double x) {
+		double slope = getSlope();
+		return getIntercept(slope) + slope * x;
+	}
+
+	/**
+	 * Gets the parameter estimates: the intercept and the slope.
+	 *
+	 * @return the parameter estimates
+	 * @throws IllegalArgumentException if there are less than 3 observations
+	 */
+	public double[] getParameterEstimates() throws IllegalArgumentException {
+		if (n < 3) {
+			throw new IllegalArgumentException("Not enough data (" + n
+					+ " rows) for this many predictors (1 predictors)");
+		}
+		if (Math.abs(sumXX) > Double.MIN_NORMAL) {
+			return new double[] { getIntercept(), getSlope() };
+		}
+		return new double[] { sumY / sumW, Double.NaN };
+	}
+
+	/**
+	 * Gets the number of observations.
+	 *
+	 * @return the number of observations
+	 */
+	public int getN() {
+		return n;
+	}
+
+	/**
+	 * Gets the sum of the weights.
+	 *
+	 * @return the sum of the weights
+	 */
+	public double getSumOfWeights() {
+		return sumW;
+	}
+
+}